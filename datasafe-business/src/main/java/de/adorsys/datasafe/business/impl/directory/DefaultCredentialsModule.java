@@ -1,27 +1,26 @@
 package de.adorsys.datasafe.business.impl.directory;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import dagger.Binds;
+import dagger.BindsOptionalOf;
 import dagger.Module;
 import dagger.Provides;
 import de.adorsys.datasafe.directory.api.profile.dfs.BucketAccessService;
 import de.adorsys.datasafe.directory.api.profile.keys.PrivateKeyService;
 import de.adorsys.datasafe.directory.api.profile.keys.PublicKeyService;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
 import de.adorsys.datasafe.directory.impl.profile.dfs.BucketAccessServiceImplRuntimeDelegatable;
 import de.adorsys.datasafe.directory.impl.profile.keys.DFSPrivateKeyServiceImplRuntimeDelegatable;
 import de.adorsys.datasafe.directory.impl.profile.keys.DFSPublicKeyServiceImplRuntimeDelegatable;
 import de.adorsys.datasafe.directory.impl.profile.keys.DefaultKeyStoreCacheRuntimeDelegatable;
+import de.adorsys.datasafe.directory.impl.profile.keys.DefaultUnlockedKeyCacheRuntimeDelegatable;
 import de.adorsys.datasafe.directory.impl.profile.keys.KeyStoreCache;
-import de.adorsys.datasafe.encrypiton.api.types.UserID;
-import de.adorsys.datasafe.encrypiton.api.types.keystore.PublicKeyIDWithPublicKey;
+import de.adorsys.datasafe.directory.impl.profile.keys.UnlockedKeyCache;
+import de.adorsys.datasafe.encrypiton.api.pathencryption.encryption.SymmetricPathEncryptionService;
 import de.adorsys.datasafe.types.api.context.overrides.OverridesRegistry;
 
 import javax.annotation.Nullable;
 import javax.inject.Singleton;
-import java.security.KeyStore;
-import java.util.List;
-import java.util.function.Supplier;
+import java.util.Optional;
 
 /**
  * This module is responsible for credentials access - either user or dfs.
@@ -30,23 +29,36 @@ import java.util.function.Supplier;
 public abstract class DefaultCredentialsModule {
 
     /**
-     * Default keystore and public key Guava-based cache.
+     * Default keystore and public key Guava-based cache, bounded and expiring as specified by
+     * {@link UserCacheConfig}.
      */
     @Provides
     @Singleton
-    static KeyStoreCache keyStoreCache(@Nullable OverridesRegistry registry) {
-        Supplier<Cache<UserID, KeyStore>> cacheKeystore = () -> CacheBuilder.newBuilder()
-                .initialCapacity(1000)
-                .build();
+    static KeyStoreCache keyStoreCache(@Nullable OverridesRegistry registry, @Nullable UserCacheConfig config) {
+        return new DefaultKeyStoreCacheRuntimeDelegatable(
+                registry,
+                null == config ? UserCacheConfig.defaults() : config
+        );
+    }
 
-        Supplier<Cache<UserID, List<PublicKeyIDWithPublicKey>>> cachePubKeys = () -> CacheBuilder.newBuilder()
-                .initialCapacity(1000)
-                .build();
+    /**
+     * Path encryption is not part of every graph that uses this module.
+     */
+    @BindsOptionalOf
+    abstract SymmetricPathEncryptionService optionalPathEncryption();
 
-        return new DefaultKeyStoreCacheRuntimeDelegatable(
+    /**
+     * Default size and time bounded cache of unlocked private and secret keys, sealed if
+     * {@link UserCacheConfig#isSealUnlockedKeys()}. Invalidating user keys also drops path segments cached for them.
+     */
+    @Provides
+    @Singleton
+    static UnlockedKeyCache unlockedKeyCache(@Nullable OverridesRegistry registry, @Nullable UserCacheConfig config,
+                                             Optional<SymmetricPathEncryptionService> pathEncryption) {
+        return new DefaultUnlockedKeyCacheRuntimeDelegatable(
                 registry,
-                cachePubKeys.get().asMap(),
-                cacheKeystore.get().asMap()
+                null == config ? UserCacheConfig.defaults() : config,
+                pathEncryption.orElse(null)
         );
     }
 
@@ -1,7 +1,5 @@
 package de.adorsys.datasafe.business.impl.directory;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import dagger.Binds;
 import dagger.Module;
 import dagger.Provides;
@@ -9,18 +7,20 @@ import de.adorsys.datasafe.directory.api.profile.operations.ProfileOperations;
 import de.adorsys.datasafe.directory.api.profile.operations.ProfileRegistrationService;
 import de.adorsys.datasafe.directory.api.profile.operations.ProfileRemovalService;
 import de.adorsys.datasafe.directory.api.profile.operations.ProfileRetrievalService;
+import de.adorsys.datasafe.directory.api.profile.operations.UserWarmUpService;
 import de.adorsys.datasafe.directory.api.resource.ResourceResolver;
-import de.adorsys.datasafe.directory.api.types.UserPrivateProfile;
-import de.adorsys.datasafe.directory.api.types.UserPublicProfile;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
 import de.adorsys.datasafe.directory.impl.profile.operations.DFSBasedProfileStorageImplRuntimeDelegatable;
-import de.adorsys.datasafe.directory.impl.profile.operations.DefaultUserProfileCache;
+import de.adorsys.datasafe.directory.impl.profile.operations.DefaultUserProfileCacheRuntimeDelegatable;
 import de.adorsys.datasafe.directory.impl.profile.operations.UserProfileCache;
 import de.adorsys.datasafe.directory.impl.profile.operations.actions.ProfileRegistrationServiceImplRuntimeDelegatable;
 import de.adorsys.datasafe.directory.impl.profile.operations.actions.ProfileRemovalServiceImplRuntimeDelegatable;
 import de.adorsys.datasafe.directory.impl.profile.operations.actions.ProfileRetrievalServiceImplRuntimeDelegatable;
+import de.adorsys.datasafe.directory.impl.profile.operations.actions.UserWarmUpServiceImplRuntimeDelegatable;
 import de.adorsys.datasafe.directory.impl.profile.resource.ResourceResolverImplRuntimeDelegatable;
-import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.types.api.context.overrides.OverridesRegistry;
 
+import javax.annotation.Nullable;
 import javax.inject.Singleton;
 
 /**
@@ -30,19 +30,16 @@ import javax.inject.Singleton;
 public abstract class DefaultProfileModule {
 
     /**
-     * Default Guava-based user profile cache for public and private profile.
+     * Default Guava-based user profile cache for public and private profile, bounded and expiring as specified by
+     * {@link UserCacheConfig}.
      */
     @Provides
     @Singleton
-    static UserProfileCache userProfileCache() {
-        Cache<UserID, UserPublicProfile> publicProfileCache = CacheBuilder.newBuilder()
-                .initialCapacity(1000)
-                .build();
-        Cache<UserID, UserPrivateProfile> privateProfileCache = CacheBuilder.newBuilder()
-                .initialCapacity(1000)
-                .build();
-
-        return new DefaultUserProfileCache(publicProfileCache.asMap(), privateProfileCache.asMap());
+    static UserProfileCache userProfileCache(@Nullable OverridesRegistry registry, @Nullable UserCacheConfig config) {
+        return new DefaultUserProfileCacheRuntimeDelegatable(
+                registry,
+                null == config ? UserCacheConfig.defaults() : config
+        );
     }
 
     /**
@@ -63,6 +60,12 @@ public abstract class DefaultProfileModule {
     @Binds
     abstract ProfileRemovalService removalService(ProfileRemovalServiceImplRuntimeDelegatable impl);
 
+    /**
+     * Default warm-up service that reads profiles and keys of the user concurrently.
+     */
+    @Binds
+    abstract UserWarmUpService warmUpService(UserWarmUpServiceImplRuntimeDelegatable impl);
+
     /**
      * Resource resolver that simply prepends relevant path segment from profile based on location type.
      */
@@ -7,6 +7,8 @@ import de.adorsys.datasafe.encrypiton.api.pathencryption.PathEncryption;
 import de.adorsys.datasafe.encrypiton.api.pathencryption.encryption.SymmetricPathEncryptionService;
 import de.adorsys.datasafe.encrypiton.impl.pathencryption.*;
 
+import javax.inject.Singleton;
+
 /**
  * This module is responsible for providing pathencryption of document.
  */
@@ -22,9 +24,11 @@ public abstract class DefaultPathEncryptionModule {
     }
 
     /**
-     * Default path encryption that uses Base64-urlsafe path serialization
+     * Default path encryption that uses Base64-urlsafe path serialization, shared by all services built by
+     * the component, so that its derived keys and per-thread ciphers are reused across requests.
      */
     @Binds
+    @Singleton
     abstract PathEncryptionConfig config(DefaultPathEncryptionRuntimeDelegatable config);
 
     /**
@@ -36,8 +40,13 @@ public abstract class DefaultPathEncryptionModule {
     abstract PathEncryption pathEncryption(PathEncryptionImplRuntimeDelegatable impl);
 
     /**
-     * Default symmetric path encryption that encrypts URI segment-by-segment.
+     * Default symmetric path encryption that encrypts URI segment-by-segment and caches encrypted segments.
+     * Single instance per component, so that unlocked key cache drops segments from the same cache requests use.
      */
-    @Binds
-    abstract SymmetricPathEncryptionService bucketPathEncryptionService(SymmetricPathEncryptionServiceImplRuntimeDelegatable impl);
+    @Provides
+    @Singleton
+    static SymmetricPathEncryptionService bucketPathEncryptionService(
+            SymmetricPathEncryptionServiceImplRuntimeDelegatable impl) {
+        return new CachingSymmetricPathEncryptionService(impl);
+    }
 }
@@ -44,6 +44,12 @@ public abstract class DefaultPrivateActionsModule {
     @Binds
     abstract RemoveFromPrivate removeFromPrivate(RemoveFromPrivateImplRuntimeDelegatable impl);
 
+    /**
+     * Copies and moves files within user private storage, only path of the file gets encrypted again.
+     */
+    @Binds
+    abstract CopyInPrivate copyInPrivate(CopyInPrivateImplRuntimeDelegatable impl);
+
     /**
      * Aggregate view of operations that can be done on privatespace.
      */
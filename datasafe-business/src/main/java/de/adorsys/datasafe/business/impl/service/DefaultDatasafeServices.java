@@ -13,6 +13,11 @@ import de.adorsys.datasafe.business.impl.privatestore.actions.DefaultPrivateActi
 import de.adorsys.datasafe.business.impl.storage.DefaultStorageModule;
 import de.adorsys.datasafe.directory.api.config.DFSConfig;
 import de.adorsys.datasafe.directory.api.profile.operations.ProfileOperations;
+import de.adorsys.datasafe.directory.api.profile.operations.UserWarmUpService;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
+import de.adorsys.datasafe.directory.impl.profile.keys.KeyStoreCache;
+import de.adorsys.datasafe.directory.impl.profile.keys.UnlockedKeyCache;
+import de.adorsys.datasafe.directory.impl.profile.operations.UserProfileCache;
 import de.adorsys.datasafe.inbox.api.InboxService;
 import de.adorsys.datasafe.privatestore.api.PrivateSpaceService;
 import de.adorsys.datasafe.storage.api.StorageService;
@@ -55,6 +60,26 @@ public interface DefaultDatasafeServices {
      */
     ProfileOperations userProfile();
 
+    /**
+     * Cache of unlocked users' keys, use it to drop keys on logout or password change and to read its statistics.
+     */
+    UnlockedKeyCache unlockedKeys();
+
+    /**
+     * Cache of users' keystores and public keys, use it to drop them on key change and to read its statistics.
+     */
+    KeyStoreCache keyStoreCache();
+
+    /**
+     * Cache of users' profiles, use it to drop them on profile change and to read its statistics.
+     */
+    UserProfileCache profileCache();
+
+    /**
+     * Prefetches users' profiles and keys concurrently, call it as soon as user is known to speed up first request.
+     */
+    UserWarmUpService userWarmUp();
+
     /**
      * Binds DFS connection (for example filesystem, minio) and system storage and access
      */
@@ -82,6 +107,13 @@ public interface DefaultDatasafeServices {
         @BindsInstance
         Builder overridesRegistry(@Nullable OverridesRegistry overridesRegistry);
 
+        /**
+         * Configures limits and expiration of keystore, public keys and profile caches.
+         * @param cacheConfig Cache configuration, if not set {@link UserCacheConfig#defaults()} are used
+         */
+        @BindsInstance
+        Builder userCacheConfig(@Nullable UserCacheConfig cacheConfig);
+
         /**
          * @return Provide NEW instance of <b>Standard Datasafe</b> services. All dependencies except
          * annotated with {@code @Singleton} will have scope analogous to Spring {code @Prototype}.
@@ -14,6 +14,11 @@ import de.adorsys.datasafe.business.impl.privatestore.actions.DefaultVersionedPr
 import de.adorsys.datasafe.business.impl.storage.DefaultStorageModule;
 import de.adorsys.datasafe.directory.api.config.DFSConfig;
 import de.adorsys.datasafe.directory.api.profile.operations.ProfileOperations;
+import de.adorsys.datasafe.directory.api.profile.operations.UserWarmUpService;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
+import de.adorsys.datasafe.directory.impl.profile.keys.KeyStoreCache;
+import de.adorsys.datasafe.directory.impl.profile.keys.UnlockedKeyCache;
+import de.adorsys.datasafe.directory.impl.profile.operations.UserProfileCache;
 import de.adorsys.datasafe.inbox.api.InboxService;
 import de.adorsys.datasafe.metainfo.version.api.version.VersionedPrivateSpaceService;
 import de.adorsys.datasafe.metainfo.version.impl.version.latest.DefaultVersionInfoServiceImpl;
@@ -70,6 +75,27 @@ public interface VersionedDatasafeServices {
      */
     ProfileOperations userProfile();
 
+    /**
+     * @return Cache of unlocked users' keys, use it to drop keys on logout or password change and to read
+     * its statistics.
+     */
+    UnlockedKeyCache unlockedKeys();
+
+    /**
+     * Cache of users' keystores and public keys, use it to drop them on key change and to read its statistics.
+     */
+    KeyStoreCache keyStoreCache();
+
+    /**
+     * Cache of users' profiles, use it to drop them on profile change and to read its statistics.
+     */
+    UserProfileCache profileCache();
+
+    /**
+     * Prefetches users' profiles and keys concurrently, call it as soon as user is known to speed up first request.
+     */
+    UserWarmUpService userWarmUp();
+
     /**
      * Binds DFS connection (for example filesystem, minio) and system storage and access
      */
@@ -97,6 +123,13 @@ public interface VersionedDatasafeServices {
         @BindsInstance
         Builder overridesRegistry(@Nullable OverridesRegistry overridesRegistry);
 
+        /**
+         * Configures limits and expiration of keystore, public keys and profile caches.
+         * @param cacheConfig Cache configuration, if not set {@link UserCacheConfig#defaults()} are used
+         */
+        @BindsInstance
+        Builder userCacheConfig(@Nullable UserCacheConfig cacheConfig);
+
         /**
          * @return Provide NEW instance of <b>Software-versioned Datasafe</b> services. All dependencies except
          * annotated with {@code @Singleton} will have scope analogous to Spring {code @Prototype}.
@@ -22,4 +22,7 @@ public abstract class DefaultStorageModule {
 
     @Binds
     abstract StorageCheckService checkService(StorageService storageService);
+
+    @Binds
+    abstract StorageCopyService copyService(StorageService storageService);
 }
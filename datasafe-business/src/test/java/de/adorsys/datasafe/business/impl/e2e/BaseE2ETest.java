@@ -14,6 +14,7 @@ import de.adorsys.datasafe.inbox.api.actions.ListInbox;
 import de.adorsys.datasafe.inbox.api.actions.ReadFromInbox;
 import de.adorsys.datasafe.inbox.api.actions.RemoveFromInbox;
 import de.adorsys.datasafe.inbox.api.actions.WriteToInbox;
+import de.adorsys.datasafe.privatestore.api.actions.CopyInPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.ReadFromPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.RemoveFromPrivate;
@@ -60,6 +61,7 @@ public abstract class BaseE2ETest extends WithStorageProvider {
     protected ReadFromPrivate readFromPrivate;
     protected WriteToPrivate writeToPrivate;
     protected RemoveFromPrivate removeFromPrivate;
+    protected CopyInPrivate copyInPrivate;
     protected ReadFromInbox readFromInbox;
     protected ListInbox listInbox;
     protected WriteToInbox writeToInbox;
@@ -77,6 +79,7 @@ public abstract class BaseE2ETest extends WithStorageProvider {
         this.readFromPrivate = datasafeServices.privateService();
         this.writeToPrivate = datasafeServices.privateService();
         this.removeFromPrivate = datasafeServices.privateService();
+        this.copyInPrivate = datasafeServices.privateService();
         this.readFromInbox = datasafeServices.inboxService();
         this.listInbox = datasafeServices.inboxService();
         this.writeToInbox = datasafeServices.inboxService();
@@ -92,6 +95,7 @@ public abstract class BaseE2ETest extends WithStorageProvider {
         this.readFromPrivate = datasafeServices.latestPrivate();
         this.writeToPrivate = datasafeServices.latestPrivate();
         this.removeFromPrivate = datasafeServices.latestPrivate();
+        this.copyInPrivate = datasafeServices.latestPrivate();
         this.readFromInbox = datasafeServices.inboxService();
         this.listInbox = datasafeServices.inboxService();
         this.writeToInbox = datasafeServices.inboxService();
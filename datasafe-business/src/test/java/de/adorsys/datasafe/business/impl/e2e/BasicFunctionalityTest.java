@@ -4,10 +4,14 @@ import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.types.api.actions.CopyRequest;
+import de.adorsys.datasafe.types.api.actions.ListContinuation;
+import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.WriteRequest;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.Uri;
 import lombok.SneakyThrows;
@@ -17,9 +21,12 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.testcontainers.shaded.com.google.common.collect.ImmutableSet;
 
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -124,6 +131,50 @@ class BasicFunctionalityTest extends BaseE2ETest {
         removeFromInbox(john, inboxJohn.getResource().asPrivate());
     }
 
+    @ParameterizedTest
+    @MethodSource("allStorages")
+    void copyAndMoveInPrivate(WithStorageProvider.StorageDescriptor descriptor) {
+        init(descriptor);
+        john = registerUser("john");
+        writeDataToPrivate(john, PRIVATE_FILE_PATH, MESSAGE_ONE);
+
+        copyInPrivate.copy(CopyRequest.forDefaultPrivate(john, PRIVATE_FILE_PATH, "copy/" + PRIVATE_FILE));
+        copyInPrivate.move(CopyRequest.forDefaultPrivate(john, PRIVATE_FILE_PATH, "moved/" + PRIVATE_FILE));
+
+        assertThat(getAllFilesInPrivate(john))
+                .extracting(it -> it.getResource().asPrivate().decryptedPath().toASCIIString())
+                .containsExactlyInAnyOrder("copy/" + PRIVATE_FILE, "moved/" + PRIVATE_FILE);
+        assertThat(readFromPrivate.read(ReadRequest.forDefaultPrivate(john, "copy/" + PRIVATE_FILE)))
+                .hasContent(MESSAGE_ONE);
+        assertThat(readFromPrivate.read(ReadRequest.forDefaultPrivate(john, "moved/" + PRIVATE_FILE)))
+                .hasContent(MESSAGE_ONE);
+    }
+
+    @ParameterizedTest
+    @MethodSource("allStorages")
+    void listingInPages(WithStorageProvider.StorageDescriptor descriptor) {
+        init(descriptor);
+        registerJohnAndJane();
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            writeDataToPrivate(jane, "dir" + i % 3 + "/file" + i, MESSAGE_ONE);
+            writeDataToInbox(jane, "inbox/file" + i, MESSAGE_ONE);
+            written.add("dir" + i % 3 + "/file" + i);
+        }
+
+        List<String> privatePages = new ArrayList<>();
+        List<String> inboxPages = new ArrayList<>();
+        String privateToken = null;
+        String inboxToken = null;
+        do {
+            privateToken = readPage(listPrivate::list, jane, privateToken, privatePages);
+            inboxToken = readPage(listInbox::list, jane, inboxToken, inboxPages);
+        } while (null != privateToken || null != inboxToken);
+
+        assertThat(privatePages).containsExactlyInAnyOrderElementsOf(written).doesNotHaveDuplicates();
+        assertThat(inboxPages).hasSize(7).doesNotHaveDuplicates();
+    }
+
     @ParameterizedTest
     @MethodSource("allStorages")
     void listingValidation(WithStorageProvider.StorageDescriptor descriptor) {
@@ -153,6 +204,22 @@ class BasicFunctionalityTest extends BaseE2ETest {
         assertPrivateSpaceList(jane, "level1/level2/", "level1/level2/file");
     }
 
+    @ParameterizedTest
+    @MethodSource("allStorages")
+    void shallowListingKeepsSubdirectories(WithStorageProvider.StorageDescriptor descriptor) {
+        init(descriptor);
+
+        registerJohnAndJane();
+
+        writeDataToPrivate(jane, "root.file", MESSAGE_ONE);
+        writeDataToPrivate(jane, "level1/file", MESSAGE_ONE);
+        writeDataToPrivate(jane, "level1/level2/file", MESSAGE_ONE);
+
+        assertThat(listShallow(jane, "./")).containsExactlyInAnyOrder("root.file", "level1/");
+        assertThat(listShallow(jane, "level1/")).containsExactlyInAnyOrder("level1/file", "level1/level2/");
+        assertThat(listShallow(jane, "level1/level2")).containsExactly("level1/level2/file");
+    }
+
     @ParameterizedTest
     @MethodSource("allStorages")
     void listingInboxValidation(WithStorageProvider.StorageDescriptor descriptor) {
@@ -182,7 +249,32 @@ class BasicFunctionalityTest extends BaseE2ETest {
         assertInboxSpaceList(jane, "level1/level2/", "level1/level2/file");
     }
 
+    private List<String> listShallow(UserIDAuth owner, String path) {
+        return listPrivate.list(ListRequest.forDefaultPrivate(owner, path).toBuilder().shallow(true).build())
+                .map(it -> it.getResource().asPrivate().decryptedPath().toASCIIString())
+                .collect(Collectors.toList());
+    }
+
     @SneakyThrows
+    // reads page of 3 into listed, returns next page token
+    private static String readPage(
+            Function<ListRequest<UserIDAuth, PrivateResource>, Stream<AbsoluteLocation<ResolvedResource>>> listing,
+            UserIDAuth owner, String token, List<String> listed) {
+        if (null == token && !listed.isEmpty()) {
+            return null;
+        }
+
+        List<AbsoluteLocation<ResolvedResource>> page = listing.apply(ListRequest.forDefaultPrivate(owner, "./")
+                .toBuilder()
+                .pageSize(3)
+                .continuationToken(token)
+                .build()
+        ).collect(Collectors.toList());
+
+        page.forEach(it -> listed.add(it.getResource().asPrivate().decryptedPath().toASCIIString()));
+        return page.size() < 3 ? null : ListContinuation.after(page.get(page.size() - 1));
+    }
+
     private void validateInboxStructAndEncryption(AbsoluteLocation<ResolvedResource> expectedInboxResource) {
         List<AbsoluteLocation<ResolvedResource>> inbox = listFiles(it -> it.contains(INBOX_COMPONENT));
 
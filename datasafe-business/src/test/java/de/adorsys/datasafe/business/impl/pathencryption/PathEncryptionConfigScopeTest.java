@@ -0,0 +1,50 @@
+package de.adorsys.datasafe.business.impl.pathencryption;
+
+import de.adorsys.datasafe.business.impl.service.DaggerDefaultDatasafeServices;
+import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
+import de.adorsys.datasafe.directory.impl.profile.config.DefaultDFSConfig;
+import de.adorsys.datasafe.encrypiton.impl.pathencryption.DefaultPathEncryption;
+import de.adorsys.datasafe.encrypiton.impl.pathencryption.DefaultPathEncryptionRuntimeDelegatable;
+import de.adorsys.datasafe.storage.impl.fs.FileSystemStorageService;
+import de.adorsys.datasafe.types.api.context.BaseOverridesRegistry;
+import de.adorsys.datasafe.types.api.context.overrides.OverridesRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Path encryption config holds derived keys and ciphers, services built by the same component must share it.
+ */
+class PathEncryptionConfigScopeTest {
+
+    @Test
+    void configIsSharedByServicesOfComponent(@TempDir Path dir) {
+        List<DefaultPathEncryption> created = new CopyOnWriteArrayList<>();
+        OverridesRegistry registry = new BaseOverridesRegistry();
+        DefaultPathEncryptionRuntimeDelegatable.overrideWith(registry, args -> {
+            DefaultPathEncryption config = new DefaultPathEncryption(args.getConfig());
+            created.add(config);
+            return config;
+        });
+        DefaultDatasafeServices services = DaggerDefaultDatasafeServices.builder()
+                .config(new DefaultDFSConfig(dir.toUri(), "PAZZWORD"))
+                .storage(new FileSystemStorageService(dir))
+                .overridesRegistry(registry)
+                .build();
+
+        services.privateService();
+        services.privateService();
+        services.inboxService();
+
+        assertThat(created).hasSize(1);
+        SecretKey key = new SecretKeySpec(new byte[32], "AES");
+        assertThat(created.get(0).encryptionCipher(key)).isSameAs(created.get(0).encryptionCipher(key));
+    }
+}
@@ -0,0 +1,74 @@
+package de.adorsys.datasafe.business.impl.pathencryption;
+
+import de.adorsys.datasafe.business.impl.service.DaggerDefaultDatasafeServices;
+import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
+import de.adorsys.datasafe.directory.impl.profile.config.DefaultDFSConfig;
+import de.adorsys.datasafe.directory.impl.profile.keys.DefaultUnlockedKeyCache;
+import de.adorsys.datasafe.directory.impl.profile.keys.DefaultUnlockedKeyCacheRuntimeDelegatable;
+import de.adorsys.datasafe.encrypiton.api.pathencryption.encryption.SymmetricPathEncryptionService;
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.encrypiton.impl.pathencryption.CachingSymmetricPathEncryptionService;
+import de.adorsys.datasafe.encrypiton.impl.pathencryption.PathEncryptionImpl;
+import de.adorsys.datasafe.encrypiton.impl.pathencryption.PathEncryptionImplRuntimeDelegatable;
+import de.adorsys.datasafe.storage.impl.fs.FileSystemStorageService;
+import de.adorsys.datasafe.types.api.actions.WriteRequest;
+import de.adorsys.datasafe.types.api.context.BaseOverridesRegistry;
+import de.adorsys.datasafe.types.api.context.overrides.OverridesRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unlocked key cache drops cached path segments of invalidated keys, so it must get the same path encryption
+ * instance that serves requests.
+ */
+class PathEncryptionServiceScopeTest {
+
+    private final UserIDAuth john = new UserIDAuth(new UserID("john"), new ReadKeyPassword("john-password"));
+
+    @Test
+    void unlockedKeyCacheInvalidatesPathEncryptionUsedByRequests(@TempDir Path dir) {
+        List<SymmetricPathEncryptionService> usedByRequests = new CopyOnWriteArrayList<>();
+        List<SymmetricPathEncryptionService> usedByKeyCache = new CopyOnWriteArrayList<>();
+        OverridesRegistry registry = new BaseOverridesRegistry();
+        PathEncryptionImplRuntimeDelegatable.overrideWith(registry, args -> {
+            usedByRequests.add(args.getBucketPathEncryptionService());
+            return new PathEncryptionImpl(args.getBucketPathEncryptionService(), args.getPrivateKeyService());
+        });
+        DefaultUnlockedKeyCacheRuntimeDelegatable.overrideWith(registry, args -> {
+            usedByKeyCache.add(args.getPathEncryption());
+            return new DefaultUnlockedKeyCache(args.getConfig(), args.getPathEncryption());
+        });
+        DefaultDatasafeServices services = DaggerDefaultDatasafeServices.builder()
+                .config(new DefaultDFSConfig(dir.toUri(), "PAZZWORD"))
+                .storage(new FileSystemStorageService(dir))
+                .overridesRegistry(registry)
+                .build();
+
+        services.userProfile().registerUsingDefaults(john);
+        write(services, "documents/file.txt");
+        write(services, "documents/file.txt");
+        services.inboxService();
+
+        assertThat(usedByKeyCache).hasSize(1);
+        assertThat(usedByRequests).isNotEmpty().allSatisfy(it -> assertThat(it).isSameAs(usedByKeyCache.get(0)));
+        CachingSymmetricPathEncryptionService caching = (CachingSymmetricPathEncryptionService) usedByKeyCache.get(0);
+        assertThat(caching.stats().hitCount()).isPositive();
+    }
+
+    @SneakyThrows
+    private void write(DefaultDatasafeServices services, String path) {
+        try (OutputStream os = services.privateService().write(WriteRequest.forDefaultPrivate(john, path))) {
+            os.write(1);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.adorsys.datasafe.business.impl.pathencryption;
+
+import de.adorsys.datasafe.directory.impl.profile.keys.DefaultUnlockedKeyCache;
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.encrypiton.impl.pathencryption.CachingSymmetricPathEncryptionService;
+import de.adorsys.datasafe.encrypiton.impl.pathencryption.DefaultPathDigestConfig;
+import de.adorsys.datasafe.encrypiton.impl.pathencryption.DefaultPathEncryption;
+import de.adorsys.datasafe.encrypiton.impl.pathencryption.SymmetricPathEncryptionServiceImpl;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Path caches are keyed by secret key identity, keys served by sealed unlocked key cache must keep hitting them
+ * and invalidating the keys must drop their cached segments.
+ */
+class SealedKeyPathCacheTest {
+
+    private static final String PATH_KEY_ID = "PATH_SECRET";
+
+    private final UserIDAuth john = new UserIDAuth(new UserID("john"), new ReadKeyPassword("john-password"));
+
+    @Test
+    void sealedKeysHitPathSegmentCache() {
+        DefaultUnlockedKeyCache keys = new DefaultUnlockedKeyCache(10, Duration.ofMinutes(1), true);
+        keys.put(john, PATH_KEY_ID, new SecretKeySpec(new byte[32], "AES"));
+        CachingSymmetricPathEncryptionService pathEncryption = new CachingSymmetricPathEncryptionService(
+                new SymmetricPathEncryptionServiceImpl(new DefaultPathEncryption(new DefaultPathDigestConfig()))
+        );
+
+        Uri encrypted = pathEncryption.encrypt(pathKey(keys), new Uri("documents/file"));
+        pathEncryption.encrypt(pathKey(keys), new Uri("documents/file"));
+        pathEncryption.decrypt(pathKey(keys), encrypted);
+        pathEncryption.decrypt(pathKey(keys), encrypted);
+
+        // both segments on second encryption and on second decryption
+        assertThat(pathEncryption.stats().hitCount()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidatedKeysDropPathSegments() {
+        CachingSymmetricPathEncryptionService pathEncryption = new CachingSymmetricPathEncryptionService(
+                new SymmetricPathEncryptionServiceImpl(new DefaultPathEncryption(new DefaultPathDigestConfig()))
+        );
+        DefaultUnlockedKeyCache keys = new DefaultUnlockedKeyCache(10, Duration.ofMinutes(1), true, pathEncryption);
+        keys.put(john, PATH_KEY_ID, new SecretKeySpec(new byte[32], "AES"));
+        SecretKey pathKey = pathKey(keys);
+        pathEncryption.encrypt(pathKey, new Uri("documents/file"));
+
+        keys.invalidate(john.getUserID());
+        pathEncryption.encrypt(pathKey, new Uri("documents/file"));
+
+        assertThat(pathEncryption.stats().hitCount()).isZero();
+    }
+
+    private SecretKey pathKey(DefaultUnlockedKeyCache keys) {
+        return (SecretKey) keys.get(john, PATH_KEY_ID);
+    }
+}
@@ -11,7 +11,8 @@ public interface ProfileRemovalService {
      * Removes both public and private profile from system associated with user
      * IMPORTANT! Ensure (in case of multi-tenant deployment) that all caches are cleared for removed user:
      * {@code KeyStoreCache}, {@code UserProfileCache} (if used) or use globally unique
-     * username+password combination each time you create new user.
+     * username+password combination each time you create new user. Default implementation removes cached
+     * unlocked keys, keystore, public keys and profiles of the user only on the node that deregistered him.
      * @param userID public and private profile owner
      */
     void deregister(UserIDAuth userID);
@@ -0,0 +1,19 @@
+package de.adorsys.datasafe.directory.api.profile.operations;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Prefetches data that is needed to serve first request of the user - profiles, keystore and public keys.
+ */
+public interface UserWarmUpService {
+
+    /**
+     * Starts reading users' profiles and keys concurrently, so that they are cached when user request comes.
+     * Request that comes before warm-up finishes waits for reads already in progress instead of issuing new ones.
+     * @param forUser User to prefetch data of
+     * @return Future that completes when all data is cached, or completes exceptionally if some read failed
+     */
+    CompletableFuture<Void> warmUp(UserIDAuth forUser);
+}
@@ -0,0 +1,97 @@
+package de.adorsys.datasafe.directory.impl.profile.cache;
+
+import lombok.SneakyThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Loads absent values into the cache so that concurrent loads of the same key share one in-flight future.
+ * Loading runs on the thread of the first caller outside of any cache lock, so a slow load blocks only callers
+ * waiting for the same key. Failed loads are not cached, next caller retries them.
+ */
+public class SingleFlightLoader<K, V> {
+
+    private final ConcurrentMap<K, V> cache;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param cache Map where loaded values are stored
+     */
+    public SingleFlightLoader(ConcurrentMap<K, V> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @param key Key to load
+     * @param loader Reads value, called at most once at a time for the same key
+     * @return Cached or loaded value, {@code null} values are returned but not cached
+     */
+    public V load(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (null != running) {
+            return await(running);
+        }
+
+        try {
+            // value might have been stored by the load that just completed
+            V value = cache.get(key);
+            if (null == value) {
+                value = loader.apply(key);
+                store(key, own, value);
+            }
+
+            own.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            own.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Makes load of the key that is in progress not to store its value in cache, call it before removing
+     * the key from cache.
+     * @param key Key to forget
+     */
+    public void forget(Object key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Forgets all loads in progress.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    // stores value only if load was not forgotten meanwhile, in-flight entry lock orders it with forget
+    private void store(K key, CompletableFuture<V> own, V value) {
+        if (null == value) {
+            return;
+        }
+
+        inFlight.computeIfPresent(key, (id, future) -> {
+            if (future == own) {
+                cache.put(key, value);
+            }
+
+            return future;
+        });
+    }
+
+    @SneakyThrows
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+}
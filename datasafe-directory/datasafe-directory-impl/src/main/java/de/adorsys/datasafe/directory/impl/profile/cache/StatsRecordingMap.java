@@ -0,0 +1,71 @@
+package de.adorsys.datasafe.directory.impl.profile.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.collect.ForwardingConcurrentMap;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Map view of Guava cache that counts hits and misses of {@code get} and {@code computeIfAbsent}, since
+ * Guava records them only for {@link Cache} methods, but cached services use map view.
+ * Absent values of {@code computeIfAbsent} are loaded by {@link SingleFlightLoader}, so that mapping function
+ * does not run under cache lock and runs only once for concurrent callers.
+ */
+public class StatsRecordingMap<K, V> extends ForwardingConcurrentMap<K, V> {
+
+    private final Cache<K, V> cache;
+    private final SingleFlightLoader<K, V> loader;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public StatsRecordingMap(Cache<K, V> cache) {
+        this.cache = cache;
+        this.loader = new SingleFlightLoader<>(cache.asMap());
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = super.get(key);
+        (null == value ? misses : hits).increment();
+        return value;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = super.get(key);
+        if (null != value) {
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+        return loader.load(key, mappingFunction);
+    }
+
+    @Override
+    public V remove(Object key) {
+        loader.forget(key);
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        loader.forgetAll();
+        super.clear();
+    }
+
+    /**
+     * @return Point-in-time snapshot of cache usage.
+     */
+    public UserCacheStats stats() {
+        return new UserCacheStats(hits.sum(), misses.sum(), cache.stats().evictionCount(), cache.size());
+    }
+
+    @Override
+    protected ConcurrentMap<K, V> delegate() {
+        return cache.asMap();
+    }
+}
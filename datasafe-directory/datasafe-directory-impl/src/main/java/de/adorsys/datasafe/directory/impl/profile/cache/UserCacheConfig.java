@@ -0,0 +1,90 @@
+package de.adorsys.datasafe.directory.impl.profile.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits of per-user caches (keystores, public keys, profiles), each cache is bounded separately, and
+ * representation of unlocked keys.
+ */
+@Value
+@Builder(toBuilder = true)
+public class UserCacheConfig {
+
+    /**
+     * Maximum count of users cached, ignored if {@code maximumWeightBytes} is set.
+     */
+    @Builder.Default
+    private final long maximumSize = 10_000;
+
+    /**
+     * Approximate limit of memory occupied by cached entries, 0 - cache is bounded by entry count only.
+     */
+    private final long maximumWeightBytes;
+
+    /**
+     * Entry is removed if it was not read or written for this long, {@code null} - never.
+     */
+    @Builder.Default
+    private final Duration expireAfterAccess = Duration.ofHours(1);
+
+    /**
+     * Entry is removed this long after it was cached even if it is read frequently, {@code null} - never.
+     */
+    private final Duration expireAfterWrite;
+
+    /**
+     * Keep unlocked private and secret keys encrypted under random node master key instead of plain key objects.
+     */
+    private final boolean sealUnlockedKeys;
+
+    /**
+     * @return Default configuration: 10 000 users per cache, entries not used for an hour expire.
+     */
+    public static UserCacheConfig defaults() {
+        return UserCacheConfig.builder().build();
+    }
+
+    /**
+     * Builds cache with statistics recording.
+     * @param weigher Estimates memory occupied by entry in bytes, used only if {@code maximumWeightBytes} is set
+     */
+    public <K, V> Cache<K, V> build(Weigher<? super K, ? super V> weigher) {
+        validate();
+
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+        if (null != expireAfterAccess) {
+            builder.expireAfterAccess(expireAfterAccess.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        if (null != expireAfterWrite) {
+            builder.expireAfterWrite(expireAfterWrite.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        if (maximumWeightBytes > 0) {
+            return builder.maximumWeight(maximumWeightBytes).weigher(weigher).build();
+        }
+
+        return builder.maximumSize(maximumSize).build();
+    }
+
+    private void validate() {
+        if (maximumSize < 0 || maximumWeightBytes < 0) {
+            throw new IllegalArgumentException("Cache limits must not be negative");
+        }
+
+        if (isNegative(expireAfterAccess) || isNegative(expireAfterWrite)) {
+            throw new IllegalArgumentException("Cache expiration must not be negative");
+        }
+    }
+
+    private static boolean isNegative(Duration duration) {
+        return null != duration && duration.isNegative();
+    }
+}
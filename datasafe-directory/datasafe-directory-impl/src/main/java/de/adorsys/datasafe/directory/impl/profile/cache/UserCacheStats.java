@@ -0,0 +1,30 @@
+package de.adorsys.datasafe.directory.impl.profile.cache;
+
+import lombok.Value;
+
+/**
+ * Usage statistics of per-user cache.
+ */
+@Value
+public class UserCacheStats {
+
+    /**
+     * Count of requests served from cache.
+     */
+    private final long hits;
+
+    /**
+     * Count of requests that required reading from storage.
+     */
+    private final long misses;
+
+    /**
+     * Count of entries removed due to size limit or expiration.
+     */
+    private final long evictions;
+
+    /**
+     * Count of currently cached entries.
+     */
+    private final long size;
+}
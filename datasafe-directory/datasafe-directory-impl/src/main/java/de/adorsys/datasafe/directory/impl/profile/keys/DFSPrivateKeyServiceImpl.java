@@ -20,7 +20,10 @@ import javax.inject.Inject;
 import java.io.InputStream;
 import java.security.Key;
 import java.security.KeyStore;
+import java.security.cert.X509Certificate;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -35,6 +38,7 @@ import static de.adorsys.datasafe.encrypiton.api.types.keystore.KeyStoreCreation
 public class DFSPrivateKeyServiceImpl implements PrivateKeyService {
 
     private final KeyStoreCache keystoreCache;
+    private final UnlockedKeyCache unlockedKeys;
     private final KeyStoreService keyStoreService;
     private final DFSConfig dfsConfig;
     private final BucketAccessService bucketAccessService;
@@ -42,11 +46,12 @@ public class DFSPrivateKeyServiceImpl implements PrivateKeyService {
     private final StorageReadService readService;
 
     @Inject
-    public DFSPrivateKeyServiceImpl(KeyStoreCache keystoreCache,
+    public DFSPrivateKeyServiceImpl(KeyStoreCache keystoreCache, UnlockedKeyCache unlockedKeys,
                                     KeyStoreService keyStoreService, DFSConfig dfsConfig,
                                     BucketAccessService bucketAccessService, ProfileRetrievalService profile,
                                     StorageReadService readService) {
         this.keystoreCache = keystoreCache;
+        this.unlockedKeys = unlockedKeys;
         this.keyStoreService = keyStoreService;
         this.dfsConfig = dfsConfig;
         this.bucketAccessService = bucketAccessService;
@@ -77,22 +82,52 @@ public class DFSPrivateKeyServiceImpl implements PrivateKeyService {
     }
 
     /**
-     * Reads private or secret key from DFS and caches the keystore associated with it.
+     * Reads private or secret key from DFS. All decryption keys of the keystore (secret keys and encryption
+     * private keys) are unlocked at once and cached in {@link UnlockedKeyCache}, after that keystore itself is
+     * dropped from {@link KeyStoreCache}, so only compact key material is kept in memory. Keystore is read again
+     * only for keys that were not unlocked with this password yet.
      */
     @Override
     @SneakyThrows
     public Map<String, Key> keysByIds(UserIDAuth forUser, Set<String> keyIds) {
+        Map<String, Key> result = new HashMap<>();
+        Set<String> toUnlock = new HashSet<>();
+        for (String keyId : keyIds) {
+            Key cached = unlockedKeys.get(forUser, keyId);
+            if (null != cached) {
+                result.put(keyId, cached);
+            } else {
+                toUnlock.add(keyId);
+            }
+        }
+
+        if (toUnlock.isEmpty()) {
+            return result;
+        }
+
         KeyStore keyStore = keystoreCache.getKeystore().computeIfAbsent(
                 forUser.getUserID(),
                 userId -> keystore(forUser)
         );
 
-        return keyIds.stream()
+        Set<String> aliases = toUnlock.stream()
                 .filter(keyId -> containsAlias(keyStore, keyId))
-                .collect(Collectors.toMap(
-                        keyId -> keyId,
-                        keyId -> getKey(keyStore, keyId, forUser.getReadKeyPassword()))
-                );
+                .collect(Collectors.toSet());
+        // some keystore types report aliases in lower case, requested key ids are kept as is
+        decryptionKeyAliases(keyStore).stream()
+                .filter(alias -> aliases.stream().noneMatch(alias::equalsIgnoreCase))
+                .forEach(aliases::add);
+
+        for (String alias : aliases) {
+            Key key = getKey(keyStore, alias, forUser.getReadKeyPassword());
+            unlockedKeys.put(forUser, alias, key);
+            if (toUnlock.contains(alias)) {
+                result.put(alias, key);
+            }
+        }
+
+        keystoreCache.getKeystore().remove(forUser.getUserID());
+        return result;
     }
 
     private Key keyById(UserIDAuth forUser, String keyId) {
@@ -118,6 +153,26 @@ public class DFSPrivateKeyServiceImpl implements PrivateKeyService {
         );
     }
 
+    // secret keys and private keys that can decrypt, signing keys are not needed to read documents
+    @SneakyThrows
+    private static Set<String> decryptionKeyAliases(KeyStore keyStore) {
+        Set<String> result = new HashSet<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (!keyStore.isKeyEntry(alias)) {
+                continue;
+            }
+
+            X509Certificate cert = (X509Certificate) keyStore.getCertificate(alias);
+            boolean[] keyUsage = null == cert ? null : cert.getKeyUsage();
+            // keyEncipherment (2), dataEncipherment (3), keyAgreement (4)
+            if (null == keyUsage || keyUsage[2] || keyUsage[3] || keyUsage[4]) {
+                result.add(alias);
+            }
+        }
+
+        return result;
+    }
+
     @SneakyThrows
     private boolean containsAlias(KeyStore keyStore, String alias) {
         return keyStore.containsAlias(alias);
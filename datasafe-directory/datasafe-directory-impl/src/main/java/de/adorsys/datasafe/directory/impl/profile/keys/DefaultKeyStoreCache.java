@@ -1,29 +1,63 @@
 package de.adorsys.datasafe.directory.impl.profile.keys;
 
+import de.adorsys.datasafe.directory.impl.profile.cache.StatsRecordingMap;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheStats;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.PublicKeyIDWithPublicKey;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import lombok.Getter;
+import lombok.SneakyThrows;
 
 import javax.inject.Inject;
 import java.security.KeyStore;
 import java.util.List;
-import java.util.Map;
 
 /**
- * Default map-based private and public keys cache implementation. Quite safe to cache since they change infrequently.
+ * Default Guava-based private and public keys cache implementation. Quite safe to cache since they change
+ * infrequently. Caches are bounded and expire as specified by {@link UserCacheConfig}. Concurrent
+ * {@code computeIfAbsent} calls for the same user read keystore or public keys from storage only once and
+ * outside of cache lock.
  */
 @Getter
 @RuntimeDelegate
 public class DefaultKeyStoreCache implements KeyStoreCache {
 
-    private final Map<UserID, List<PublicKeyIDWithPublicKey>> publicKeys;
-    private final Map<UserID, KeyStore> keystore;
+    // rough in-memory size estimates, used only if cache is bounded by weight
+    private static final int ENTRY_OVERHEAD_BYTES = 1024;
+    private static final int PUBLIC_KEY_BYTES = 1024;
+    private static final int KEYSTORE_ENTRY_BYTES = 4096;
+
+    private final StatsRecordingMap<UserID, List<PublicKeyIDWithPublicKey>> publicKeys;
+    private final StatsRecordingMap<UserID, KeyStore> keystore;
 
     @Inject
-    public DefaultKeyStoreCache(
-            Map<UserID, List<PublicKeyIDWithPublicKey>> publicKeys, Map<UserID, KeyStore> keystore) {
-        this.publicKeys = publicKeys;
-        this.keystore = keystore;
+    public DefaultKeyStoreCache(UserCacheConfig config) {
+        this.publicKeys = new StatsRecordingMap<>(config.build(
+                (UserID id, List<PublicKeyIDWithPublicKey> keys) -> ENTRY_OVERHEAD_BYTES
+                        + PUBLIC_KEY_BYTES * keys.size()
+        ));
+        this.keystore = new StatsRecordingMap<>(config.build(DefaultKeyStoreCache::keystoreWeight));
+    }
+
+    @Override
+    public void invalidate(UserID forUser) {
+        publicKeys.remove(forUser);
+        keystore.remove(forUser);
+    }
+
+    @Override
+    public UserCacheStats publicKeysStats() {
+        return publicKeys.stats();
+    }
+
+    @Override
+    public UserCacheStats keystoreStats() {
+        return keystore.stats();
+    }
+
+    @SneakyThrows
+    private static int keystoreWeight(UserID id, KeyStore keyStore) {
+        return ENTRY_OVERHEAD_BYTES + KEYSTORE_ENTRY_BYTES * keyStore.size();
     }
 }
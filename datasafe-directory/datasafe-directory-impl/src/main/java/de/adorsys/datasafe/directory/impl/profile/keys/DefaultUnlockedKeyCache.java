@@ -0,0 +1,211 @@
+package de.adorsys.datasafe.directory.impl.profile.keys;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
+import de.adorsys.datasafe.encrypiton.api.pathencryption.encryption.SymmetricPathEncryptionService;
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
+import lombok.SneakyThrows;
+import lombok.Value;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.annotation.Nullable;
+import javax.crypto.SecretKey;
+import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default Guava-based unlocked key cache, bounded and expiring as specified by {@link UserCacheConfig} - user
+ * count limit is applied as if each user had {@code KEYS_PER_USER} keys unlocked.
+ * Passwords are not stored, each key is bound to keyed hash of the password it was unlocked with, so a key
+ * is served only to the caller that knows the same password. Optionally keys are kept sealed (encrypted) under
+ * random node master key. Sealed key is restored on access and the restored instance is kept while key is in use
+ * (for {@code UNSEALED_IDLE_TIME} after last access), so that callers that cache by key identity (i.e. derived path
+ * keys) keep hitting their caches and restoring does not happen on every access.
+ * When user keys are invalidated, path segments cached for them by {@link SymmetricPathEncryptionService} are
+ * dropped too. Keys that expire or are evicted are not reported - their cached segments are released once the key
+ * instance is garbage-collected.
+ */
+@RuntimeDelegate
+public class DefaultUnlockedKeyCache implements UnlockedKeyCache {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
+
+    private static final String FINGERPRINT_ALGORITHM = "HmacSHA256";
+    private static final Duration UNSEALED_IDLE_TIME = Duration.ofMinutes(1);
+
+    // decryption keys of typical keystore: encryption private key, path and document secret keys
+    private static final int KEYS_PER_USER = 4;
+
+    // rough in-memory size estimates, used only if cache is bounded by weight
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+    private static final int KEY_BYTES = 2048;
+
+    private final Cache<UnlockedKeyId, UnlockedKey> keys;
+
+    // weak keys - compares entries by identity, restored key is dropped with its entry
+    private final Cache<UnlockedKey, Key> unsealed = CacheBuilder.newBuilder()
+            .weakKeys()
+            .expireAfterAccess(UNSEALED_IDLE_TIME.toNanos(), TimeUnit.NANOSECONDS)
+            .build();
+    private final SecretKey fingerprintKey;
+    private final KeySealer sealer;
+    private final SymmetricPathEncryptionService pathEncryption;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DefaultUnlockedKeyCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TTL);
+    }
+
+    /**
+     * @param config Limits, expiration and whether keys are sealed
+     * @param pathEncryption Path encryption to drop cached segments of invalidated keys from, if any
+     */
+    @Inject
+    public DefaultUnlockedKeyCache(UserCacheConfig config, @Nullable SymmetricPathEncryptionService pathEncryption) {
+        this(
+                config.toBuilder().maximumSize(config.getMaximumSize() * KEYS_PER_USER).build()
+                        .build((UnlockedKeyId id, UnlockedKey key) -> ENTRY_OVERHEAD_BYTES + KEY_BYTES),
+                config.isSealUnlockedKeys(),
+                pathEncryption
+        );
+    }
+
+    /**
+     * @param maximumSize Maximum count of keys cached across all users
+     * @param ttl How long key stays cached after it was unlocked
+     */
+    public DefaultUnlockedKeyCache(long maximumSize, Duration ttl) {
+        this(maximumSize, ttl, false);
+    }
+
+    /**
+     * @param maximumSize Maximum count of keys cached across all users
+     * @param ttl How long key stays cached after it was unlocked
+     * @param sealed Keep keys encrypted under node master key, private keys and raw secret keys are sealed
+     */
+    public DefaultUnlockedKeyCache(long maximumSize, Duration ttl, boolean sealed) {
+        this(maximumSize, ttl, sealed, null);
+    }
+
+    /**
+     * @param maximumSize Maximum count of keys cached across all users
+     * @param ttl How long key stays cached after it was unlocked
+     * @param sealed Keep keys encrypted under node master key, private keys and raw secret keys are sealed
+     * @param pathEncryption Path encryption to drop cached segments of invalidated keys from, if any
+     */
+    public DefaultUnlockedKeyCache(long maximumSize, Duration ttl, boolean sealed,
+                                   @Nullable SymmetricPathEncryptionService pathEncryption) {
+        this(
+                CacheBuilder.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+                        .recordStats()
+                        .build(),
+                sealed,
+                pathEncryption
+        );
+    }
+
+    @SneakyThrows
+    private DefaultUnlockedKeyCache(Cache<UnlockedKeyId, UnlockedKey> keys, boolean sealed,
+                                    SymmetricPathEncryptionService pathEncryption) {
+        this.keys = keys;
+        this.fingerprintKey = KeyGenerator.getInstance(FINGERPRINT_ALGORITHM).generateKey();
+        this.sealer = sealed ? new KeySealer() : null;
+        this.pathEncryption = pathEncryption;
+    }
+
+    @Override
+    public Key get(UserIDAuth forUser, String keyId) {
+        UnlockedKey cached = keys.getIfPresent(new UnlockedKeyId(forUser.getUserID(), keyId));
+        if (null == cached || !MessageDigest.isEqual(cached.getPasswordFingerprint(), fingerprint(forUser))) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return null == cached.getSealedKey() ? cached.getKey() : unseal(cached);
+    }
+
+    @Override
+    public void put(UserIDAuth forUser, String keyId, Key key) {
+        UnlockedKey unlocked = null != sealer && KeySealer.canSeal(key)
+                ? new UnlockedKey(fingerprint(forUser), null, sealer.seal(key))
+                : new UnlockedKey(fingerprint(forUser), key, null);
+        keys.put(new UnlockedKeyId(forUser.getUserID(), keyId), unlocked);
+    }
+
+    @Override
+    public void invalidate(UserID forUser) {
+        keys.asMap().entrySet().removeIf(it -> {
+            if (!it.getKey().getUserID().equals(forUser)) {
+                return false;
+            }
+
+            invalidatePathSegments(it.getValue());
+            unsealed.invalidate(it.getValue());
+            return true;
+        });
+    }
+
+    @Override
+    public UnlockedKeyCacheStats stats() {
+        return new UnlockedKeyCacheStats(
+                hits.sum(),
+                misses.sum(),
+                keys.stats().evictionCount(),
+                keys.size()
+        );
+    }
+
+    // segments are cached by key identity - sealed key is known to callers only by its restored instance
+    private void invalidatePathSegments(UnlockedKey cached) {
+        if (null == pathEncryption) {
+            return;
+        }
+
+        Key key = null == cached.getSealedKey() ? cached.getKey() : unsealed.getIfPresent(cached);
+        if (key instanceof SecretKey) {
+            pathEncryption.invalidate((SecretKey) key);
+        }
+    }
+
+    @SneakyThrows
+    private Key unseal(UnlockedKey cached) {
+        return unsealed.get(cached, () -> sealer.unseal(cached.getSealedKey()));
+    }
+
+    @SneakyThrows
+    private byte[] fingerprint(UserIDAuth forUser) {
+        Mac mac = Mac.getInstance(FINGERPRINT_ALGORITHM);
+        mac.init(fingerprintKey);
+        return mac.doFinal(forUser.getReadKeyPassword().getValue().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Value
+    private static class UnlockedKeyId {
+
+        private final UserID userID;
+        private final String keyId;
+    }
+
+    @Value
+    private static class UnlockedKey {
+
+        private final byte[] passwordFingerprint;
+        private final Key key;
+        private final KeySealer.SealedKey sealedKey;
+    }
+}
@@ -0,0 +1,91 @@
+package de.adorsys.datasafe.directory.impl.profile.keys;
+
+import lombok.SneakyThrows;
+import lombok.Value;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
+
+/**
+ * Encrypts encoded key material under random node master key that never leaves this instance, so that unlocked
+ * keys are not kept in memory in plain form and occupy only their encoded size.
+ */
+class KeySealer {
+
+    private static final String MASTER_KEY_ALGORITHM = "AES";
+    private static final int MASTER_KEY_BITS = 256;
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey masterKey;
+    private final SecureRandom random = new SecureRandom();
+
+    @SneakyThrows
+    KeySealer() {
+        KeyGenerator generator = KeyGenerator.getInstance(MASTER_KEY_ALGORITHM);
+        generator.init(MASTER_KEY_BITS);
+        this.masterKey = generator.generateKey();
+    }
+
+    /**
+     * @return If key can be restored from its encoded form - it is PKCS#8 private key or raw secret key.
+     */
+    static boolean canSeal(Key key) {
+        return key instanceof PrivateKey ? "PKCS#8".equals(key.getFormat()) : "RAW".equals(key.getFormat());
+    }
+
+    @SneakyThrows
+    SealedKey seal(Key key) {
+        if (!canSeal(key)) {
+            throw new IllegalArgumentException("Only PKCS#8 private and raw secret keys can be sealed");
+        }
+
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, iv));
+
+        byte[] encoded = key.getEncoded();
+        try {
+            return new SealedKey(key.getAlgorithm(), key instanceof PrivateKey, iv, cipher.doFinal(encoded));
+        } finally {
+            Arrays.fill(encoded, (byte) 0);
+        }
+    }
+
+    @SneakyThrows
+    Key unseal(SealedKey sealed) {
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, sealed.getIv()));
+
+        byte[] encoded = cipher.doFinal(sealed.getEncrypted());
+        try {
+            if (sealed.isPrivateKey()) {
+                return KeyFactory.getInstance(sealed.getAlgorithm()).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+            }
+
+            return new SecretKeySpec(encoded, sealed.getAlgorithm());
+        } finally {
+            Arrays.fill(encoded, (byte) 0);
+        }
+    }
+
+    @Value
+    static class SealedKey {
+
+        private final String algorithm;
+        private final boolean privateKey;
+        private final byte[] iv;
+        private final byte[] encrypted;
+    }
+}
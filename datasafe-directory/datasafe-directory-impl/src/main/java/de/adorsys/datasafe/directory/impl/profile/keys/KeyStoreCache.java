@@ -1,5 +1,6 @@
 package de.adorsys.datasafe.directory.impl.profile.keys;
 
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheStats;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.PublicKeyIDWithPublicKey;
 
@@ -21,4 +22,20 @@ public interface KeyStoreCache {
      * Cache for users' private/secret keys
      */
     Map<UserID, KeyStore> getKeystore();
+
+    /**
+     * Removes cached keystore and public keys of the user, call it on user removal or when keys are replaced.
+     * @param forUser Keys owner
+     */
+    void invalidate(UserID forUser);
+
+    /**
+     * @return Point-in-time snapshot of public keys cache usage.
+     */
+    UserCacheStats publicKeysStats();
+
+    /**
+     * @return Point-in-time snapshot of keystore cache usage.
+     */
+    UserCacheStats keystoreStats();
 }
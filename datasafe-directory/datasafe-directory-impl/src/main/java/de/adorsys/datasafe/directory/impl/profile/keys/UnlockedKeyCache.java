@@ -0,0 +1,39 @@
+package de.adorsys.datasafe.directory.impl.profile.keys;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+
+import java.security.Key;
+
+/**
+ * Cache of private and secret keys that were already unlocked from users' keystore, so that password-based key
+ * decryption does not happen on each operation. Keys are bound to the password they were unlocked with.
+ */
+public interface UnlockedKeyCache {
+
+    /**
+     * @param forUser Key owner and password that must match the one key was unlocked with
+     * @param keyId Key alias
+     * @return Unlocked key or {@code null} if it is not cached for this user and password
+     */
+    Key get(UserIDAuth forUser, String keyId);
+
+    /**
+     * Caches key that was successfully unlocked using {@code forUser} password.
+     * @param forUser Key owner and password that was used to unlock the key
+     * @param keyId Key alias
+     * @param key Unlocked key
+     */
+    void put(UserIDAuth forUser, String keyId, Key key);
+
+    /**
+     * Removes all keys of the user, call it on logout, password change or user removal.
+     * @param forUser Key owner
+     */
+    void invalidate(UserID forUser);
+
+    /**
+     * @return Point-in-time snapshot of cache usage.
+     */
+    UnlockedKeyCacheStats stats();
+}
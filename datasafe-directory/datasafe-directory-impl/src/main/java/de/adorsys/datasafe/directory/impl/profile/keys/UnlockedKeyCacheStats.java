@@ -0,0 +1,30 @@
+package de.adorsys.datasafe.directory.impl.profile.keys;
+
+import lombok.Value;
+
+/**
+ * Usage statistics of {@link UnlockedKeyCache}.
+ */
+@Value
+public class UnlockedKeyCacheStats {
+
+    /**
+     * Count of key requests served without unlocking the key.
+     */
+    private final long hits;
+
+    /**
+     * Count of key requests that required unlocking the key, including password mismatch.
+     */
+    private final long misses;
+
+    /**
+     * Count of keys removed due to size limit or expiration.
+     */
+    private final long evictions;
+
+    /**
+     * Count of currently cached keys.
+     */
+    private final long size;
+}
@@ -2,27 +2,60 @@ package de.adorsys.datasafe.directory.impl.profile.operations;
 
 import de.adorsys.datasafe.directory.api.types.UserPrivateProfile;
 import de.adorsys.datasafe.directory.api.types.UserPublicProfile;
+import de.adorsys.datasafe.directory.impl.profile.cache.StatsRecordingMap;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheStats;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import lombok.Getter;
 
 import javax.inject.Inject;
-import java.util.Map;
 
 /**
- * Default map-based cache that contains user profiles.
+ * Default Guava-based cache that contains user profiles, bounded and expiring as specified by
+ * {@link UserCacheConfig}. Concurrent {@code computeIfAbsent} calls for the same user read profile from storage
+ * only once and outside of cache lock.
  */
 @Getter
 @RuntimeDelegate
 public class DefaultUserProfileCache implements UserProfileCache {
 
-    private final Map<UserID, UserPublicProfile> publicProfile;
-    private final Map<UserID, UserPrivateProfile> privateProfile;
+    // rough in-memory size estimates, used only if cache is bounded by weight
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+    private static final int LOCATION_BYTES = 512;
+    private static final int PUBLIC_PROFILE_LOCATIONS = 2;
+    private static final int PRIVATE_PROFILE_LOCATIONS = 4;
+
+    private final StatsRecordingMap<UserID, UserPublicProfile> publicProfile;
+    private final StatsRecordingMap<UserID, UserPrivateProfile> privateProfile;
 
     @Inject
-    public DefaultUserProfileCache(Map<UserID, UserPublicProfile> publicProfile,
-                                   Map<UserID, UserPrivateProfile> privateProfile) {
-        this.publicProfile = publicProfile;
-        this.privateProfile = privateProfile;
+    public DefaultUserProfileCache(UserCacheConfig config) {
+        this.publicProfile = new StatsRecordingMap<>(config.build(
+                (UserID id, UserPublicProfile profile) -> ENTRY_OVERHEAD_BYTES
+                        + LOCATION_BYTES * PUBLIC_PROFILE_LOCATIONS
+        ));
+        this.privateProfile = new StatsRecordingMap<>(config.build(DefaultUserProfileCache::privateProfileWeight));
+    }
+
+    @Override
+    public void invalidate(UserID forUser) {
+        publicProfile.remove(forUser);
+        privateProfile.remove(forUser);
+    }
+
+    @Override
+    public UserCacheStats publicProfileStats() {
+        return publicProfile.stats();
+    }
+
+    @Override
+    public UserCacheStats privateProfileStats() {
+        return privateProfile.stats();
+    }
+
+    private static int privateProfileWeight(UserID id, UserPrivateProfile profile) {
+        int associated = null == profile.getAssociatedResources() ? 0 : profile.getAssociatedResources().size();
+        return ENTRY_OVERHEAD_BYTES + LOCATION_BYTES * (PRIVATE_PROFILE_LOCATIONS + associated);
     }
 }
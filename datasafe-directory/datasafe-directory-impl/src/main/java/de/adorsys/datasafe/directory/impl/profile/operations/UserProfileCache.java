@@ -2,6 +2,7 @@ package de.adorsys.datasafe.directory.impl.profile.operations;
 
 import de.adorsys.datasafe.directory.api.types.UserPrivateProfile;
 import de.adorsys.datasafe.directory.api.types.UserPublicProfile;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheStats;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 
 import java.util.Map;
@@ -20,4 +21,20 @@ public interface UserProfileCache {
      * Cache for users' private profile part
      */
     Map<UserID, UserPrivateProfile> getPrivateProfile();
+
+    /**
+     * Removes cached public and private profile of the user, call it on user removal or profile change.
+     * @param forUser Profile owner
+     */
+    void invalidate(UserID forUser);
+
+    /**
+     * @return Point-in-time snapshot of public profile cache usage.
+     */
+    UserCacheStats publicProfileStats();
+
+    /**
+     * @return Point-in-time snapshot of private profile cache usage.
+     */
+    UserCacheStats privateProfileStats();
 }
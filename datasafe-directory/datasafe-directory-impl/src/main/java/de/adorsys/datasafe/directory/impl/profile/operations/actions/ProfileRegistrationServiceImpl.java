@@ -5,6 +5,9 @@ import de.adorsys.datasafe.directory.api.profile.dfs.BucketAccessService;
 import de.adorsys.datasafe.directory.api.profile.operations.ProfileRegistrationService;
 import de.adorsys.datasafe.directory.api.types.CreateUserPrivateProfile;
 import de.adorsys.datasafe.directory.api.types.CreateUserPublicProfile;
+import de.adorsys.datasafe.directory.impl.profile.keys.KeyStoreCache;
+import de.adorsys.datasafe.directory.impl.profile.keys.UnlockedKeyCache;
+import de.adorsys.datasafe.directory.impl.profile.operations.UserProfileCache;
 import de.adorsys.datasafe.directory.impl.profile.serde.GsonSerde;
 import de.adorsys.datasafe.encrypiton.api.keystore.KeyStoreService;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
@@ -34,17 +37,24 @@ public class ProfileRegistrationServiceImpl implements ProfileRegistrationServic
     private final StorageWriteService writeService;
     private final GsonSerde serde;
     private final DFSConfig dfsConfig;
+    private final UserProfileCache profileCache;
+    private final KeyStoreCache keyStoreCache;
+    private final UnlockedKeyCache unlockedKeys;
 
     @Inject
     ProfileRegistrationServiceImpl(KeyStoreService keyStoreService, BucketAccessService access,
                                           StorageCheckService checkService, StorageWriteService writeService,
-                                          GsonSerde serde, DFSConfig dfsConfig) {
+                                          GsonSerde serde, DFSConfig dfsConfig, UserProfileCache profileCache,
+                                          KeyStoreCache keyStoreCache, UnlockedKeyCache unlockedKeys) {
         this.keyStoreService = keyStoreService;
         this.access = access;
         this.checkService = checkService;
         this.writeService = writeService;
         this.serde = serde;
         this.dfsConfig = dfsConfig;
+        this.profileCache = profileCache;
+        this.keyStoreCache = keyStoreCache;
+        this.unlockedKeys = unlockedKeys;
     }
 
     /**
@@ -59,6 +69,8 @@ public class ProfileRegistrationServiceImpl implements ProfileRegistrationServic
         try (OutputStream os = writeService.write(access.withSystemAccess(dfsConfig.publicProfile(profile.getId())))) {
             os.write(serde.toJson(profile.removeAccess()).getBytes());
         }
+
+        profileCache.getPublicProfile().remove(profile.getId());
     }
 
     /**
@@ -77,6 +89,7 @@ public class ProfileRegistrationServiceImpl implements ProfileRegistrationServic
             os.write(serde.toJson(profile.removeAccess()).getBytes());
         }
 
+        profileCache.getPrivateProfile().remove(profile.getId().getUserID());
         if (checkService.objectExists(access.withSystemAccess(profile.getKeystore()))) {
             log.warn("Keystore already exists for {} at {}, will not create new",
                     profile.getId().getUserID(), Obfuscate.secure(profile.getKeystore()));
@@ -117,6 +130,10 @@ public class ProfileRegistrationServiceImpl implements ProfileRegistrationServic
         }
         log.debug("Keystore created for user {} in path {}", forUser, keystore);
 
+        // keys of previous keystore, if any, are no longer valid
+        keyStoreCache.invalidate(forUser);
+        unlockedKeys.invalidate(forUser);
+
         return keyStoreService.getPublicKeys(new KeyStoreAccess(keystoreBlob, auth));
     }
 
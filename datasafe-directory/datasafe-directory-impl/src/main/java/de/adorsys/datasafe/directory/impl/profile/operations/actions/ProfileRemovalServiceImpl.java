@@ -7,6 +7,9 @@ import de.adorsys.datasafe.directory.api.profile.operations.ProfileRetrievalServ
 import de.adorsys.datasafe.directory.api.types.UserPrivateProfile;
 import de.adorsys.datasafe.directory.api.types.UserPublicProfile;
 import de.adorsys.datasafe.directory.impl.profile.exceptions.UserNotFoundException;
+import de.adorsys.datasafe.directory.impl.profile.keys.KeyStoreCache;
+import de.adorsys.datasafe.directory.impl.profile.keys.UnlockedKeyCache;
+import de.adorsys.datasafe.directory.impl.profile.operations.UserProfileCache;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.storage.api.actions.StorageListService;
 import de.adorsys.datasafe.storage.api.actions.StorageRemoveService;
@@ -14,6 +17,7 @@ import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
@@ -28,15 +32,23 @@ public class ProfileRemovalServiceImpl implements ProfileRemovalService {
     private final DFSConfig dfsConfig;
     private final StorageRemoveService removeService;
     private final ProfileRetrievalService retrievalService;
+    private final UnlockedKeyCache unlockedKeys;
+    private final KeyStoreCache keyStoreCache;
+    private final UserProfileCache profileCache;
 
     @Inject
     ProfileRemovalServiceImpl(StorageListService listService, BucketAccessService access, DFSConfig dfsConfig,
-                                     StorageRemoveService removeService, ProfileRetrievalService retrievalService) {
+                              StorageRemoveService removeService, ProfileRetrievalService retrievalService,
+                              UnlockedKeyCache unlockedKeys, KeyStoreCache keyStoreCache,
+                              UserProfileCache profileCache) {
         this.listService = listService;
         this.access = access;
         this.dfsConfig = dfsConfig;
         this.removeService = removeService;
         this.retrievalService = retrievalService;
+        this.unlockedKeys = unlockedKeys;
+        this.keyStoreCache = keyStoreCache;
+        this.profileCache = profileCache;
     }
 
     /**
@@ -56,29 +68,36 @@ public class ProfileRemovalServiceImpl implements ProfileRemovalService {
         removeAllIn(userID, privateProfile.getInboxWithFullAccess());
         removeAllIn(userID, privateProfile.getDocumentVersionStorage());
 
-        Stream.of(
-                privateProfile.getKeystore().getResource(),
-                privateProfile.getPrivateStorage().getResource(),
-                privateProfile.getInboxWithFullAccess().getResource(),
-                privateProfile.getDocumentVersionStorage().getResource()
-        ).map(it -> access.privateAccessFor(userID, it)).forEach(removeService::remove);
-
-        removeService.remove(access.withSystemAccess(publicProfile.getPublicKeys()));
+        removeService.removeAll(Stream.concat(
+                Stream.of(
+                        privateProfile.getKeystore().getResource(),
+                        privateProfile.getPrivateStorage().getResource(),
+                        privateProfile.getInboxWithFullAccess().getResource(),
+                        privateProfile.getDocumentVersionStorage().getResource()
+                ).map(it -> access.privateAccessFor(userID, it)),
+                Stream.of(access.withSystemAccess(publicProfile.getPublicKeys()))
+        ));
 
         // remove profiles itself:
         removeService.remove(access.withSystemAccess(dfsConfig.privateProfile(userID.getUserID())));
         removeService.remove(access.withSystemAccess(dfsConfig.publicProfile(userID.getUserID())));
 
         // remove everything else associated with user
-        privateProfile.getAssociatedResources().stream()
+        removeService.removeAll(privateProfile.getAssociatedResources().stream()
                 .map(it -> access.privateAccessFor(userID, it.getResource()))
-                .forEach(removeService::remove);
+        );
+
+        unlockedKeys.invalidate(userID.getUserID());
+        keyStoreCache.invalidate(userID.getUserID());
+        profileCache.invalidate(userID.getUserID());
         log.debug("Deregistered user {}", userID);
     }
 
     private void removeAllIn(UserIDAuth userID, AbsoluteLocation<PrivateResource> location) {
-        listService.list(
+        try (Stream<AbsoluteLocation<ResolvedResource>> resources = listService.list(
                 new ListRequest<>(userID, access.privateAccessFor(userID, location.getResource())).getLocation()
-        ).forEach(removeService::remove);
+        )) {
+            removeService.removeAll(resources);
+        }
     }
 }
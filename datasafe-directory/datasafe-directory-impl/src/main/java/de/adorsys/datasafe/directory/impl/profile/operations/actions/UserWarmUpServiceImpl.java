@@ -0,0 +1,145 @@
+package de.adorsys.datasafe.directory.impl.profile.operations.actions;
+
+import de.adorsys.datasafe.directory.api.profile.keys.PrivateKeyService;
+import de.adorsys.datasafe.directory.api.profile.keys.PublicKeyService;
+import de.adorsys.datasafe.directory.api.profile.operations.ProfileRetrievalService;
+import de.adorsys.datasafe.directory.api.profile.operations.UserWarmUpService;
+import de.adorsys.datasafe.directory.impl.profile.keys.KeyStoreCache;
+import de.adorsys.datasafe.directory.impl.profile.keys.UnlockedKeyCache;
+import de.adorsys.datasafe.directory.impl.profile.operations.UserProfileCache;
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.adorsys.datasafe.encrypiton.api.types.keystore.KeyStoreCreationConfig.SYMM_KEY_ID;
+
+/**
+ * Warms up caches of the user using two concurrent chains of reads: private profile followed by keystore (its
+ * location is stored in private profile) and public profile followed by public keys. So cold user costs two
+ * storage round trips instead of four. Keystore keys are unlocked as part of warm-up.
+ * Warm-up is best-effort: it is skipped if user data is already cached or if executor has no room for it.
+ */
+@Slf4j
+@RuntimeDelegate
+public class UserWarmUpServiceImpl implements UserWarmUpService {
+
+    private final ProfileRetrievalService profiles;
+    private final PrivateKeyService privateKeys;
+    private final PublicKeyService publicKeys;
+    private final UserProfileCache profileCache;
+    private final KeyStoreCache keyStoreCache;
+    private final UnlockedKeyCache unlockedKeys;
+    private final Executor executor;
+
+    @Inject
+    UserWarmUpServiceImpl(ProfileRetrievalService profiles, PrivateKeyService privateKeys,
+                          PublicKeyService publicKeys, UserProfileCache profileCache, KeyStoreCache keyStoreCache,
+                          UnlockedKeyCache unlockedKeys) {
+        this(profiles, privateKeys, publicKeys, profileCache, keyStoreCache, unlockedKeys, IoPool.INSTANCE);
+    }
+
+    /**
+     * @param profileCache Cache that is checked to skip warm-up of user whose data is already cached
+     * @param keyStoreCache Cache that is checked to skip warm-up of user whose data is already cached
+     * @param unlockedKeys Cache that is checked to skip warm-up of user whose data is already cached
+     * @param executor Executor that runs storage reads, each warm-up occupies up to two threads. Threads block on
+     * storage I/O, so it should be dedicated bounded executor with bounded queue, not the common pool. Warm-up
+     * that executor rejects is skipped.
+     */
+    public UserWarmUpServiceImpl(ProfileRetrievalService profiles, PrivateKeyService privateKeys,
+                                 PublicKeyService publicKeys, UserProfileCache profileCache,
+                                 KeyStoreCache keyStoreCache, UnlockedKeyCache unlockedKeys, Executor executor) {
+        this.profiles = profiles;
+        this.privateKeys = privateKeys;
+        this.publicKeys = publicKeys;
+        this.profileCache = profileCache;
+        this.keyStoreCache = keyStoreCache;
+        this.unlockedKeys = unlockedKeys;
+        this.executor = executor;
+    }
+
+    /**
+     * Reads and caches private profile, keystore keys, public profile and public keys of the user.
+     * Completes immediately if they are cached already or if executor is saturated.
+     */
+    @Override
+    public CompletableFuture<Void> warmUp(UserIDAuth forUser) {
+        if (isCached(forUser)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> privateChain;
+        CompletableFuture<Void> publicChain;
+        try {
+            privateChain = CompletableFuture.runAsync(() -> {
+                profiles.privateProfile(forUser);
+                // reads keystore and unlocks all its decryption keys
+                privateKeys.documentEncryptionSecretKey(forUser);
+            }, executor);
+
+            publicChain = CompletableFuture.runAsync(() -> {
+                profiles.publicProfile(forUser.getUserID());
+                publicKeys.publicKey(forUser.getUserID());
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            log.debug("Warm-up skipped for user {}, executor is saturated", forUser.getUserID());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.allOf(privateChain, publicChain).whenComplete((res, ex) -> {
+            if (null != ex) {
+                log.debug("Warm-up failed for user {}", forUser.getUserID(), ex);
+            }
+        });
+    }
+
+    private boolean isCached(UserIDAuth forUser) {
+        UserID user = forUser.getUserID();
+        return profileCache.getPrivateProfile().containsKey(user)
+                && profileCache.getPublicProfile().containsKey(user)
+                && keyStoreCache.getPublicKeys().containsKey(user)
+                && null != unlockedKeys.get(forUser, SYMM_KEY_ID.getValue());
+    }
+
+    /**
+     * Default executor, shared by all warm-up services, threads are created on demand and stop when idle.
+     * Queue is bounded, so that flood of warm-up requests can't pile up storage reads (and passwords they hold),
+     * warm-ups that do not fit are rejected.
+     */
+    private static final class IoPool {
+
+        private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+        private static final int QUEUE_CAPACITY = THREADS * 16;
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    THREADS,
+                    THREADS,
+                    1,
+                    TimeUnit.MINUTES,
+                    new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "datasafe-warm-up-" + THREAD_COUNTER.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package de.adorsys.datasafe.directory.impl.profile.cache;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightLoaderTest {
+
+    private static final int THREADS = 8;
+
+    private ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private ConcurrentMap<String, String> cache = new ConcurrentHashMap<>();
+    private SingleFlightLoader<String, String> loader = new SingleFlightLoader<>(cache);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void loadsSameKeyOnceForConcurrentCallers() {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = IntStream.range(0, THREADS)
+                .mapToObj(it -> executor.submit(() -> loader.load("john", id -> {
+                    loads.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return "profile";
+                })))
+                .collect(Collectors.toList());
+
+        started.await(10, TimeUnit.SECONDS);
+        // let other callers reach in-flight load
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("profile");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache).containsEntry("john", "profile");
+    }
+
+    @Test
+    @SneakyThrows
+    void doesNotBlockOtherKeys() {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> slow = executor.submit(() -> loader.load("john", id -> {
+            await(release);
+            return "slow";
+        }));
+
+        assertThat(loader.load("jane", id -> "fast")).isEqualTo("fast");
+        assertThat(slow.isDone()).isFalse();
+
+        release.countDown();
+        assertThat(slow.get(10, TimeUnit.SECONDS)).isEqualTo("slow");
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        assertThrows(IllegalStateException.class, () -> loader.load("john", id -> {
+            throw new IllegalStateException("Storage unavailable");
+        }));
+
+        assertThat(cache).isEmpty();
+        assertThat(loader.load("john", id -> "profile")).isEqualTo("profile");
+    }
+
+    @Test
+    @SneakyThrows
+    void waitingCallersGetFailureOfInFlightLoad() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> failing = executor.submit(() -> loader.load("john", id -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("Storage unavailable");
+        }));
+        started.await(10, TimeUnit.SECONDS);
+
+        Future<String> waiting = executor.submit(() -> loader.load("john", id -> "not called"));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(assertThrows(Exception.class, () -> waiting.get(10, TimeUnit.SECONDS)))
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(assertThrows(Exception.class, () -> failing.get(10, TimeUnit.SECONDS)))
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(cache).isEmpty();
+    }
+
+    @Test
+    @SneakyThrows
+    void forgottenLoadIsNotStored() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> stale = executor.submit(() -> loader.load("john", id -> {
+            started.countDown();
+            await(release);
+            return "stale";
+        }));
+        started.await(10, TimeUnit.SECONDS);
+
+        loader.forget("john");
+        release.countDown();
+
+        assertThat(stale.get(10, TimeUnit.SECONDS)).isEqualTo("stale");
+        assertThat(cache).isEmpty();
+    }
+
+    @SneakyThrows
+    private static void await(CountDownLatch latch) {
+        latch.await(10, TimeUnit.SECONDS);
+    }
+}
@@ -1,23 +1,42 @@
 package de.adorsys.datasafe.directory.impl.profile.keys;
 
 import com.google.common.collect.ImmutableMap;
+import de.adorsys.datasafe.directory.api.config.DFSConfig;
+import de.adorsys.datasafe.directory.api.profile.dfs.BucketAccessService;
 import de.adorsys.datasafe.directory.api.profile.operations.ProfileRetrievalService;
 import de.adorsys.datasafe.directory.api.types.UserPrivateProfile;
 import de.adorsys.datasafe.directory.api.types.UserPublicProfile;
+import de.adorsys.datasafe.encrypiton.api.keystore.KeyStoreService;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.KeyStoreAuth;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadStorePassword;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.SecretKeyIDWithKey;
+import de.adorsys.datasafe.storage.api.actions.StorageReadService;
 import de.adorsys.datasafe.types.api.resource.*;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Answers;
 import org.mockito.Mock;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
 import java.security.KeyStore;
+import java.security.UnrecoverableKeyException;
 import java.util.Collections;
 import java.util.HashMap;
-
+import java.util.Map;
+
+import static de.adorsys.datasafe.encrypiton.api.types.keystore.KeyStoreCreationConfig.PATH_KEY_ID;
+import static de.adorsys.datasafe.encrypiton.api.types.keystore.KeyStoreCreationConfig.SYMM_KEY_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class DFSPrivateKeyServiceImplTest extends BaseMockitoTest {
@@ -54,6 +73,22 @@ class DFSPrivateKeyServiceImplTest extends BaseMockitoTest {
     @Mock
     private ProfileRetrievalService profile;
 
+    @Mock
+    private KeyStoreService keyStoreService;
+
+    @Mock
+    private DFSConfig dfsConfig;
+
+    @Mock
+    private BucketAccessService bucketAccessService;
+
+    @Mock
+    private StorageReadService readService;
+
+    private UnlockedKeyCache unlockedKeys = new DefaultUnlockedKeyCache();
+
+    private DFSPrivateKeyServiceImpl privateKeyService;
+
     @BeforeEach
     void init() {
         when(profile.publicProfile(auth.getUserID())).thenReturn(publicProfile);
@@ -62,6 +97,8 @@ class DFSPrivateKeyServiceImplTest extends BaseMockitoTest {
                 auth.getUserID(),
                 privateKeystore))
         );
+        privateKeyService = new DFSPrivateKeyServiceImpl(keystoreCache, unlockedKeys, keyStoreService, dfsConfig,
+                bucketAccessService, profile, readService);
     }
 
     @Test
@@ -83,4 +120,64 @@ class DFSPrivateKeyServiceImplTest extends BaseMockitoTest {
     void keyByIdCaches() {
         // privateKeyService.documentEncryptionSecretKey(auth);
     }
+
+    @Test
+    void unlockedKeyIsReusedForSamePassword() {
+        Map<UserID, KeyStore> keystores = new HashMap<>(ImmutableMap.of(auth.getUserID(), keystoreWithSecretKey()));
+        when(keystoreCache.getKeystore()).thenReturn(keystores);
+
+        SecretKeyIDWithKey first = privateKeyService.documentEncryptionSecretKey(auth);
+        SecretKeyIDWithKey second = privateKeyService.documentEncryptionSecretKey(auth);
+
+        assertThat(second.getSecretKey()).isSameAs(first.getSecretKey());
+        assertThat(unlockedKeys.stats().getHits()).isEqualTo(1);
+        // read and drop of keystore on first access only
+        verify(keystoreCache, times(2)).getKeystore();
+    }
+
+    @Test
+    void unlocksAllDecryptionKeysAndDropsKeystore() {
+        Map<UserID, KeyStore> keystores = new HashMap<>(ImmutableMap.of(auth.getUserID(), keystoreWithSecretKey()));
+        when(keystoreCache.getKeystore()).thenReturn(keystores);
+
+        privateKeyService.documentEncryptionSecretKey(auth);
+
+        assertThat(keystores).isEmpty();
+        // requested and path secret keys
+        assertThat(unlockedKeys.stats().getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void wrongPasswordDoesNotUseUnlockedKey() {
+        when(keystoreCache.getKeystore()).thenReturn(new HashMap<>(ImmutableMap.of(
+                auth.getUserID(),
+                keystoreWithSecretKey()))
+        );
+        privateKeyService.documentEncryptionSecretKey(auth);
+        // keystore was dropped after unlocking, so it is read again
+        when(bucketAccessService.privateAccessFor(any(), any())).thenReturn(PRIVATE);
+        when(readService.read(any())).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(dfsConfig.privateKeyStoreAuth(any()))
+                .thenReturn(new KeyStoreAuth(new ReadStorePassword(""), auth.getReadKeyPassword()));
+        when(keyStoreService.deserialize(any(), any(), any())).thenReturn(keystoreWithSecretKey());
+
+        UserIDAuth wrongPassword = new UserIDAuth(auth.getUserID(), new ReadKeyPassword("wrong"));
+
+        assertThatThrownBy(() -> privateKeyService.documentEncryptionSecretKey(wrongPassword))
+                .isInstanceOf(UnrecoverableKeyException.class);
+    }
+
+    @SneakyThrows
+    private KeyStore keystoreWithSecretKey() {
+        KeyStore keyStore = KeyStore.getInstance("JCEKS");
+        keyStore.load(null, null);
+        for (String alias : new String[] {SYMM_KEY_ID.getValue(), PATH_KEY_ID.getValue()}) {
+            keyStore.setEntry(
+                    alias,
+                    new KeyStore.SecretKeyEntry(new SecretKeySpec(new byte[16], "AES")),
+                    new KeyStore.PasswordProtection(auth.getReadKeyPassword().getValue().toCharArray())
+            );
+        }
+        return keyStore;
+    }
 }
@@ -0,0 +1,96 @@
+package de.adorsys.datasafe.directory.impl.profile.keys;
+
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheStats;
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DefaultKeyStoreCacheTest {
+
+    private UserID john = new UserID("john");
+    private UserID jane = new UserID("jane");
+    private KeyStore keyStore = emptyKeyStore();
+
+    private DefaultKeyStoreCache cache = new DefaultKeyStoreCache(UserCacheConfig.defaults());
+
+    @Test
+    void countsHitsAndMisses() {
+        cache.getKeystore().computeIfAbsent(john, id -> keyStore);
+        cache.getKeystore().computeIfAbsent(john, id -> emptyKeyStore());
+        cache.getKeystore().get(jane);
+
+        assertThat(cache.getKeystore().get(john)).isSameAs(keyStore);
+        assertThat(cache.keystoreStats()).isEqualTo(new UserCacheStats(2, 2, 0, 1));
+        assertThat(cache.publicKeysStats()).isEqualTo(new UserCacheStats(0, 0, 0, 0));
+    }
+
+    @Test
+    void invalidatesOnlyGivenUser() {
+        cache.getKeystore().put(john, keyStore);
+        cache.getKeystore().put(jane, keyStore);
+        cache.getPublicKeys().put(john, Collections.emptyList());
+
+        cache.invalidate(john);
+
+        assertThat(cache.getKeystore()).containsOnlyKeys(jane);
+        assertThat(cache.getPublicKeys()).isEmpty();
+    }
+
+    @Test
+    void isBoundedBySize() {
+        DefaultKeyStoreCache bounded = new DefaultKeyStoreCache(UserCacheConfig.builder().maximumSize(1).build());
+
+        bounded.getKeystore().put(john, keyStore);
+        bounded.getKeystore().put(jane, keyStore);
+
+        assertThat(bounded.keystoreStats().getSize()).isEqualTo(1);
+        assertThat(bounded.keystoreStats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void isBoundedByWeight() {
+        DefaultKeyStoreCache bounded = new DefaultKeyStoreCache(
+                UserCacheConfig.builder().maximumWeightBytes(100 * 1024).build()
+        );
+
+        for (int i = 0; i < 1000; i++) {
+            bounded.getKeystore().put(new UserID("user" + i), keyStore);
+        }
+
+        assertThat(bounded.keystoreStats().getSize()).isLessThanOrEqualTo(100);
+        assertThat(bounded.keystoreStats().getEvictions()).isGreaterThanOrEqualTo(900);
+    }
+
+    @Test
+    void expiresEntries() {
+        DefaultKeyStoreCache expiring = new DefaultKeyStoreCache(
+                UserCacheConfig.builder().expireAfterWrite(Duration.ZERO).build()
+        );
+
+        expiring.getKeystore().put(john, keyStore);
+
+        assertThat(expiring.getKeystore().get(john)).isNull();
+    }
+
+    @Test
+    void rejectsNegativeLimits() {
+        UserCacheConfig config = UserCacheConfig.builder().maximumSize(-1).build();
+
+        assertThrows(IllegalArgumentException.class, () -> new DefaultKeyStoreCache(config));
+    }
+
+    @SneakyThrows
+    private static KeyStore emptyKeyStore() {
+        KeyStore result = KeyStore.getInstance(KeyStore.getDefaultType());
+        result.load(null, null);
+        return result;
+    }
+}
@@ -0,0 +1,154 @@
+package de.adorsys.datasafe.directory.impl.profile.keys;
+
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultUnlockedKeyCacheTest {
+
+    private static final String KEY_ID = "key";
+
+    private UserIDAuth john = new UserIDAuth(new UserID("john"), new ReadKeyPassword("john-password"));
+    private UserIDAuth jane = new UserIDAuth(new UserID("jane"), new ReadKeyPassword("jane-password"));
+    private Key key = new SecretKeySpec(new byte[16], "AES");
+
+    private DefaultUnlockedKeyCache cache = new DefaultUnlockedKeyCache();
+
+    @Test
+    void returnsKeyUnlockedWithSamePassword() {
+        cache.put(john, KEY_ID, key);
+
+        assertThat(cache.get(john, KEY_ID)).isSameAs(key);
+        assertThat(cache.stats()).isEqualTo(new UnlockedKeyCacheStats(1, 0, 0, 1));
+    }
+
+    @Test
+    void doesNotReturnKeyForOtherPassword() {
+        cache.put(john, KEY_ID, key);
+
+        assertThat(cache.get(new UserIDAuth(john.getUserID(), new ReadKeyPassword("wrong")), KEY_ID)).isNull();
+        assertThat(cache.get(john, "other")).isNull();
+        assertThat(cache.stats().getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidatesOnlyGivenUser() {
+        cache.put(john, KEY_ID, key);
+        cache.put(jane, KEY_ID, key);
+
+        cache.invalidate(john.getUserID());
+
+        assertThat(cache.get(john, KEY_ID)).isNull();
+        assertThat(cache.get(jane, KEY_ID)).isSameAs(key);
+    }
+
+    @Test
+    void isBoundedBySize() {
+        DefaultUnlockedKeyCache bounded = new DefaultUnlockedKeyCache(1, Duration.ofMinutes(1));
+
+        bounded.put(john, KEY_ID, key);
+        bounded.put(jane, KEY_ID, key);
+
+        assertThat(bounded.stats().getSize()).isEqualTo(1);
+        assertThat(bounded.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void sealsSecretKey() {
+        DefaultUnlockedKeyCache sealed = new DefaultUnlockedKeyCache(10, Duration.ofMinutes(1), true);
+        Key secretKey = new SecretKeySpec(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16}, "AES");
+
+        sealed.put(john, KEY_ID, secretKey);
+
+        assertThat(sealed.get(john, KEY_ID)).isNotSameAs(secretKey).isEqualTo(secretKey);
+    }
+
+    @Test
+    void returnsSameUnsealedInstanceWhileKeyIsCached() {
+        DefaultUnlockedKeyCache sealed = new DefaultUnlockedKeyCache(10, Duration.ofMinutes(1), true);
+        Key secretKey = new SecretKeySpec(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16}, "AES");
+        sealed.put(john, KEY_ID, secretKey);
+
+        Key unsealed = sealed.get(john, KEY_ID);
+        assertThat(sealed.get(john, KEY_ID)).isSameAs(unsealed);
+
+        sealed.invalidate(john.getUserID());
+        sealed.put(john, KEY_ID, secretKey);
+        assertThat(sealed.get(john, KEY_ID)).isNotSameAs(unsealed).isEqualTo(secretKey);
+    }
+
+    @Test
+    @SneakyThrows
+    void sealsPrivateKey() {
+        DefaultUnlockedKeyCache sealed = new DefaultUnlockedKeyCache(10, Duration.ofMinutes(1), true);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        PrivateKey privateKey = generator.generateKeyPair().getPrivate();
+
+        sealed.put(john, KEY_ID, privateKey);
+
+        Key unsealed = sealed.get(john, KEY_ID);
+        assertThat(unsealed).isInstanceOf(PrivateKey.class).isNotSameAs(privateKey);
+        assertThat(unsealed.getEncoded()).isEqualTo(privateKey.getEncoded());
+        assertThat(sealed.get(new UserIDAuth(john.getUserID(), new ReadKeyPassword("wrong")), KEY_ID)).isNull();
+    }
+
+    @Test
+    void expiresKeys() {
+        DefaultUnlockedKeyCache expiring = new DefaultUnlockedKeyCache(10, Duration.ZERO);
+
+        expiring.put(john, KEY_ID, key);
+
+        assertThat(expiring.get(john, KEY_ID)).isNull();
+    }
+
+    @Test
+    void usesConfiguredExpiration() {
+        DefaultUnlockedKeyCache configured = new DefaultUnlockedKeyCache(
+                UserCacheConfig.builder().expireAfterAccess(Duration.ZERO).build(),
+                null
+        );
+
+        configured.put(john, KEY_ID, key);
+
+        assertThat(configured.get(john, KEY_ID)).isNull();
+    }
+
+    @Test
+    void usesConfiguredMemoryLimit() {
+        DefaultUnlockedKeyCache configured = new DefaultUnlockedKeyCache(
+                UserCacheConfig.builder().maximumWeightBytes(1).build(),
+                null
+        );
+
+        configured.put(john, KEY_ID, key);
+
+        assertThat(configured.get(john, KEY_ID)).isNull();
+        assertThat(configured.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void fitsAllKeysOfConfiguredUsers() {
+        DefaultUnlockedKeyCache configured = new DefaultUnlockedKeyCache(
+                UserCacheConfig.builder().maximumSize(1).build(),
+                null
+        );
+
+        configured.put(john, KEY_ID, key);
+        configured.put(john, "other", key);
+
+        assertThat(configured.get(john, KEY_ID)).isSameAs(key);
+        assertThat(configured.get(john, "other")).isSameAs(key);
+    }
+}
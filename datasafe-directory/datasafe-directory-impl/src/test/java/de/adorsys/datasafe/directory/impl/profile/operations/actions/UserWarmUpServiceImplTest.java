@@ -0,0 +1,160 @@
+package de.adorsys.datasafe.directory.impl.profile.operations.actions;
+
+import de.adorsys.datasafe.directory.api.profile.keys.PrivateKeyService;
+import de.adorsys.datasafe.directory.api.profile.keys.PublicKeyService;
+import de.adorsys.datasafe.directory.api.profile.operations.ProfileRetrievalService;
+import de.adorsys.datasafe.directory.api.types.UserPrivateProfile;
+import de.adorsys.datasafe.directory.api.types.UserPublicProfile;
+import de.adorsys.datasafe.directory.impl.profile.keys.KeyStoreCache;
+import de.adorsys.datasafe.directory.impl.profile.keys.UnlockedKeyCache;
+import de.adorsys.datasafe.directory.impl.profile.operations.UserProfileCache;
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import javax.crypto.SecretKey;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static de.adorsys.datasafe.encrypiton.api.types.keystore.KeyStoreCreationConfig.SYMM_KEY_ID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+class UserWarmUpServiceImplTest extends BaseMockitoTest {
+
+    private UserIDAuth auth = new UserIDAuth(new UserID("john"), new ReadKeyPassword("password"));
+
+    private ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @Mock
+    private ProfileRetrievalService profiles;
+
+    @Mock
+    private PrivateKeyService privateKeys;
+
+    @Mock
+    private PublicKeyService publicKeys;
+
+    @Mock
+    private UserProfileCache profileCache;
+
+    @Mock
+    private KeyStoreCache keyStoreCache;
+
+    @Mock
+    private UnlockedKeyCache unlockedKeys;
+
+    private Map<UserID, UserPrivateProfile> privateProfiles = new HashMap<>();
+    private Map<UserID, UserPublicProfile> publicProfiles = new HashMap<>();
+
+    @BeforeEach
+    void init() {
+        when(profileCache.getPrivateProfile()).thenReturn(privateProfiles);
+        when(profileCache.getPublicProfile()).thenReturn(publicProfiles);
+        when(keyStoreCache.getPublicKeys()).thenReturn(new HashMap<>());
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void readsPrivateAndPublicDataConcurrently() {
+        CountDownLatch publicProfileRead = new CountDownLatch(1);
+        // private profile read completes only when public profile is being read at the same time
+        when(profiles.privateProfile(auth)).then(inv -> {
+            assertThat(publicProfileRead.await(10, TimeUnit.SECONDS)).isTrue();
+            return null;
+        });
+        when(profiles.publicProfile(auth.getUserID())).then(inv -> {
+            publicProfileRead.countDown();
+            return null;
+        });
+
+        service().warmUp(auth).join();
+
+        verify(privateKeys).documentEncryptionSecretKey(auth);
+        verify(publicKeys).publicKey(auth.getUserID());
+    }
+
+    @Test
+    void failsIfReadFails() {
+        when(publicKeys.publicKey(auth.getUserID())).thenThrow(new IllegalStateException("No keys"));
+
+        assertThatThrownBy(() -> service().warmUp(auth).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        verify(privateKeys).documentEncryptionSecretKey(auth);
+    }
+
+    @Test
+    void defaultExecutorIsNotCommonPool() {
+        AtomicReference<String> readingThread = new AtomicReference<>();
+        when(profiles.privateProfile(auth)).then(inv -> {
+            readingThread.set(Thread.currentThread().getName());
+            return null;
+        });
+
+        new UserWarmUpServiceImpl(profiles, privateKeys, publicKeys, profileCache, keyStoreCache, unlockedKeys)
+                .warmUp(auth)
+                .join();
+
+        assertThat(readingThread.get()).startsWith("datasafe-warm-up-");
+    }
+
+    @Test
+    void skipsCachedUser() {
+        privateProfiles.put(auth.getUserID(), mock(UserPrivateProfile.class));
+        publicProfiles.put(auth.getUserID(), mock(UserPublicProfile.class));
+        when(keyStoreCache.getPublicKeys()).thenReturn(Collections.singletonMap(auth.getUserID(), null));
+        when(unlockedKeys.get(auth, SYMM_KEY_ID.getValue())).thenReturn(mock(SecretKey.class));
+
+        service().warmUp(auth).join();
+
+        verifyZeroInteractions(profiles, privateKeys, publicKeys);
+    }
+
+    @Test
+    void warmsUpUserWithOtherPasswordCached() {
+        privateProfiles.put(auth.getUserID(), mock(UserPrivateProfile.class));
+        publicProfiles.put(auth.getUserID(), mock(UserPublicProfile.class));
+        when(keyStoreCache.getPublicKeys()).thenReturn(Collections.singletonMap(auth.getUserID(), null));
+
+        service().warmUp(auth).join();
+
+        verify(privateKeys).documentEncryptionSecretKey(auth);
+    }
+
+    @Test
+    void skipsWarmUpIfExecutorIsSaturated() {
+        executor.shutdown();
+
+        assertThat(service().warmUp(auth).join()).isNull();
+
+        verifyZeroInteractions(profiles, privateKeys, publicKeys);
+    }
+
+    private UserWarmUpServiceImpl service() {
+        return new UserWarmUpServiceImpl(
+                profiles, privateKeys, publicKeys, profileCache, keyStoreCache, unlockedKeys, executor
+        );
+    }
+}
@@ -2,6 +2,7 @@ package de.adorsys.datasafe.encrypiton.api.cmsencryption;
 
 import de.adorsys.datasafe.encrypiton.api.types.keystore.KeyID;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.PublicKeyIDWithPublicKey;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
 
 import javax.crypto.SecretKey;
 import java.io.InputStream;
@@ -47,4 +48,17 @@ public interface CMSEncryptionService {
      * @apiNote Closes underlying stream when result is closed
      */
     InputStream buildDecryptionInputStream(InputStream inputStream, Function<Set<String>, Map<String, Key>> keysByIds);
+
+    /**
+     * Builds decrypted stream of the part of the document. If document format allows random access, only the
+     * encrypted bytes that are necessary to decrypt the range are read.
+     * @param encryptedSource Provides encrypted document bytes within requested range
+     * @param range Range of decrypted document to read
+     * @param keysByIds Key to its ID mapping function, same as in
+     * {@link CMSEncryptionService#buildDecryptionInputStream(InputStream, Function)}
+     * @return Decrypted stream of range bytes
+     * @apiNote Closes streams obtained from {@code encryptedSource} when result is closed
+     */
+    InputStream buildDecryptionInputStream(Function<ByteRange, InputStream> encryptedSource, ByteRange range,
+                                           Function<Set<String>, Map<String, Key>> keysByIds);
 }
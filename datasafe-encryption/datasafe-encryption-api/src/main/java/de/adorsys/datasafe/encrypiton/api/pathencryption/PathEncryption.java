@@ -3,6 +3,8 @@ package de.adorsys.datasafe.encrypiton.api.pathencryption;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.types.api.resource.Uri;
 
+import java.util.function.Function;
+
 /**
  * Encrypts and decrypts relative URI's using users' path encryption key.
  */
@@ -23,4 +25,14 @@ public interface PathEncryption {
      * @return Decrypted sensitive path
      */
     Uri decrypt(UserIDAuth forUser, Uri path);
+
+    /**
+     * Reads path encryption key once, for decrypting many paths of the same user. Default implementation
+     * delegates to {@link PathEncryption#decrypt(UserIDAuth, Uri)} for each path.
+     * @param forUser Credentials to access path encryption key
+     * @return Thread-safe function that decrypts relative URL using path encryption key
+     */
+    default Function<Uri, Uri> decryptor(UserIDAuth forUser) {
+        return path -> decrypt(forUser, path);
+    }
 }
@@ -24,4 +24,12 @@ public interface SymmetricPathEncryptionService {
      * @return Decrypted relative URI typically containing some sensitive information.
      */
     Uri decrypt(SecretKey secretKey, Uri bucketPath);
+
+    /**
+     * Drops anything remembered about the key, called when key owner logs out or is removed. Does nothing
+     * by default as service keeps no state.
+     * @param secretKey Key that is no longer used
+     */
+    default void invalidate(SecretKey secretKey) {
+    }
 }
@@ -0,0 +1,181 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption;
+
+import com.google.common.collect.ImmutableMap;
+import lombok.SneakyThrows;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.BEROctetStringGenerator;
+import org.bouncycastle.asn1.BERSequenceGenerator;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.asn1.cms.GCMParameters;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.cms.RecipientInfoGenerator;
+import org.bouncycastle.operator.jcajce.JceGenericKey;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming writer of CMS AuthEnvelopedData (RFC 5083) with AES-GCM content encryption (RFC 5084), content is
+ * encrypted by the highest-priority JCE provider (hardware-accelerated one where available).
+ */
+class AuthEnvelopedDataStreamGenerator {
+
+    private static final Map<ASN1ObjectIdentifier, Integer> KEY_SIZES = ImmutableMap.of(
+            DatasafeCryptoAlgorithm.AES128_GCM, 128,
+            DatasafeCryptoAlgorithm.AES192_GCM, 192,
+            DatasafeCryptoAlgorithm.AES256_GCM, 256
+    );
+
+    private static final String KEY_ALGORITHM = "AES";
+    private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
+    private static final int BUFFER_SIZE = 8192;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ASN1ObjectIdentifier algorithm;
+    private final Set<RecipientInfoGenerator> recipients;
+
+    AuthEnvelopedDataStreamGenerator(ASN1ObjectIdentifier algorithm, Set<RecipientInfoGenerator> recipients) {
+        if (!supports(algorithm)) {
+            throw new IllegalArgumentException("Unsupported authenticated encryption algorithm " + algorithm);
+        }
+
+        this.algorithm = algorithm;
+        this.recipients = recipients;
+    }
+
+    /**
+     * @return If content encryption algorithm requires AuthEnvelopedData.
+     */
+    static boolean supports(ASN1ObjectIdentifier algorithm) {
+        return KEY_SIZES.containsKey(algorithm);
+    }
+
+    /**
+     * Writes AuthEnvelopedData header to {@code out}.
+     * @return Stream that encrypts written content, MAC is written on close. Same as BouncyCastle generators,
+     * does not close {@code out}.
+     */
+    @SneakyThrows
+    OutputStream open(OutputStream out) {
+        KeyGenerator keyGenerator = KeyGenerator.getInstance(KEY_ALGORITHM);
+        keyGenerator.init(KEY_SIZES.get(algorithm), RANDOM);
+        SecretKey contentKey = keyGenerator.generateKey();
+        byte[] nonce = new byte[NONCE_LENGTH];
+        RANDOM.nextBytes(nonce);
+        AlgorithmIdentifier contentAlgorithm = new AlgorithmIdentifier(
+                algorithm,
+                new GCMParameters(nonce, TAG_LENGTH)
+        );
+
+        ASN1EncodableVector recipientInfos = new ASN1EncodableVector();
+        for (RecipientInfoGenerator recipient : recipients) {
+            recipientInfos.add(recipient.generate(new JceGenericKey(contentAlgorithm, contentKey)));
+        }
+
+        Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+        cipher.init(Cipher.ENCRYPT_MODE, contentKey, new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, nonce));
+
+        BERSequenceGenerator contentInfo = new BERSequenceGenerator(out);
+        contentInfo.addObject(CMSObjectIdentifiers.authEnvelopedData);
+
+        BERSequenceGenerator authEnvelopedData = new BERSequenceGenerator(contentInfo.getRawOutputStream(), 0, true);
+        authEnvelopedData.addObject(new ASN1Integer(0));
+        authEnvelopedData.getRawOutputStream().write(new DERSet(recipientInfos).getEncoded());
+
+        BERSequenceGenerator encryptedContentInfo = new BERSequenceGenerator(authEnvelopedData.getRawOutputStream());
+        encryptedContentInfo.addObject(CMSObjectIdentifiers.data);
+        encryptedContentInfo.getRawOutputStream().write(contentAlgorithm.getEncoded());
+
+        BEROctetStringGenerator encryptedContent = new BEROctetStringGenerator(
+                encryptedContentInfo.getRawOutputStream(), 0, false
+        );
+
+        return new AuthEnvelopedDataOutputStream(
+                cipher,
+                encryptedContent.getOctetOutputStream(new byte[BUFFER_SIZE]),
+                contentInfo,
+                authEnvelopedData,
+                encryptedContentInfo
+        );
+    }
+
+    /**
+     * Encrypts content into BER octet string, on close writes remaining ciphertext and tag as MAC.
+     */
+    private static class AuthEnvelopedDataOutputStream extends OutputStream {
+
+        private final Cipher cipher;
+        private final OutputStream encryptedContent;
+        private final BERSequenceGenerator contentInfo;
+        private final BERSequenceGenerator authEnvelopedData;
+        private final BERSequenceGenerator encryptedContentInfo;
+        private final byte[] encrypted = new byte[BUFFER_SIZE + TAG_LENGTH];
+
+        private boolean closed;
+
+        private AuthEnvelopedDataOutputStream(Cipher cipher, OutputStream encryptedContent,
+                                              BERSequenceGenerator contentInfo,
+                                              BERSequenceGenerator authEnvelopedData,
+                                              BERSequenceGenerator encryptedContentInfo) {
+            this.cipher = cipher;
+            this.encryptedContent = encryptedContent;
+            this.contentInfo = contentInfo;
+            this.authEnvelopedData = authEnvelopedData;
+            this.encryptedContentInfo = encryptedContentInfo;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        @SneakyThrows
+        public void write(byte[] bytes, int off, int len) {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+
+            while (len > 0) {
+                int toEncrypt = Math.min(len, BUFFER_SIZE);
+                int written = cipher.update(bytes, off, toEncrypt, encrypted, 0);
+                encryptedContent.write(encrypted, 0, written);
+                off += toEncrypt;
+                len -= toEncrypt;
+            }
+        }
+
+        @Override
+        @SneakyThrows
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            // JCE appends tag to the ciphertext, RFC 5084 stores it separately as MAC
+            byte[] last = cipher.doFinal();
+            encryptedContent.write(last, 0, last.length - TAG_LENGTH);
+            encryptedContent.close();
+            encryptedContentInfo.close();
+            authEnvelopedData.addObject(new DEROctetString(Arrays.copyOfRange(last, last.length - TAG_LENGTH,
+                    last.length)));
+            authEnvelopedData.close();
+            contentInfo.close();
+        }
+    }
+}
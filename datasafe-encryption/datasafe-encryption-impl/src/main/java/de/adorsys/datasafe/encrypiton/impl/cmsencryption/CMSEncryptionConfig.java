@@ -2,6 +2,8 @@ package de.adorsys.datasafe.encrypiton.impl.cmsencryption;
 
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Provides algorithm ID used for CMS-encryption.
  */
@@ -11,4 +13,32 @@ public interface CMSEncryptionConfig {
      * BouncyCastle compatible algorithm identifier.
      */
     ASN1ObjectIdentifier getAlgorithm();
+
+    /**
+     * Format of newly written documents, existing documents are read regardless of it.
+     */
+    DocumentEncryptionFormat getFormat();
+
+    /**
+     * Plaintext segment size for {@link DocumentEncryptionFormat#SEGMENTED_AEAD} documents.
+     */
+    int getSegmentSize();
+
+    /**
+     * How many segments of single {@link DocumentEncryptionFormat#SEGMENTED_AEAD} document can be encrypted or
+     * decrypted concurrently, values less than 2 disable parallel processing.
+     */
+    int getParallelSegments();
+
+    /**
+     * Pool that encrypts and decrypts segments when {@link CMSEncryptionConfig#getParallelSegments()} is above 1.
+     */
+    ForkJoinPool getSegmentPool();
+
+    /**
+     * JCE provider name that decrypts content of AES-GCM AuthEnvelopedData documents. Provider should release
+     * plaintext as it goes (as BouncyCastle does), providers that buffer the whole document until its tag is
+     * verified (as JDK one does) make memory usage proportional to document size.
+     */
+    String getAuthEnvelopedDecryptionProvider();
 }
@@ -3,10 +3,19 @@ package de.adorsys.datasafe.encrypiton.impl.cmsencryption;
 import de.adorsys.datasafe.encrypiton.api.cmsencryption.CMSEncryptionService;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.KeyID;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.PublicKeyIDWithPublicKey;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.decryptors.AuthEnvelopedContent;
 import de.adorsys.datasafe.encrypiton.impl.cmsencryption.decryptors.Decryptor;
 import de.adorsys.datasafe.encrypiton.impl.cmsencryption.decryptors.DecryptorFactory;
 import de.adorsys.datasafe.encrypiton.impl.cmsencryption.exceptions.DecryptionException;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented.ParallelSegmentedDecryptionInputStream;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented.ParallelSegmentedEncryptionOutputStream;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented.SegmentedDecryptionInputStream;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented.SegmentedEncryptionOutputStream;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented.SegmentedFormat;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented.SegmentedHeader;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
+import de.adorsys.datasafe.types.api.utils.RangeInputStream;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
@@ -18,10 +27,10 @@ import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
 import javax.crypto.SecretKey;
 import javax.inject.Inject;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.*;
 import java.security.Key;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -34,11 +43,26 @@ import java.util.stream.Collectors;
  *
  * @see <a href=https://en.wikipedia.org/wiki/Cryptographic_Message_Syntax">CMS
  * wiki</a>
+ * Documents are written either as CMS envelope (AuthEnvelopedData for AES-GCM algorithms, EnvelopedData for
+ * others) or in segmented format (CMS envelope with document key followed by
+ * AES-GCM segments) depending on {@link CMSEncryptionConfig#getFormat()}, format is detected when reading.
+ * Segments of single document are encrypted and decrypted concurrently if
+ * {@link CMSEncryptionConfig#getParallelSegments()} allows.
  */
 @Slf4j
 @RuntimeDelegate
 public class CMSEncryptionServiceImpl implements CMSEncryptionService {
 
+    /**
+     * How many bytes to fetch when reading document header, typical header fits into it.
+     */
+    private static final int HEADER_PREFETCH = 4096;
+
+    /**
+     * How many bytes are needed to detect document format and CMS content type.
+     */
+    private static final int PEEK_LENGTH = 32;
+
     private final Map<Integer, Decryptor> decryptors = new HashMap<>();
 
 
@@ -57,14 +81,13 @@ public class CMSEncryptionServiceImpl implements CMSEncryptionService {
     @SneakyThrows
     public OutputStream buildEncryptionOutputStream(OutputStream dataContentStream,
                                                     Set<PublicKeyIDWithPublicKey> publicKeys) {
-        return streamEncrypt(
+        return encrypt(
                 dataContentStream,
                 publicKeys.stream().map(
                         it -> new JceKeyTransRecipientInfoGenerator(
                                 it.getKeyID().getValue().getBytes(), it.getPublicKey()
                         )
-                ).collect(Collectors.toSet()),
-                encryptionConfig.getAlgorithm()
+                ).collect(Collectors.toSet())
         );
     }
 
@@ -75,15 +98,15 @@ public class CMSEncryptionServiceImpl implements CMSEncryptionService {
     @Override
     @SneakyThrows
     public OutputStream buildEncryptionOutputStream(OutputStream dataContentStream, SecretKey secretKey, KeyID keyID) {
-        return streamEncrypt(
+        return encrypt(
                 dataContentStream,
-                Collections.singleton(new JceKEKRecipientInfoGenerator(keyID.getValue().getBytes(), secretKey)),
-                encryptionConfig.getAlgorithm()
+                Collections.singleton(new JceKEKRecipientInfoGenerator(keyID.getValue().getBytes(), secretKey))
         );
     }
 
     /**
-     * Decryption stream using {@link CMSEnvelopedDataParser}, supported recipients ids are:
+     * Decryption stream using {@link CMSEnvelopedDataParser} or {@link AuthEnvelopedContent}, supported
+     * recipients ids are:
      * - {@link RecipientId#keyTrans} for asymmetric encryption
      * - {@link RecipientId#kek} for symmetric encryption
      */
@@ -91,15 +114,117 @@ public class CMSEncryptionServiceImpl implements CMSEncryptionService {
     @SneakyThrows
     public InputStream buildDecryptionInputStream(InputStream inputStream,
                                                   Function<Set<String>, Map<String, Key>> keysByIds) {
-        RecipientInformationStore recipientInfoStore = new CMSEnvelopedDataParser(inputStream).getRecipientInfos();
+        PushbackInputStream source = new PushbackInputStream(inputStream, PEEK_LENGTH);
+        byte[] documentStart = peek(source);
+        if (!SegmentedFormat.isSegmented(documentStart)) {
+            return decryptEnvelope(source, documentStart, keysByIds);
+        }
+
+        SegmentedHeader header = decryptSegmentedHeader(SegmentedFormat.readHeader(source), keysByIds);
+        return segmentedDecrypt(source, header, 0);
+    }
+
+    /**
+     * Segmented documents are read starting from the segment that precedes range offset, CMS envelopes are
+     * decrypted from the beginning and bytes before the range are discarded.
+     */
+    @Override
+    @SneakyThrows
+    public InputStream buildDecryptionInputStream(Function<ByteRange, InputStream> encryptedSource, ByteRange range,
+                                                  Function<Set<String>, Map<String, Key>> keysByIds) {
+        byte[] head = readAll(encryptedSource.apply(ByteRange.of(0, HEADER_PREFETCH)));
+
+        if (!SegmentedFormat.isSegmented(head)) {
+            InputStream encrypted = encryptedSource.apply(ByteRange.from(0));
+            InputStream decrypted = buildDecryptionInputStream(encrypted, keysByIds);
+            return new RangeInputStream(new CloseCoordinatingStream(decrypted, encrypted), range);
+        }
+
+        int cmsHeaderLength = SegmentedFormat.cmsHeaderLength(head);
+        int headerEnd = SegmentedFormat.PREAMBLE_LENGTH + cmsHeaderLength;
+        byte[] cmsHeader = Arrays.copyOfRange(head, SegmentedFormat.PREAMBLE_LENGTH, headerEnd);
+        if (head.length < headerEnd) {
+            byte[] rest = readAll(encryptedSource.apply(ByteRange.of(head.length, headerEnd - head.length)));
+            if (rest.length != headerEnd - head.length) {
+                throw new DecryptionException("Document header is truncated");
+            }
+
+            System.arraycopy(rest, 0, cmsHeader, head.length - SegmentedFormat.PREAMBLE_LENGTH, rest.length);
+        }
+
+        SegmentedHeader header = decryptSegmentedHeader(cmsHeader, keysByIds);
+        long firstSegment = range.getOffset() / header.getSegmentSize();
+        // reading starts one segment earlier: if the requested segment is past the end of document, the previous
+        // one must be the authenticated last segment, otherwise the document is truncated
+        long readFrom = Math.max(0, firstSegment - 1);
+        long segmentsStart = SegmentedFormat.segmentOffset(cmsHeaderLength, header, readFrom);
 
-        if (recipientInfoStore.size() == 0) {
+        ByteRange encryptedRange = ByteRange.from(segmentsStart);
+        if (range.isBounded()) {
+            long lastSegment = (range.getOffset() + Math.max(range.getLength(), 1) - 1) / header.getSegmentSize();
+            // one extra byte tells if the last requested segment is the last segment of the document
+            long encryptedLength = (lastSegment - readFrom + 1) * header.encryptedSegmentSize() + 1;
+            encryptedRange = ByteRange.of(segmentsStart, encryptedLength);
+        }
+
+        PushbackInputStream body = new PushbackInputStream(encryptedSource.apply(encryptedRange), 1);
+        int firstByte = body.read();
+        if (-1 == firstByte && readFrom > 0) {
+            body.close();
+            // range starts far past the end of document, its end can be authenticated only by reading it all
+            InputStream whole = encryptedSource.apply(
+                    ByteRange.from(SegmentedFormat.segmentOffset(cmsHeaderLength, header, 0))
+            );
+            return new RangeInputStream(segmentedDecrypt(whole, header, 0), range);
+        }
+
+        if (-1 != firstByte) {
+            body.unread(firstByte);
+        }
+
+        InputStream decrypted = segmentedDecrypt(body, header, readFrom);
+
+        long offsetInSegment = range.getOffset() - readFrom * header.getSegmentSize();
+        return new RangeInputStream(
+                decrypted,
+                range.isBounded() ? ByteRange.of(offsetInSegment, range.getLength()) : ByteRange.from(offsetInSegment)
+        );
+    }
+
+    private SegmentedHeader decryptSegmentedHeader(byte[] cmsHeader,
+                                                   Function<Set<String>, Map<String, Key>> keysByIds)
+            throws CMSException, IOException {
+        try (InputStream header = decryptEnvelope(new ByteArrayInputStream(cmsHeader), cmsHeader, keysByIds)) {
+            return SegmentedHeader.deserialize(header);
+        }
+    }
+
+    private InputStream decryptEnvelope(InputStream source, byte[] documentStart,
+                                        Function<Set<String>, Map<String, Key>> keysByIds)
+            throws CMSException, IOException {
+        if (AuthEnvelopedContent.isAuthEnveloped(documentStart)) {
+            return decryptRecipient(DecryptorFactory.decryptors(
+                    AuthEnvelopedContent.read(source, encryptionConfig.getAuthEnvelopedDecryptionProvider())
+            ), keysByIds);
+        }
+
+        Collection<RecipientInformation> recipients = new CMSEnvelopedDataParser(source)
+                .getRecipientInfos()
+                .getRecipients();
+
+        return decryptRecipient(
+                recipients.stream().map(DecryptorFactory::decryptor).collect(Collectors.toList()),
+                keysByIds
+        );
+    }
+
+    private InputStream decryptRecipient(Collection<Decryptor> decryptors,
+                                         Function<Set<String>, Map<String, Key>> keysByIds) {
+        if (decryptors.isEmpty()) {
             throw new DecryptionException("CMS Envelope doesn't contain recipients");
         }
 
-        Map<String, Decryptor> availableDecryptors = recipientInfoStore.getRecipients()
-                .stream()
-                .map(DecryptorFactory::decryptor)
+        Map<String, Decryptor> availableDecryptors = decryptors.stream()
                 .collect(Collectors.toMap(Decryptor::getKeyId, it -> it));
 
         Map<String, Key> keys = keysByIds.apply(availableDecryptors.keySet());
@@ -116,6 +241,28 @@ public class CMSEncryptionServiceImpl implements CMSEncryptionService {
         return availableDecryptors.get(keyWithIdToDecrypt.getKey()).decryptionStream(keyWithIdToDecrypt.getValue());
     }
 
+    private OutputStream encrypt(OutputStream dataContentStream, Set<RecipientInfoGenerator> recipients)
+            throws CMSException, IOException {
+        if (DocumentEncryptionFormat.SEGMENTED_AEAD == encryptionConfig.getFormat()) {
+            return segmentedEncrypt(dataContentStream, recipients);
+        }
+
+        return envelope(dataContentStream, recipients);
+    }
+
+    /**
+     * AES-GCM algorithms are written as AuthEnvelopedData, others as EnvelopedData.
+     */
+    private OutputStream envelope(OutputStream dataContentStream, Set<RecipientInfoGenerator> recipients)
+            throws CMSException, IOException {
+        ASN1ObjectIdentifier algorithm = encryptionConfig.getAlgorithm();
+        if (AuthEnvelopedDataStreamGenerator.supports(algorithm)) {
+            return new AuthEnvelopedDataStreamGenerator(algorithm, recipients).open(dataContentStream);
+        }
+
+        return streamEncrypt(dataContentStream, recipients, algorithm);
+    }
+
     private OutputStream streamEncrypt(OutputStream dataContentStream, Set<RecipientInfoGenerator> recipients,
                                        ASN1ObjectIdentifier algorithm) throws CMSException, IOException {
         CMSEnvelopedDataStreamGenerator generator = new CMSEnvelopedDataStreamGenerator();
@@ -126,4 +273,91 @@ public class CMSEncryptionServiceImpl implements CMSEncryptionService {
                 new JceCMSContentEncryptorBuilder(algorithm).setProvider(BouncyCastleProvider.PROVIDER_NAME).build()
         );
     }
+
+    /**
+     * Writes document key wrapped into CMS envelope for all recipients, document body is encrypted using that key.
+     */
+    private OutputStream segmentedEncrypt(OutputStream dataContentStream, Set<RecipientInfoGenerator> recipients)
+            throws CMSException, IOException {
+        SegmentedHeader header = SegmentedHeader.generate(encryptionConfig.getSegmentSize());
+
+        ByteArrayOutputStream envelope = new ByteArrayOutputStream();
+        try (OutputStream os = envelope(envelope, recipients)) {
+            os.write(header.serialize());
+        }
+
+        SegmentedFormat.writeHeader(dataContentStream, envelope.toByteArray());
+        if (encryptionConfig.getParallelSegments() > 1) {
+            return new ParallelSegmentedEncryptionOutputStream(
+                    dataContentStream,
+                    header,
+                    encryptionConfig.getSegmentPool(),
+                    encryptionConfig.getParallelSegments()
+            );
+        }
+
+        return new SegmentedEncryptionOutputStream(dataContentStream, header);
+    }
+
+    private InputStream segmentedDecrypt(InputStream source, SegmentedHeader header, long firstSegment) {
+        if (encryptionConfig.getParallelSegments() > 1) {
+            return new ParallelSegmentedDecryptionInputStream(
+                    source,
+                    header,
+                    firstSegment,
+                    encryptionConfig.getSegmentPool(),
+                    encryptionConfig.getParallelSegments()
+            );
+        }
+
+        return new SegmentedDecryptionInputStream(source, header, firstSegment);
+    }
+
+    private static byte[] peek(PushbackInputStream source) throws IOException {
+        byte[] start = new byte[PEEK_LENGTH];
+        int read = 0;
+        while (read < start.length) {
+            int count = source.read(start, read, start.length - read);
+            if (-1 == count) {
+                break;
+            }
+
+            read += count;
+        }
+
+        source.unread(start, 0, read);
+        return Arrays.copyOf(start, read);
+    }
+
+    private static byte[] readAll(InputStream source) throws IOException {
+        try (InputStream is = source) {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            byte[] buffer = new byte[HEADER_PREFETCH];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                result.write(buffer, 0, read);
+            }
+
+            return result.toByteArray();
+        }
+    }
+
+    /**
+     * Closes only encrypted source - closing partially read cipher stream finalizes the cipher, which fails
+     * with padding error when range ends before the end of document.
+     */
+    private static final class CloseCoordinatingStream extends FilterInputStream {
+
+        private final InputStream source;
+
+        private CloseCoordinatingStream(InputStream decrypted, InputStream source) {
+            super(decrypted);
+            this.source = source;
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
 }
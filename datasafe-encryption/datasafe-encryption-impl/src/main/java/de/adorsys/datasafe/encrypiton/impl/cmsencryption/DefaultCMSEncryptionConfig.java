@@ -1,20 +1,47 @@
 package de.adorsys.datasafe.encrypiton.impl.cmsencryption;
 
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented.SegmentedFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
 import javax.inject.Inject;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Default CMS encryption algorithm.
+ * Default CMS encryption algorithm, use {@link DefaultCMSEncryptionConfig#builder()} to customize it, i.e. to
+ * use {@link DatasafeCryptoAlgorithm#AES256_GCM} authenticated encryption.
  */
 @Getter
+@AllArgsConstructor
+@Builder(toBuilder = true)
 public class DefaultCMSEncryptionConfig implements CMSEncryptionConfig {
 
     private final ASN1ObjectIdentifier algorithm;
+    private final DocumentEncryptionFormat format;
+    private final int segmentSize;
+    private final int parallelSegments;
+    private final ForkJoinPool segmentPool;
+    private final String authEnvelopedDecryptionProvider;
 
     @Inject
     public DefaultCMSEncryptionConfig() {
-        algorithm = DatasafeCryptoAlgorithm.AES256_CBC;
+        this(
+                DatasafeCryptoAlgorithm.AES256_CBC,
+                DocumentEncryptionFormat.CMS_ENVELOPE,
+                SegmentedFormat.DEFAULT_SEGMENT_SIZE,
+                Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.commonPool(),
+                BouncyCastleProvider.PROVIDER_NAME
+        );
+    }
+
+    /**
+     * @return Builder pre-filled with default values.
+     */
+    public static DefaultCMSEncryptionConfigBuilder builder() {
+        return new DefaultCMSEncryptionConfig().toBuilder();
     }
 }
@@ -0,0 +1,19 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption;
+
+/**
+ * Layout of encrypted document. Format of existing document is detected when reading it, so changing it
+ * only affects newly written documents.
+ */
+public enum DocumentEncryptionFormat {
+
+    /**
+     * Whole document is CMS EnvelopedData, reading byte N requires decrypting all bytes before it.
+     */
+    CMS_ENVELOPE,
+
+    /**
+     * CMS EnvelopedData header that wraps document key, followed by independently authenticated
+     * AES-GCM segments (STREAM construction), so that any segment can be decrypted separately.
+     */
+    SEGMENTED_AEAD
+}
@@ -0,0 +1,272 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.decryptors;
+
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.exceptions.DecryptionException;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1OctetStringParser;
+import org.bouncycastle.asn1.ASN1SequenceParser;
+import org.bouncycastle.asn1.ASN1SetParser;
+import org.bouncycastle.asn1.ASN1StreamParser;
+import org.bouncycastle.asn1.ASN1TaggedObjectParser;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.asn1.cms.ContentInfoParser;
+import org.bouncycastle.asn1.cms.GCMParameters;
+import org.bouncycastle.asn1.cms.RecipientInfo;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming reader of CMS AuthEnvelopedData (RFC 5083) with AES-GCM content (RFC 5084). Message authentication
+ * code is verified when encrypted content is fully read, modified content causes {@link IOException} at the
+ * end of stream. Plaintext is released as it goes (using provider that supports that, i.e. BouncyCastle), so
+ * callers get unauthenticated content before the error - they must discard everything they read if stream
+ * fails. The last decrypted chunk is held back until the tag is verified, so the end of stream is never
+ * reached with unauthenticated content.
+ */
+public class AuthEnvelopedContent {
+
+    private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    private static final String KEY_ALGORITHM = "AES";
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte[] CONTENT_TYPE = encodedContentType();
+
+    private final InputStream source;
+    private final String provider;
+    private final ASN1SequenceParser authEnvelopedData;
+
+    @Getter
+    private final List<RecipientInfo> recipients;
+
+    @Getter
+    private final AlgorithmIdentifier contentEncryptionAlgorithm;
+
+    private final ASN1SequenceParser encryptedContentInfo;
+    private final InputStream encryptedContent;
+
+    private AuthEnvelopedContent(InputStream source, String provider) throws IOException {
+        this.source = source;
+        this.provider = provider;
+        ContentInfoParser contentInfo = new ContentInfoParser(
+                (ASN1SequenceParser) new ASN1StreamParser(source).readObject()
+        );
+
+        if (!CMSObjectIdentifiers.authEnvelopedData.equals(contentInfo.getContentType())) {
+            throw new DecryptionException("Not an AuthEnvelopedData " + contentInfo.getContentType());
+        }
+
+        this.authEnvelopedData = (ASN1SequenceParser) contentInfo.getContent(BERTags.SEQUENCE);
+        // version
+        authEnvelopedData.readObject();
+        ASN1Encodable recipientInfos = authEnvelopedData.readObject();
+        if (recipientInfos instanceof ASN1TaggedObjectParser) {
+            throw new DecryptionException("Originator info is not supported");
+        }
+
+        this.recipients = readRecipients((ASN1SetParser) recipientInfos);
+        this.encryptedContentInfo = (ASN1SequenceParser) authEnvelopedData.readObject();
+        // content type
+        encryptedContentInfo.readObject();
+        this.contentEncryptionAlgorithm = AlgorithmIdentifier.getInstance(
+                encryptedContentInfo.readObject().toASN1Primitive()
+        );
+        ASN1TaggedObjectParser content = (ASN1TaggedObjectParser) encryptedContentInfo.readObject();
+        this.encryptedContent = ((ASN1OctetStringParser) content.getObjectParser(BERTags.OCTET_STRING, false))
+                .getOctetStream();
+    }
+
+    /**
+     * Reads AuthEnvelopedData up to encrypted content.
+     * @param source Document stream
+     * @param provider JCE provider name that decrypts content
+     */
+    public static AuthEnvelopedContent read(InputStream source, String provider) throws IOException {
+        return new AuthEnvelopedContent(source, provider);
+    }
+
+    /**
+     * @param documentStart First bytes of CMS document
+     * @return If document is AuthEnvelopedData
+     */
+    public static boolean isAuthEnveloped(byte[] documentStart) {
+        if (documentStart.length < 2 || BERTags.SEQUENCE != (documentStart[0] & ~BERTags.CONSTRUCTED)) {
+            return false;
+        }
+
+        int lengthBytes = documentStart[1] & 0xFF;
+        int contentTypeAt = 2 + (lengthBytes > 0x80 ? lengthBytes & 0x7F : 0);
+        return documentStart.length >= contentTypeAt + CONTENT_TYPE.length
+                && Arrays.equals(
+                        CONTENT_TYPE,
+                        Arrays.copyOfRange(documentStart, contentTypeAt, contentTypeAt + CONTENT_TYPE.length)
+        );
+    }
+
+    /**
+     * @param contentKey Unwrapped content encryption key
+     * @return Stream of decrypted and, once read till the end, authenticated content.
+     */
+    InputStream decrypt(Key contentKey) {
+        GCMParameters parameters = GCMParameters.getInstance(contentEncryptionAlgorithm.getParameters());
+        Cipher cipher = initCipher(contentKey, parameters);
+        return new AuthenticatedContentStream(cipher);
+    }
+
+    @SneakyThrows
+    private Cipher initCipher(Key contentKey, GCMParameters parameters) {
+        Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM, provider);
+        cipher.init(
+                Cipher.DECRYPT_MODE,
+                new SecretKeySpec(contentKey.getEncoded(), KEY_ALGORITHM),
+                new GCMParameterSpec(parameters.getIcvLen() * Byte.SIZE, parameters.getNonce())
+        );
+        return cipher;
+    }
+
+    private byte[] readMac() throws IOException {
+        // remainder of EncryptedContentInfo
+        encryptedContentInfo.readObject();
+        ASN1Encodable mac = authEnvelopedData.readObject();
+        if (mac instanceof ASN1TaggedObjectParser) {
+            throw new DecryptionException("Authenticated attributes are not supported");
+        }
+
+        if (null == mac) {
+            throw new IOException("Document is truncated, message authentication code is missing");
+        }
+
+        return ASN1OctetString.getInstance(mac.toASN1Primitive()).getOctets();
+    }
+
+    private static List<RecipientInfo> readRecipients(ASN1SetParser recipientInfos) throws IOException {
+        List<RecipientInfo> result = new ArrayList<>();
+        ASN1Encodable recipient;
+        while ((recipient = recipientInfos.readObject()) != null) {
+            result.add(RecipientInfo.getInstance(recipient.toASN1Primitive()));
+        }
+
+        return result;
+    }
+
+    @SneakyThrows
+    private static byte[] encodedContentType() {
+        return CMSObjectIdentifiers.authEnvelopedData.getEncoded();
+    }
+
+    /**
+     * Decrypts encrypted content chunk-by-chunk, verifies message authentication code at the end.
+     * Each decrypted chunk is released once next one is decrypted, the last one - once content is authenticated.
+     */
+    private class AuthenticatedContentStream extends InputStream {
+
+        private final Cipher cipher;
+        private final byte[] chunk = new byte[BUFFER_SIZE];
+
+        private byte[] decrypted = new byte[0];
+        private byte[] pending = new byte[0];
+        private int position;
+        private boolean finished;
+
+        private AuthenticatedContentStream(Cipher cipher) {
+            this.cipher = cipher;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+
+            return decrypted[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > bytes.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            if (0 == len) {
+                return 0;
+            }
+
+            if (!fill()) {
+                return -1;
+            }
+
+            int toCopy = Math.min(len, decrypted.length - position);
+            System.arraycopy(decrypted, position, bytes, off, toCopy);
+            position += toCopy;
+            return toCopy;
+        }
+
+        @Override
+        public int available() {
+            return decrypted.length - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+
+        private boolean fill() throws IOException {
+            while (position == decrypted.length) {
+                if (finished) {
+                    return false;
+                }
+
+                int read = encryptedContent.read(chunk);
+                position = 0;
+                if (-1 == read) {
+                    finished = true;
+                    decrypted = concat(pending, doFinal(readMac()));
+                    pending = null;
+                } else {
+                    decrypted = new byte[0];
+                    byte[] update = cipher.update(chunk, 0, read);
+                    if (null != update && update.length > 0) {
+                        decrypted = pending;
+                        pending = update;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        private byte[] concat(byte[] head, byte[] tail) {
+            if (0 == head.length) {
+                return tail;
+            }
+
+            byte[] result = Arrays.copyOf(head, head.length + tail.length);
+            System.arraycopy(tail, 0, result, head.length, tail.length);
+            return result;
+        }
+
+        private byte[] doFinal(byte[] mac) throws IOException {
+            try {
+                return cipher.doFinal(mac);
+            } catch (AEADBadTagException ex) {
+                throw new IOException("Document failed authentication", ex);
+            } catch (GeneralSecurityException ex) {
+                throw new IOException("Failed to decrypt document", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.decryptors;
+
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.exceptions.DecryptionException;
+import lombok.SneakyThrows;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.cms.KEKRecipientInfo;
+import org.bouncycastle.asn1.cms.KeyTransRecipientInfo;
+import org.bouncycastle.asn1.cms.RecipientInfo;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.cms.RecipientId;
+import org.bouncycastle.operator.GenericKey;
+import org.bouncycastle.operator.KeyUnwrapper;
+import org.bouncycastle.operator.OperatorException;
+import org.bouncycastle.operator.jcajce.JceAsymmetricKeyUnwrapper;
+import org.bouncycastle.operator.jcajce.JceSymmetricKeyUnwrapper;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.InputStream;
+import java.security.Key;
+import java.security.PrivateKey;
+
+/**
+ * Symmetric and asymmetric key decryptor of {@link AuthEnvelopedContent}, unwraps content encryption key using
+ * BouncyCastle key unwrappers.
+ */
+class AuthEnvelopedDecryptor extends Decryptor {
+
+    private static final String KEY_ALGORITHM = "AES";
+
+    private final AlgorithmIdentifier keyEncryptionAlgorithm;
+    private final byte[] encryptedKey;
+    private final AuthEnvelopedContent content;
+
+    private AuthEnvelopedDecryptor(String keyId, int keyType, AlgorithmIdentifier keyEncryptionAlgorithm,
+                                   byte[] encryptedKey, AuthEnvelopedContent content) {
+        super(keyId, keyType);
+        this.keyEncryptionAlgorithm = keyEncryptionAlgorithm;
+        this.encryptedKey = encryptedKey;
+        this.content = content;
+    }
+
+    static AuthEnvelopedDecryptor of(RecipientInfo recipient, AuthEnvelopedContent content) {
+        if (recipient.getInfo() instanceof KEKRecipientInfo) {
+            KEKRecipientInfo kek = (KEKRecipientInfo) recipient.getInfo();
+            return new AuthEnvelopedDecryptor(
+                    new String(kek.getKekid().getKeyIdentifier().getOctets()),
+                    RecipientId.kek,
+                    kek.getKeyEncryptionAlgorithm(),
+                    kek.getEncryptedKey().getOctets(),
+                    content
+            );
+        }
+
+        if (recipient.getInfo() instanceof KeyTransRecipientInfo) {
+            KeyTransRecipientInfo keyTrans = (KeyTransRecipientInfo) recipient.getInfo();
+            if (!keyTrans.getRecipientIdentifier().isTagged()) {
+                throw new DecryptionException("Only subject key identifier recipients are supported");
+            }
+
+            return new AuthEnvelopedDecryptor(
+                    new String(ASN1OctetString.getInstance(keyTrans.getRecipientIdentifier().getId()).getOctets()),
+                    RecipientId.keyTrans,
+                    keyTrans.getKeyEncryptionAlgorithm(),
+                    keyTrans.getEncryptedKey().getOctets(),
+                    content
+            );
+        }
+
+        throw new DecryptionException("Unsupported recipient type " + recipient.getInfo().getClass());
+    }
+
+    @Override
+    @SneakyThrows
+    public InputStream decryptionStream(Key key) {
+        return content.decrypt(unwrapContentKey(key));
+    }
+
+    private Key unwrapContentKey(Key key) throws OperatorException {
+        KeyUnwrapper unwrapper = RecipientId.kek == keyType
+                ? new JceSymmetricKeyUnwrapper(keyEncryptionAlgorithm, (SecretKey) key)
+                : new JceAsymmetricKeyUnwrapper(keyEncryptionAlgorithm, (PrivateKey) key)
+                        .setMustProduceEncodableUnwrappedKey(true);
+
+        GenericKey contentKey = unwrapper.generateUnwrappedKey(content.getContentEncryptionAlgorithm(), encryptedKey);
+        if (contentKey.getRepresentation() instanceof Key) {
+            return (Key) contentKey.getRepresentation();
+        }
+
+        return new SecretKeySpec((byte[]) contentKey.getRepresentation(), KEY_ALGORITHM);
+    }
+}
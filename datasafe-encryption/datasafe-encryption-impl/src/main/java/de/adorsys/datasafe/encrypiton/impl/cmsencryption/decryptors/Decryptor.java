@@ -3,7 +3,6 @@ package de.adorsys.datasafe.encrypiton.impl.cmsencryption.decryptors;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import org.bouncycastle.cms.RecipientInformation;
 
 import java.io.InputStream;
 import java.security.Key;
@@ -26,11 +25,6 @@ public abstract class Decryptor {
      */
     protected final int keyType;
 
-    /**
-     * Recipient information (contains encrypted data) that is going to be decrypted using this class.
-     */
-    protected final RecipientInformation recipientInfo;
-
     /**
      * Decrypt data using provided key
      * @param key Key to decrypt data
@@ -5,11 +5,14 @@ import de.adorsys.datasafe.encrypiton.impl.cmsencryption.exceptions.DecryptionEx
 import lombok.experimental.UtilityClass;
 import org.bouncycastle.cms.RecipientInformation;
 
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
- * Constructs decryptor based on {@link RecipientInformation} container.
+ * Constructs decryptor based on {@link RecipientInformation} container of EnvelopedData or on
+ * {@link AuthEnvelopedContent} recipients of AuthEnvelopedData.
  */
 @UtilityClass
 public class DecryptorFactory {
@@ -35,4 +38,15 @@ public class DecryptorFactory {
 
         return decryptor.apply(information);
     }
+
+    /**
+     * Get decryptors for all recipients of AuthEnvelopedData
+     * @param content Parsed AuthEnvelopedData positioned at encrypted content
+     * @return Decryptors that, when supplied by proper key can decrypt {@code content}
+     */
+    public List<Decryptor> decryptors(AuthEnvelopedContent content) {
+        return content.getRecipients().stream()
+                .map(it -> AuthEnvelopedDecryptor.of(it, content))
+                .collect(Collectors.toList());
+    }
 }
@@ -17,12 +17,14 @@ class KekDecryptor extends Decryptor {
 
     static final int KEY_ID = RecipientId.kek;
 
+    private final RecipientInformation recipientInfo;
+
     KekDecryptor(RecipientInformation recipientInformation) {
         super(
                 new String(((KEKRecipientId) recipientInformation.getRID()).getKeyIdentifier()),
-                KEY_ID,
-                recipientInformation
+                KEY_ID
         );
+        this.recipientInfo = recipientInformation;
     }
 
     @Override
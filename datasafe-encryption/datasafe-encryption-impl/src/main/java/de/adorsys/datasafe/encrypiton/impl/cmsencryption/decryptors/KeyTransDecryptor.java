@@ -17,12 +17,14 @@ class KeyTransDecryptor extends Decryptor {
 
     static final int KEY_ID = RecipientId.keyTrans;
 
+    private final RecipientInformation recipientInfo;
+
     KeyTransDecryptor(RecipientInformation recipientInformation) {
         super(
                 new String(((KeyTransRecipientId) recipientInformation.getRID()).getSubjectKeyIdentifier()),
-                KEY_ID,
-                recipientInformation
+                KEY_ID
         );
+        this.recipientInfo = recipientInformation;
     }
 
     @Override
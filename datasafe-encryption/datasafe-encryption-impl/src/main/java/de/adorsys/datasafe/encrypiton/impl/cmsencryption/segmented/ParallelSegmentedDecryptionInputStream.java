@@ -0,0 +1,163 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Same output as {@link SegmentedDecryptionInputStream}, but reads ahead up to {@code maxInFlight} segments and
+ * decrypts them concurrently on {@link ForkJoinPool}. Source is read only by the reading thread, segments are
+ * returned in order, read-ahead is suspended until reader consumes the oldest decrypted segment, so stream memory
+ * is bounded by {@code (maxInFlight + 1)} segment buffers.
+ * Closes underlying stream when closed.
+ */
+public class ParallelSegmentedDecryptionInputStream extends InputStream {
+
+    private final PushbackInputStream source;
+    private final SegmentCipher cipher;
+    private final SegmentedHeader header;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+
+    private final Deque<Future<Segment>> inFlight = new ArrayDeque<>();
+    private final Deque<Segment> free = new ArrayDeque<>();
+
+    private Segment current;
+    private int position;
+    private long index;
+    private boolean sourceFinished;
+
+    /**
+     * @param source Document body positioned at segment {@code firstSegment}
+     * @param header Document key material
+     * @param firstSegment Index of first segment in {@code source}
+     * @param pool Pool that decrypts segments
+     * @param maxInFlight Maximum count of segments that are read ahead and decrypted concurrently
+     */
+    public ParallelSegmentedDecryptionInputStream(InputStream source, SegmentedHeader header, long firstSegment,
+                                                  ForkJoinPool pool, int maxInFlight) {
+        this.source = new PushbackInputStream(source, 1);
+        this.cipher = new SegmentCipher(header);
+        this.header = header;
+        this.pool = pool;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.index = firstSegment;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+
+        return current.plain[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (0 == len) {
+            return 0;
+        }
+
+        if (!fill()) {
+            return -1;
+        }
+
+        int toCopy = Math.min(len, current.plainLength - position);
+        System.arraycopy(current.plain, position, bytes, off, toCopy);
+        position += toCopy;
+        return toCopy;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0 || !fill()) {
+            return 0;
+        }
+
+        int toSkip = (int) Math.min(n, current.plainLength - position);
+        position += toSkip;
+        return toSkip;
+    }
+
+    @Override
+    public int available() {
+        return null == current ? 0 : current.plainLength - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inFlight.forEach(it -> it.cancel(false));
+        inFlight.clear();
+        source.close();
+    }
+
+    private boolean fill() throws IOException {
+        while (null == current || position == current.plainLength) {
+            if (null != current) {
+                free.addLast(current);
+                current = null;
+            }
+
+            readAhead();
+            if (inFlight.isEmpty()) {
+                return false;
+            }
+
+            current = Segment.await(inFlight.pollFirst());
+            position = 0;
+            readAhead();
+        }
+
+        return true;
+    }
+
+    private void readAhead() throws IOException {
+        while (!sourceFinished && inFlight.size() < maxInFlight) {
+            Segment segment = free.isEmpty() ? new Segment(header) : free.pollFirst();
+            int read = readFully(segment.encrypted);
+            if (0 == read) {
+                // even empty document has one (last) segment, so each segment is followed by another one or is last
+                throw new IOException("Document is truncated, segment " + index + " is missing");
+            }
+
+            segment.index = index++;
+            segment.encryptedLength = read;
+            segment.last = read < segment.encrypted.length || isEndOfStream();
+            sourceFinished = segment.last;
+            inFlight.addLast(pool.submit(() -> segment.decrypt(cipher)));
+        }
+    }
+
+    private boolean isEndOfStream() throws IOException {
+        int next = source.read();
+        if (-1 == next) {
+            return true;
+        }
+
+        source.unread(next);
+        return false;
+    }
+
+    private int readFully(byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = source.read(buffer, total, buffer.length - total);
+            if (-1 == read) {
+                break;
+            }
+
+            total += read;
+        }
+
+        return total;
+    }
+}
@@ -0,0 +1,152 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Same output as {@link SegmentedEncryptionOutputStream}, but segments are encrypted concurrently on
+ * {@link ForkJoinPool}. Encrypted segments are written to destination by the writing thread in segment order.
+ * At most {@code maxInFlight} segments are being encrypted at the same time, writer blocks when this limit is
+ * reached, so stream memory is bounded by {@code (maxInFlight + 1)} segment buffers.
+ * Closes underlying stream when closed.
+ */
+public class ParallelSegmentedEncryptionOutputStream extends OutputStream {
+
+    private final OutputStream destination;
+    private final SegmentCipher cipher;
+    private final SegmentedHeader header;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+
+    private final Deque<Future<Segment>> inFlight = new ArrayDeque<>();
+    private final Deque<Segment> free = new ArrayDeque<>();
+
+    private Segment current;
+    private long index;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * @param destination Where to write segments, must already contain document header
+     * @param header Document key material
+     * @param pool Pool that encrypts segments
+     * @param maxInFlight Maximum count of segments that are encrypted concurrently
+     */
+    public ParallelSegmentedEncryptionOutputStream(OutputStream destination, SegmentedHeader header,
+                                                   ForkJoinPool pool, int maxInFlight) {
+        this.destination = destination;
+        this.cipher = new SegmentCipher(header);
+        this.header = header;
+        this.pool = pool;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.current = new Segment(header);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (current.plainLength == current.plain.length) {
+            submit(false);
+        }
+
+        current.plain[current.plainLength++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureOpen();
+        while (len > 0) {
+            if (current.plainLength == current.plain.length) {
+                submit(false);
+            }
+
+            int toCopy = Math.min(len, current.plain.length - current.plainLength);
+            System.arraycopy(bytes, off, current.plain, current.plainLength, toCopy);
+            current.plainLength += toCopy;
+            off += toCopy;
+            len -= toCopy;
+        }
+    }
+
+    /**
+     * Waits for all segments that are complete so far and writes them, the last (possibly partial) segment is only
+     * written on close.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        while (!inFlight.isEmpty()) {
+            writeNext();
+        }
+
+        destination.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            if (null != failure) {
+                throw failure;
+            }
+
+            submit(true);
+            while (!inFlight.isEmpty()) {
+                writeNext();
+            }
+        } finally {
+            inFlight.forEach(it -> it.cancel(false));
+            destination.close();
+        }
+    }
+
+    private void submit(boolean last) throws IOException {
+        if (inFlight.size() >= maxInFlight) {
+            writeNext();
+        }
+
+        Segment toEncrypt = current;
+        toEncrypt.index = index++;
+        toEncrypt.last = last;
+        inFlight.addLast(pool.submit(() -> toEncrypt.encrypt(cipher)));
+
+        if (!last) {
+            current = free.isEmpty() ? new Segment(header) : free.pollFirst();
+            current.plainLength = 0;
+        }
+    }
+
+    private void writeNext() throws IOException {
+        try {
+            Segment encrypted = Segment.await(inFlight.pollFirst());
+            destination.write(encrypted.encrypted, 0, encrypted.encryptedLength);
+            free.addLast(encrypted);
+        } catch (IOException ex) {
+            // subsequent segments must not be written after the failed one
+            failure = ex;
+            throw ex;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+
+        if (null != failure) {
+            throw failure;
+        }
+    }
+}
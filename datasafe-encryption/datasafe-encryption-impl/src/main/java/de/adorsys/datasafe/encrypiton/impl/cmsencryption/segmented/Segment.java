@@ -0,0 +1,60 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Reusable plaintext and ciphertext buffers of a single segment that is processed by pool thread.
+ */
+class Segment {
+
+    final byte[] plain;
+    final byte[] encrypted;
+
+    long index;
+    boolean last;
+    int plainLength;
+    int encryptedLength;
+
+    Segment(SegmentedHeader header) {
+        this.plain = new byte[header.getSegmentSize()];
+        this.encrypted = new byte[header.encryptedSegmentSize()];
+    }
+
+    Segment encrypt(SegmentCipher cipher) {
+        encryptedLength = cipher.encrypt(index, last, plain, plainLength, encrypted);
+        return this;
+    }
+
+    Segment decrypt(SegmentCipher cipher) {
+        try {
+            plainLength = cipher.decrypt(index, last, encrypted, encryptedLength, plain);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return this;
+    }
+
+    /**
+     * Waits for segment processing to complete, failures are rethrown as {@link IOException}.
+     */
+    static Segment await(Future<Segment> pending) throws IOException {
+        try {
+            return pending.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for segment");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+
+            throw new IOException("Failed to process segment", cause);
+        }
+    }
+}
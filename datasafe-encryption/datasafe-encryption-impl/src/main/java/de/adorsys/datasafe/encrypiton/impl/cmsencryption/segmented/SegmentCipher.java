@@ -0,0 +1,65 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented;
+
+import lombok.SneakyThrows;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Encrypts and decrypts single segments of a document. Thread-safe - each thread uses its own {@link Cipher}, so
+ * that segments of the same document can be processed concurrently.
+ * Uses the highest-priority JCE provider for AES-GCM, which typically is hardware accelerated.
+ */
+public class SegmentCipher {
+
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(SegmentCipher::newCipher);
+
+    private final SegmentedHeader header;
+
+    public SegmentCipher(SegmentedHeader header) {
+        this.header = header;
+    }
+
+    /**
+     * Encrypts {@code length} bytes of {@code plain} into {@code output}.
+     * @return Bytes written to output, equals to length + tag length
+     */
+    @SneakyThrows
+    public int encrypt(long index, boolean last, byte[] plain, int length, byte[] output) {
+        Cipher cipher = CIPHERS.get();
+        cipher.init(Cipher.ENCRYPT_MODE, header.getKey(), spec(index, last));
+        return cipher.doFinal(plain, 0, length, output, 0);
+    }
+
+    /**
+     * Decrypts and authenticates {@code length} bytes of {@code encrypted} into {@code output}.
+     * @return Count of plaintext bytes
+     * @throws IOException if segment was modified, reordered or truncated
+     */
+    public int decrypt(long index, boolean last, byte[] encrypted, int length, byte[] output) throws IOException {
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, header.getKey(), spec(index, last));
+            return cipher.doFinal(encrypted, 0, length, output, 0);
+        } catch (AEADBadTagException ex) {
+            throw new IOException("Segment " + index + " failed authentication", ex);
+        } catch (GeneralSecurityException ex) {
+            throw new IOException("Failed to decrypt segment " + index, ex);
+        }
+    }
+
+    @SneakyThrows
+    private static Cipher newCipher() {
+        return Cipher.getInstance(SegmentedFormat.CIPHER_ALGORITHM);
+    }
+
+    private GCMParameterSpec spec(long index, boolean last) {
+        return new GCMParameterSpec(
+                SegmentedFormat.TAG_LENGTH * Byte.SIZE,
+                SegmentedFormat.nonce(header.getNoncePrefix(), index, last)
+        );
+    }
+}
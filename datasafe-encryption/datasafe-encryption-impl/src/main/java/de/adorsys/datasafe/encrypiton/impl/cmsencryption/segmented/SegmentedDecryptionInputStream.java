@@ -0,0 +1,134 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * Decrypts and authenticates document segments, starting from arbitrary segment. Closes underlying stream when
+ * closed.
+ */
+public class SegmentedDecryptionInputStream extends InputStream {
+
+    private final PushbackInputStream source;
+    private final SegmentCipher cipher;
+    private final byte[] encrypted;
+    private final byte[] plain;
+
+    private long index;
+    private int position;
+    private int available;
+    private boolean finished;
+
+    /**
+     * @param source Document body positioned at segment {@code firstSegment}
+     * @param header Document key material
+     * @param firstSegment Index of first segment in {@code source}
+     */
+    public SegmentedDecryptionInputStream(InputStream source, SegmentedHeader header, long firstSegment) {
+        this.source = new PushbackInputStream(source, 1);
+        this.cipher = new SegmentCipher(header);
+        this.encrypted = new byte[header.encryptedSegmentSize()];
+        this.plain = new byte[header.getSegmentSize()];
+        this.index = firstSegment;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+
+        return plain[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (0 == len) {
+            return 0;
+        }
+
+        if (!fill()) {
+            return -1;
+        }
+
+        int toCopy = Math.min(len, available - position);
+        System.arraycopy(plain, position, bytes, off, toCopy);
+        position += toCopy;
+        return toCopy;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0 || !fill()) {
+            return 0;
+        }
+
+        int toSkip = (int) Math.min(n, available - position);
+        position += toSkip;
+        return toSkip;
+    }
+
+    @Override
+    public int available() {
+        return available - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private boolean fill() throws IOException {
+        while (position == available) {
+            if (finished) {
+                return false;
+            }
+
+            readSegment();
+        }
+
+        return true;
+    }
+
+    private void readSegment() throws IOException {
+        int read = readFully(encrypted);
+        if (0 == read) {
+            // even empty document has one (last) segment, so each segment is followed by another one or is last
+            throw new IOException("Document is truncated, segment " + index + " is missing");
+        }
+
+        boolean last = read < encrypted.length || isEndOfStream();
+        available = cipher.decrypt(index++, last, encrypted, read, plain);
+        position = 0;
+        finished = last;
+    }
+
+    private boolean isEndOfStream() throws IOException {
+        int next = source.read();
+        if (-1 == next) {
+            return true;
+        }
+
+        source.unread(next);
+        return false;
+    }
+
+    private int readFully(byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = source.read(buffer, total, buffer.length - total);
+            if (-1 == read) {
+                break;
+            }
+
+            total += read;
+        }
+
+        return total;
+    }
+}
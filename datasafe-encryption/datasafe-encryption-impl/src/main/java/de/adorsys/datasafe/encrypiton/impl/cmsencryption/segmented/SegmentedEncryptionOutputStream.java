@@ -0,0 +1,87 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encrypts written bytes segment-by-segment. Segment is only emitted when next byte arrives (or stream is closed),
+ * so that the last segment can be flagged. Closes underlying stream when closed.
+ */
+public class SegmentedEncryptionOutputStream extends OutputStream {
+
+    private final OutputStream destination;
+    private final SegmentCipher cipher;
+    private final byte[] plain;
+    private final byte[] encrypted;
+
+    private int buffered;
+    private long index;
+    private boolean closed;
+
+    /**
+     * @param destination Where to write segments, must already contain document header
+     * @param header Document key material
+     */
+    public SegmentedEncryptionOutputStream(OutputStream destination, SegmentedHeader header) {
+        this.destination = destination;
+        this.cipher = new SegmentCipher(header);
+        this.plain = new byte[header.getSegmentSize()];
+        this.encrypted = new byte[header.encryptedSegmentSize()];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (buffered == plain.length) {
+            emit(false);
+        }
+
+        plain[buffered++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureOpen();
+        while (len > 0) {
+            if (buffered == plain.length) {
+                emit(false);
+            }
+
+            int toCopy = Math.min(len, plain.length - buffered);
+            System.arraycopy(bytes, off, plain, buffered, toCopy);
+            buffered += toCopy;
+            off += toCopy;
+            len -= toCopy;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            emit(true);
+        } finally {
+            destination.close();
+        }
+    }
+
+    private void emit(boolean last) throws IOException {
+        int length = cipher.encrypt(index++, last, plain, buffered, encrypted);
+        destination.write(encrypted, 0, length);
+        buffered = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
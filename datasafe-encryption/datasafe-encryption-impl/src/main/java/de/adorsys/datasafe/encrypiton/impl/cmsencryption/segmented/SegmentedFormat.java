@@ -0,0 +1,141 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented;
+
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.exceptions.DecryptionException;
+import lombok.experimental.UtilityClass;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Document layout of segmented format:
+ * <pre>
+ * MAGIC (4 bytes) | CMS header length (4 bytes) | CMS EnvelopedData with {@link SegmentedHeader} | segments
+ * </pre>
+ * Each segment is AES-GCM encrypted with nonce = nonce prefix (7 bytes) | segment index (4 bytes) | last flag (1 byte),
+ * so segments can't be reordered, and truncation is detected because only the last segment has the last flag.
+ * CMS documents start with ASN.1 SEQUENCE tag (0x30) so they can't be confused with MAGIC.
+ */
+@UtilityClass
+public class SegmentedFormat {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * Largest segment size that can be written or read, segment buffers are allocated using header value.
+     */
+    public static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Largest CMS header that can be written or read, it holds only document key for a few recipients - about a
+     * hundred of RSA 4096 recipients fit in.
+     */
+    public static final int MAX_CMS_HEADER_LENGTH = 64 * 1024;
+
+    static final String KEY_ALGORITHM = "AES";
+    static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    static final int NONCE_PREFIX_LENGTH = 7;
+    static final int NONCE_LENGTH = 12;
+    static final int TAG_LENGTH = 16;
+
+    private static final byte[] MAGIC = {'D', 'S', 'G', 1};
+
+    /**
+     * Bytes that precede CMS header.
+     */
+    public static final int PREAMBLE_LENGTH = MAGIC.length + Integer.BYTES;
+
+    /**
+     * @param documentStart At least first {@link SegmentedFormat#PREAMBLE_LENGTH} bytes of the document
+     * @return If document is in segmented format.
+     */
+    public boolean isSegmented(byte[] documentStart) {
+        return documentStart.length >= MAGIC.length
+                && Arrays.equals(MAGIC, Arrays.copyOf(documentStart, MAGIC.length));
+    }
+
+    /**
+     * Writes preamble and CMS header, nothing is written if header exceeds {@link #MAX_CMS_HEADER_LENGTH}, so
+     * that document that can't be read back is never produced.
+     */
+    public void writeHeader(OutputStream os, byte[] cmsHeader) throws IOException {
+        if (cmsHeader.length > MAX_CMS_HEADER_LENGTH) {
+            throw new IllegalArgumentException(
+                    "CMS header length " + cmsHeader.length + " exceeds " + MAX_CMS_HEADER_LENGTH
+                            + " bytes, too many recipients"
+            );
+        }
+
+        DataOutputStream data = new DataOutputStream(os);
+        data.write(MAGIC);
+        data.writeInt(cmsHeader.length);
+        data.write(cmsHeader);
+        data.flush();
+    }
+
+    /**
+     * Reads CMS header from document start, stream will be positioned at the first segment.
+     */
+    public byte[] readHeader(InputStream is) throws IOException {
+        DataInputStream data = new DataInputStream(is);
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!isSegmented(magic)) {
+            throw new IOException("Not a segmented document");
+        }
+
+        byte[] cmsHeader = new byte[cmsHeaderLength(data.readInt())];
+        data.readFully(cmsHeader);
+        return cmsHeader;
+    }
+
+    /**
+     * @param preamble Document start, at least {@link SegmentedFormat#PREAMBLE_LENGTH} bytes
+     * @return Length of CMS header
+     */
+    public int cmsHeaderLength(byte[] preamble) {
+        if (preamble.length < PREAMBLE_LENGTH) {
+            throw new DecryptionException("Document header is truncated");
+        }
+
+        return cmsHeaderLength(
+                ((preamble[4] & 0xFF) << 24) | ((preamble[5] & 0xFF) << 16)
+                        | ((preamble[6] & 0xFF) << 8) | (preamble[7] & 0xFF)
+        );
+    }
+
+    /**
+     * @return Position of segment {@code index} within document.
+     */
+    public long segmentOffset(int cmsHeaderLength, SegmentedHeader header, long index) {
+        return PREAMBLE_LENGTH + cmsHeaderLength + index * header.encryptedSegmentSize();
+    }
+
+    /**
+     * Builds nonce of segment.
+     */
+    byte[] nonce(byte[] noncePrefix, long index, boolean last) {
+        if (index < 0 || index > 0xFFFFFFFFL) {
+            throw new IllegalStateException("Too many segments");
+        }
+
+        byte[] nonce = Arrays.copyOf(noncePrefix, NONCE_LENGTH);
+        nonce[7] = (byte) (index >>> 24);
+        nonce[8] = (byte) (index >>> 16);
+        nonce[9] = (byte) (index >>> 8);
+        nonce[10] = (byte) index;
+        nonce[11] = (byte) (last ? 1 : 0);
+        return nonce;
+    }
+
+    private int cmsHeaderLength(int length) {
+        if (length <= 0 || length > MAX_CMS_HEADER_LENGTH) {
+            throw new DecryptionException("Invalid header length " + length);
+        }
+
+        return length;
+    }
+}
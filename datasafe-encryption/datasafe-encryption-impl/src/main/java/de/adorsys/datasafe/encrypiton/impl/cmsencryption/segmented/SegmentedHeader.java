@@ -0,0 +1,120 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented;
+
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.exceptions.DecryptionException;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+
+/**
+ * Per-document key material of segmented format, stored encrypted inside CMS envelope.
+ */
+@Getter
+public class SegmentedHeader {
+
+    private static final byte VERSION = 1;
+    private static final int KEY_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Count of plaintext bytes in each segment except the last one.
+     */
+    private final int segmentSize;
+
+    /**
+     * Random nonce part that is shared by all segments of the document.
+     */
+    private final byte[] noncePrefix;
+
+    /**
+     * Document content encryption key.
+     */
+    private final SecretKey key;
+
+    SegmentedHeader(int segmentSize, byte[] noncePrefix, SecretKey key) {
+        this.segmentSize = segmentSize;
+        this.noncePrefix = noncePrefix;
+        this.key = key;
+    }
+
+    /**
+     * Creates header with new random key and nonce prefix.
+     * @param segmentSize Plaintext segment size, from 1 to {@link SegmentedFormat#MAX_SEGMENT_SIZE}
+     */
+    @SneakyThrows
+    public static SegmentedHeader generate(int segmentSize) {
+        if (!isValidSegmentSize(segmentSize)) {
+            throw new IllegalArgumentException(
+                    "Segment size must be between 1 and " + SegmentedFormat.MAX_SEGMENT_SIZE);
+        }
+
+        KeyGenerator generator = KeyGenerator.getInstance(SegmentedFormat.KEY_ALGORITHM);
+        generator.init(KEY_BITS, RANDOM);
+        byte[] noncePrefix = new byte[SegmentedFormat.NONCE_PREFIX_LENGTH];
+        RANDOM.nextBytes(noncePrefix);
+        return new SegmentedHeader(segmentSize, noncePrefix, generator.generateKey());
+    }
+
+    /**
+     * Reads header that was written by {@link SegmentedHeader#serialize()}.
+     */
+    public static SegmentedHeader deserialize(InputStream is) throws IOException {
+        DataInputStream data = new DataInputStream(is);
+        byte version = data.readByte();
+        if (VERSION != version) {
+            throw new DecryptionException("Unsupported segmented format version " + version);
+        }
+
+        int segmentSize = data.readInt();
+        if (!isValidSegmentSize(segmentSize)) {
+            throw new DecryptionException("Invalid segment size " + segmentSize);
+        }
+
+        byte[] noncePrefix = new byte[SegmentedFormat.NONCE_PREFIX_LENGTH];
+        data.readFully(noncePrefix);
+        int keyLength = data.readUnsignedByte();
+        if (KEY_BITS / Byte.SIZE != keyLength) {
+            throw new DecryptionException("Invalid document key length " + keyLength);
+        }
+
+        byte[] key = new byte[keyLength];
+        data.readFully(key);
+        return new SegmentedHeader(segmentSize, noncePrefix, new SecretKeySpec(key, SegmentedFormat.KEY_ALGORITHM));
+    }
+
+    /**
+     * @return Header bytes to be encrypted in CMS envelope.
+     */
+    @SneakyThrows
+    public byte[] serialize() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeByte(VERSION);
+        data.writeInt(segmentSize);
+        data.write(noncePrefix);
+        byte[] encodedKey = key.getEncoded();
+        data.writeByte(encodedKey.length);
+        data.write(encodedKey);
+        data.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return Size of encrypted segment (except last one) in document body.
+     */
+    public int encryptedSegmentSize() {
+        return segmentSize + SegmentedFormat.TAG_LENGTH;
+    }
+
+    private static boolean isValidSegmentSize(int segmentSize) {
+        return segmentSize > 0 && segmentSize <= SegmentedFormat.MAX_SEGMENT_SIZE;
+    }
+}
@@ -19,7 +19,8 @@ import java.io.InputStream;
 import java.util.List;
 
 /**
- * Reads CMS-encrypted document from DFS.
+ * Reads CMS-encrypted document from DFS. If request has byte range, only the part of the document that is
+ * necessary to decrypt the range is read, when document format allows it.
  */
 @RuntimeDelegate
 public class CMSDocumentReadService implements EncryptedDocumentReadService {
@@ -39,6 +40,14 @@ public class CMSDocumentReadService implements EncryptedDocumentReadService {
     @Override
     @SneakyThrows
     public InputStream read(ReadRequest<UserIDAuth, AbsoluteLocation<PrivateResource>> request) {
+        if (null != request.getRange()) {
+            return cms.buildDecryptionInputStream(
+                    range -> readService.read(request.getLocation(), range),
+                    request.getRange(),
+                    keyId -> privateKeyService.keysByIds(request.getOwner(), keyId)
+            );
+        }
+
         InputStream dfsSource = readService.read(request.getLocation());
 
         InputStream encryptionSource = cms.buildDecryptionInputStream(
@@ -51,7 +60,8 @@ public class CMSDocumentReadService implements EncryptedDocumentReadService {
 
     /**
      * This class fixes issue that bouncy castle does not close underlying stream - example: DFS stream
-     * when wrapping it.
+     * when wrapping it. Bulk operations are delegated as is, so that copying document does not go byte-by-byte
+     * through decryption chain.
      */
     @RequiredArgsConstructor
     private static final class CloseCoordinatingStream extends InputStream {
@@ -64,6 +74,21 @@ public class CMSDocumentReadService implements EncryptedDocumentReadService {
             return streamToRead.read();
         }
 
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            return streamToRead.read(bytes, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return streamToRead.skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return streamToRead.available();
+        }
+
         @Override
         @SneakyThrows
         public void close() {
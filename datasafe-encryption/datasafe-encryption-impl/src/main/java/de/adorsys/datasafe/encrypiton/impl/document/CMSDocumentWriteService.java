@@ -9,8 +9,10 @@ import de.adorsys.datasafe.storage.api.actions.StorageWriteService;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.utils.Abortable;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
 import java.io.IOException;
@@ -66,10 +68,12 @@ public class CMSDocumentWriteService implements EncryptedDocumentWriteService {
 
     /**
      * This class fixes issue that bouncy castle does not close underlying stream - example: DFS stream
-     * when wrapping it.
+     * when wrapping it. On abort DFS streams are aborted (or closed if they can't be aborted) before encryption
+     * stream is closed, so that encryption is not finalized and incomplete document can't look complete.
      */
+    @Slf4j
     @RequiredArgsConstructor
-    private static final class CloseCoordinatingStream extends OutputStream {
+    private static final class CloseCoordinatingStream extends OutputStream implements Abortable {
 
         private final OutputStream streamToWrite;
         private final List<OutputStream> streamsToClose;
@@ -84,6 +88,11 @@ public class CMSDocumentWriteService implements EncryptedDocumentWriteService {
             streamToWrite.write(bytes, off, len);
         }
 
+        @Override
+        public void flush() throws IOException {
+            streamToWrite.flush();
+        }
+
         @Override
         @SneakyThrows
         public void close() {
@@ -91,11 +100,30 @@ public class CMSDocumentWriteService implements EncryptedDocumentWriteService {
             streamsToClose.forEach(CloseCoordinatingStream::doClose);
         }
 
+        @Override
+        public void abort() throws IOException {
+            for (OutputStream stream : streamsToClose) {
+                if (stream != streamToWrite) {
+                    Abortable.abortOrClose(stream);
+                }
+            }
+
+            closeQuietly(streamToWrite);
+        }
 
         @SneakyThrows
         private static void doClose(OutputStream stream) {
             stream.close();
         }
+
+        // releases encryption stream resources, its final write into closed DFS stream fails
+        private static void closeQuietly(OutputStream stream) {
+            try {
+                stream.close();
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Failed closing aborted stream: {}", ex.getMessage());
+            }
+        }
     }
 
     /**
@@ -103,7 +131,7 @@ public class CMSDocumentWriteService implements EncryptedDocumentWriteService {
      * byte to multiple recipients.
      */
     @RequiredArgsConstructor
-    private static final class FanOutStream extends OutputStream {
+    private static final class FanOutStream extends OutputStream implements Abortable {
 
         private final List<OutputStream> destinations;
 
@@ -121,6 +149,13 @@ public class CMSDocumentWriteService implements EncryptedDocumentWriteService {
             }
         }
 
+        @Override
+        public void flush() throws IOException {
+            for (OutputStream destination : destinations) {
+                destination.flush();
+            }
+        }
+
         @Override
         @SneakyThrows
         public void close() {
@@ -129,5 +164,12 @@ public class CMSDocumentWriteService implements EncryptedDocumentWriteService {
                 destination.close();
             }
         }
+
+        @Override
+        public void abort() throws IOException {
+            for (OutputStream destination : destinations) {
+                Abortable.abortOrClose(destination);
+            }
+        }
     }
 }
@@ -0,0 +1,185 @@
+package de.adorsys.datasafe.encrypiton.impl.pathencryption;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import de.adorsys.datasafe.encrypiton.api.pathencryption.encryption.SymmetricPathEncryptionService;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import lombok.SneakyThrows;
+import lombok.Value;
+
+import javax.crypto.SecretKey;
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Decorator of {@link SymmetricPathEncryptionService} that memoizes encryption and decryption of each path segment,
+ * so that common prefixes like {@code documents/2024/invoices} and repeatedly listed directory names are processed
+ * by underlying service only once. Relies on segment encryption being deterministic for the same key.
+ * Segments are cached per secret key instance (by identity) in least-recently-used cache bounded by approximate
+ * memory footprint. Segments of the key that is no longer referenced can't be hit anymore and age out,
+ * {@link CachingSymmetricPathEncryptionService#invalidate(SecretKey)} drops them immediately - unlocked key cache
+ * calls it when user keys are invalidated.
+ * Invalidation only reaches cached segments if it is called on the same instance that serves requests, so it should
+ * be single (Dagger singleton) instance shared by path encryption and unlocked key cache.
+ */
+public class CachingSymmetricPathEncryptionService implements SymmetricPathEncryptionService {
+
+    public static final long DEFAULT_MAXIMUM_MEMORY_BYTES = 32L * 1024 * 1024;
+
+    private static final String CURRENT_DIR = "./";
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final SymmetricPathEncryptionService delegate;
+
+    // weak keys - compares secret keys by identity and does not keep them after their owner forgets them
+    private final Cache<SecretKey, KeyToken> tokens = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    private final Cache<CachedSegment, String> segments;
+
+    public CachingSymmetricPathEncryptionService(SymmetricPathEncryptionService delegate) {
+        this(delegate, DEFAULT_MAXIMUM_MEMORY_BYTES);
+    }
+
+    /**
+     * @param delegate Service that does actual path segment encryption
+     * @param maximumMemoryBytes Approximate limit of memory occupied by cached segments of all keys
+     */
+    public CachingSymmetricPathEncryptionService(SymmetricPathEncryptionService delegate, long maximumMemoryBytes) {
+        this.delegate = delegate;
+        this.segments = CacheBuilder.newBuilder()
+                .maximumWeight(maximumMemoryBytes)
+                .<CachedSegment, String>weigher((segment, result) -> ENTRY_OVERHEAD_BYTES
+                        + Character.BYTES * (segment.getSegment().length() + result.length()))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Encrypts each URI segment separately, segments that were encrypted with this key are taken from cache.
+     */
+    @Override
+    public Uri encrypt(SecretKey secretKey, Uri bucketPath) {
+        validate(secretKey, bucketPath);
+        if (hasEmptySegments(bucketPath)) {
+            return delegate.encrypt(secretKey, bucketPath);
+        }
+
+        KeyToken token = token(secretKey);
+        return PathSegments.process(
+                bucketPath,
+                segment -> cached(token, true, segment, () -> strip(delegate.encrypt(secretKey, asUri(segment))))
+        );
+    }
+
+    /**
+     * Decrypts each URI segment separately, segments that were decrypted with this key are taken from cache.
+     */
+    @Override
+    public Uri decrypt(SecretKey secretKey, Uri bucketPath) {
+        validate(secretKey, bucketPath);
+        if (hasEmptySegments(bucketPath)) {
+            return delegate.decrypt(secretKey, bucketPath);
+        }
+
+        KeyToken token = token(secretKey);
+        return PathSegments.process(
+                bucketPath,
+                segment -> cached(token, false, segment, () -> strip(delegate.decrypt(secretKey, asUri(segment))))
+        );
+    }
+
+    /**
+     * Drops all cached segments of the key, call it when key is revoked or its owner logs out.
+     * @param secretKey Key which segments to drop
+     */
+    @Override
+    public void invalidate(SecretKey secretKey) {
+        KeyToken token = tokens.getIfPresent(secretKey);
+        if (null == token) {
+            return;
+        }
+
+        tokens.invalidate(secretKey);
+        segments.asMap().keySet().removeIf(it -> it.getToken() == token);
+    }
+
+    /**
+     * Drops all cached segments.
+     */
+    public void invalidateAll() {
+        tokens.invalidateAll();
+        segments.invalidateAll();
+    }
+
+    /**
+     * @return Segment cache hit and eviction statistics.
+     */
+    public CacheStats stats() {
+        return segments.stats();
+    }
+
+    @SneakyThrows
+    private KeyToken token(SecretKey secretKey) {
+        return tokens.get(secretKey, KeyToken::new);
+    }
+
+    @SneakyThrows
+    private String cached(KeyToken token, boolean encrypt, String segment, Callable<String> compute) {
+        try {
+            return segments.get(new CachedSegment(token, encrypt, segment), compute);
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            // keep exceptions same as of underlying service
+            throw ex.getCause();
+        }
+    }
+
+    // empty segments can't be represented as standalone relative path, such paths are not cached
+    private static boolean hasEmptySegments(Uri bucketPath) {
+        String path = bucketPath.getPath();
+        String withoutPrefix = path.startsWith(CURRENT_DIR) ? path.substring(CURRENT_DIR.length()) : path;
+        return withoutPrefix.startsWith("/") || withoutPrefix.contains("//");
+    }
+
+    // './' prefix keeps segment relative even if it contains ':'
+    @SneakyThrows
+    private static Uri asUri(String segment) {
+        return new Uri(new URI(null, null, CURRENT_DIR + segment, null));
+    }
+
+    private static String strip(Uri segment) {
+        return segment.getWrapped().getRawPath().substring(CURRENT_DIR.length());
+    }
+
+    private static void validate(SecretKey secretKey, Uri bucketPath) {
+        if (null == secretKey) {
+            throw new IllegalArgumentException("Secret key should not be null");
+        }
+
+        if (null == bucketPath) {
+            throw new IllegalArgumentException("Bucket path should not be null");
+        }
+
+        if (bucketPath.isAbsolute()) {
+            throw new IllegalArgumentException("URI should be relative");
+        }
+    }
+
+    /**
+     * Identity of secret key that outlives cache entries, so that entries of collected key can't be hit.
+     */
+    private static class KeyToken {
+    }
+
+    @Value
+    private static class CachedSegment {
+
+        private final KeyToken token;
+        private final boolean encrypt;
+        private final String segment;
+    }
+}
@@ -1,5 +1,7 @@
 package de.adorsys.datasafe.encrypiton.impl.pathencryption;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import lombok.SneakyThrows;
 
@@ -10,16 +12,35 @@ import javax.inject.Inject;
 import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Default path encryption/decryption that uses encryption specified by {@link DefaultPathDigestConfig} and
  * encodes resulting bytes using Base64-urlsafe encoding.
+ * Derived keys are memoized per secret key instance and cipher instances are reused by the thread that
+ * requested them, so that digest and provider lookup do not happen on each path. Reused cipher is
+ * re-initialized, so that state left by failed operation (i.e. broken path) does not leak into the next one.
  */
 @RuntimeDelegate
 public class DefaultPathEncryption implements PathEncryptionConfig {
 
+    private static final int DERIVED_KEYS_CACHE_SIZE = 10_000;
+    private static final int CIPHERS_PER_THREAD = 16;
+
     private final DefaultPathDigestConfig digestConfig;
 
+    // weak keys - compares secret keys by identity and does not keep them after their owner forgets them
+    private final Cache<SecretKey, SecretKeySpec> derivedKeys = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(DERIVED_KEYS_CACHE_SIZE)
+            .build();
+
+    private final ThreadLocal<Map<SecretKeySpec, Cipher>> encryptionCiphers =
+            ThreadLocal.withInitial(DefaultPathEncryption::cipherCache);
+    private final ThreadLocal<Map<SecretKeySpec, Cipher>> decryptionCiphers =
+            ThreadLocal.withInitial(DefaultPathEncryption::cipherCache);
+
     @Inject
     public DefaultPathEncryption(DefaultPathDigestConfig config) {
         this.digestConfig = config;
@@ -27,12 +48,12 @@ public class DefaultPathEncryption implements PathEncryptionConfig {
 
     @Override
     public Cipher encryptionCipher(SecretKey secretKey) {
-        return createCipher(secretKey, digestConfig, Cipher.ENCRYPT_MODE);
+        return cipher(encryptionCiphers.get(), derivedKey(secretKey), Cipher.ENCRYPT_MODE);
     }
 
     @Override
     public Cipher decryptionCipher(SecretKey secretKey) {
-        return createCipher(secretKey, digestConfig, Cipher.DECRYPT_MODE);
+        return cipher(decryptionCiphers.get(), derivedKey(secretKey), Cipher.DECRYPT_MODE);
     }
 
     @Override
@@ -46,17 +67,39 @@ public class DefaultPathEncryption implements PathEncryptionConfig {
     }
 
     @SneakyThrows
-    private static Cipher createCipher(SecretKey secretKey, DefaultPathDigestConfig config, int cipherMode) {
+    private SecretKeySpec derivedKey(SecretKey secretKey) {
+        return derivedKeys.get(secretKey, () -> deriveKey(secretKey, digestConfig));
+    }
+
+    @SneakyThrows
+    private static SecretKeySpec deriveKey(SecretKey secretKey, DefaultPathDigestConfig config) {
         byte[] key = secretKey.getEncoded();
         MessageDigest sha = MessageDigest.getInstance(config.getMessageDigest());
         key = sha.digest(key);
 
         key = Arrays.copyOf(key, config.getShaKeyPartSize());
 
-        SecretKeySpec secretKeySpec = new SecretKeySpec(key, config.getAlgorithm());
+        return new SecretKeySpec(key, config.getAlgorithm());
+    }
+
+    @SneakyThrows
+    private Cipher cipher(Map<SecretKeySpec, Cipher> ciphers, SecretKeySpec secretKeySpec, int cipherMode) {
+        Cipher cipher = ciphers.get(secretKeySpec);
+        if (null == cipher) {
+            cipher = Cipher.getInstance(digestConfig.getAlgorithm());
+            ciphers.put(secretKeySpec, cipher);
+        }
 
-        Cipher cipher = Cipher.getInstance(config.getAlgorithm());
         cipher.init(cipherMode, secretKeySpec);
         return cipher;
     }
+
+    private static Map<SecretKeySpec, Cipher> cipherCache() {
+        return new LinkedHashMap<SecretKeySpec, Cipher>(CIPHERS_PER_THREAD, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SecretKeySpec, Cipher> eldest) {
+                return size() > CIPHERS_PER_THREAD;
+            }
+        };
+    }
 }
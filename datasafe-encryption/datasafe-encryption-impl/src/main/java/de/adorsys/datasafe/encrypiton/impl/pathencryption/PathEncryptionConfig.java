@@ -10,13 +10,15 @@ public interface PathEncryptionConfig {
 
     /**
      * @param secretKey Use this secret key
-     * @return Path encryption cipher that uses {@code secretKey}
+     * @return Path encryption cipher that uses {@code secretKey}, it may be reused by subsequent calls from
+     * the same thread, so it must be used only by calling thread and only with complete {@code doFinal} operations
      */
     Cipher encryptionCipher(SecretKey secretKey);
 
     /**
      * @param secretKey Use this secret key
-     * @return Path decryption cipher that uses {@code secretKey}
+     * @return Path decryption cipher that uses {@code secretKey}, it may be reused by subsequent calls from
+     * the same thread, so it must be used only by calling thread and only with complete {@code doFinal} operations
      */
     Cipher decryptionCipher(SecretKey secretKey);
 
@@ -11,6 +11,7 @@ import de.adorsys.datasafe.types.api.utils.Obfuscate;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
+import java.util.function.Function;
 
 /**
  * Default path encryption service that uses {@link PrivateKeyService#pathEncryptionSecretKey(UserIDAuth)} as
@@ -47,10 +48,21 @@ public class PathEncryptionImpl implements PathEncryption {
      */
     @Override
     public Uri decrypt(UserIDAuth forUser, Uri path) {
+        return decryptor(forUser).apply(path);
+    }
+
+    /**
+     * Reads key from {@link PrivateKeyService} and decrypts URIs with it using
+     * {@link SymmetricPathEncryptionService}
+     */
+    @Override
+    public Function<Uri, Uri> decryptor(UserIDAuth forUser) {
         SecretKeyIDWithKey keySpec = privateKeyService.pathEncryptionSecretKey(forUser);
-        Uri decrypt = bucketPathEncryptionService.decrypt(keySpec.getSecretKey(), path);
-        log.debug("decrypted path {} for user {} path {}", Obfuscate.secure(decrypt.getPath()),
-                Obfuscate.secure(forUser.getUserID()), Obfuscate.secure(path.getPath()));
-        return decrypt;
+        return path -> {
+            Uri decrypt = bucketPathEncryptionService.decrypt(keySpec.getSecretKey(), path);
+            log.debug("decrypted path {} for user {} path {}", Obfuscate.secure(decrypt.getPath()),
+                    Obfuscate.secure(forUser.getUserID()), Obfuscate.secure(path.getPath()));
+            return decrypt;
+        };
     }
 }
@@ -0,0 +1,53 @@
+package de.adorsys.datasafe.encrypiton.impl.pathencryption;
+
+import de.adorsys.datasafe.types.api.resource.Uri;
+
+import java.util.function.Function;
+
+/**
+ * Applies transformation to each segment of relative URI path keeping its structure.
+ */
+final class PathSegments {
+
+    private static final String PATH_SEPARATOR = "/";
+    private static final String CURRENT_DIR = "./";
+
+    private PathSegments() {
+    }
+
+    /**
+     * @param bucketPath Relative path, may start with {@code ./}
+     * @param process Segment transformation
+     * @return Path with each segment transformed, {@code ./} prefix and trailing {@code /} (directory) retained.
+     */
+    static Uri process(Uri bucketPath, Function<String, String> process) {
+        StringBuilder result = new StringBuilder();
+
+        String path = bucketPath.getPath();
+        if (bucketPath.getPath().startsWith(CURRENT_DIR)) {
+            result.append(CURRENT_DIR);
+            path = bucketPath.getPath().substring(2);
+        }
+
+        if (path.isEmpty()) {
+            return new Uri(result.toString());
+        }
+        boolean hasStarted = false;
+        for (String part : path.split(PATH_SEPARATOR)) {
+
+            if (hasStarted) {
+                result.append(PATH_SEPARATOR);
+            }
+
+            result.append(process.apply(part));
+
+            hasStarted = true;
+        }
+
+        if (hasStarted && path.endsWith(PATH_SEPARATOR)) {
+            result.append(PATH_SEPARATOR);
+        }
+
+        return new Uri(result.toString());
+    }
+}
@@ -9,7 +9,6 @@ import lombok.extern.slf4j.Slf4j;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.inject.Inject;
-import java.util.function.Function;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -22,8 +21,6 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 @RuntimeDelegate
 public class SymmetricPathEncryptionServiceImpl implements SymmetricPathEncryptionService {
 
-    private static final String PATH_SEPARATOR = "/";
-
     private final PathEncryptionConfig encryptionConfig;
 
     @Inject
@@ -31,6 +28,14 @@ public class SymmetricPathEncryptionServiceImpl implements SymmetricPathEncrypti
         this.encryptionConfig = encryptionConfig;
     }
 
+    /**
+     * Nothing is kept per key, declared so that runtime override that caches by key gets invalidation calls.
+     */
+    @Override
+    public void invalidate(SecretKey secretKey) {
+        // no per-key state
+    }
+
     /**
      * Encrypts each URI segment separately and composes them back in same order.
      */
@@ -42,7 +47,7 @@ public class SymmetricPathEncryptionServiceImpl implements SymmetricPathEncrypti
 
         Cipher cipher = encryptionConfig.encryptionCipher(secretKey);
 
-        return processURIparts(
+        return PathSegments.process(
                 bucketPath,
                 str -> encode(str, cipher)
         );
@@ -59,7 +64,7 @@ public class SymmetricPathEncryptionServiceImpl implements SymmetricPathEncrypti
 
         Cipher cipher = encryptionConfig.decryptionCipher(secretKey);
 
-        return processURIparts(
+        return PathSegments.process(
                 bucketPath,
                 str -> decode(str, cipher)
         );
@@ -75,33 +80,6 @@ public class SymmetricPathEncryptionServiceImpl implements SymmetricPathEncrypti
         return encryptionConfig.byteSerializer(cipher.doFinal(str.getBytes(UTF_8)));
     }
 
-    private static Uri processURIparts(Uri bucketPath, Function<String, String> process) {
-        StringBuilder result = new StringBuilder();
-
-        String path = bucketPath.getPath();
-        if (bucketPath.getPath().startsWith("./")) {
-            result.append("./");
-            path = bucketPath.getPath().substring(2);
-        }
-
-        if (path.isEmpty()) {
-            return new Uri(result.toString());
-        }
-        boolean hasStarted = false;
-        for (String part : path.split(PATH_SEPARATOR)) {
-
-            if (hasStarted) {
-                result.append(PATH_SEPARATOR);
-            }
-
-            result.append(process.apply(part));
-
-            hasStarted = true;
-        }
-
-        return new Uri(result.toString());
-    }
-
     private static void validateArgs(SecretKey secretKey, Uri bucketPath) {
         if (null == secretKey) {
             throw new IllegalArgumentException("Secret key should not be null");
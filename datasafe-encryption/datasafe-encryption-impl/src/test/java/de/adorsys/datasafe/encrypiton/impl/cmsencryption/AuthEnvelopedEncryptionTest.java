@@ -0,0 +1,224 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption;
+
+import com.google.common.io.ByteStreams;
+import de.adorsys.datasafe.encrypiton.api.cmsencryption.CMSEncryptionService;
+import de.adorsys.datasafe.encrypiton.api.keystore.KeyStoreService;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.*;
+import de.adorsys.datasafe.encrypiton.impl.keystore.KeyStoreServiceImpl;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
+import lombok.SneakyThrows;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.cms.AuthEnvelopedData;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.asn1.cms.ContentInfo;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.KeyStore;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static de.adorsys.datasafe.encrypiton.api.types.keystore.KeyStoreCreationConfig.SYMM_KEY_ID;
+import static de.adorsys.datasafe.encrypiton.impl.cmsencryption.KeyStoreUtil.getKeys;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthEnvelopedEncryptionTest {
+
+    private CMSEncryptionService gcm = new CMSEncryptionServiceImpl(
+            DefaultCMSEncryptionConfig.builder().algorithm(DatasafeCryptoAlgorithm.AES256_GCM).build()
+    );
+
+    private CMSEncryptionService cbc = new CMSEncryptionServiceImpl(new DefaultCMSEncryptionConfig());
+
+    private KeyStoreService keyStoreService = new KeyStoreServiceImpl();
+    private KeyStoreAuth keyStoreAuth = new KeyStoreAuth(
+            new ReadStorePassword("readstorepassword"),
+            new ReadKeyPassword("readkeypassword")
+    );
+    private KeyStore keyStore = keyStoreService.createKeyStore(
+            keyStoreAuth, KeyStoreType.DEFAULT, new KeyStoreCreationConfig(1, 1)
+    );
+    private KeyStoreAccess keyStoreAccess = new KeyStoreAccess(keyStore, keyStoreAuth);
+
+    @BeforeAll
+    static void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 16, 8191, 8192, 8193, 100_000})
+    void symmetricRoundTrip(int size) {
+        byte[] content = content(size);
+
+        byte[] encrypted = encryptSymmetric(gcm, content);
+
+        assertThat(decrypt(gcm, encrypted)).isEqualTo(content);
+        assertThat(decrypt(cbc, encrypted)).isEqualTo(content);
+    }
+
+    @Test
+    void asymmetricRoundTrip() {
+        byte[] content = content(12_345);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        write(gcm.buildEncryptionOutputStream(os, keyStoreService.getPublicKeys(keyStoreAccess)
+                .stream().findFirst().map(Collections::singleton).get()), content);
+
+        assertThat(decrypt(gcm, os.toByteArray())).isEqualTo(content);
+    }
+
+    @Test
+    void writesStandardAuthEnvelopedData() {
+        byte[] encrypted = encryptSymmetric(gcm, content(100));
+
+        ContentInfo contentInfo = ContentInfo.getInstance(asn1(encrypted));
+        AuthEnvelopedData authEnvelopedData = AuthEnvelopedData.getInstance(contentInfo.getContent());
+
+        assertThat(contentInfo.getContentType()).isEqualTo(CMSObjectIdentifiers.authEnvelopedData);
+        assertThat(authEnvelopedData.getRecipientInfos().size()).isEqualTo(1);
+        assertThat(authEnvelopedData.getAuthEncryptedContentInfo().getContentEncryptionAlgorithm().getAlgorithm())
+                .isEqualTo(DatasafeCryptoAlgorithm.AES256_GCM);
+        assertThat(authEnvelopedData.getMac().getOctets()).hasSize(16);
+    }
+
+    @Test
+    void cbcDocumentIsReadByGcmConfig() {
+        byte[] content = content(1000);
+
+        assertThat(decrypt(gcm, encryptSymmetric(cbc, content))).isEqualTo(content);
+    }
+
+    @Test
+    void modifiedContentIsDetected() {
+        byte[] encrypted = encryptSymmetric(gcm, content(1000));
+        encrypted[encrypted.length - 100] ^= 1;
+
+        assertThatThrownBy(() -> decrypt(gcm, encrypted)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @SneakyThrows
+    void lastChunkIsHeldBackUntilAuthenticated() {
+        byte[] content = content(100_000);
+        byte[] encrypted = encryptSymmetric(gcm, content);
+        byte[] mac = AuthEnvelopedData.getInstance(ContentInfo.getInstance(asn1(encrypted)).getContent())
+                .getMac()
+                .getOctets();
+        encrypted[lastIndexOf(encrypted, mac)] ^= 1;
+
+        byte[] buffer = new byte[1024];
+        int released = 0;
+        try (InputStream is = gcm.buildDecryptionInputStream(
+                new ByteArrayInputStream(encrypted), keyIds -> getKeys(keyIds, keyStoreAccess))) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                released += read;
+            }
+        } catch (IOException ex) {
+            assertThat(released).isLessThan(content.length);
+            return;
+        }
+
+        throw new AssertionError("Modified document was read till the end");
+    }
+
+    @Test
+    void decryptionProviderIsConfigurable() {
+        CMSEncryptionService jdkDecryption = new CMSEncryptionServiceImpl(
+                DefaultCMSEncryptionConfig.builder()
+                        .algorithm(DatasafeCryptoAlgorithm.AES256_GCM)
+                        .authEnvelopedDecryptionProvider("SunJCE")
+                        .build()
+        );
+        byte[] content = content(10_000);
+
+        assertThat(decrypt(jdkDecryption, encryptSymmetric(gcm, content))).isEqualTo(content);
+    }
+
+    @Test
+    void segmentedDocumentWithAuthEnvelopedHeader() {
+        CMSEncryptionService segmented = new CMSEncryptionServiceImpl(
+                DefaultCMSEncryptionConfig.builder()
+                        .algorithm(DatasafeCryptoAlgorithm.AES256_GCM)
+                        .format(DocumentEncryptionFormat.SEGMENTED_AEAD)
+                        .segmentSize(128)
+                        .build()
+        );
+        byte[] content = content(1000);
+        byte[] encrypted = encryptSymmetric(segmented, content);
+
+        assertThat(decrypt(cbc, encrypted)).isEqualTo(content);
+        assertThat(decryptRange(segmented, encrypted, ByteRange.of(300, 200)))
+                .isEqualTo(Arrays.copyOfRange(content, 300, 500));
+    }
+
+    @SneakyThrows
+    private byte[] encryptSymmetric(CMSEncryptionService service, byte[] content) {
+        SecretKey secretKey = keyStoreService.getSecretKey(keyStoreAccess, SYMM_KEY_ID);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        write(service.buildEncryptionOutputStream(os, secretKey, SYMM_KEY_ID), content);
+        return os.toByteArray();
+    }
+
+    @SneakyThrows
+    private void write(OutputStream os, byte[] content) {
+        try (OutputStream toWrite = os) {
+            toWrite.write(content);
+        }
+    }
+
+    @SneakyThrows
+    private byte[] decrypt(CMSEncryptionService service, byte[] encrypted) {
+        try (InputStream is = service.buildDecryptionInputStream(
+                new ByteArrayInputStream(encrypted), keyIds -> getKeys(keyIds, keyStoreAccess))) {
+            return ByteStreams.toByteArray(is);
+        }
+    }
+
+    @SneakyThrows
+    private byte[] decryptRange(CMSEncryptionService service, byte[] encrypted, ByteRange range) {
+        try (InputStream is = service.buildDecryptionInputStream(
+                it -> new ByteArrayInputStream(
+                        encrypted,
+                        (int) it.getOffset(),
+                        it.isBounded() ? it.getLength().intValue() : encrypted.length
+                ),
+                range,
+                keyIds -> getKeys(keyIds, keyStoreAccess))) {
+            return ByteStreams.toByteArray(is);
+        }
+    }
+
+    @SneakyThrows
+    private static ASN1Primitive asn1(byte[] encoded) {
+        return ASN1Primitive.fromByteArray(encoded);
+    }
+
+    private static int lastIndexOf(byte[] array, byte[] target) {
+        for (int i = array.length - target.length; i >= 0; i--) {
+            if (Arrays.equals(target, Arrays.copyOfRange(array, i, i + target.length))) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException("Not found");
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,244 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption;
+
+import com.google.common.io.ByteStreams;
+import de.adorsys.datasafe.encrypiton.api.cmsencryption.CMSEncryptionService;
+import de.adorsys.datasafe.encrypiton.api.keystore.KeyStoreService;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.*;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.exceptions.DecryptionException;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented.SegmentedFormat;
+import de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented.SegmentedHeader;
+import de.adorsys.datasafe.encrypiton.impl.keystore.KeyStoreServiceImpl;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
+import lombok.SneakyThrows;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.adorsys.datasafe.encrypiton.api.types.keystore.KeyStoreCreationConfig.SYMM_KEY_ID;
+import static de.adorsys.datasafe.encrypiton.impl.cmsencryption.KeyStoreUtil.getKeys;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentedEncryptionTest {
+
+    private static final int SEGMENT_SIZE = 100;
+
+    private CMSEncryptionService segmented = new CMSEncryptionServiceImpl(
+            DefaultCMSEncryptionConfig.builder()
+                    .format(DocumentEncryptionFormat.SEGMENTED_AEAD)
+                    .segmentSize(SEGMENT_SIZE)
+                    .parallelSegments(4)
+                    .build()
+    );
+
+    private CMSEncryptionService legacy = new CMSEncryptionServiceImpl(new DefaultCMSEncryptionConfig());
+
+    private KeyStoreService keyStoreService = new KeyStoreServiceImpl();
+    private KeyStoreAuth keyStoreAuth = new KeyStoreAuth(
+            new ReadStorePassword("readstorepassword"),
+            new ReadKeyPassword("readkeypassword")
+    );
+    private KeyStore keyStore = keyStoreService.createKeyStore(
+            keyStoreAuth, KeyStoreType.DEFAULT, new KeyStoreCreationConfig(1, 1)
+    );
+    private KeyStoreAccess keyStoreAccess = new KeyStoreAccess(keyStore, keyStoreAuth);
+
+    @BeforeAll
+    static void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, SEGMENT_SIZE - 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 10 * SEGMENT_SIZE + 7})
+    void symmetricRoundTrip(int size) {
+        byte[] content = content(size);
+
+        byte[] encrypted = encryptSymmetric(segmented, content);
+
+        assertThat(decrypt(segmented, encrypted)).isEqualTo(content);
+    }
+
+    @Test
+    void asymmetricRoundTrip() {
+        byte[] content = content(5 * SEGMENT_SIZE + 3);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        write(segmented.buildEncryptionOutputStream(os, keyStoreService.getPublicKeys(keyStoreAccess)
+                .stream().findFirst().map(Collections::singleton).get()), content);
+
+        assertThat(decrypt(segmented, os.toByteArray())).isEqualTo(content);
+    }
+
+    @Test
+    void legacyAndSegmentedAreReadByBothConfigs() {
+        byte[] content = content(3 * SEGMENT_SIZE);
+
+        assertThat(decrypt(legacy, encryptSymmetric(segmented, content))).isEqualTo(content);
+        assertThat(decrypt(segmented, encryptSymmetric(legacy, content))).isEqualTo(content);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0,10", "5,100", "99,2", "100,100", "250,500", "1007,1", "1008,10", "2000,10", "0,0"})
+    void rangedReadOfSegmentedDocument(long offset, long length) {
+        byte[] content = content(10 * SEGMENT_SIZE + 8);
+        byte[] encrypted = encryptSymmetric(segmented, content);
+
+        assertThat(decryptRange(segmented, encrypted, ByteRange.of(offset, length), new AtomicLong()))
+                .isEqualTo(slice(content, offset, length));
+    }
+
+    @Test
+    void rangedReadTillEnd() {
+        byte[] content = content(10 * SEGMENT_SIZE + 8);
+        byte[] encrypted = encryptSymmetric(segmented, content);
+
+        assertThat(decryptRange(segmented, encrypted, ByteRange.from(555), new AtomicLong()))
+                .isEqualTo(Arrays.copyOfRange(content, 555, content.length));
+    }
+
+    @Test
+    void rangedReadFetchesOnlyRequiredSegments() {
+        byte[] content = content(1000 * SEGMENT_SIZE);
+        byte[] encrypted = encryptSymmetric(segmented, content);
+        AtomicLong fetched = new AtomicLong();
+
+        decryptRange(segmented, encrypted, ByteRange.of(500 * SEGMENT_SIZE + 10, 20), fetched);
+
+        assertThat(fetched.get()).isLessThan(encrypted.length / 10);
+    }
+
+    @Test
+    void rangedReadOfLegacyDocument() {
+        byte[] content = content(1000);
+        byte[] encrypted = encryptSymmetric(legacy, content);
+
+        assertThat(decryptRange(segmented, encrypted, ByteRange.of(300, 50), new AtomicLong()))
+                .isEqualTo(slice(content, 300, 50));
+    }
+
+    @Test
+    void modifiedSegmentIsDetected() {
+        byte[] encrypted = encryptSymmetric(segmented, content(3 * SEGMENT_SIZE));
+        encrypted[encrypted.length - SEGMENT_SIZE] ^= 1;
+
+        assertThatThrownBy(() -> decrypt(segmented, encrypted)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void truncatedDocumentIsDetected() {
+        byte[] content = content(3 * SEGMENT_SIZE + 10);
+        byte[] encrypted = encryptSymmetric(segmented, content);
+        // drop last segment, so that the document ends on non-last segment
+        byte[] truncated = Arrays.copyOf(encrypted, encrypted.length - 10 - 16);
+
+        assertThatThrownBy(() -> decrypt(segmented, truncated)).isInstanceOf(IOException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {850, 950, 1500})
+    void rangedReadAfterTruncationPointIsDetected(long offset) {
+        byte[] content = content(10 * SEGMENT_SIZE + 8);
+        byte[] encrypted = encryptSymmetric(segmented, content);
+        // drop two last segments, so that the document ends on non-last segment 8
+        byte[] truncated = Arrays.copyOf(encrypted, encrypted.length - 8 - 16 - SEGMENT_SIZE - 16);
+
+        assertThatThrownBy(() -> decryptRange(segmented, truncated, ByteRange.from(offset), new AtomicLong()))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void oversizedHeaderLengthIsRejected() {
+        byte[] encrypted = encryptSymmetric(segmented, content(SEGMENT_SIZE));
+        encrypted[4] = 0x7F;
+
+        assertThatThrownBy(() -> decrypt(segmented, encrypted)).isInstanceOf(DecryptionException.class);
+        assertThatThrownBy(() -> decryptRange(segmented, encrypted, ByteRange.from(10), new AtomicLong()))
+                .isInstanceOf(DecryptionException.class);
+    }
+
+    @Test
+    void oversizedHeaderIsNotWritten() {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> SegmentedFormat.writeHeader(os, new byte[SegmentedFormat.MAX_CMS_HEADER_LENGTH + 1]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(os.size()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, SegmentedFormat.MAX_SEGMENT_SIZE + 1})
+    void segmentSizeOutOfRangeIsRejected(int segmentSize) {
+        byte[] header = SegmentedHeader.generate(SEGMENT_SIZE).serialize();
+        ByteBuffer.wrap(header, 1, Integer.BYTES).putInt(segmentSize);
+
+        assertThatThrownBy(() -> SegmentedHeader.generate(segmentSize)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SegmentedHeader.deserialize(new ByteArrayInputStream(header)))
+                .isInstanceOf(DecryptionException.class);
+    }
+
+    @SneakyThrows
+    private byte[] encryptSymmetric(CMSEncryptionService service, byte[] content) {
+        SecretKey secretKey = keyStoreService.getSecretKey(keyStoreAccess, SYMM_KEY_ID);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        write(service.buildEncryptionOutputStream(os, secretKey, SYMM_KEY_ID), content);
+        return os.toByteArray();
+    }
+
+    @SneakyThrows
+    private void write(OutputStream os, byte[] content) {
+        try (OutputStream toWrite = os) {
+            toWrite.write(content);
+        }
+    }
+
+    @SneakyThrows
+    private byte[] decrypt(CMSEncryptionService service, byte[] encrypted) {
+        try (InputStream is = service.buildDecryptionInputStream(
+                new ByteArrayInputStream(encrypted), keyIds -> getKeys(keyIds, keyStoreAccess))) {
+            return ByteStreams.toByteArray(is);
+        }
+    }
+
+    @SneakyThrows
+    private byte[] decryptRange(CMSEncryptionService service, byte[] encrypted, ByteRange range, AtomicLong fetched) {
+        try (InputStream is = service.buildDecryptionInputStream(
+                it -> {
+                    byte[] part = slice(encrypted, it.getOffset(), it.isBounded() ? it.getLength() : encrypted.length);
+                    fetched.addAndGet(part.length);
+                    return new ByteArrayInputStream(part);
+                },
+                range,
+                keyIds -> getKeys(keyIds, keyStoreAccess))) {
+            return ByteStreams.toByteArray(is);
+        }
+    }
+
+    private static byte[] slice(byte[] data, long offset, long length) {
+        int from = (int) Math.min(offset, data.length);
+        int to = (int) Math.min(offset + length, data.length);
+        return Arrays.copyOfRange(data, from, to);
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,135 @@
+package de.adorsys.datasafe.encrypiton.impl.cmsencryption.segmented;
+
+import com.google.common.io.ByteStreams;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelSegmentedStreamsTest {
+
+    private static final int SEGMENT_SIZE = 64;
+    private static final int IN_FLIGHT = 3;
+
+    private final SegmentedHeader header = SegmentedHeader.generate(SEGMENT_SIZE);
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 100 * SEGMENT_SIZE - 1, 100 * SEGMENT_SIZE})
+    void parallelEncryptionMatchesSequential(int size) {
+        byte[] content = content(size);
+
+        byte[] sequential = encrypt(new ByteArrayOutputStream(), content, false);
+        byte[] parallel = encrypt(new ByteArrayOutputStream(), content, true);
+
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(decrypt(parallel, 0, true)).isEqualTo(content);
+        assertThat(decrypt(parallel, 0, false)).isEqualTo(content);
+    }
+
+    @Test
+    void parallelDecryptionStartsFromSegment() {
+        byte[] content = content(10 * SEGMENT_SIZE + 5);
+        byte[] encrypted = encrypt(new ByteArrayOutputStream(), content, false);
+        int firstSegment = 4;
+
+        byte[] fromSegment = Arrays.copyOfRange(encrypted, firstSegment * header.encryptedSegmentSize(),
+                encrypted.length);
+
+        assertThat(decrypt(fromSegment, firstSegment, true))
+                .isEqualTo(Arrays.copyOfRange(content, firstSegment * SEGMENT_SIZE, content.length));
+    }
+
+    @Test
+    void modifiedSegmentFailsParallelDecryption() {
+        byte[] encrypted = encrypt(new ByteArrayOutputStream(), content(20 * SEGMENT_SIZE), false);
+        encrypted[5 * header.encryptedSegmentSize() + 1] ^= 1;
+
+        assertThatThrownBy(() -> decrypt(encrypted, 0, true)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @SneakyThrows
+    void writerBlocksWhenInFlightLimitIsReached() {
+        ForkJoinPool singleThread = new ForkJoinPool(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        singleThread.submit(() -> {
+            blocked.countDown();
+            proceed.await();
+            return null;
+        });
+        // otherwise pool thread may pick segments before the blocking task
+        blocked.await();
+
+        byte[] content = content((IN_FLIGHT + 2) * SEGMENT_SIZE);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        OutputStream os = new ParallelSegmentedEncryptionOutputStream(result, header, singleThread, IN_FLIGHT);
+        Thread writer = new Thread(() -> {
+            try {
+                os.write(content);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        writer.start();
+        writer.join(500);
+
+        assertThat(writer.isAlive()).isTrue();
+        assertThat(result.size()).isZero();
+        proceed.countDown();
+        writer.join();
+        os.close();
+        singleThread.shutdown();
+        assertThat(decrypt(result.toByteArray(), 0, true)).isEqualTo(content);
+    }
+
+    @SneakyThrows
+    private byte[] encrypt(ByteArrayOutputStream result, byte[] content, boolean parallel) {
+        try (OutputStream os = parallel
+                ? new ParallelSegmentedEncryptionOutputStream(result, header, pool, IN_FLIGHT)
+                : new SegmentedEncryptionOutputStream(result, header)) {
+            // odd-sized writes, so that segment boundaries do not match write boundaries
+            for (int pos = 0; pos < content.length; pos += 7) {
+                os.write(content, pos, Math.min(7, content.length - pos));
+            }
+        }
+
+        return result.toByteArray();
+    }
+
+    @SneakyThrows
+    private byte[] decrypt(byte[] encrypted, long firstSegment, boolean parallel) {
+        ByteArrayInputStream source = new ByteArrayInputStream(encrypted);
+        try (InputStream is = parallel
+                ? new ParallelSegmentedDecryptionInputStream(source, header, firstSegment, pool, IN_FLIGHT)
+                : new SegmentedDecryptionInputStream(source, header, firstSegment)) {
+            return ByteStreams.toByteArray(is);
+        }
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,88 @@
+package de.adorsys.datasafe.encrypiton.impl.document;
+
+import de.adorsys.datasafe.directory.api.profile.keys.PrivateKeyService;
+import de.adorsys.datasafe.encrypiton.api.cmsencryption.CMSEncryptionService;
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.storage.api.actions.StorageReadService;
+import de.adorsys.datasafe.types.api.actions.ReadRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CMSDocumentReadServiceTest extends BaseMockitoTest {
+
+    private static final byte[] DECRYPTED = new byte[10_000];
+
+    private final AtomicInteger singleByteReads = new AtomicInteger();
+
+    private final ReadRequest<UserIDAuth, AbsoluteLocation<PrivateResource>> request = new ReadRequest<>(
+            new UserIDAuth(new UserID(""), new ReadKeyPassword("")),
+            BasePrivateResource.forAbsolutePrivate(URI.create("s3://bucket/file"))
+    );
+
+    @Mock
+    private StorageReadService readService;
+
+    @Mock
+    private PrivateKeyService privateKeyService;
+
+    @Mock
+    private CMSEncryptionService cms;
+
+    @Mock
+    private InputStream dfsSource;
+
+    private CMSDocumentReadService readDocument;
+
+    @BeforeEach
+    void init() {
+        readDocument = new CMSDocumentReadService(readService, privateKeyService, cms);
+        when(readService.read(request.getLocation())).thenReturn(dfsSource);
+        when(cms.buildDecryptionInputStream(any(InputStream.class), any())).thenReturn(
+                new ByteArrayInputStream(DECRYPTED) {
+                    @Override
+                    public synchronized int read() {
+                        singleByteReads.incrementAndGet();
+                        return super.read();
+                    }
+                }
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void readsInBulk() {
+        try (InputStream decrypted = readDocument.read(request)) {
+            assertThat(decrypted.available()).isEqualTo(DECRYPTED.length);
+            assertThat(decrypted.skip(1_000)).isEqualTo(1_000);
+            assertThat(decrypted.read(new byte[DECRYPTED.length])).isEqualTo(9_000);
+        }
+
+        assertThat(singleByteReads).hasValue(0);
+    }
+
+    @Test
+    @SneakyThrows
+    void closesStorageStream() {
+        readDocument.read(request).close();
+
+        verify(dfsSource).close();
+    }
+}
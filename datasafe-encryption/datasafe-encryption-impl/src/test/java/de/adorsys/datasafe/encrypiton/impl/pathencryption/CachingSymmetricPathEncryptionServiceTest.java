@@ -0,0 +1,110 @@
+package de.adorsys.datasafe.encrypiton.impl.pathencryption;
+
+import de.adorsys.datasafe.encrypiton.api.pathencryption.encryption.SymmetricPathEncryptionService;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Spy;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingSymmetricPathEncryptionServiceTest extends BaseMockitoTest {
+
+    @Spy
+    private SymmetricPathEncryptionService delegate = new SymmetricPathEncryptionServiceImpl(
+            new DefaultPathEncryption(new DefaultPathDigestConfig())
+    );
+
+    private SecretKeySpec secretKey = new SecretKeySpec(new byte[32], "AES");
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "path/to/file", "./path/to/file", "path/to/dir/", "./", "", "dir/a:b",
+            "/leading/slash", "double//slash"
+    })
+    void sameAsUnderlyingService(String path) {
+        CachingSymmetricPathEncryptionService caching = new CachingSymmetricPathEncryptionService(delegate);
+        Uri uri = new Uri(path);
+
+        Uri encrypted = caching.encrypt(secretKey, uri);
+
+        assertThat(encrypted).isEqualTo(delegate.encrypt(secretKey, uri));
+        assertThat(caching.decrypt(secretKey, encrypted)).isEqualTo(delegate.decrypt(secretKey, encrypted));
+    }
+
+    @Test
+    void encryptsCommonPrefixOnce() {
+        CachingSymmetricPathEncryptionService caching = new CachingSymmetricPathEncryptionService(delegate);
+
+        caching.encrypt(secretKey, new Uri("documents/invoices/first"));
+        caching.encrypt(secretKey, new Uri("documents/invoices/second"));
+
+        // documents, invoices, first, second
+        verify(delegate, times(4)).encrypt(any(), any());
+        assertThat(caching.stats().hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void decryptsRepeatedListingFromCache() {
+        CachingSymmetricPathEncryptionService caching = new CachingSymmetricPathEncryptionService(delegate);
+        Uri encrypted = caching.encrypt(secretKey, new Uri("documents/file"));
+
+        caching.decrypt(secretKey, encrypted);
+        caching.decrypt(secretKey, encrypted);
+
+        verify(delegate, times(2)).decrypt(any(), any());
+    }
+
+    @Test
+    void separatesKeys() {
+        CachingSymmetricPathEncryptionService caching = new CachingSymmetricPathEncryptionService(delegate);
+        SecretKeySpec otherKey = new SecretKeySpec(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16},
+                "AES");
+        Uri path = new Uri("documents");
+
+        assertThat(caching.encrypt(otherKey, path)).isNotEqualTo(caching.encrypt(secretKey, path));
+    }
+
+    @Test
+    void invalidatesKey() {
+        CachingSymmetricPathEncryptionService caching = new CachingSymmetricPathEncryptionService(delegate);
+        Uri path = new Uri("documents");
+
+        caching.encrypt(secretKey, path);
+        caching.invalidate(secretKey);
+        caching.encrypt(secretKey, path);
+
+        verify(delegate, times(2)).encrypt(any(), any());
+    }
+
+    @Test
+    void respectsMemoryLimit() {
+        CachingSymmetricPathEncryptionService caching = new CachingSymmetricPathEncryptionService(delegate, 1024);
+
+        for (int i = 0; i < 100; i++) {
+            caching.encrypt(secretKey, new Uri("segment" + i));
+        }
+
+        assertThat(caching.stats().evictionCount()).isGreaterThan(90);
+    }
+
+    @Test
+    void keepsUnderlyingExceptions() {
+        CachingSymmetricPathEncryptionService caching = new CachingSymmetricPathEncryptionService(delegate);
+
+        assertThrows(BadPaddingException.class, () -> caching.decrypt(secretKey,
+                new Uri("bRQiW8qLNPEy5tO7shfV0w==/k0HooCVlmhHkQFw8mc_BROKEN_PATH")));
+        assertThrows(IllegalBlockSizeException.class, () -> caching.decrypt(secretKey,
+                new Uri("/simple/text/path/")));
+    }
+}
@@ -0,0 +1,83 @@
+package de.adorsys.datasafe.encrypiton.impl.pathencryption;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DefaultPathEncryptionTest {
+
+    private static final byte[] SEGMENT = "invoices".getBytes(UTF_8);
+
+    private DefaultPathEncryption pathEncryption = new DefaultPathEncryption(new DefaultPathDigestConfig());
+    private SecretKeySpec secretKey = new SecretKeySpec(new byte[32], "AES");
+
+    @Test
+    @SneakyThrows
+    void encryptsSameAsFreshCipher() {
+        assertThat(pathEncryption.encryptionCipher(secretKey).doFinal(SEGMENT))
+                .isEqualTo(freshCipher().doFinal(SEGMENT));
+    }
+
+    @Test
+    void reusesCipherWithinThread() {
+        assertThat(pathEncryption.encryptionCipher(secretKey)).isSameAs(pathEncryption.encryptionCipher(secretKey));
+        assertThat(pathEncryption.decryptionCipher(secretKey)).isSameAs(pathEncryption.decryptionCipher(secretKey));
+        assertThat(pathEncryption.encryptionCipher(secretKey)).isNotSameAs(pathEncryption.decryptionCipher(secretKey));
+    }
+
+    @Test
+    void reusesCipherForEqualKeyInstances() {
+        SecretKeySpec sameKey = new SecretKeySpec(secretKey.getEncoded(), "AES");
+
+        assertThat(pathEncryption.encryptionCipher(sameKey)).isSameAs(pathEncryption.encryptionCipher(secretKey));
+    }
+
+    @Test
+    @SneakyThrows
+    void doesNotShareCipherAcrossThreads() {
+        Cipher own = pathEncryption.encryptionCipher(secretKey);
+        Cipher other = CompletableFuture.supplyAsync(() -> pathEncryption.encryptionCipher(secretKey)).get();
+
+        assertThat(other).isNotSameAs(own);
+    }
+
+    @Test
+    @SneakyThrows
+    void cipherIsUsableAfterFailedDecryption() {
+        byte[] encrypted = pathEncryption.encryptionCipher(secretKey).doFinal(SEGMENT);
+        byte[] broken = Arrays.copyOf(encrypted, encrypted.length);
+        broken[broken.length - 1] ^= 1;
+
+        assertThrows(BadPaddingException.class, () -> pathEncryption.decryptionCipher(secretKey).doFinal(broken));
+        assertThat(pathEncryption.decryptionCipher(secretKey).doFinal(encrypted)).isEqualTo(SEGMENT);
+    }
+
+    @Test
+    @SneakyThrows
+    void cipherIsUsableAfterFailedDecryptionOfBrokenLength() {
+        byte[] encrypted = pathEncryption.encryptionCipher(secretKey).doFinal(SEGMENT);
+
+        assertThrows(IllegalBlockSizeException.class,
+                () -> pathEncryption.decryptionCipher(secretKey).doFinal(new byte[] {1, 2, 3}));
+        assertThat(pathEncryption.decryptionCipher(secretKey).doFinal(encrypted)).isEqualTo(SEGMENT);
+    }
+
+    @SneakyThrows
+    private Cipher freshCipher() {
+        byte[] key = Arrays.copyOf(MessageDigest.getInstance("SHA-256").digest(secretKey.getEncoded()), 16);
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"));
+        return cipher;
+    }
+}
@@ -16,6 +16,7 @@ import java.security.KeyStore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Slf4j
 class SymmetricPathEncryptionServiceImplTest extends BaseMockitoTest {
@@ -49,6 +50,15 @@ class SymmetricPathEncryptionServiceImplTest extends BaseMockitoTest {
         assertEquals(testPath, decrypted.toASCIIString());
     }
 
+    @Test
+    void testEncryptDecryptKeepsDirectorySlash() {
+        SecretKeySpec secretKey = keyStoreService.getSecretKey(keyStoreAccess, KeyStoreCreationConfig.PATH_KEY_ID);
+        Uri encrypted = bucketPathEncryptionService.encrypt(secretKey, new Uri("path/to/dir/"));
+
+        assertTrue(encrypted.getPath().endsWith("/"));
+        assertEquals("path/to/dir/", bucketPathEncryptionService.decrypt(secretKey, encrypted).toASCIIString());
+    }
+
     @Test
     void testFailEncryptPathWithWrongKeyID() throws URISyntaxException {
         String testPath = "path/to/file/";
@@ -12,6 +12,7 @@ import de.adorsys.datasafe.business.impl.privatestore.actions.DefaultPrivateActi
 import de.adorsys.datasafe.business.impl.storage.DefaultStorageModule;
 import de.adorsys.datasafe.directory.api.config.DFSConfig;
 import de.adorsys.datasafe.directory.api.profile.operations.ProfileOperations;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
 import de.adorsys.datasafe.inbox.api.InboxService;
 import de.adorsys.datasafe.privatestore.api.PrivateSpaceService;
 import de.adorsys.datasafe.storage.api.StorageService;
@@ -81,6 +82,13 @@ public interface CustomlyBuiltDatasafeServices {
         @BindsInstance
         Builder overridesRegistry(@Nullable OverridesRegistry overridesRegistry);
 
+        /**
+         * Configures limits and expiration of keystore, public keys and profile caches.
+         * @param cacheConfig Cache configuration, if not set {@link UserCacheConfig#defaults()} are used
+         */
+        @BindsInstance
+        Builder userCacheConfig(@Nullable UserCacheConfig cacheConfig);
+
         /**
          * @return Customized Datasafe services.
          */
@@ -6,6 +6,7 @@ import de.adorsys.datasafe.directory.api.resource.ResourceResolver;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.inbox.api.actions.ListInbox;
 import de.adorsys.datasafe.storage.api.actions.StorageListService;
+import de.adorsys.datasafe.types.api.actions.ListContinuation;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.*;
@@ -15,7 +16,7 @@ import java.util.stream.Stream;
 
 /**
  * Default listing service that locates user INBOX folder using {@link ResourceResolver}
- * and delegates request to {@link StorageListService} to list all files within it.
+ * and delegates request to {@link StorageListService} to list all files (or requested page of them) within it.
  */
 @RuntimeDelegate
 public class ListInboxImpl implements ListInbox {
@@ -34,8 +35,23 @@ public class ListInboxImpl implements ListInbox {
 
     @Override
     public Stream<AbsoluteLocation<ResolvedResource>> list(ListRequest<UserIDAuth, PrivateResource> request) {
-        return listService.list(resolveRelative(request))
-                .map(it -> fillEncryptedDecryptedSegments(request, it));
+        AbsoluteLocation<PrivateResource> listDir = resolveRelative(request);
+        return listStorage(request, listDir).map(it -> fillEncryptedDecryptedSegments(request, it));
+    }
+
+    private Stream<AbsoluteLocation<ResolvedResource>> listStorage(
+            ListRequest<UserIDAuth, PrivateResource> request, AbsoluteLocation<PrivateResource> listDir) {
+        if (!request.isPaged()) {
+            return request.isShallow() ? listService.listShallow(listDir) : listService.list(listDir);
+        }
+
+        Uri startAfter = null == request.getContinuationToken()
+                ? null
+                : ListContinuation.startAfter(request.getContinuationToken(), listDir);
+
+        return request.isShallow()
+                ? listService.listShallowPage(listDir, startAfter, request.getPageSize())
+                : listService.listPage(listDir, startAfter, request.getPageSize());
     }
 
     private AbsoluteLocation<PrivateResource> resolveRelative(
@@ -34,6 +34,7 @@ public class ReadFromInboxImpl implements ReadFromInbox {
         return reader.read(ReadRequest.<UserIDAuth, AbsoluteLocation<PrivateResource>>builder()
                 .location(resolver.resolveRelativeToPrivateInbox(request.getOwner(), request.getLocation()))
                 .owner(request.getOwner())
+                .range(request.getRange())
                 .build());
     }
 }
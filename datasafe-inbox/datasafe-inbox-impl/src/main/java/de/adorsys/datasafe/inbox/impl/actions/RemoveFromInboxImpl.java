@@ -9,6 +9,7 @@ import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 
 import javax.inject.Inject;
+import java.util.stream.Stream;
 
 /**
  * Default removal service that locates resource to remove using {@link ResourceResolver} and
@@ -30,4 +31,11 @@ public class RemoveFromInboxImpl implements RemoveFromInbox {
     public void remove(RemoveRequest<UserIDAuth, PrivateResource> request) {
         remover.remove(resolver.resolveRelativeToPrivateInbox(request.getOwner(), request.getLocation()));
     }
+
+    @Override
+    public void removeAll(Stream<RemoveRequest<UserIDAuth, PrivateResource>> requests) {
+        remover.removeAll(
+                requests.map(it -> resolver.resolveRelativeToPrivateInbox(it.getOwner(), it.getLocation()))
+        );
+    }
 }
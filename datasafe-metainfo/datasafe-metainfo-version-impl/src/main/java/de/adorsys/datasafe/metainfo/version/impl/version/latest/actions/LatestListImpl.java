@@ -55,10 +55,16 @@ public class LatestListImpl<V extends LatestDFSVersion> implements VersionedList
     public Stream<Versioned<AbsoluteLocation<PrivateResource>, ResolvedResource, Version>> listVersioned(
             ListRequest<UserIDAuth, PrivateResource> request) {
 
+        // listed resources are blobs, while continuation would have to point to their links
+        if (request.isPaged()) {
+            throw new IllegalArgumentException("Paged listing of versioned resources is not supported");
+        }
+
+        // each listed entry must be a link, so directories are always listed recursively
         ListRequest<UserIDAuth, PrivateResource> forLatestSnapshotDir = request.toBuilder().location(
                 latestVersionLinkLocator.resolveLatestLinkLocation(
                         request.getOwner(), request.getLocation()).getResource()
-        ).build();
+        ).shallow(false).build();
 
         return listPrivate
                 .list(forLatestSnapshotDir)
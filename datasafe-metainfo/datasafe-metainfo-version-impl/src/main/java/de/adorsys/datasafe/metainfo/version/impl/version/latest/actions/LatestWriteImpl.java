@@ -13,6 +13,7 @@ import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.utils.Abortable;
 import de.adorsys.datasafe.types.api.utils.Obfuscate;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -89,13 +90,15 @@ public class LatestWriteImpl<V extends LatestDFSVersion> implements VersionedWri
 
     @Slf4j
     @RequiredArgsConstructor
-    private static final class VersionCommittingStream extends OutputStream {
+    private static final class VersionCommittingStream extends OutputStream implements Abortable {
 
         private final OutputStream streamToWrite;
         private final WriteToPrivate writeToPrivate;
         private final WriteRequest<UserIDAuth, PrivateResource> request;
         private final PrivateResource writtenResource;
 
+        private boolean finished;
+
         @Override
         public void write(int b) throws IOException {
             streamToWrite.write(b);
@@ -106,16 +109,40 @@ public class LatestWriteImpl<V extends LatestDFSVersion> implements VersionedWri
             streamToWrite.write(bytes, off, len);
         }
 
+        @Override
+        public void flush() throws IOException {
+            streamToWrite.flush();
+        }
+
         @Override
         @SneakyThrows
         public void close() {
+            if (finished) {
+                return;
+            }
+
+            finished = true;
             super.close();
             streamToWrite.close();
 
             log.debug("Committing file {} with blob {}", Obfuscate.secure(request.getLocation()), Obfuscate.secure(writtenResource));
-            try (OutputStream os = writeToPrivate.write(request)) {
-                os.write(writtenResource.location().toASCIIString().getBytes());
+            Abortable.writeAndClose(
+                    writeToPrivate.write(request),
+                    os -> os.write(writtenResource.location().toASCIIString().getBytes())
+            );
+        }
+
+        /**
+         * Discards written blob, latest link keeps pointing to previous version.
+         */
+        @Override
+        public void abort() throws IOException {
+            if (finished) {
+                return;
             }
+
+            finished = true;
+            Abortable.abortOrClose(streamToWrite);
         }
     }
 }
@@ -1,13 +1,59 @@
 package de.adorsys.datasafe.privatestore.api;
 
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.privatestore.api.actions.CopyInPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.ReadFromPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.RemoveFromPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.WriteToPrivate;
+import de.adorsys.datasafe.types.api.actions.CopyRequest;
+import de.adorsys.datasafe.types.api.actions.ReadRequest;
+import de.adorsys.datasafe.types.api.actions.RemoveRequest;
+import de.adorsys.datasafe.types.api.actions.WriteRequest;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.utils.Abortable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 /**
  * Aggregate view of operations possible with users' privatespace. Users' privatespace - encrypted storage
  * of users' private files.
  */
-public interface PrivateSpaceService extends ListPrivate, ReadFromPrivate, WriteToPrivate, RemoveFromPrivate {
+public interface PrivateSpaceService extends
+        ListPrivate, ReadFromPrivate, WriteToPrivate, RemoveFromPrivate, CopyInPrivate {
+
+    /**
+     * Default implementation reads the document and writes it to target location, so content gets re-encrypted.
+     * Implementations that can copy encrypted content as is should override it.
+     */
+    @Override
+    default void copy(CopyRequest<UserIDAuth, PrivateResource> request) {
+        WriteRequest<UserIDAuth, PrivateResource> write = WriteRequest.<UserIDAuth, PrivateResource>builder()
+                .owner(request.getOwner())
+                .location(request.getTarget())
+                .build();
+
+        try (InputStream is = read(ReadRequest.forPrivate(request.getOwner(), request.getSource()))) {
+            Abortable.writeAndClose(write(write), os -> {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = is.read(buffer)) != -1) {
+                    os.write(buffer, 0, read);
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Default implementation copies the document and removes source.
+     */
+    @Override
+    default void move(CopyRequest<UserIDAuth, PrivateResource> request) {
+        copy(request);
+        remove(RemoveRequest.forPrivate(request.getOwner(), request.getSource()));
+    }
 }
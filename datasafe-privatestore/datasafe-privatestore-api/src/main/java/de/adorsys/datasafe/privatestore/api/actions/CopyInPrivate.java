@@ -0,0 +1,23 @@
+package de.adorsys.datasafe.privatestore.api.actions;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.types.api.actions.CopyRequest;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+
+/**
+ * Copies and moves (renames) users' files inside privatespace.
+ */
+public interface CopyInPrivate {
+
+    /**
+     * Copies users' file inside users' privatespace, target file is replaced if it exists.
+     * @param request Source and target location (relative or absolute)
+     */
+    void copy(CopyRequest<UserIDAuth, PrivateResource> request);
+
+    /**
+     * Moves (renames) users' file inside users' privatespace, target file is replaced if it exists.
+     * @param request Source and target location (relative or absolute)
+     */
+    void move(CopyRequest<UserIDAuth, PrivateResource> request);
+}
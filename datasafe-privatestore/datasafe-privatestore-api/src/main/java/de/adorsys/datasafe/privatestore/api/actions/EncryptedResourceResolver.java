@@ -4,6 +4,8 @@ import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 
+import java.util.function.Function;
+
 /**
  * Resolves logical resource location into encrypted absolute location and vice-versa. For example, when
  * user requests some/path/to/file this resolver will provide physical location of this resource by
@@ -33,4 +35,19 @@ public interface EncryptedResourceResolver {
     AbsoluteLocation<PrivateResource> decryptAndResolvePath(
             UserIDAuth auth, PrivateResource resource, PrivateResource root
     );
+
+    /**
+     * Same as {@link EncryptedResourceResolver#decryptAndResolvePath(UserIDAuth, PrivateResource, PrivateResource)},
+     * but reads path encryption key only once, for decrypting many resources e.g. listing results.
+     * Implementations should compute decrypted path of resulting resource on first access to it, fallback
+     * method of this interface decrypts each resource eagerly using {@code decryptAndResolvePath}.
+     * @param auth User authorization
+     * @param root Root resource location that is used to relativize absolute resource locations
+     * @return Thread-safe function that resolves relative or absolute resource location
+     */
+    default Function<PrivateResource, AbsoluteLocation<PrivateResource>> decryptingResolver(
+            UserIDAuth auth, PrivateResource root
+    ) {
+        return resource -> decryptAndResolvePath(auth, resource, root);
+    }
 }
@@ -4,6 +4,8 @@ import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 
+import java.util.stream.Stream;
+
 /**
  * Removes users' file from privatespace.
  */
@@ -14,4 +16,12 @@ public interface RemoveFromPrivate {
      * @param request Resource location (relative or absolute)
      */
     void remove(RemoveRequest<UserIDAuth, PrivateResource> request);
+
+    /**
+     * Deletes many users' files inside users' privatespace, allows storage to remove them in batches.
+     * @param requests Resource locations (relative or absolute)
+     */
+    default void removeAll(Stream<RemoveRequest<UserIDAuth, PrivateResource>> requests) {
+        requests.forEach(this::remove);
+    }
 }
@@ -1,6 +1,7 @@
 package de.adorsys.datasafe.privatestore.impl;
 
 import de.adorsys.datasafe.privatestore.api.PrivateSpaceService;
+import de.adorsys.datasafe.privatestore.api.actions.CopyInPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.ReadFromPrivate;
 import de.adorsys.datasafe.privatestore.api.actions.RemoveFromPrivate;
@@ -28,15 +29,20 @@ public class PrivateSpaceServiceImpl implements PrivateSpaceService {
     @Delegate
     private final RemoveFromPrivate removefromPrivate;
 
+    @Delegate
+    private final CopyInPrivate copyInPrivate;
+
     @Inject
     public PrivateSpaceServiceImpl(
             ListPrivate listPrivate,
             ReadFromPrivate readFromPrivate,
             WriteToPrivate writeToPrivate,
-            RemoveFromPrivate removeFromPrivate) {
+            RemoveFromPrivate removeFromPrivate,
+            CopyInPrivate copyInPrivate) {
         this.listPrivate = listPrivate;
         this.readFromPrivate = readFromPrivate;
         this.writeToPrivate = writeToPrivate;
         this.removefromPrivate = removeFromPrivate;
+        this.copyInPrivate = copyInPrivate;
     }
 }
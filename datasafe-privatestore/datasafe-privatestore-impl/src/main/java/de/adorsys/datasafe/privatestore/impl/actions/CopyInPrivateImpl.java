@@ -0,0 +1,45 @@
+package de.adorsys.datasafe.privatestore.impl.actions;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.privatestore.api.actions.CopyInPrivate;
+import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
+import de.adorsys.datasafe.storage.api.actions.StorageCopyService;
+import de.adorsys.datasafe.types.api.actions.CopyRequest;
+import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+
+import javax.inject.Inject;
+
+/**
+ * Default copy service. Document content is encrypted independently of its path, so only the target path is
+ * encrypted using {@link EncryptedResourceResolver} and content is copied or moved by
+ * {@link StorageCopyService} as is, without decrypting it.
+ */
+@RuntimeDelegate
+public class CopyInPrivateImpl implements CopyInPrivate {
+
+    private final EncryptedResourceResolver resolver;
+    private final StorageCopyService storage;
+
+    @Inject
+    public CopyInPrivateImpl(EncryptedResourceResolver resolver, StorageCopyService storage) {
+        this.resolver = resolver;
+        this.storage = storage;
+    }
+
+    @Override
+    public void copy(CopyRequest<UserIDAuth, PrivateResource> request) {
+        storage.copy(
+                resolver.encryptAndResolvePath(request.getOwner(), request.getSource()),
+                resolver.encryptAndResolvePath(request.getOwner(), request.getTarget())
+        );
+    }
+
+    @Override
+    public void move(CopyRequest<UserIDAuth, PrivateResource> request) {
+        storage.move(
+                resolver.encryptAndResolvePath(request.getOwner(), request.getSource()),
+                resolver.encryptAndResolvePath(request.getOwner(), request.getTarget())
+        );
+    }
+}
@@ -11,6 +11,7 @@ import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.Uri;
 
 import javax.inject.Inject;
+import java.util.function.Function;
 
 /**
  * Default encrypted resource resolver that delegates the task of encrypting/decrypting path to
@@ -44,24 +45,28 @@ public class EncryptedResourceResolverImpl implements EncryptedResourceResolver
     @Override
     public AbsoluteLocation<PrivateResource> decryptAndResolvePath(
         UserIDAuth auth, PrivateResource resource, PrivateResource root) {
-        if (!resolver.isAbsolute(resource)) {
-            Uri encryptedPath = resource.location();
-            Uri decryptedPath = pathEncryption.decrypt(auth, encryptedPath);
-
-            return new AbsoluteLocation<>(
-                resolver.resolveRelativeToPrivate(auth, resource).getResource().resolve(
-                    encryptedPath,
-                    decryptedPath)
-            );
-        }
+        return decryptAndResolvePath(auth, resource, root, path -> pathEncryption.decrypt(auth, path), false);
+    }
+
+    @Override
+    public Function<PrivateResource, AbsoluteLocation<PrivateResource>> decryptingResolver(
+        UserIDAuth auth, PrivateResource root) {
+        Function<Uri, Uri> decryptor = pathEncryption.decryptor(auth);
+        return resource -> decryptAndResolvePath(auth, resource, root, decryptor, true);
+    }
 
-        Uri relative = relativize(root.location(), resource.location());
+    private AbsoluteLocation<PrivateResource> decryptAndResolvePath(
+        UserIDAuth auth, PrivateResource resource, PrivateResource root, Function<Uri, Uri> decryptor,
+        boolean lazy) {
+        Uri encryptedPath = resolver.isAbsolute(resource)
+            ? computeEncryptedPath(root, relativize(root.location(), resource.location()))
+            : resource.location();
 
-        Uri encryptedPath = computeEncryptedPath(root, relative);
-        Uri decryptedPath = pathEncryption.decrypt(auth, encryptedPath);
+        PrivateResource resolved = resolver.resolveRelativeToPrivate(auth, resource).getResource();
 
-        return new AbsoluteLocation<>(
-            resolver.resolveRelativeToPrivate(auth, resource).getResource().resolve(encryptedPath, decryptedPath)
+        return new AbsoluteLocation<>(lazy
+            ? resolved.resolve(encryptedPath, () -> decryptor.apply(encryptedPath))
+            : resolved.resolve(encryptedPath, decryptor.apply(encryptedPath))
         );
     }
 
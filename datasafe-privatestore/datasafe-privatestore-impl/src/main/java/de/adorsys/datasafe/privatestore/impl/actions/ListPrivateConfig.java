@@ -0,0 +1,46 @@
+package de.adorsys.datasafe.privatestore.impl.actions;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import javax.inject.Inject;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Configures how {@link ListPrivateImpl} decrypts listed paths, use {@link ListPrivateConfig#builder()} to
+ * customize it.
+ */
+@Getter
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ListPrivateConfig {
+
+    /**
+     * Paths decrypted by single task.
+     */
+    private final int batchSize;
+
+    /**
+     * Batches that are decrypted concurrently while listing continues, 1 - decrypt in calling thread.
+     */
+    private final int parallelBatches;
+
+    /**
+     * Executor that decrypts batches.
+     */
+    private final ExecutorService executor;
+
+    @Inject
+    public ListPrivateConfig() {
+        this(256, Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @return Builder pre-filled with default values.
+     */
+    public static ListPrivateConfigBuilder builder() {
+        return new ListPrivateConfig().toBuilder();
+    }
+}
@@ -4,30 +4,41 @@ import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
 import de.adorsys.datasafe.privatestore.api.actions.ListPrivate;
 import de.adorsys.datasafe.storage.api.actions.StorageListService;
+import de.adorsys.datasafe.types.api.actions.ListContinuation;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.utils.ParallelBatchMapper;
 
 import javax.inject.Inject;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
  * Default listing service that encrypts the location of where to list files using {@link EncryptedResourceResolver}
  * and delegates request to {@link StorageListService} after that it decrypts obtained resources to retrieve
  * logical resource path (decrypted path) within users' privatespace.
+ * Path encryption key is read once per request, obtained resources are decrypted in parallel batches
+ * configured by {@link ListPrivateConfig} while storage keeps listing. For lazy requests resources are decrypted
+ * only when their decrypted path is accessed. Shallow requests list and decrypt only single directory level,
+ * paged requests list only requested count of resources in storage order.
  */
 @RuntimeDelegate
 public class ListPrivateImpl implements ListPrivate {
 
     private final EncryptedResourceResolver resolver;
     private final StorageListService listService;
+    private final ListPrivateConfig config;
 
     @Inject
-    public ListPrivateImpl(EncryptedResourceResolver resolver, StorageListService listService) {
+    public ListPrivateImpl(EncryptedResourceResolver resolver, StorageListService listService,
+                           ListPrivateConfig config) {
         this.resolver = resolver;
         this.listService = listService;
+        this.config = config;
     }
 
     @Override
@@ -35,19 +46,57 @@ public class ListPrivateImpl implements ListPrivate {
         AbsoluteLocation<PrivateResource> listDir =
                 resolver.encryptAndResolvePath(request.getOwner(), request.getLocation());
 
-        return listService
-                .list(listDir)
-                .map(it -> decryptPath(request.getOwner(), it, listDir.getResource()));
+        Function<PrivateResource, AbsoluteLocation<PrivateResource>> decryptor =
+                resolver.decryptingResolver(request.getOwner(), listDir.getResource());
+        Stream<AbsoluteLocation<ResolvedResource>> listed = listStorage(request, listDir);
+
+        if (request.isLazy()) {
+            return listed.map(it -> decryptPath(decryptor, it));
+        }
+
+        if (config.getParallelBatches() <= 1) {
+            return listed.map(it -> decryptPathNow(decryptor, it));
+        }
+
+        return ParallelBatchMapper.builder()
+                .executor(config.getExecutor())
+                .batchSize(config.getBatchSize())
+                .maxBatchesInFlight(config.getParallelBatches())
+                // continuation token is taken from the last resource of the page, so it must come last
+                .unordered(request.isUnordered() && !request.isPaged())
+                .build()
+                .map(listed, it -> decryptPathNow(decryptor, it));
+    }
+
+    private Stream<AbsoluteLocation<ResolvedResource>> listStorage(
+            ListRequest<UserIDAuth, PrivateResource> request, AbsoluteLocation<PrivateResource> listDir) {
+        if (!request.isPaged()) {
+            return request.isShallow() ? listService.listShallow(listDir) : listService.list(listDir);
+        }
+
+        Uri startAfter = null == request.getContinuationToken()
+                ? null
+                : ListContinuation.startAfter(request.getContinuationToken(), listDir);
+
+        return request.isShallow()
+                ? listService.listShallowPage(listDir, startAfter, request.getPageSize())
+                : listService.listPage(listDir, startAfter, request.getPageSize());
+    }
+
+    private AbsoluteLocation<ResolvedResource> decryptPathNow(
+            Function<PrivateResource, AbsoluteLocation<PrivateResource>> decryptor,
+            AbsoluteLocation<ResolvedResource> resource) {
+
+        AbsoluteLocation<ResolvedResource> decrypted = decryptPath(decryptor, resource);
+        decrypted.getResource().asPrivate().decryptedPath();
+        return decrypted;
     }
 
     private AbsoluteLocation<ResolvedResource> decryptPath(
-            UserIDAuth owner, AbsoluteLocation<ResolvedResource> resource, PrivateResource root) {
+            Function<PrivateResource, AbsoluteLocation<PrivateResource>> decryptor,
+            AbsoluteLocation<ResolvedResource> resource) {
 
-        AbsoluteLocation<PrivateResource> decrypted = resolver.decryptAndResolvePath(
-                owner,
-                resource.getResource().asPrivate(),
-                root
-        );
+        AbsoluteLocation<PrivateResource> decrypted = decryptor.apply(resource.getResource().asPrivate());
 
         return new AbsoluteLocation<>(resource.getResource().withResource(decrypted.getResource()));
     }
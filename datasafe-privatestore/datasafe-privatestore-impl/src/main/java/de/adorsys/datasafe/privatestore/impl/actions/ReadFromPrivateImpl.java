@@ -40,6 +40,8 @@ public class ReadFromPrivateImpl implements ReadFromPrivate {
                 .location(resolver.encryptAndResolvePath(
                         request.getOwner(),
                         request.getLocation())
-                ).build();
+                )
+                .range(request.getRange())
+                .build();
     }
 }
@@ -9,6 +9,7 @@ import de.adorsys.datasafe.types.api.context.annotations.RuntimeDelegate;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 
 import javax.inject.Inject;
+import java.util.stream.Stream;
 
 /**
  * Default removal service that locates resource to remove using {@link EncryptedResourceResolver} and
@@ -29,4 +30,9 @@ public class RemoveFromPrivateImpl implements RemoveFromPrivate {
     public void remove(RemoveRequest<UserIDAuth, PrivateResource> request) {
         remover.remove(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation()));
     }
+
+    @Override
+    public void removeAll(Stream<RemoveRequest<UserIDAuth, PrivateResource>> requests) {
+        remover.removeAll(requests.map(it -> resolver.encryptAndResolvePath(it.getOwner(), it.getLocation())));
+    }
 }
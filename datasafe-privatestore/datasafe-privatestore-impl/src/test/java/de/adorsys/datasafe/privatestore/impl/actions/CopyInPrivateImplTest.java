@@ -0,0 +1,66 @@
+package de.adorsys.datasafe.privatestore.impl.actions;
+
+import de.adorsys.datasafe.encrypiton.api.types.UserID;
+import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
+import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
+import de.adorsys.datasafe.storage.api.actions.StorageCopyService;
+import de.adorsys.datasafe.types.api.actions.CopyRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.net.URI;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CopyInPrivateImplTest extends BaseMockitoTest {
+
+    private static final String SOURCE = "source";
+    private static final String TARGET = "target";
+
+    private UserIDAuth auth = new UserIDAuth(new UserID(""), new ReadKeyPassword(""));
+
+    private CopyRequest<UserIDAuth, PrivateResource> request = CopyRequest.forDefaultPrivate(auth, SOURCE, TARGET);
+
+    private AbsoluteLocation<PrivateResource> encryptedSource =
+            BasePrivateResource.forAbsolutePrivate(URI.create("s3://bucket/encryptedSource"));
+
+    private AbsoluteLocation<PrivateResource> encryptedTarget =
+            BasePrivateResource.forAbsolutePrivate(URI.create("s3://bucket/encryptedTarget"));
+
+    @Mock
+    private EncryptedResourceResolver resolver;
+
+    @Mock
+    private StorageCopyService storage;
+
+    @InjectMocks
+    private CopyInPrivateImpl copyInPrivate;
+
+    @BeforeEach
+    void init() {
+        when(resolver.encryptAndResolvePath(auth, request.getSource())).thenReturn(encryptedSource);
+        when(resolver.encryptAndResolvePath(auth, request.getTarget())).thenReturn(encryptedTarget);
+    }
+
+    @Test
+    void copy() {
+        copyInPrivate.copy(request);
+
+        verify(storage).copy(encryptedSource, encryptedTarget);
+    }
+
+    @Test
+    void move() {
+        copyInPrivate.move(request);
+
+        verify(storage).move(encryptedSource, encryptedTarget);
+    }
+}
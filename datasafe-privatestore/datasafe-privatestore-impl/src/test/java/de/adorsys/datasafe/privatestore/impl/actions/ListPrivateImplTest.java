@@ -5,18 +5,26 @@ import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
 import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
 import de.adorsys.datasafe.storage.api.actions.StorageListService;
+import de.adorsys.datasafe.types.api.actions.ListContinuation;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.resource.*;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ListPrivateImplTest extends BaseMockitoTest {
@@ -38,11 +46,13 @@ class ListPrivateImplTest extends BaseMockitoTest {
     @Mock
     private StorageListService listService;
 
-    @InjectMocks
     private ListPrivateImpl privateService;
 
     @BeforeEach
     void init() {
+        privateService = new ListPrivateImpl(resolver, listService, ListPrivateConfig.builder()
+                .parallelBatches(1)
+                .build());
         when(absoluteResolvedResource.getResource()).thenReturn(resolvedResource);
         when(resolvedResource.location()).thenReturn(new Uri(ABSOLUTE_PATH));
     }
@@ -54,10 +64,111 @@ class ListPrivateImplTest extends BaseMockitoTest {
         when(resolvedResource.withResource(resource.getResource())).thenReturn(resolvedResource);
         ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH);
         when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(resource);
-        when(resolver.decryptAndResolvePath(request.getOwner(), resource.getResource(), resource.getResource()))
-                .thenReturn(resource);
+        when(resolver.decryptingResolver(request.getOwner(), resource.getResource())).thenReturn(it -> resource);
         when(listService.list(resource)).thenReturn(Stream.of(absoluteResolvedResource));
 
         assertThat(privateService.list(request)).hasSize(1);
     }
+
+    @Test
+    void listShallow() {
+        AbsoluteLocation<PrivateResource> resource = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        when(resolvedResource.asPrivate()).thenReturn(resource.getResource());
+        when(resolvedResource.withResource(resource.getResource())).thenReturn(resolvedResource);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH).toBuilder()
+                .shallow(true)
+                .build();
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(resource);
+        when(resolver.decryptingResolver(request.getOwner(), resource.getResource())).thenReturn(it -> resource);
+        when(listService.listShallow(resource)).thenReturn(Stream.of(absoluteResolvedResource));
+
+        assertThat(privateService.list(request)).hasSize(1);
+        verify(listService, never()).list(any());
+    }
+
+    @Test
+    void listPageStartsAfterToken() {
+        AbsoluteLocation<PrivateResource> resource = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        when(resolvedResource.asPrivate()).thenReturn(resource.getResource());
+        when(resolvedResource.withResource(resource.getResource())).thenReturn(resolvedResource);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH).toBuilder()
+                .pageSize(10)
+                .continuationToken(ListContinuation.after(
+                        BasePrivateResource.forAbsolutePrivate(URI.create("s3://absolute/last"))
+                ))
+                .build();
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(resource);
+        when(resolver.decryptingResolver(request.getOwner(), resource.getResource())).thenReturn(it -> resource);
+        when(listService.listPage(resource, new Uri("s3://absolute/last"), 10))
+                .thenReturn(Stream.of(absoluteResolvedResource));
+
+        assertThat(privateService.list(request)).hasSize(1);
+    }
+
+    @Test
+    void listDecryptsInParallelBatchesKeepingOrder() {
+        assertThat(listInParallel(false)).containsExactlyElementsOf(expectedListing());
+    }
+
+    @Test
+    void listDecryptsInParallelBatchesUnordered() {
+        assertThat(listInParallel(true)).containsExactlyInAnyOrderElementsOf(expectedListing());
+    }
+
+    @Test
+    void lazyListDoesNotDecryptUntilAccessed() {
+        AtomicInteger decryptions = new AtomicInteger();
+        AbsoluteLocation<PrivateResource> root = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH).toBuilder()
+                .lazy(true)
+                .build();
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(root);
+        when(resolver.decryptingResolver(request.getOwner(), root.getResource())).thenReturn(
+                it -> new AbsoluteLocation<>(root.getResource().resolve(new Uri("encrypted"), () -> {
+                    decryptions.incrementAndGet();
+                    return new Uri("decrypted");
+                }))
+        );
+        when(listService.list(root)).thenReturn(IntStream.range(0, 10).mapToObj(this::listed));
+
+        List<AbsoluteLocation<ResolvedResource>> listed = privateService.list(request).collect(Collectors.toList());
+
+        assertThat(listed).hasSize(10);
+        assertThat(decryptions).hasValue(0);
+        assertThat(listed.get(0).getResource().asPrivate().decryptedPath().toASCIIString()).isEqualTo("decrypted");
+        assertThat(decryptions).hasValue(1);
+    }
+
+    private List<String> listInParallel(boolean unordered) {
+        privateService = new ListPrivateImpl(resolver, listService, ListPrivateConfig.builder()
+                .batchSize(7)
+                .parallelBatches(3)
+                .build());
+        AbsoluteLocation<PrivateResource> root = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(auth, PATH).toBuilder()
+                .unordered(unordered)
+                .build();
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(root);
+        when(resolver.decryptingResolver(request.getOwner(), root.getResource())).thenReturn(
+                it -> new AbsoluteLocation<>(BasePrivateResource.forPrivate(it.location().resolve("decrypted")))
+        );
+        when(listService.list(root)).thenReturn(IntStream.range(0, 100).mapToObj(this::listed));
+
+        return privateService.list(request)
+                .map(it -> it.getResource().location().toASCIIString())
+                .collect(Collectors.toList());
+    }
+
+    private List<String> expectedListing() {
+        return IntStream.range(0, 100)
+                .mapToObj(it -> "s3://absolute/" + it + "/decrypted")
+                .collect(Collectors.toList());
+    }
+
+    private AbsoluteLocation<ResolvedResource> listed(int index) {
+        return new AbsoluteLocation<>(new BaseResolvedResource(
+                BasePrivateResource.forAbsolutePrivate(URI.create("s3://absolute/" + index + "/")).getResource(),
+                Instant.now()
+        ));
+    }
 }
@@ -5,6 +5,7 @@ import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
 import de.adorsys.datasafe.privatestore.api.actions.EncryptedResourceResolver;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
@@ -54,4 +55,19 @@ class ReadFromPrivateImplTest extends BaseMockitoTest {
         assertThat(inbox.read(request)).hasContent(BYTES);
         assertThat(captor.getValue().getLocation()).isEqualTo(resource);
     }
+
+    @Test
+    void readRangePassesRange() {
+        AbsoluteLocation<PrivateResource> resource = BasePrivateResource.forAbsolutePrivate(ABSOLUTE_PATH);
+        ReadRequest<UserIDAuth, PrivateResource> request = ReadRequest.forPrivate(
+                auth,
+                BasePrivateResource.forPrivate(ABSOLUTE_PATH)
+        ).toBuilder().range(ByteRange.of(1, 2)).build();
+        when(resolver.encryptAndResolvePath(request.getOwner(), request.getLocation())).thenReturn(resource);
+        when(readService.read(captor.capture())).thenReturn(new ByteArrayInputStream(BYTES.getBytes()));
+
+        inbox.read(request);
+
+        assertThat(captor.getValue().getRange()).isEqualTo(ByteRange.of(1, 2));
+    }
 }
@@ -6,16 +6,31 @@ import de.adorsys.datasafe.business.impl.service.DaggerVersionedDatasafeServices
 import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.business.impl.service.VersionedDatasafeServices;
 import de.adorsys.datasafe.directory.api.config.DFSConfig;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheConfig;
+import de.adorsys.datasafe.directory.impl.profile.cache.UserCacheStats;
 import de.adorsys.datasafe.directory.impl.profile.config.DefaultDFSConfig;
+import de.adorsys.datasafe.directory.impl.profile.keys.KeyStoreCache;
+import de.adorsys.datasafe.directory.impl.profile.keys.UnlockedKeyCache;
+import de.adorsys.datasafe.directory.impl.profile.operations.UserProfileCache;
 import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.impl.s3.MultipartUploadConfig;
+import de.adorsys.datasafe.storage.impl.s3.PartitionedListingConfig;
 import de.adorsys.datasafe.storage.impl.s3.S3StorageService;
+import de.adorsys.datasafe.storage.impl.s3.UploadMemoryBudget;
 import de.adorsys.datasafe.types.api.resource.Uri;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.security.Security;
+import java.time.Duration;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * Configures default (non-versioned) Datasafe service that uses S3 client as storage provider.
@@ -29,15 +44,71 @@ public class DatasafeConfig {
         return new DefaultDFSConfig(new Uri(properties.getSystemRoot()), properties.getKeystorePassword());
     }
 
+    /**
+     * @return Memory budget shared by all S3 uploads of this node.
+     */
+    @Bean
+    UploadMemoryBudget uploadMemoryBudget(DatasafeProperties properties) {
+        return UploadMemoryBudget.shared(properties.getUploadMemoryBudgetMb() * 1024 * 1024);
+    }
+
+    /**
+     * @return Publishes upload memory budget usage and writer wait time.
+     */
+    @Bean
+    MeterBinder uploadMemoryBudgetMetrics(UploadMemoryBudget budget) {
+        return registry -> {
+            Gauge.builder("datasafe.upload.budget.limit", budget, it -> it.stats().getBudgetBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("datasafe.upload.budget.used", budget, it -> it.stats().getUsedBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("datasafe.upload.budget.pooled", budget, it -> it.stats().getPooledBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("datasafe.upload.budget.peak", budget, it -> it.stats().getPeakUsedBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("datasafe.upload.budget.waiting", budget, it -> it.stats().getWaitingWriters())
+                    .register(registry);
+            FunctionCounter.builder("datasafe.upload.budget.waits", budget, it -> it.stats().getWaits())
+                    .register(registry);
+            FunctionCounter.builder("datasafe.upload.budget.wait.time", budget,
+                    it -> it.stats().getTotalWaitMillis() / (double) TimeUnit.SECONDS.toMillis(1))
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @return Limits of keystore, public keys and profile caches.
+     */
+    @Bean
+    UserCacheConfig userCacheConfig(DatasafeProperties properties) {
+        return UserCacheConfig.builder()
+                .maximumSize(properties.getUserCacheMaxSize())
+                .maximumWeightBytes(properties.getUserCacheMaxMemoryMb() * 1024 * 1024)
+                .expireAfterAccess(minutesOrNever(properties.getUserCacheExpireAfterAccessMinutes()))
+                .expireAfterWrite(minutesOrNever(properties.getUserCacheExpireAfterWriteMinutes()))
+                .sealUnlockedKeys(properties.isSealUnlockedKeys())
+                .build();
+    }
+
     /**
      * @return S3 based storage service
      */
     @Bean
-    StorageService storageService(AmazonS3 s3, DatasafeProperties properties) {
+    StorageService storageService(AmazonS3 s3, DatasafeProperties properties, UploadMemoryBudget budget) {
         return new S3StorageService(
                 s3,
                 properties.getBucketName(),
-                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()),
+                MultipartUploadConfig.builder()
+                        .maxBufferedBytes(budget.getBudgetBytes())
+                        .build(),
+                budget,
+                PartitionedListingConfig.parallel(properties.getListingParallelism())
         );
     }
 
@@ -45,7 +116,8 @@ public class DatasafeConfig {
      * @return Default implementation of Datasafe services.
      */
     @Bean
-    DefaultDatasafeServices datasafeService(StorageService storageService, DFSConfig dfsConfig) {
+    DefaultDatasafeServices datasafeService(StorageService storageService, DFSConfig dfsConfig,
+                                            UserCacheConfig cacheConfig) {
 
         Security.addProvider(new BouncyCastleProvider());
 
@@ -53,11 +125,39 @@ public class DatasafeConfig {
                 .builder()
                 .config(dfsConfig)
                 .storage(storageService)
+                .userCacheConfig(cacheConfig)
                 .build();
     }
 
+    /**
+     * @return Publishes unlocked key cache hit ratio and size of both default and versioned services.
+     */
+    @Bean
+    MeterBinder unlockedKeyCacheMetrics(DefaultDatasafeServices datasafeService,
+                                        VersionedDatasafeServices versionedDatasafeServices) {
+        return registry -> {
+            bindUnlockedKeyCache(registry, "default", datasafeService.unlockedKeys());
+            bindUnlockedKeyCache(registry, "versioned", versionedDatasafeServices.unlockedKeys());
+        };
+    }
+
+    /**
+     * @return Publishes keystore, public keys and profile cache hit ratio, evictions and size of both default and
+     * versioned services.
+     */
+    @Bean
+    MeterBinder userCacheMetrics(DefaultDatasafeServices datasafeService,
+                                 VersionedDatasafeServices versionedDatasafeServices) {
+        return registry -> {
+            bindUserCaches(registry, "default", datasafeService.keyStoreCache(), datasafeService.profileCache());
+            bindUserCaches(registry, "versioned", versionedDatasafeServices.keyStoreCache(),
+                    versionedDatasafeServices.profileCache());
+        };
+    }
+
     @Bean
-    VersionedDatasafeServices versionedDatasafeServices(StorageService storageService, DFSConfig dfsConfig) {
+    VersionedDatasafeServices versionedDatasafeServices(StorageService storageService, DFSConfig dfsConfig,
+                                                        UserCacheConfig cacheConfig) {
 
         Security.addProvider(new BouncyCastleProvider());
 
@@ -65,6 +165,54 @@ public class DatasafeConfig {
                 .builder()
                 .config(dfsConfig)
                 .storage(storageService)
+                .userCacheConfig(cacheConfig)
                 .build();
     }
+
+    private static void bindUnlockedKeyCache(MeterRegistry registry, String service, UnlockedKeyCache cache) {
+        FunctionCounter.builder("datasafe.keys.unlocked.hits", cache, it -> it.stats().getHits())
+                .tag("service", service)
+                .register(registry);
+        FunctionCounter.builder("datasafe.keys.unlocked.misses", cache, it -> it.stats().getMisses())
+                .tag("service", service)
+                .register(registry);
+        FunctionCounter.builder("datasafe.keys.unlocked.evictions", cache, it -> it.stats().getEvictions())
+                .tag("service", service)
+                .register(registry);
+        Gauge.builder("datasafe.keys.unlocked.size", cache, it -> it.stats().getSize())
+                .tag("service", service)
+                .register(registry);
+    }
+
+    private static void bindUserCaches(MeterRegistry registry, String service, KeyStoreCache keyStoreCache,
+                                       UserProfileCache profileCache) {
+        bindUserCache(registry, service, "keystore", keyStoreCache, KeyStoreCache::keystoreStats);
+        bindUserCache(registry, service, "publickeys", keyStoreCache, KeyStoreCache::publicKeysStats);
+        bindUserCache(registry, service, "publicprofile", profileCache, UserProfileCache::publicProfileStats);
+        bindUserCache(registry, service, "privateprofile", profileCache, UserProfileCache::privateProfileStats);
+    }
+
+    private static <T> void bindUserCache(MeterRegistry registry, String service, String cache, T owner,
+                                          Function<T, UserCacheStats> stats) {
+        FunctionCounter.builder("datasafe.cache.hits", owner, it -> stats.apply(it).getHits())
+                .tag("service", service)
+                .tag("cache", cache)
+                .register(registry);
+        FunctionCounter.builder("datasafe.cache.misses", owner, it -> stats.apply(it).getMisses())
+                .tag("service", service)
+                .tag("cache", cache)
+                .register(registry);
+        FunctionCounter.builder("datasafe.cache.evictions", owner, it -> stats.apply(it).getEvictions())
+                .tag("service", service)
+                .tag("cache", cache)
+                .register(registry);
+        Gauge.builder("datasafe.cache.size", owner, it -> stats.apply(it).getSize())
+                .tag("service", service)
+                .tag("cache", cache)
+                .register(registry);
+    }
+
+    private static Duration minutesOrNever(long minutes) {
+        return minutes > 0 ? Duration.ofMinutes(minutes) : null;
+    }
 }
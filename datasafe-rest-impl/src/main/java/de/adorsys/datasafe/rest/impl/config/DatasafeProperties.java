@@ -22,4 +22,41 @@ public class DatasafeProperties {
      * Password used to open keystore. It is not sufficient to read private/secret keys with it.
      */
     private String keystorePassword;
+
+    /**
+     * Node-wide limit (in megabytes) of memory occupied by buffered and in-flight S3 multipart upload parts.
+     * Writers block when it is exhausted.
+     */
+    private long uploadMemoryBudgetMb = 320;
+
+    /**
+     * How many key range shards of S3 listing are requested in parallel, 1 lists sequentially.
+     */
+    private int listingParallelism = 1;
+
+    /**
+     * Maximum count of users whose keystore, public keys or profile are cached, each cache is bounded separately.
+     * Ignored if {@code userCacheMaxMemoryMb} is set.
+     */
+    private long userCacheMaxSize = 10_000;
+
+    /**
+     * Approximate memory limit (in megabytes) of each keystore, public keys or profile cache, 0 - unused.
+     */
+    private long userCacheMaxMemoryMb = 0;
+
+    /**
+     * Cached keystore, public keys or profile that was not used for this many minutes expires, 0 - never.
+     */
+    private long userCacheExpireAfterAccessMinutes = 60;
+
+    /**
+     * Cached keystore, public keys or profile expires this many minutes after it was read, 0 - never.
+     */
+    private long userCacheExpireAfterWriteMinutes = 0;
+
+    /**
+     * Keep unlocked private and secret keys encrypted in memory, trades some CPU on each access for less exposure.
+     */
+    private boolean sealUnlockedKeys = false;
 }
@@ -1,28 +1,43 @@
 package de.adorsys.datasafe.rest.impl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.rest.impl.dto.ListPageDTO;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
+import de.adorsys.datasafe.types.api.actions.ListContinuation;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.actions.WriteRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.utils.Abortable;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 
 /**
@@ -33,20 +48,40 @@ import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 @RequiredArgsConstructor
 public class DocumentController {
 
+    private static final int MAX_PAGE_SIZE = 10_000;
+    private static final int MAX_RANGE_LENGTH = 1024 * 1024;
+    private static final Pattern BYTE_RANGE = Pattern.compile("^bytes=(\\d{1,18})-(\\d{0,18})$");
+
     private final DefaultDatasafeServices dataSafeService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Reads user's private file.
+     * Reads user's private file, supports single byte range in Range header (i.e. bytes=100-199 or bytes=100-).
+     * Other range forms (suffix, multiple ranges) and bytes=0- are ignored and whole file is served. Since
+     * document size is not stored, it is reported as unknown ({@code bytes 100-199/*}) unless document ends within
+     * the range. Range is served in windows of at most {@code MAX_RANGE_LENGTH} bytes, so that ranged read
+     * never decrypts the document past the served range. Client reads the rest with the following range request.
+     * Authenticated (AES-GCM) documents are streamed before their tag is verified, if verification fails
+     * the response is cut short without its last chunk - client must discard content of incomplete response.
      */
     @SneakyThrows
     @GetMapping(value = "/document/{path:.*}", produces = APPLICATION_OCTET_STREAM_VALUE)
     public void readDocument(@RequestHeader String user,
                              @RequestHeader String password,
+                             @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
                              @PathVariable String path,
                              HttpServletResponse response) {
         UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
         PrivateResource resource = BasePrivateResource.forPrivate(path);
         ReadRequest<UserIDAuth, PrivateResource> request = ReadRequest.forPrivate(userIDAuth, resource);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        ByteRange requested = null == range ? null : parseRange(range);
+        if (null != requested) {
+            readRange(request, requested, response);
+            log.debug("User: {}, read range of private file from: {}", user, resource);
+            return;
+        }
+
         try (InputStream is = dataSafeService.privateService().read(request);
              OutputStream os = response.getOutputStream()
         ) {
@@ -66,8 +101,8 @@ public class DocumentController {
                               InputStream is) {
         UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
         WriteRequest<UserIDAuth, PrivateResource> request = WriteRequest.forDefaultPrivate(userIDAuth, path);
-        try (OutputStream os = dataSafeService.privateService().write(request)) {
-            StreamUtils.copy(is, os);
+        try {
+            Abortable.writeAndClose(dataSafeService.privateService().write(request), os -> StreamUtils.copy(is, os));
         } finally {
             is.close();
         }
@@ -90,6 +125,63 @@ public class DocumentController {
         return documentList;
     }
 
+    /**
+     * streams list of files in user's private space as newline-delimited JSON.
+     */
+    @SneakyThrows
+    @GetMapping(value = "/documents/{path:.*}", produces = NdJsonListing.APPLICATION_NDJSON_VALUE)
+    public void streamDocuments(@RequestHeader String user,
+                                @RequestHeader String password,
+                                @PathVariable(required = false) String path,
+                                HttpServletResponse response) {
+        UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
+        path = Optional.ofNullable(path).orElse("./");
+        long count = NdJsonListing.write(
+                dataSafeService.privateService().list(ListRequest.forDefaultPrivate(userIDAuth, path))
+                        .map(e -> e.getResource().asPrivate().decryptedPath().getPath()),
+                objectMapper,
+                response
+        );
+        log.debug("Streamed list for path {} returned {} items", path, count);
+    }
+
+    /**
+     * lists page of files in user's private space, files come in storage order.
+     */
+    @GetMapping(value = "/documents/{path:.*}", params = "pageSize", produces = APPLICATION_JSON_VALUE)
+    public ListPageDTO listDocumentsPage(@RequestHeader String user,
+                                        @RequestHeader String password,
+                                        @PathVariable(required = false) String path,
+                                        @RequestParam int pageSize,
+                                        @RequestParam(required = false) String continuationToken) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be within 1.." + MAX_PAGE_SIZE);
+        }
+
+        UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
+        path = Optional.ofNullable(path).orElse("./");
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(userIDAuth, path)
+                .toBuilder()
+                .pageSize(pageSize)
+                .continuationToken(continuationToken)
+                .build();
+
+        List<AbsoluteLocation<ResolvedResource>> page;
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = dataSafeService.privateService().list(request)) {
+            page = listed.collect(Collectors.toList());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+
+        List<String> items = page.stream()
+                .map(e -> e.getResource().asPrivate().decryptedPath().getPath())
+                .collect(Collectors.toList());
+        // short page is the last one
+        String nextToken = page.size() < pageSize ? null : ListContinuation.after(page.get(page.size() - 1));
+        log.debug("Page for path {} returned {} items", path, items.size());
+        return new ListPageDTO(items, nextToken);
+    }
+
     /**
      * deletes files from user's private space.
      */
@@ -103,4 +195,73 @@ public class DocumentController {
         dataSafeService.privateService().remove(request);
         log.debug("User: {}, delete private file: {}", user, resource);
     }
+
+    /**
+     * Reads range and one byte past it from single stream, range is buffered since its headers depend on whether
+     * document ends within it.
+     */
+    @SneakyThrows
+    private void readRange(ReadRequest<UserIDAuth, PrivateResource> request, ByteRange requested,
+                           HttpServletResponse response) {
+        long offset = requested.getOffset();
+        int length = requested.isBounded()
+                ? (int) Math.min(requested.lastInclusive() - offset + 1, MAX_RANGE_LENGTH)
+                : MAX_RANGE_LENGTH;
+
+        byte[] content;
+        try (InputStream is = dataSafeService.privateService().read(
+                request.toBuilder().range(ByteRange.of(offset, length + 1L)).build())) {
+            content = readUpTo(is, length + 1);
+        }
+
+        if (0 == content.length) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        int served = Math.min(content.length, length);
+        long last = offset + served - 1;
+        // no byte past the range - document ends within it, so its size is known
+        String total = content.length > length ? "*" : String.valueOf(last + 1);
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + last + "/" + total);
+        response.setContentLengthLong(served);
+        try (OutputStream os = response.getOutputStream()) {
+            os.write(content, 0, served);
+        }
+    }
+
+    @SneakyThrows
+    private static byte[] readUpTo(InputStream is, int limit) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(Math.min(limit, StreamUtils.BUFFER_SIZE));
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        int read;
+        while (result.size() < limit
+                && (read = is.read(buffer, 0, Math.min(buffer.length, limit - result.size()))) != -1) {
+            result.write(buffer, 0, read);
+        }
+
+        return result.toByteArray();
+    }
+
+    // unsupported or invalid ranges are ignored as RFC 7233 allows, so that whole document is served
+    private static ByteRange parseRange(String range) {
+        Matcher matcher = BYTE_RANGE.matcher(range.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        long start = Long.parseLong(matcher.group(1));
+        if (matcher.group(2).isEmpty()) {
+            // whole document
+            return 0 == start ? null : ByteRange.from(start);
+        }
+
+        long end = Long.parseLong(matcher.group(2));
+        if (end < start) {
+            return null;
+        }
+
+        return ByteRange.of(start, end - start + 1);
+    }
 }
@@ -1,20 +1,28 @@
 package de.adorsys.datasafe.rest.impl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
 import de.adorsys.datasafe.encrypiton.api.types.keystore.ReadKeyPassword;
+import de.adorsys.datasafe.rest.impl.dto.ListPageDTO;
+import de.adorsys.datasafe.types.api.actions.ListContinuation;
 import de.adorsys.datasafe.types.api.actions.ListRequest;
 import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.actions.WriteRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.utils.Abortable;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.InputStream;
@@ -23,6 +31,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
@@ -36,7 +45,10 @@ import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 @RequiredArgsConstructor
 public class InboxController {
 
+    private static final int MAX_PAGE_SIZE = 10_000;
+
     private final DefaultDatasafeServices dataSafeService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Sends file to multiple users' INBOX.
@@ -47,8 +59,11 @@ public class InboxController {
                              @PathVariable String path,
                              InputStream is) {
         Set<UserID> toUsers = users.stream().map(UserID::new).collect(Collectors.toSet());
-        try (OutputStream os = dataSafeService.inboxService().write(WriteRequest.forDefaultPublic(toUsers, path))) {
-            StreamUtils.copy(is, os);
+        try {
+            Abortable.writeAndClose(
+                    dataSafeService.inboxService().write(WriteRequest.forDefaultPublic(toUsers, path)),
+                    os -> StreamUtils.copy(is, os)
+            );
         } finally {
             is.close();
         }
@@ -103,4 +118,61 @@ public class InboxController {
         log.debug("User's {} inbox contains {} items", user, inboxList.size());
         return inboxList;
     }
+
+    /**
+     * streams list of files in users' INBOX as newline-delimited JSON.
+     */
+    @SneakyThrows
+    @GetMapping(value = "/{path:.*}", produces = NdJsonListing.APPLICATION_NDJSON_VALUE)
+    public void streamInbox(@RequestHeader String user,
+                            @RequestHeader String password,
+                            @PathVariable(required = false) String path,
+                            HttpServletResponse response) {
+        UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
+        path = Optional.ofNullable(path).orElse("./");
+        long count = NdJsonListing.write(
+                dataSafeService.inboxService().list(ListRequest.forDefaultPrivate(userIDAuth, path))
+                        .map(e -> e.getResource().asPrivate().decryptedPath().getPath()),
+                objectMapper,
+                response
+        );
+        log.debug("User's {} streamed inbox contains {} items", user, count);
+    }
+
+    /**
+     * lists page of files in users' INBOX, files come in storage order.
+     */
+    @GetMapping(value = "/{path:.*}", params = "pageSize", produces = APPLICATION_JSON_VALUE)
+    public ListPageDTO listInboxPage(@RequestHeader String user,
+                                    @RequestHeader String password,
+                                    @PathVariable(required = false) String path,
+                                    @RequestParam int pageSize,
+                                    @RequestParam(required = false) String continuationToken) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be within 1.." + MAX_PAGE_SIZE);
+        }
+
+        UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
+        path = Optional.ofNullable(path).orElse("./");
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest.forDefaultPrivate(userIDAuth, path)
+                .toBuilder()
+                .pageSize(pageSize)
+                .continuationToken(continuationToken)
+                .build();
+
+        List<AbsoluteLocation<ResolvedResource>> page;
+        try (Stream<AbsoluteLocation<ResolvedResource>> listed = dataSafeService.inboxService().list(request)) {
+            page = listed.collect(Collectors.toList());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+
+        List<String> items = page.stream()
+                .map(e -> e.getResource().asPrivate().decryptedPath().getPath())
+                .collect(Collectors.toList());
+        // short page is the last one
+        String nextToken = page.size() < pageSize ? null : ListContinuation.after(page.get(page.size() - 1));
+        log.debug("User's {} inbox page contains {} items", user, items.size());
+        return new ListPageDTO(items, nextToken);
+    }
 }
@@ -0,0 +1,51 @@
+package de.adorsys.datasafe.rest.impl.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes listing as newline-delimited JSON (one JSON string per line) while it is read from the stream, so that
+ * clients receive first entries before the whole listing is done and server does not keep it in memory.
+ */
+final class NdJsonListing {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int FLUSH_EVERY_ENTRIES = 100;
+    private static final byte NEW_LINE = '\n';
+
+    private NdJsonListing() {
+    }
+
+    /**
+     * @param entries Listing to write, closed after writing
+     * @param mapper Serializes entries
+     * @param response Response to write to
+     * @return Count of written entries
+     */
+    static long write(Stream<String> entries, ObjectMapper mapper, HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        long written = 0;
+        try (Stream<String> listed = entries) {
+            OutputStream os = response.getOutputStream();
+            Iterator<String> iterator = listed.iterator();
+            while (iterator.hasNext()) {
+                os.write(mapper.writeValueAsBytes(iterator.next()));
+                os.write(NEW_LINE);
+                written++;
+                if (0 == written % FLUSH_EVERY_ENTRIES) {
+                    os.flush();
+                }
+            }
+
+            os.flush();
+        }
+
+        return written;
+    }
+}
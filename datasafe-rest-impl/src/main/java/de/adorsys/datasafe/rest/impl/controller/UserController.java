@@ -63,4 +63,18 @@ public class UserController {
         }
         dataSafeService.userProfile().deregister(auth);
     }
+
+    /**
+     * Starts prefetching user profiles and keys in background, call it on session start so that first request
+     * does not wait for them to be read one after another. Returns immediately.
+     * @param user username
+     * @param password user password.
+     */
+    @PostMapping("/warm-up")
+    @ApiOperation("Prefetch user profile and keys")
+    public void warmUp(@RequestHeader String user,
+                       @RequestHeader String password) {
+        UserIDAuth auth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
+        dataSafeService.userWarmUp().warmUp(auth);
+    }
 }
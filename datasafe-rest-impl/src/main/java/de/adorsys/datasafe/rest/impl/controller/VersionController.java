@@ -1,5 +1,6 @@
 package de.adorsys.datasafe.rest.impl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.datasafe.business.impl.service.VersionedDatasafeServices;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import de.adorsys.datasafe.encrypiton.api.types.UserIDAuth;
@@ -10,6 +11,7 @@ import de.adorsys.datasafe.types.api.actions.ReadRequest;
 import de.adorsys.datasafe.types.api.actions.RemoveRequest;
 import de.adorsys.datasafe.types.api.actions.WriteRequest;
 import de.adorsys.datasafe.types.api.resource.*;
+import de.adorsys.datasafe.types.api.utils.Abortable;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +36,7 @@ import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
 public class VersionController {
 
     private final VersionedDatasafeServices versionedDatasafeServices;
+    private final ObjectMapper objectMapper;
 
     /**
      * lists latest versions of files in user's private space.
@@ -51,6 +54,26 @@ public class VersionController {
         return documentList;
     }
 
+    /**
+     * streams list of latest versions of files in user's private space as newline-delimited JSON.
+     */
+    @SneakyThrows
+    @GetMapping(value = "/versioned/{path:.*}", produces = NdJsonListing.APPLICATION_NDJSON_VALUE)
+    public void streamVersionedDocuments(@RequestHeader String user,
+                                         @RequestHeader String password,
+                                         @PathVariable(required = false) String path,
+                                         HttpServletResponse response) {
+        UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
+        path = Optional.ofNullable(path).orElse("./");
+        long count = NdJsonListing.write(
+                versionedDatasafeServices.latestPrivate().listWithDetails(ListRequest.forDefaultPrivate(userIDAuth, path))
+                        .map(e -> e.absolute().getResource().decryptedPath().getPath()),
+                objectMapper,
+                response
+        );
+        log.debug("Streamed list for path {} returned {} items", path, count);
+    }
+
     /**
      * reads latest version of file from user's private space.
      */
@@ -82,8 +105,11 @@ public class VersionController {
                               InputStream is) {
         UserIDAuth userIDAuth = new UserIDAuth(new UserID(user), new ReadKeyPassword(password));
         WriteRequest<UserIDAuth, PrivateResource> request = WriteRequest.forDefaultPrivate(userIDAuth, path);
-        try (OutputStream os = versionedDatasafeServices.latestPrivate().write(request)) {
-            StreamUtils.copy(is, os);
+        try {
+            Abortable.writeAndClose(
+                    versionedDatasafeServices.latestPrivate().write(request),
+                    os -> StreamUtils.copy(is, os)
+            );
         } finally {
             is.close();
         }
@@ -0,0 +1,23 @@
+package de.adorsys.datasafe.rest.impl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page of listed paths, pass its continuation token to request the next page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ListPageDTO {
+
+    private List<String> items;
+
+    /**
+     * Null if there are no more items.
+     */
+    private String continuationToken;
+}
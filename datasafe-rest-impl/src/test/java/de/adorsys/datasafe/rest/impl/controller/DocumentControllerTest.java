@@ -2,20 +2,39 @@ package de.adorsys.datasafe.rest.impl.controller;
 
 import de.adorsys.datasafe.business.impl.service.DefaultDatasafeServices;
 import de.adorsys.datasafe.privatestore.impl.PrivateSpaceServiceImpl;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
+import de.adorsys.datasafe.types.api.actions.ListContinuation;
+import de.adorsys.datasafe.types.api.actions.ReadRequest;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Slf4j
@@ -48,6 +67,96 @@ class DocumentControllerTest extends BaseTokenDatasafeEndpointTest {
         verify(privateSpaceService).read(any());
     }
 
+    @SneakyThrows
+    @Test
+    void readDocumentRangeTest() {
+        servesContent("hello world");
+
+        readRange("bytes=1-3")
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 1-3/*"))
+                .andExpect(content().string("ell"));
+        // range and one byte past it, to tell if document ends within range
+        verify(privateSpaceService).read(ArgumentMatchers.argThat(it -> ByteRange.of(1, 4).equals(it.getRange())));
+        verify(privateSpaceService, never()).read(ArgumentMatchers.argThat(it -> null == it.getRange()));
+    }
+
+    @SneakyThrows
+    @Test
+    void readDocumentRangeDoesNotReadPastRangeTest() {
+        servesContent(String.join("", Collections.nCopies(10_000, "0123456789")));
+
+        readRange("bytes=0-99")
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 0-99/*"))
+                .andExpect(header().longValue("Content-Length", 100));
+        readRange("bytes=10-")
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 10-99999/100000"));
+
+        verify(privateSpaceService, never()).read(ArgumentMatchers.argThat(
+                it -> null == it.getRange() || !it.getRange().isBounded()
+        ));
+    }
+
+    @SneakyThrows
+    @Test
+    void readDocumentOpenAndOversizedRangeTest() {
+        servesContent("hello world");
+
+        readRange("bytes=6-")
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 6-10/11"))
+                .andExpect(content().string("world"));
+        readRange("bytes=5-100")
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 5-10/11"))
+                .andExpect(content().string(" world"));
+    }
+
+    @SneakyThrows
+    @Test
+    void readDocumentRangeOpensDocumentOnceTest() {
+        servesContent("hello world");
+
+        readRange("bytes=5-100")
+                .andExpect(header().string("Content-Range", "bytes 5-10/11"));
+        readRange("bytes=2-4")
+                .andExpect(header().string("Content-Range", "bytes 2-4/*"));
+        readRange("bytes=20-")
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+
+        verify(privateSpaceService, times(3)).read(any());
+    }
+
+    @SneakyThrows
+    @Test
+    void readDocumentUnsatisfiableRangeTest() {
+        servesContent("hello world");
+
+        readRange("bytes=11-")
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+        readRange("bytes=20-30")
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @SneakyThrows
+    @Test
+    void readDocumentUnsupportedRangeIsIgnoredTest() {
+        servesContent("hello world");
+
+        readRange("bytes=-3")
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Range"))
+                .andExpect(content().string("hello world"));
+        readRange("bytes=0-")
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello world"));
+        readRange("bytes=0-1,5-6")
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello world"));
+    }
+
     @SneakyThrows
     @Test
     void writeDocumentTest() {
@@ -71,10 +180,58 @@ class DocumentControllerTest extends BaseTokenDatasafeEndpointTest {
                 .header("user", TEST_USER)
                 .header("password", TEST_PASS)
                 .header("token", token)
-        ).andExpect(status().isOk());
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
         verify(privateSpaceService).list(any());
     }
 
+    @SneakyThrows
+    @Test
+    void streamDocumentsTest() {
+        when(privateSpaceService.list(any())).thenReturn(Stream.of(listed("path/to/file"), listed("path/to/other")));
+
+        mvc.perform(get("/documents/{path}", "")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+                .accept(NdJsonListing.APPLICATION_NDJSON_VALUE)
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NdJsonListing.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string("\"path/to/file\"\n\"path/to/other\"\n"));
+        verify(privateSpaceService).list(any());
+    }
+
+    @SneakyThrows
+    @Test
+    void listDocumentsPageTest() {
+        AbsoluteLocation<ResolvedResource> listed = listed("path/to/file");
+        when(privateSpaceService.list(any())).thenReturn(Stream.of(listed));
+
+        mvc.perform(get("/documents/{path}", "")
+                .param("pageSize", "1")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0]").value("path/to/file"))
+                .andExpect(jsonPath("$.continuationToken").value(ListContinuation.after(listed)));
+        verify(privateSpaceService).list(ArgumentMatchers.argThat(it -> 1 == it.getPageSize()));
+    }
+
+    @SneakyThrows
+    @Test
+    void listDocumentsPageRejectsInvalidSize() {
+        mvc.perform(get("/documents/{path}", "")
+                .param("pageSize", "0")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+        ).andExpect(status().isBadRequest());
+    }
+
     @SneakyThrows
     @Test
     void removeDocumentTest() {
@@ -86,4 +243,36 @@ class DocumentControllerTest extends BaseTokenDatasafeEndpointTest {
         ).andExpect(status().isOk());
         verify(privateSpaceService).remove(any());
     }
+
+    private static AbsoluteLocation<ResolvedResource> listed(String path) {
+        return new AbsoluteLocation<>(new BaseResolvedResource(
+                BasePrivateResource.forAbsolutePrivate(URI.create("s3://bucket/files/enc")).getResource()
+                        .resolve(new Uri("enc"), new Uri(path)),
+                Instant.now()
+        ));
+    }
+
+    private void servesContent(String content) {
+        byte[] bytes = content.getBytes();
+        when(dataSafeService.privateService().read(any())).thenAnswer(inv -> {
+            ByteRange range = inv.<ReadRequest<?, ?>>getArgument(0).getRange();
+            if (null == range) {
+                return new ByteArrayInputStream(bytes);
+            }
+
+            int from = (int) Math.min(range.getOffset(), bytes.length);
+            int to = range.isBounded() ? (int) Math.min(range.lastInclusive() + 1, bytes.length) : bytes.length;
+            return new ByteArrayInputStream(bytes, from, to - from);
+        });
+    }
+
+    @SneakyThrows
+    private ResultActions readRange(String range) {
+        return mvc.perform(get("/document/{path}", "path/to/file")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+                .header("Range", range)
+                .accept(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+    }
 }
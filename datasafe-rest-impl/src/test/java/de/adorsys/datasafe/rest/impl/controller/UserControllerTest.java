@@ -1,6 +1,7 @@
 package de.adorsys.datasafe.rest.impl.controller;
 
 import de.adorsys.datasafe.business.impl.service.VersionedDatasafeServices;
+import de.adorsys.datasafe.directory.api.profile.operations.UserWarmUpService;
 import de.adorsys.datasafe.directory.impl.profile.operations.DFSBasedProfileStorageImpl;
 import de.adorsys.datasafe.encrypiton.api.types.UserID;
 import lombok.SneakyThrows;
@@ -13,6 +14,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -24,11 +26,15 @@ class UserControllerTest extends BaseTokenDatasafeEndpointTest {
     @MockBean
     private DFSBasedProfileStorageImpl userProfile;
 
+    @MockBean
+    private UserWarmUpService userWarmUp;
+
 
 
     @BeforeEach
     public void setup() {
         when(dataSafeService.userProfile()).thenReturn(userProfile);
+        when(dataSafeService.userWarmUp()).thenReturn(userWarmUp);
 
     }
 
@@ -98,6 +104,18 @@ class UserControllerTest extends BaseTokenDatasafeEndpointTest {
         });
     }
 
+    @SneakyThrows
+    @Test
+    void warmUpTest() {
+        mvc.perform(post("/user/warm-up")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+        )
+                .andExpect(status().isOk());
+        verify(userWarmUp).warmUp(any());
+    }
+
     public String getLoginData(){
         return "{ \"userName\" : \"" + TEST_USER + "\" , \"password\" : \"" + TEST_PASS + "\" }";
     }
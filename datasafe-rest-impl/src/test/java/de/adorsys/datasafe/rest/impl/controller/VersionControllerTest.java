@@ -16,6 +16,7 @@ import java.io.ByteArrayOutputStream;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Slf4j
@@ -103,4 +104,18 @@ public class VersionControllerTest extends BaseTokenDatasafeEndpointTest {
         ).andExpect(status().isOk());
         verify(versionInfoService).versionsOf(any());
     }
+
+    @SneakyThrows
+    @Test
+    void streamVersionedDocumentsTest() {
+        mvc.perform(get("/versioned/{path}", "")
+                .header("user", TEST_USER)
+                .header("password", TEST_PASS)
+                .header("token", token)
+                .accept(NdJsonListing.APPLICATION_NDJSON_VALUE)
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NdJsonListing.APPLICATION_NDJSON_VALUE));
+        verify(versionedPrivateSpaceService).listWithDetails(any());
+    }
 }
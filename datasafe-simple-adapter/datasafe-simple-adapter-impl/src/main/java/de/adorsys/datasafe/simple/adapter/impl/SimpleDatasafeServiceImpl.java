@@ -27,12 +27,11 @@ import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.utils.Abortable;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -40,6 +39,7 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 public class SimpleDatasafeServiceImpl implements SimpleDatasafeService {
@@ -127,10 +127,11 @@ public class SimpleDatasafeServiceImpl implements SimpleDatasafeService {
     @Override
     @SneakyThrows
     public void storeDocument(UserIDAuth userIDAuth, DSDocument dsDocument) {
-        try (OutputStream os = customlyBuiltDatasafeServices.privateService()
-                .write(WriteRequest.forDefaultPrivate(userIDAuth, dsDocument.getDocumentFQN().getDatasafePath()))) {
-            os.write(dsDocument.getDocumentContent().getValue());
-        }
+        Abortable.writeAndClose(
+                customlyBuiltDatasafeServices.privateService()
+                        .write(WriteRequest.forDefaultPrivate(userIDAuth, dsDocument.getDocumentFQN().getDatasafePath())),
+                os -> os.write(dsDocument.getDocumentContent().getValue())
+        );
     }
 
     @SneakyThrows
@@ -163,29 +164,43 @@ public class SimpleDatasafeServiceImpl implements SimpleDatasafeService {
 
     @Override
     public boolean documentExists(UserIDAuth userIDAuth, DocumentFQN documentFQN) {
-        return customlyBuiltDatasafeServices.privateService().list(ListRequest.forDefaultPrivate(userIDAuth, documentFQN.getDatasafePath())).count() == 1;
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest
+                .forDefaultPrivate(userIDAuth, documentFQN.getDatasafePath())
+                .toBuilder()
+                .lazy(true)
+                .build();
+        return customlyBuiltDatasafeServices.privateService().list(request).count() == 1;
     }
 
     @Override
     public void deleteFolder(UserIDAuth userIDAuth, DocumentDirectoryFQN documentDirectoryFQN) {
-        list(userIDAuth, documentDirectoryFQN, ListRecursiveFlag.TRUE).stream().forEach(file -> {
-            PrivateResource resource = BasePrivateResource.forPrivate(file.getDatasafePath());
-            RemoveRequest<UserIDAuth, PrivateResource> request = RemoveRequest.forPrivate(userIDAuth, resource);
-            customlyBuiltDatasafeServices.privateService().remove(request);
-        });
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest
+                .forDefaultPrivate(userIDAuth, documentDirectoryFQN.getDatasafePath())
+                .toBuilder()
+                .lazy(true)
+                .build();
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> files =
+                     customlyBuiltDatasafeServices.privateService().list(request)) {
+            customlyBuiltDatasafeServices.privateService().removeAll(
+                    files.map(it -> RemoveRequest.forPrivate(userIDAuth, it.getResource().asPrivate()))
+            );
+        }
     }
 
     @Override
     public List<DocumentFQN> list(UserIDAuth userIDAuth, DocumentDirectoryFQN documentDirectoryFQN, ListRecursiveFlag recursiveFlag) {
-        List<DocumentFQN> l = customlyBuiltDatasafeServices.privateService().list(
-                ListRequest.forDefaultPrivate(userIDAuth, documentDirectoryFQN.getDatasafePath()))
+        ListRequest<UserIDAuth, PrivateResource> request = ListRequest
+                .forDefaultPrivate(userIDAuth, documentDirectoryFQN.getDatasafePath())
+                .toBuilder()
+                .shallow(recursiveFlag.equals(ListRecursiveFlag.FALSE))
+                .build();
+
+        // shallow listing also returns subdirectories, their (encrypted) location ends with '/'
+        return customlyBuiltDatasafeServices.privateService().list(request)
+                .filter(it -> !it.getResource().location().getPath().endsWith("/"))
                 .map(it -> new DocumentFQN(it.getResource().asPrivate().decryptedPath().toASCIIString()))
                 .collect(Collectors.toList());
-        if (recursiveFlag.equals(ListRecursiveFlag.TRUE)) {
-            return l;
-        }
-        int numberOfSlashesExpected = 1 + StringUtils.countMatches(documentDirectoryFQN.getDatasafePath(), "/");
-        return l.stream().filter(el -> StringUtils.countMatches(el.getDatasafePath(), "/") == numberOfSlashesExpected).collect(Collectors.toList());
     }
 
     @Override
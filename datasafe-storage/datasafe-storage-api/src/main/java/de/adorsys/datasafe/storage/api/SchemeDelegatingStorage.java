@@ -1,11 +1,18 @@
 package de.adorsys.datasafe.storage.api;
 
+import de.adorsys.datasafe.types.api.actions.ByteRange;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
 
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -18,6 +25,8 @@ import java.util.stream.Stream;
  */
 public class SchemeDelegatingStorage implements StorageService {
 
+    private static final int REMOVE_BATCH_SIZE = 10_000;
+
     private final Map<String, StorageService> storageByScheme;
 
     /**
@@ -38,21 +47,101 @@ public class SchemeDelegatingStorage implements StorageService {
         return service(location).list(location);
     }
 
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        return service(location).listShallow(location);
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listPage(AbsoluteLocation location, Uri startAfter,
+                                                               int limit) {
+        return service(location).listPage(location, startAfter, limit);
+    }
+
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallowPage(AbsoluteLocation location, Uri startAfter,
+                                                                      int limit) {
+        return service(location).listShallowPage(location, startAfter, limit);
+    }
+
     @Override
     public InputStream read(AbsoluteLocation location) {
         return service(location).read(location);
     }
 
+    @Override
+    public InputStream read(AbsoluteLocation location, ByteRange range) {
+        return service(location).read(location, range);
+    }
+
+    @Override
+    public ReadableByteChannel readChannel(AbsoluteLocation location) {
+        return service(location).readChannel(location);
+    }
+
     @Override
     public void remove(AbsoluteLocation location) {
         service(location).remove(location);
     }
 
+    /**
+     * Groups resources by storage and hands them to storage in batches.
+     */
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        Map<StorageService, List<AbsoluteLocation>> batches = new HashMap<>();
+        locations.forEach(location -> {
+            StorageService service = service(location);
+            List<AbsoluteLocation> batch = batches.computeIfAbsent(service, id -> new ArrayList<>());
+            batch.add(location);
+            if (batch.size() >= REMOVE_BATCH_SIZE) {
+                batches.remove(service);
+                service.removeAll(batch.stream());
+            }
+        });
+
+        batches.forEach((service, batch) -> service.removeAll(batch.stream()));
+    }
+
+    /**
+     * Copies within storage if both resources belong to it, otherwise streams data between storages.
+     */
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        StorageService service = service(source);
+        if (service == service(target)) {
+            service.copy(source, target);
+            return;
+        }
+
+        StorageService.super.copy(source, target);
+    }
+
+    /**
+     * Moves within storage if both resources belong to it, otherwise copies data between storages and removes
+     * source.
+     */
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        StorageService service = service(source);
+        if (service == service(target)) {
+            service.move(source, target);
+            return;
+        }
+
+        StorageService.super.move(source, target);
+    }
+
     @Override
     public OutputStream write(AbsoluteLocation location) {
         return service(location).write(location);
     }
 
+    @Override
+    public WritableByteChannel writeChannel(AbsoluteLocation location) {
+        return service(location).writeChannel(location);
+    }
+
     private StorageService service(AbsoluteLocation location) {
         String protocol = location.location().asURI().getScheme();
         StorageService service = storageByScheme.get(protocol);
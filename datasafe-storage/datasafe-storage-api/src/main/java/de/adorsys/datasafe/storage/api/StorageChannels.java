@@ -0,0 +1,75 @@
+package de.adorsys.datasafe.storage.api;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Moves bytes between storage channels without looking at them, i.e. to copy or replicate encrypted blobs.
+ * If either side is {@link FileChannel} the copy is delegated to {@link FileChannel#transferTo} or
+ * {@link FileChannel#transferFrom}, which lets OS move data without copying it into user-space buffers.
+ */
+@UtilityClass
+public class StorageChannels {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Copies all remaining bytes of source into target, channels are not closed.
+     * @param source Channel to read from
+     * @param target Channel to write to
+     * @return Count of transferred bytes
+     */
+    public long transfer(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+        if (source instanceof FileChannel) {
+            return transferFromFile((FileChannel) source, target);
+        }
+
+        if (target instanceof FileChannel) {
+            return transferToFile(source, (FileChannel) target);
+        }
+
+        return copy(source, target);
+    }
+
+    private long transferFromFile(FileChannel source, WritableByteChannel target) throws IOException {
+        long position = source.position();
+        long size = source.size();
+        while (position < size) {
+            position += source.transferTo(position, size - position, target);
+        }
+
+        long transferred = position - source.position();
+        source.position(position);
+        return transferred;
+    }
+
+    private long transferToFile(ReadableByteChannel source, FileChannel target) throws IOException {
+        long start = target.position();
+        long position = start;
+        long transferred;
+        // transferFrom returns 0 when source is exhausted
+        while ((transferred = target.transferFrom(source, position, BUFFER_SIZE)) > 0) {
+            position += transferred;
+        }
+
+        target.position(position);
+        return position - start;
+    }
+
+    private long copy(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long transferred = 0;
+        while (source.read(buffer) >= 0 || buffer.position() > 0) {
+            buffer.flip();
+            transferred += target.write(buffer);
+            buffer.compact();
+        }
+
+        return transferred;
+    }
+}
@@ -1,6 +1,12 @@
 package de.adorsys.datasafe.storage.api;
 
 import de.adorsys.datasafe.storage.api.actions.*;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * Groups all operations on data storage into a single class.
@@ -10,5 +16,28 @@ public interface StorageService extends
         StorageReadService,
         StorageWriteService,
         StorageRemoveService,
-        StorageCheckService {
+        StorageCheckService,
+        StorageCopyService {
+
+    /**
+     * Default implementation streams content from source to target, storages that can copy data on their side
+     * should override it.
+     */
+    @Override
+    default void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        try (ReadableByteChannel from = readChannel(source); WritableByteChannel to = writeChannel(target)) {
+            StorageChannels.transfer(from, to);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Default implementation copies resource and removes source.
+     */
+    @Override
+    default void move(AbsoluteLocation source, AbsoluteLocation target) {
+        copy(source, target);
+        remove(source);
+    }
 }
@@ -0,0 +1,23 @@
+package de.adorsys.datasafe.storage.api.actions;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+
+/**
+ * Copy and move operations that are done by storage itself, without transferring data through the caller.
+ */
+public interface StorageCopyService {
+
+    /**
+     * Copies resource content, target is replaced if it exists.
+     * @param source absolute bucket path, with credentials (if necessary), of resource to copy
+     * @param target absolute bucket path, with credentials (if necessary), where to put the copy
+     */
+    void copy(AbsoluteLocation source, AbsoluteLocation target);
+
+    /**
+     * Moves (renames) resource, target is replaced if it exists.
+     * @param source absolute bucket path, with credentials (if necessary), of resource to move
+     * @param target absolute bucket path, with credentials (if necessary), where to move resource to
+     */
+    void move(AbsoluteLocation source, AbsoluteLocation target);
+}
@@ -1,8 +1,18 @@
 package de.adorsys.datasafe.storage.api.actions;
 
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
 import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -17,4 +27,102 @@ public interface StorageListService {
      * @return stream of available absolute bucket paths
      */
     Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location);
+
+    /**
+     * Lists only direct children of the directory - files and subdirectories, location of subdirectory ends
+     * with {@code /} and its modification time may be unknown (null). Storages that can list single directory level
+     * should override it, default implementation lists recursively and collapses nested files into
+     * their subdirectories.
+     * @param location absolute bucket path with credentials (if necessary) of the directory to list
+     * @return stream of available absolute bucket paths
+     */
+    default Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        Uri directory = location.location().asDir();
+        Set<String> subdirectories = new HashSet<>();
+        return list(location)
+                .map(it -> {
+                    String relative = directory.relativize(it.location()).getWrapped().getRawPath();
+                    int slash = relative.indexOf('/');
+                    if (slash < 0 || relative.startsWith("/")) {
+                        return it;
+                    }
+
+                    String subdirectory = relative.substring(0, slash + 1);
+                    if (!subdirectories.add(subdirectory)) {
+                        return null;
+                    }
+
+                    return new AbsoluteLocation<ResolvedResource>(new BaseResolvedResource(
+                            BasePrivateResource.forPrivate(directory.resolve(subdirectory)),
+                            it.getResource().getModifiedAt()
+                    ));
+                })
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Lists resources recursively in ascending order of their locations starting after given one, so that large
+     * directories can be read page by page. Storages that list in some stable order should override it,
+     * default implementation reads whole listing and keeps only first {@code limit} resources.
+     * @param location absolute bucket path with credentials (if necessary)
+     * @param startAfter absolute location that precedes first listed resource (exclusive), null to list from
+     *                   the beginning
+     * @param limit maximum count of resources to list
+     * @return stream of available absolute bucket paths
+     */
+    default Stream<AbsoluteLocation<ResolvedResource>> listPage(AbsoluteLocation location, Uri startAfter,
+                                                                int limit) {
+        return page(list(location), startAfter, limit);
+    }
+
+    /**
+     * Lists direct children of the directory (as {@link #listShallow(AbsoluteLocation)} does) page by page, in
+     * stable order starting after given child. Storages that can read directory level partially should
+     * override it, default implementation reads whole level and keeps first {@code limit} children in ascending
+     * order of their locations.
+     * @param location absolute bucket path with credentials (if necessary) of the directory to list
+     * @param startAfter absolute location of the child that precedes first listed one (exclusive), null to list
+     *                   from the beginning
+     * @param limit maximum count of children to list
+     * @return stream of available absolute bucket paths
+     */
+    default Stream<AbsoluteLocation<ResolvedResource>> listShallowPage(AbsoluteLocation location, Uri startAfter,
+                                                                       int limit) {
+        return page(listShallow(location), startAfter, limit);
+    }
+
+    /**
+     * Selects page of resources ordered by their raw location path from the unordered listing.
+     * @param listed listing to select page from, closed after reading
+     * @param startAfter absolute location that precedes first selected resource (exclusive), null to select from
+     *                   the beginning
+     * @param limit maximum count of resources to select
+     * @return up to {@code limit} resources in ascending order
+     */
+    static Stream<AbsoluteLocation<ResolvedResource>> page(Stream<AbsoluteLocation<ResolvedResource>> listed,
+                                                           Uri startAfter, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        Comparator<AbsoluteLocation<ResolvedResource>> byPath =
+                Comparator.comparing(it -> it.location().getWrapped().getRawPath());
+        String after = null == startAfter ? null : startAfter.getWrapped().getRawPath();
+
+        // keeps limit smallest resources, largest of them on top
+        PriorityQueue<AbsoluteLocation<ResolvedResource>> smallest = new PriorityQueue<>(byPath.reversed());
+        try (Stream<AbsoluteLocation<ResolvedResource>> all = listed) {
+            all.filter(it -> null == after || it.location().getWrapped().getRawPath().compareTo(after) > 0)
+                    .forEach(it -> {
+                        smallest.add(it);
+                        if (smallest.size() > limit) {
+                            smallest.poll();
+                        }
+                    });
+        }
+
+        List<AbsoluteLocation<ResolvedResource>> result = new ArrayList<>(smallest);
+        result.sort(byPath);
+        return result.stream();
+    }
 }
@@ -1,8 +1,12 @@
 package de.adorsys.datasafe.storage.api.actions;
 
+import de.adorsys.datasafe.types.api.actions.ByteRange;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.utils.RangeInputStream;
 
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * Raw file read operation at a given location.
@@ -16,4 +20,28 @@ public interface StorageReadService {
      * @apiNote Resulting stream should be closed properly
      */
     InputStream read(AbsoluteLocation location);
+
+    /**
+     * Reads only part of the resource. Default implementation reads resource from the beginning and skips bytes
+     * before the range, storages that support positioned reads should override it.
+     * @param location absolute bucket path with credentials (if necessary)
+     * @param range bytes to read, range that ends past the end of the resource is truncated
+     * @return data stream of requested resource part
+     * @apiNote Resulting stream should be closed properly
+     */
+    default InputStream read(AbsoluteLocation location, ByteRange range) {
+        return new RangeInputStream(read(location), range);
+    }
+
+    /**
+     * Reads resource as channel, so that data can be moved without touching it (i.e. copying encrypted blob)
+     * using {@link de.adorsys.datasafe.storage.api.StorageChannels#transfer}. Default implementation wraps
+     * {@link StorageReadService#read(AbsoluteLocation)}, storages with native channels should override it.
+     * @param location absolute bucket path with credentials (if necessary)
+     * @return channel of resource to read from
+     * @apiNote Resulting channel should be closed properly
+     */
+    default ReadableByteChannel readChannel(AbsoluteLocation location) {
+        return Channels.newChannel(read(location));
+    }
 }
@@ -2,6 +2,8 @@ package de.adorsys.datasafe.storage.api.actions;
 
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 
+import java.util.stream.Stream;
+
 /**
  * Remove operation at a given location with all subdirs.
  */
@@ -13,4 +15,14 @@ public interface StorageRemoveService {
      * @param location absolute bucket path, with credentials (if necessary), which should be removed
      */
     void remove(AbsoluteLocation location);
+
+    /**
+     * Removes many resources, storages that support batch or parallel removal should override it.
+     * Default implementation removes resources one by one.
+     * @param locations absolute bucket paths, with credentials (if necessary), which should be removed.
+     * Stream is consumed, but not closed.
+     */
+    default void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        locations.forEach(this::remove);
+    }
 }
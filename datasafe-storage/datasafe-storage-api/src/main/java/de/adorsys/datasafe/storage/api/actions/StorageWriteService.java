@@ -3,6 +3,8 @@ package de.adorsys.datasafe.storage.api.actions;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * Raw file write operation at a given location.
@@ -16,6 +18,15 @@ public interface StorageWriteService {
      * @apiNote Resulting stream should be closed properly
      */
     OutputStream write(AbsoluteLocation location);
-}
-
 
+    /**
+     * Writes resource using channel. Default implementation wraps {@link StorageWriteService#write(AbsoluteLocation)},
+     * storages with native channels should override it.
+     * @param location absolute bucket path with credentials (if necessary)
+     * @return channel of resource to write to
+     * @apiNote Resulting channel should be closed properly, resource is committed on close
+     */
+    default WritableByteChannel writeChannel(AbsoluteLocation location) {
+        return Channels.newChannel(write(location));
+    }
+}
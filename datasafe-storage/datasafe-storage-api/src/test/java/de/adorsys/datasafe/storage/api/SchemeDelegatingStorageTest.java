@@ -1,13 +1,23 @@
 package de.adorsys.datasafe.storage.api;
 
+import de.adorsys.datasafe.types.api.actions.ByteRange;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -46,6 +56,27 @@ class SchemeDelegatingStorageTest extends BaseMockitoTest {
         verify(service).list(locationExists);
     }
 
+    @Test
+    void listShallowDelegates() {
+        tested.listShallow(locationExists);
+
+        verify(service).listShallow(locationExists);
+    }
+
+    @Test
+    void listPageDelegates() {
+        tested.listPage(locationExists, null, 10);
+
+        verify(service).listPage(locationExists, null, 10);
+    }
+
+    @Test
+    void listShallowPageDelegates() {
+        tested.listShallowPage(locationExists, null, 10);
+
+        verify(service).listShallowPage(locationExists, null, 10);
+    }
+
     @Test
     void readDelegates() {
         tested.read(locationExists);
@@ -53,6 +84,28 @@ class SchemeDelegatingStorageTest extends BaseMockitoTest {
         verify(service).read(locationExists);
     }
 
+    @Test
+    void rangedReadDelegates() {
+        ByteRange range = ByteRange.of(10, 20);
+        tested.read(locationExists, range);
+
+        verify(service).read(locationExists, range);
+    }
+
+    @Test
+    void readChannelDelegates() {
+        tested.readChannel(locationExists);
+
+        verify(service).readChannel(locationExists);
+    }
+
+    @Test
+    void writeChannelDelegates() {
+        tested.writeChannel(locationExists);
+
+        verify(service).writeChannel(locationExists);
+    }
+
     @Test
     void removeDelegates() {
         tested.remove(locationExists);
@@ -60,6 +113,57 @@ class SchemeDelegatingStorageTest extends BaseMockitoTest {
         verify(service).remove(locationExists);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void removeAllDelegatesInBatch() {
+        tested.removeAll(Stream.of(locationExists, locationExists));
+
+        ArgumentCaptor<Stream<AbsoluteLocation>> batch = ArgumentCaptor.forClass(Stream.class);
+        verify(service).removeAll(batch.capture());
+        assertEquals(
+                Arrays.asList(locationExists, locationExists),
+                batch.getValue().collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    void removeAllFails() {
+        assertThrows(IllegalArgumentException.class, () -> tested.removeAll(Stream.of(locationNotExists)));
+    }
+
+    @Test
+    void copyDelegates() {
+        tested.copy(locationExists, locationExists);
+
+        verify(service).copy(locationExists, locationExists);
+    }
+
+    @Test
+    void moveDelegates() {
+        tested.move(locationExists, locationExists);
+
+        verify(service).move(locationExists, locationExists);
+    }
+
+    @Test
+    void moveBetweenStoragesStreamsData() {
+        StorageService other = mock(StorageService.class);
+        AbsoluteLocation otherLocation = new AbsoluteLocation<>(BasePrivateResource.forPrivate("other://bucket"));
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        when(service.readChannel(locationExists))
+                .thenReturn(Channels.newChannel(new ByteArrayInputStream("hello".getBytes())));
+        when(other.writeChannel(otherLocation)).thenReturn(Channels.newChannel(target));
+        Map<String, StorageService> services = new HashMap<>();
+        services.put(PROTOCOL, service);
+        services.put("other", other);
+
+        new SchemeDelegatingStorage(services).move(locationExists, otherLocation);
+
+        assertEquals("hello", new String(target.toByteArray()));
+        verify(service).remove(locationExists);
+        verify(service, never()).move(any(), any());
+    }
+
     @Test
     void writeDelegates() {
         tested.write(locationExists);
@@ -0,0 +1,91 @@
+package de.adorsys.datasafe.storage.api.actions;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.BaseResolvedResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StorageListServiceTest {
+
+    private static final String ROOT = "s3://bucket/users/";
+
+    private StorageListService recursive = location -> Stream.of(
+            resource("users/file"),
+            resource("users/dir/first"),
+            resource("users/dir/nested/second"),
+            resource("users/other/third")
+    );
+
+    @Test
+    void listShallowCollapsesNestedFiles() {
+        assertEquals(
+                Arrays.asList(ROOT + "file", ROOT + "dir/", ROOT + "other/"),
+                recursive.listShallow(BasePrivateResource.forAbsolutePrivate(URI.create(ROOT)))
+                        .map(it -> it.location().toASCIIString())
+                        .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    void listShallowWithoutTrailingSlash() {
+        assertEquals(
+                Arrays.asList(ROOT + "file", ROOT + "dir/", ROOT + "other/"),
+                recursive.listShallow(BasePrivateResource.forAbsolutePrivate(URI.create("s3://bucket/users")))
+                        .map(it -> it.location().toASCIIString())
+                        .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    void listPageSelectsOrderedPage() {
+        AbsoluteLocation root = BasePrivateResource.forAbsolutePrivate(URI.create(ROOT));
+
+        assertEquals(
+                Arrays.asList(ROOT + "dir/first", ROOT + "dir/nested/second"),
+                recursive.listPage(root, null, 2)
+                        .map(it -> it.location().toASCIIString())
+                        .collect(Collectors.toList())
+        );
+        assertEquals(
+                Arrays.asList(ROOT + "file", ROOT + "other/third"),
+                recursive.listPage(root, new Uri(ROOT + "dir/nested/second"), 2)
+                        .map(it -> it.location().toASCIIString())
+                        .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    void listShallowPageSelectsOrderedChildren() {
+        AbsoluteLocation root = BasePrivateResource.forAbsolutePrivate(URI.create(ROOT));
+
+        assertEquals(
+                Arrays.asList(ROOT + "dir/", ROOT + "file"),
+                recursive.listShallowPage(root, null, 2)
+                        .map(it -> it.location().toASCIIString())
+                        .collect(Collectors.toList())
+        );
+        assertEquals(
+                Arrays.asList(ROOT + "other/"),
+                recursive.listShallowPage(root, new Uri(ROOT + "file"), 2)
+                        .map(it -> it.location().toASCIIString())
+                        .collect(Collectors.toList())
+        );
+    }
+
+    private static AbsoluteLocation<ResolvedResource> resource(String path) {
+        return new AbsoluteLocation<>(new BaseResolvedResource(
+                BasePrivateResource.forPrivate("s3://bucket/" + path),
+                Instant.EPOCH
+        ));
+    }
+}
@@ -0,0 +1,56 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import java.nio.file.Path;
+
+/**
+ * Maps logical file location to the file on disk, allows to spread files of the large directory into
+ * subdirectories. Logical directories are always stored as is, only files can be relocated.
+ */
+public interface FileSystemLayout {
+
+    /**
+     * Each file is stored at its logical location.
+     */
+    FileSystemLayout PLAIN = new FileSystemLayout() {
+
+        @Override
+        public Path physical(Path logicalFile) {
+            return logicalFile;
+        }
+
+        @Override
+        public Path logical(Path physicalFile) {
+            return physicalFile;
+        }
+
+        @Override
+        public int extraDepth() {
+            return 0;
+        }
+    };
+
+    /**
+     * @param logicalFile Logical file location
+     * @return Where file should be stored, same path if file is not relocated
+     */
+    Path physical(Path logicalFile);
+
+    /**
+     * @param physicalFile File found on disk
+     * @return Logical location of the file, same path if file was not relocated
+     */
+    Path logical(Path physicalFile);
+
+    /**
+     * @return Count of directory levels added between logical directory and its files
+     */
+    int extraDepth();
+
+    /**
+     * @param directory Directory found on disk
+     * @return True if directory was added by layout, false if it is logical one
+     */
+    default boolean isShardDirectory(Path directory) {
+        return false;
+    }
+}
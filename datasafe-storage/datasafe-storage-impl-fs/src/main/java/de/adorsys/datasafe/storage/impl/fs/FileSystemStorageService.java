@@ -3,79 +3,231 @@ package de.adorsys.datasafe.storage.impl.fs;
 import com.google.common.io.MoreFiles;
 import com.google.common.io.RecursiveDeleteOption;
 import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.storage.api.actions.StorageListService;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
 import de.adorsys.datasafe.types.api.resource.*;
 import de.adorsys.datasafe.types.api.utils.Obfuscate;
-import lombok.RequiredArgsConstructor;
+import de.adorsys.datasafe.types.api.utils.RangeInputStream;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
-import java.time.Instant;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 /**
  * Filesystem ({@link java.nio.file}) compatible storage service default implementation.
+ * Channel operations return {@link FileChannel}, so that
+ * {@link de.adorsys.datasafe.storage.api.StorageChannels#transfer} copies files using OS-level transfer.
+ * Files can be spread over subdirectories using {@link FileSystemLayout}, locations of resources stay the same.
  */
 @Slf4j
-@RequiredArgsConstructor
 public class FileSystemStorageService implements StorageService {
 
     private final Uri dir;
+    private final FileSystemLayout layout;
+    private final ForkJoinPool pool;
+    private final ParallelFileWalker walker;
+    private final SortedFileWalker sortedWalker;
+
+    public FileSystemStorageService(Uri dir) {
+        this(dir, FileSystemLayout.PLAIN);
+    }
 
     public FileSystemStorageService(Path dir) {
-        this.dir = new Uri(dir.toUri());
+        this(new Uri(dir.toUri()));
+    }
+
+    public FileSystemStorageService(Uri dir, FileSystemLayout layout) {
+        this(dir, layout, IoPool.INSTANCE, Integer.MAX_VALUE);
+    }
+
+    public FileSystemStorageService(Uri dir, ForkJoinPool pool, int maxListingDepth) {
+        this(dir, FileSystemLayout.PLAIN, pool, maxListingDepth);
     }
 
     /**
-     * Lists resources and returns their location without access credentials.
+     * @param dir Storage root
+     * @param layout How files are placed on disk
+     * @param pool Pool that walks directories (its threads block on disk I/O, so it should not be the common pool) when listing and removes files in parallel
+     * @param maxListingDepth Maximum count of directory levels below listed location to include into listing
+     */
+    public FileSystemStorageService(Uri dir, FileSystemLayout layout, ForkJoinPool pool, int maxListingDepth) {
+        this.dir = dir;
+        this.layout = layout;
+        this.pool = pool;
+        this.walker = new ParallelFileWalker(
+                pool,
+                (int) Math.min(Integer.MAX_VALUE, (long) maxListingDepth + layout.extraDepth())
+        );
+        this.sortedWalker = new SortedFileWalker(layout, maxListingDepth);
+    }
+
+    /**
+     * Lists resources and returns their location without access credentials. Subdirectories are walked in parallel,
+     * so resources come in no particular order.
      */
-    @SneakyThrows
     @Override
     public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation path) {
         log.debug("List file request: {}", Obfuscate.secure(path));
         Path filePath = resolve(path.location().asURI(), false);
         log.debug("List file: {}", Obfuscate.secure(filePath));
 
-        // FS should be compatible with s3 behavior:
-        if (!filePath.toFile().exists()) {
+        Path relocated = layout.physical(filePath);
+        if (!relocated.equals(filePath) && Files.isRegularFile(relocated, LinkOption.NOFOLLOW_LINKS)) {
+            filePath = relocated;
+        } else if (!Files.exists(filePath, LinkOption.NOFOLLOW_LINKS)) {
+            // FS should be compatible with s3 behavior:
+            return Stream.empty();
+        }
+
+        return walker.walk(filePath)
+                .map(it -> resolved(new Uri(layout.logical(it.getPath()).toUri()), it.getAttributes()));
+    }
+
+    /**
+     * Reads single directory level, files relocated by layout are listed as direct children of their logical
+     * directory.
+     */
+    @SneakyThrows
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation path) {
+        log.debug("List directory request: {}", Obfuscate.secure(path));
+        Path directory = resolve(path.location().asURI(), false);
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+            return Stream.empty();
+        }
+
+        return sortedWalker.children(directory).stream()
+                .map(FileSystemStorageService::resolvedChild);
+    }
+
+    /**
+     * Reads single directory level, entries are listed in name order and only entries of the page are stat-ed.
+     */
+    @SneakyThrows
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallowPage(AbsoluteLocation path, Uri startAfter,
+                                                                      int limit) {
+        log.debug("List directory page request: {}", Obfuscate.secure(path));
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        Path directory = resolve(path.location().asURI(), false);
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
             return Stream.empty();
         }
 
-        return Files.walk(filePath)
-                .filter(it -> !it.startsWith("."))
-                .filter(it -> !it.toFile().isDirectory())
-                .map(it -> new AbsoluteLocation<>(
-                        new BaseResolvedResource(
-                                new BasePrivateResource(new Uri(it.toUri())),
-                                Instant.ofEpochMilli(it.toFile().lastModified()))
-                        )
-                );
+        String startAfterName = null;
+        if (null != startAfter) {
+            Path startAfterPath = resolve(startAfter.asURI(), false);
+            if (!directory.equals(startAfterPath.getParent())) {
+                throw new IllegalArgumentException("Start location is not a child of listed directory");
+            }
+
+            startAfterName = startAfterPath.getFileName().toString();
+        }
+
+        return sortedWalker.childrenPage(directory, startAfterName, limit).stream()
+                .map(FileSystemStorageService::resolvedChild);
+    }
+
+    /**
+     * Walks directories one by one visiting their entries in name order, directories that precede starting
+     * location are not read.
+     */
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listPage(AbsoluteLocation path, Uri startAfter, int limit) {
+        log.debug("List page request: {}", Obfuscate.secure(path));
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        Path directory = resolve(path.location().asURI(), false);
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+            // single file or nothing
+            return StorageListService.page(list(path), startAfter, limit);
+        }
+
+        Path startAfterPath = null == startAfter ? null : resolve(startAfter.asURI(), false);
+        return sortedWalker.walk(directory, startAfterPath)
+                .limit(limit)
+                .map(it -> resolved(new Uri(it.getPath().toUri()), it.getAttributes()));
     }
 
     @SneakyThrows
     @Override
     public InputStream read(AbsoluteLocation path) {
         log.debug("Read file request: {}", Obfuscate.secure(path));
-        Path filePath = resolve(path.location().asURI(), false);
+        Path filePath = existingFile(path.location().asURI());
         log.debug("Read file: {}", Obfuscate.secure(filePath));
         return MoreFiles.asByteSource(filePath, StandardOpenOption.READ).openStream();
     }
 
+    /**
+     * Positions file channel at range offset, so that bytes before it are not read.
+     */
+    @SneakyThrows
+    @Override
+    public InputStream read(AbsoluteLocation path, ByteRange range) {
+        log.debug("Read file range request: {}", Obfuscate.secure(path));
+        Path filePath = existingFile(path.location().asURI());
+        log.debug("Read file range: {}", Obfuscate.secure(filePath));
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        channel.position(range.getOffset());
+        InputStream fromOffset = Channels.newInputStream(channel);
+
+        if (!range.isBounded()) {
+            return fromOffset;
+        }
+
+        return new RangeInputStream(fromOffset, ByteRange.of(0, range.getLength()));
+    }
+
     @SneakyThrows
     @Override
     public OutputStream write(AbsoluteLocation path) {
         log.debug("Write file request: {}", Obfuscate.secure(path.location()));
-        Path filePath = resolve(path.location().asURI(), true);
+        Path filePath = fileToWrite(path.location().asURI());
         log.debug("Write file: {}", Obfuscate.secure(filePath));
         return MoreFiles.asByteSink(filePath, StandardOpenOption.CREATE).openStream();
     }
 
+    @SneakyThrows
+    @Override
+    public ReadableByteChannel readChannel(AbsoluteLocation path) {
+        log.debug("Read file channel request: {}", Obfuscate.secure(path));
+        return FileChannel.open(existingFile(path.location().asURI()), StandardOpenOption.READ);
+    }
+
+    @SneakyThrows
+    @Override
+    public WritableByteChannel writeChannel(AbsoluteLocation path) {
+        log.debug("Write file channel request: {}", Obfuscate.secure(path.location()));
+        return FileChannel.open(
+                fileToWrite(path.location().asURI()),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        );
+    }
+
     @SneakyThrows
     @Override
     public void remove(AbsoluteLocation location) {
@@ -85,18 +237,129 @@ public class FileSystemStorageService implements StorageService {
         }
 
         Path path = resolve(location.location().asURI(), false);
+        Path relocated = layout.physical(path);
+        if (!relocated.equals(path) && Files.deleteIfExists(relocated)) {
+            log.debug("deleted relocated file at: {}", Obfuscate.secure(location));
+        }
+
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+
         boolean isFile = !path.toFile().isDirectory();
         MoreFiles.deleteRecursively(path, RecursiveDeleteOption.ALLOW_INSECURE);
         log.debug("deleted {} at: {}", isFile ? "file" : "directory", Obfuscate.secure(location));
     }
 
+    /**
+     * Removes resources in parallel on the pool.
+     */
+    @SneakyThrows
+    @Override
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        try {
+            // parallel stream started from the pool task runs on that pool
+            pool.submit(() -> locations.parallel().forEach(this::remove)).get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Copies file using {@link Files#copy}, so that filesystem can do it without reading file into JVM.
+     */
+    @SneakyThrows
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        if (isSameResource(source, target)) {
+            return;
+        }
+
+        Path from = existingFile(source.location().asURI());
+        Path to = fileToWrite(target.location().asURI());
+        log.debug("Copy file {} to {}", Obfuscate.secure(from), Obfuscate.secure(to));
+        Files.copy(from, to, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Renames file using {@link Files#move}, atomically if filesystem supports it.
+     */
+    @SneakyThrows
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        if (isSameResource(source, target)) {
+            return;
+        }
+
+        Path from = existingFile(source.location().asURI());
+        Path to = fileToWrite(target.location().asURI());
+        log.debug("Move file {} to {}", Obfuscate.secure(from), Obfuscate.secure(to));
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     @Override
     public boolean objectExists(AbsoluteLocation location) {
-        boolean exists = Files.exists(resolve(location.location().asURI(), false));
+        Path path = resolve(location.location().asURI(), false);
+        Path relocated = layout.physical(path);
+        boolean exists = Files.exists(path) || (!relocated.equals(path) && Files.exists(relocated));
         log.debug("exists {} directory at: {}", exists, Obfuscate.secure(location));
         return exists;
     }
 
+    private static AbsoluteLocation<ResolvedResource> resolved(Uri location, BasicFileAttributes attributes) {
+        return new AbsoluteLocation<>(new BaseResolvedResource(
+                new BasePrivateResource(location),
+                attributes.lastModifiedTime().toInstant()
+        ));
+    }
+
+    // location of subdirectory ends with '/'
+    private static AbsoluteLocation<ResolvedResource> resolvedChild(ParallelFileWalker.FoundFile child) {
+        Uri location = new Uri(child.getPath().toUri());
+        return resolved(child.getAttributes().isDirectory() ? location.asDir() : location, child.getAttributes());
+    }
+
+    // writing target may drop source file that was not relocated by layout yet
+    private boolean isSameResource(AbsoluteLocation source, AbsoluteLocation target) {
+        return resolve(source.location().asURI(), false).equals(resolve(target.location().asURI(), false));
+    }
+
+    /**
+     * File to read, falls back to logical location for files that were not relocated by layout.
+     */
+    private Path existingFile(URI uri) {
+        Path path = resolve(uri, false);
+        Path relocated = layout.physical(path);
+        if (relocated.equals(path) || !Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return relocated;
+        }
+
+        return Files.exists(relocated, LinkOption.NOFOLLOW_LINKS) ? relocated : path;
+    }
+
+    /**
+     * File to write according to layout, replaces file at logical location if it was not relocated yet.
+     */
+    @SneakyThrows
+    private Path fileToWrite(URI uri) {
+        Path path = resolve(uri, true);
+        Path relocated = layout.physical(path);
+        if (relocated.equals(path)) {
+            return path;
+        }
+
+        Files.createDirectories(relocated.getParent());
+        if (Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+            Files.delete(path);
+        }
+
+        return relocated;
+    }
+
     protected Path resolve(URI uri, boolean mkDirs) {
         Path path = Paths.get(dir.resolve(uri).asURI());
         if (!path.getParent().toFile().exists() && mkDirs) {
@@ -106,4 +369,15 @@ public class FileSystemStorageService implements StorageService {
 
         return Paths.get(dir.resolve(uri).asURI());
     }
+
+    /**
+     * Pool that is shared by storages that were not given one, separate from the common pool because walking
+     * tasks block on disk and on slow consumers.
+     */
+    private static final class IoPool {
+
+        private static final ForkJoinPool INSTANCE = new ForkJoinPool(
+                Math.max(4, Runtime.getRuntime().availableProcessors())
+        );
+    }
 }
@@ -0,0 +1,317 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Finds files (non-directory entries) of the directory tree, reading attributes of each entry only once. Each directory is
+ * walked by separate task on the pool, at most {@code maxTasksPerWalk} directories of one walk are walked at the same
+ * time, so that single walk does not occupy the whole pool. Found files are handed over to the caller through bounded
+ * queue, so walking is paused when caller does not consume results - waiting for the caller is a managed block,
+ * pool compensates it and other walks keep running. Results come in no particular order.
+ * Walking tasks do not reference the result iterator, they stop when the stream is closed, when the iterator
+ * is garbage-collected (i.e. listing was short-circuited and not closed) or when caller does not consume
+ * anything for {@code stallTimeout} - in that case caller gets an error if it continues.
+ */
+class ParallelFileWalker {
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final Duration DEFAULT_STALL_TIMEOUT = Duration.ofMinutes(5);
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Maximum count of directory levels to visit, files directly inside walked directory have depth 1.
+     */
+    private final int maxDepth;
+
+    private final long stallTimeoutNanos;
+
+    /**
+     * Maximum count of directories of single walk that are walked at the same time.
+     */
+    private final int maxTasksPerWalk;
+
+    ParallelFileWalker(ForkJoinPool pool, int maxDepth) {
+        this(pool, maxDepth, DEFAULT_STALL_TIMEOUT);
+    }
+
+    ParallelFileWalker(ForkJoinPool pool, int maxDepth, Duration stallTimeout) {
+        this(pool, maxDepth, stallTimeout, Math.max(1, pool.getParallelism() / 2));
+    }
+
+    ParallelFileWalker(ForkJoinPool pool, int maxDepth, Duration stallTimeout, int maxTasksPerWalk) {
+        this.pool = pool;
+        this.maxDepth = maxDepth;
+        this.stallTimeoutNanos = stallTimeout.toNanos();
+        this.maxTasksPerWalk = maxTasksPerWalk;
+    }
+
+    /**
+     * @param root Directory or file to walk
+     * @return Lazy stream of files, closing it stops the walk
+     */
+    @SneakyThrows
+    Stream<FoundFile> walk(Path root) {
+        BasicFileAttributes rootAttributes = Files.readAttributes(
+                root, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS
+        );
+
+        if (!rootAttributes.isDirectory()) {
+            return Stream.of(new FoundFile(root, rootAttributes));
+        }
+
+        Walk walk = new Walk();
+        Results results = new Results(walk);
+        walk.consumer = new WeakReference<>(results);
+        walk.submit(root, 0);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.NONNULL), false)
+                .onClose(walk::cancel);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class FoundFile {
+
+        private final Path path;
+        private final BasicFileAttributes attributes;
+    }
+
+    /**
+     * Caller side of the walk, the only strong reference to it is held by the stream.
+     */
+    @RequiredArgsConstructor
+    private static class Results implements Iterator<FoundFile> {
+
+        private final Walk walk;
+        private Object next;
+
+        @Override
+        public boolean hasNext() {
+            if (null == next) {
+                next = walk.take();
+            }
+
+            return walk.end != next;
+        }
+
+        @Override
+        public FoundFile next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            FoundFile result = (FoundFile) next;
+            next = null;
+            return result;
+        }
+    }
+
+    /**
+     * State shared by walking tasks and the caller.
+     */
+    private class Walk {
+
+        private final Object end = new Object();
+        private final BlockingQueue<Object> found = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicInteger pendingDirectories = new AtomicInteger();
+        private final Queue<Directory> toWalk = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger runningTasks = new AtomicInteger();
+
+        private volatile WeakReference<Results> consumer;
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        private void submit(Path directory, int depth) {
+            pendingDirectories.incrementAndGet();
+            toWalk.add(new Directory(directory, depth));
+            schedule();
+        }
+
+        // starts queued directories while walk is below its share of the pool
+        private void schedule() {
+            while (!toWalk.isEmpty()) {
+                int running = runningTasks.get();
+                if (running >= maxTasksPerWalk) {
+                    return;
+                }
+
+                if (!runningTasks.compareAndSet(running, running + 1)) {
+                    continue;
+                }
+
+                Directory next = toWalk.poll();
+                if (null == next) {
+                    runningTasks.decrementAndGet();
+                    continue;
+                }
+
+                pool.execute(() -> walk(next));
+            }
+        }
+
+        private void walk(Directory directory) {
+            try {
+                walkDirectory(directory.getPath(), directory.getDepth());
+            } catch (Throwable ex) {
+                fail(ex);
+            } finally {
+                if (0 == pendingDirectories.decrementAndGet()) {
+                    offer(end);
+                }
+
+                runningTasks.decrementAndGet();
+                schedule();
+            }
+        }
+
+        private void walkDirectory(Path directory, int depth) throws IOException {
+            if (depth >= maxDepth) {
+                return;
+            }
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    BasicFileAttributes attributes = Files.readAttributes(
+                            entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS
+                    );
+
+                    if (attributes.isDirectory()) {
+                        submit(entry, depth + 1);
+                    } else {
+                        offer(new FoundFile(entry, attributes));
+                    }
+                }
+            }
+        }
+
+        private void offer(Object value) {
+            try {
+                ForkJoinPool.managedBlock(new Offer(value));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(ex);
+            }
+        }
+
+        @SneakyThrows
+        private Object take() {
+            try {
+                while (true) {
+                    // failure is written before cancelled flag
+                    if (cancelled) {
+                        return failed();
+                    }
+
+                    Object value = found.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (null != value) {
+                        return value;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw ex;
+            }
+        }
+
+        @SneakyThrows
+        private Object failed() {
+            Throwable error = failure;
+            if (null == error) {
+                return end;
+            }
+
+            throw error instanceof IOException ? new UncheckedIOException((IOException) error) : error;
+        }
+
+        private void fail(Throwable error) {
+            if (null == failure) {
+                failure = error;
+            }
+
+            cancel();
+        }
+
+        private void cancel() {
+            cancelled = true;
+            found.clear();
+        }
+
+        /**
+         * Blocks walking thread until caller consumes results, gives up if caller is gone or stalled.
+         */
+        @RequiredArgsConstructor
+        private class Offer implements ForkJoinPool.ManagedBlocker {
+
+            private final Object value;
+            private final long stalledSince = System.nanoTime();
+            private boolean done;
+
+            @Override
+            public boolean isReleasable() {
+                if (!done) {
+                    done = cancelled || found.offer(value);
+                }
+
+                return done;
+            }
+
+            @Override
+            public boolean block() throws InterruptedException {
+                while (!isReleasable()) {
+                    if (found.offer(value, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                        done = true;
+                        break;
+                    }
+
+                    if (null == consumer.get()) {
+                        cancel();
+                    } else if (System.nanoTime() - stalledSince > stallTimeoutNanos) {
+                        long stallMillis = TimeUnit.NANOSECONDS.toMillis(stallTimeoutNanos);
+                        fail(new IOException("Listing was not consumed for " + stallMillis + " ms"));
+                    }
+                }
+
+                return true;
+            }
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Directory {
+
+        private final Path path;
+        private final int depth;
+    }
+}
@@ -0,0 +1,91 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Stores each file in hashed prefix subdirectories of its logical directory, i.e. with 2 levels
+ * {@code private/files/AbCd} is stored as {@code private/files/~3f/~a0/AbCd}, so that directory never holds
+ * more than 256 subdirectories and huge logical directories are split into small ones.
+ * Shard directory names start with {@code ~}, which does not appear in encrypted path segments, so they
+ * can't clash with logical directories. Files that are not in shard directories (i.e. written before sharding
+ * was enabled) are still recognized as is, see {@link ShardedLayoutMigration} to relocate them.
+ */
+public class ShardedFileSystemLayout implements FileSystemLayout {
+
+    public static final int DEFAULT_LEVELS = 2;
+
+    private static final String SHARD_PREFIX = "~";
+    private static final HashFunction HASH = Hashing.murmur3_32();
+
+    private final int levels;
+
+    public ShardedFileSystemLayout() {
+        this(DEFAULT_LEVELS);
+    }
+
+    /**
+     * @param levels Count of nested shard directories, each level has 256 directories
+     */
+    public ShardedFileSystemLayout(int levels) {
+        if (levels < 1 || levels > HASH.bits() / Byte.SIZE) {
+            throw new IllegalArgumentException("Shard levels must be between 1 and " + HASH.bits() / Byte.SIZE);
+        }
+
+        this.levels = levels;
+    }
+
+    @Override
+    public Path physical(Path logicalFile) {
+        Path directory = logicalFile.getParent();
+        String name = logicalFile.getFileName().toString();
+        for (String shard : shards(name)) {
+            directory = directory.resolve(shard);
+        }
+
+        return directory.resolve(name);
+    }
+
+    @Override
+    public Path logical(Path physicalFile) {
+        String name = physicalFile.getFileName().toString();
+        String[] shards = shards(name);
+        Path directory = physicalFile.getParent();
+        for (int level = levels - 1; level >= 0; level--) {
+            if (null == directory || null == directory.getFileName()
+                    || !shards[level].equals(directory.getFileName().toString())) {
+                return physicalFile;
+            }
+
+            directory = directory.getParent();
+        }
+
+        return null == directory ? physicalFile : directory.resolve(name);
+    }
+
+    @Override
+    public int extraDepth() {
+        return levels;
+    }
+
+    @Override
+    public boolean isShardDirectory(Path directory) {
+        String name = directory.getFileName().toString();
+        return name.length() == SHARD_PREFIX.length() + 2 && name.startsWith(SHARD_PREFIX);
+    }
+
+    private String[] shards(String name) {
+        byte[] hash = HASH.hashString(name, StandardCharsets.UTF_8).asBytes();
+        String[] shards = new String[levels];
+        for (int level = 0; level < levels; level++) {
+            shards[level] = SHARD_PREFIX
+                    + Character.forDigit((hash[level] >> 4) & 0xF, 16)
+                    + Character.forDigit(hash[level] & 0xF, 16);
+        }
+
+        return shards;
+    }
+}
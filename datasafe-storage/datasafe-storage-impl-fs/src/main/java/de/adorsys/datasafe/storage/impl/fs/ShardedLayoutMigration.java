@@ -0,0 +1,71 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relocates files of existing storage tree into shard directories of {@link ShardedFileSystemLayout}.
+ * Files that are already sharded are left untouched, so migration can be restarted after interruption
+ * and can run while storage is used in sharded mode. Usage:
+ * {@code java -cp ... ShardedLayoutMigration <storage root> [levels]}
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ShardedLayoutMigration {
+
+    private final ShardedFileSystemLayout layout;
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException("Usage: ShardedLayoutMigration <storage root> [levels]");
+        }
+
+        int levels = args.length > 1 ? Integer.parseInt(args[1]) : ShardedFileSystemLayout.DEFAULT_LEVELS;
+        long moved = new ShardedLayoutMigration(new ShardedFileSystemLayout(levels)).migrate(Paths.get(args[0]));
+        log.info("Moved {} files", moved);
+    }
+
+    /**
+     * @param root Storage root directory
+     * @return Count of relocated files
+     */
+    @SneakyThrows
+    public long migrate(Path root) {
+        AtomicLong moved = new AtomicLong();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isDirectory() || !layout.logical(file).equals(file)) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                Path target = layout.physical(file);
+                Files.createDirectories(target.getParent());
+                // newer sharded copy wins
+                if (Files.exists(target)) {
+                    Files.delete(file);
+                } else {
+                    Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+
+                log.debug("Relocated {}", Obfuscate.secure(file));
+                moved.incrementAndGet();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return moved.get();
+    }
+}
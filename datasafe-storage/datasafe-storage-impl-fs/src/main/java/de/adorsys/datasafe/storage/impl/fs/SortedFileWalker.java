@@ -0,0 +1,237 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.storage.impl.fs.ParallelFileWalker.FoundFile;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Finds files of the directory tree in ascending order of their logical paths, paths are compared name by name.
+ * Directories are read one at a time when walk reaches them, so that reading first page of huge tree is cheap and
+ * subtrees that precede starting point are not read at all. Files relocated by {@link FileSystemLayout} are
+ * found under their logical directory.
+ */
+@RequiredArgsConstructor
+class SortedFileWalker {
+
+    private static final Comparator<FoundFile> BY_NAME = Comparator.comparing(it -> name(it.getPath()));
+    private static final Comparator<Path> BY_PATH_NAME = Comparator.comparing(SortedFileWalker::name);
+
+    private final FileSystemLayout layout;
+
+    /**
+     * Maximum count of logical directory levels to visit, files directly inside walked directory have depth 1.
+     */
+    private final int maxDepth;
+
+    /**
+     * @param root Directory to walk
+     * @param startAfter Path that precedes first found file (exclusive), null to walk from the beginning
+     * @return Lazy stream of files in ascending order
+     */
+    Stream<FoundFile> walk(Path root, Path startAfter) {
+        List<String> startAfterNames = new ArrayList<>();
+        if (null != startAfter && !startAfter.equals(root)) {
+            if (!startAfter.startsWith(root)) {
+                throw new IllegalArgumentException("Start location is outside of listed directory");
+            }
+
+            root.relativize(startAfter).forEach(it -> startAfterNames.add(it.toString()));
+        }
+
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(new Walk(root, startAfterNames), Spliterator.ORDERED),
+                false
+        );
+    }
+
+    /**
+     * Reads direct children of the logical directory, files of directories added by layout are listed as
+     * its direct children with their logical path.
+     * @param directory Directory to read
+     * @return Files and logical subdirectories in no particular order
+     */
+    List<FoundFile> children(Path directory) throws IOException {
+        List<FoundFile> children = new ArrayList<>();
+        collectChildren(directory, 0, children);
+        return children;
+    }
+
+    /**
+     * Reads page of direct children of the logical directory in name order, as {@link #children(Path)} does.
+     * Attributes are read only for children of the page.
+     * @param directory Directory to read
+     * @param startAfterName Name of the child that precedes first child of the page (exclusive), null to read
+     *                       from the beginning
+     * @param limit Maximum count of children to read
+     * @return Files and logical subdirectories in ascending order of their names
+     */
+    List<FoundFile> childrenPage(Path directory, String startAfterName, int limit) throws IOException {
+        // keeps limit first entries, last of them on top
+        PriorityQueue<Path> first = new PriorityQueue<>(BY_PATH_NAME.reversed());
+        collectPage(directory, 0, startAfterName, limit, first);
+
+        List<Path> page = new ArrayList<>(first);
+        page.sort(BY_PATH_NAME);
+        List<FoundFile> children = new ArrayList<>(page.size());
+        for (Path entry : page) {
+            BasicFileAttributes attributes = Files.readAttributes(
+                    entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS
+            );
+
+            children.add(new FoundFile(attributes.isDirectory() ? entry : layout.logical(entry), attributes));
+        }
+
+        return children;
+    }
+
+    private void collectPage(Path directory, int shardDepth, String startAfterName, int limit,
+                             PriorityQueue<Path> first) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (shardDepth < layout.extraDepth() && layout.isShardDirectory(entry)
+                        && Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                    collectPage(entry, shardDepth + 1, startAfterName, limit, first);
+                    continue;
+                }
+
+                if (null != startAfterName && name(entry).compareTo(startAfterName) <= 0) {
+                    continue;
+                }
+
+                first.add(entry);
+                if (first.size() > limit) {
+                    first.poll();
+                }
+            }
+        }
+    }
+
+    private void collectChildren(Path directory, int shardDepth, List<FoundFile> children) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                BasicFileAttributes attributes = Files.readAttributes(
+                        entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS
+                );
+
+                if (!attributes.isDirectory()) {
+                    children.add(new FoundFile(layout.logical(entry), attributes));
+                } else if (shardDepth < layout.extraDepth() && layout.isShardDirectory(entry)) {
+                    collectChildren(entry, shardDepth + 1, children);
+                } else {
+                    children.add(new FoundFile(entry, attributes));
+                }
+            }
+        }
+    }
+
+    private static String name(Path path) {
+        return path.getFileName().toString();
+    }
+
+    private class Walk implements Iterator<FoundFile> {
+
+        private final Deque<Level> levels = new ArrayDeque<>();
+        private FoundFile next;
+
+        private Walk(Path root, List<String> startAfterNames) {
+            Path directory = root;
+            for (int depth = 0; depth <= startAfterNames.size(); depth++) {
+                List<FoundFile> entries = sortedChildren(directory, depth);
+                if (depth == startAfterNames.size()) {
+                    levels.push(new Level(entries.iterator(), depth));
+                    return;
+                }
+
+                String startAfterName = startAfterNames.get(depth);
+                FoundFile sameName = null;
+                List<FoundFile> following = new ArrayList<>();
+                for (FoundFile entry : entries) {
+                    int comparison = name(entry.getPath()).compareTo(startAfterName);
+                    if (comparison > 0) {
+                        following.add(entry);
+                    } else if (comparison == 0) {
+                        sameName = entry;
+                    }
+                }
+
+                levels.push(new Level(following.iterator(), depth));
+                // file with the same name is the starting point itself, it and its preceding siblings are skipped
+                if (null == sameName || !sameName.getAttributes().isDirectory()) {
+                    return;
+                }
+
+                directory = sameName.getPath();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (null == next && !levels.isEmpty()) {
+                Level level = levels.peek();
+                if (!level.entries.hasNext()) {
+                    levels.pop();
+                    continue;
+                }
+
+                FoundFile entry = level.entries.next();
+                if (entry.getAttributes().isDirectory()) {
+                    int depth = level.depth + 1;
+                    levels.push(new Level(sortedChildren(entry.getPath(), depth).iterator(), depth));
+                } else {
+                    next = entry;
+                }
+            }
+
+            return null != next;
+        }
+
+        @Override
+        public FoundFile next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            FoundFile result = next;
+            next = null;
+            return result;
+        }
+
+        @SneakyThrows
+        private List<FoundFile> sortedChildren(Path directory, int depth) {
+            if (depth >= maxDepth) {
+                return Collections.emptyList();
+            }
+
+            List<FoundFile> entries = children(directory);
+            entries.sort(BY_NAME);
+            return entries;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Level {
+
+        private final Iterator<FoundFile> entries;
+        private final int depth;
+    }
+}
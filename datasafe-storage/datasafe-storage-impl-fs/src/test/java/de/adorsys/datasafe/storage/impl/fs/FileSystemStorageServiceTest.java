@@ -1,8 +1,11 @@
 package de.adorsys.datasafe.storage.impl.fs;
 
+import de.adorsys.datasafe.storage.api.StorageChannels;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
 import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
 import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResolvedResource;
 import de.adorsys.datasafe.types.api.resource.Uri;
 import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
 import lombok.SneakyThrows;
@@ -12,13 +15,20 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -124,6 +134,125 @@ class FileSystemStorageServiceTest extends BaseMockitoTest {
                 .asString().contains(FILE);
     }
 
+    @Test
+    void listNested() {
+        createFileWithMessage("in/some.txt", true);
+        createFileWithMessage("in/deeper/some.txt", true);
+        createFileWithMessage("in/deeper/and_deeper/some_other.txt", true);
+
+        assertThat(storageService.list(root))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactlyInAnyOrder("in/some.txt", "in/deeper/some.txt", "in/deeper/and_deeper/some_other.txt");
+    }
+
+    @Test
+    void listRespectsDepthLimit() {
+        createFileWithMessage("in/some.txt", true);
+        createFileWithMessage("in/deeper/some.txt", true);
+        FileSystemStorageService limited = new FileSystemStorageService(
+                new Uri(storageDir.toUri()), ForkJoinPool.commonPool(), 2
+        );
+
+        assertThat(limited.list(root))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactly("in/some.txt");
+    }
+
+    @Test
+    void listReturnsModificationTime() {
+        createFileWithMessage();
+
+        assertThat(storageService.list(root).findFirst().get().getResource().getModifiedAt().toEpochMilli())
+                .isEqualTo(storageDir.resolve(FILE).toFile().lastModified());
+    }
+
+    @Test
+    void listStopsOnClose() {
+        for (int i = 0; i < 2_000; i++) {
+            createFileWithMessage("dir" + i % 10 + "/file" + i, true);
+        }
+
+        try (Stream<AbsoluteLocation<ResolvedResource>> listing = storageService.list(root)) {
+            assertThat(listing.limit(5)).hasSize(5);
+        }
+
+        assertThat(storageService.list(root)).hasSize(2_000);
+    }
+
+    @Test
+    void listShallow() {
+        createFileWithMessage("in/some.txt", true);
+        createFileWithMessage("in/deeper/some.txt", true);
+        createFileWithMessage("in/deeper/and_deeper/some_other.txt", true);
+        storageDir.resolve("in/empty").toFile().mkdirs();
+
+        assertThat(storageService.listShallow(BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("in"))))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactlyInAnyOrder("in/some.txt", "in/deeper/", "in/empty/");
+    }
+
+    @Test
+    void listShallowOnFile() {
+        createFileWithMessage();
+
+        assertThat(storageService.listShallow(fileWithMsg)).isEmpty();
+    }
+
+    @Test
+    void listShallowPageReadsChildrenInNameOrder() {
+        createFileWithMessage("in/b", true);
+        createFileWithMessage("in/a/1", true);
+        createFileWithMessage("in/a-c", true);
+        createFileWithMessage("in/c/d/e", true);
+        AbsoluteLocation<PrivateResource> in = BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("in"));
+
+        assertThat(storageService.listShallowPage(in, null, 2))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactly("in/a/", "in/a-c");
+        assertThat(storageService.listShallowPage(in, new Uri(storageDir.toUri().resolve("in/a-c")), 2))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactly("in/b", "in/c/");
+        assertThat(storageService.listShallowPage(in, new Uri(storageDir.toUri().resolve("in/c/")), 2)).isEmpty();
+    }
+
+    @Test
+    void listPageWalksInNameOrder() {
+        createFileWithMessage("in/b", true);
+        createFileWithMessage("in/a/2", true);
+        createFileWithMessage("in/a/1", true);
+        createFileWithMessage("in/a-c", true);
+        createFileWithMessage("in/c/d/e", true);
+        AbsoluteLocation<PrivateResource> in = BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve("in"));
+
+        assertThat(storageService.listPage(in, null, 3))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactly("in/a/1", "in/a/2", "in/a-c");
+        assertThat(storageService.listPage(in, new Uri(storageDir.toUri().resolve("in/a/2")), 3))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactly("in/a-c", "in/b", "in/c/d/e");
+        assertThat(storageService.listPage(in, new Uri(storageDir.toUri().resolve("in/c/d/e")), 3)).isEmpty();
+    }
+
+    @Test
+    void listPageContinuesAfterRemovedFile() {
+        createFileWithMessage("in/a/1", true);
+        createFileWithMessage("in/b/1", true);
+
+        assertThat(storageService.listPage(root, new Uri(storageDir.toUri().resolve("in/a/0")), 1))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactly("in/a/1");
+        assertThat(storageService.listPage(root, new Uri(storageDir.toUri().resolve("in/a/5")), 1))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactly("in/b/1");
+    }
+
+    @Test
+    void listPageOfFile() {
+        createFileWithMessage();
+
+        assertThat(storageService.listPage(fileWithMsg, null, 10)).hasSize(1);
+    }
+
     @Test
     void listOnNonExisting() {
         assertThat(storageService.list(root)).isEmpty();
@@ -136,6 +265,15 @@ class FileSystemStorageServiceTest extends BaseMockitoTest {
         assertThat(storageService.read(fileWithMsg)).hasContent(MESSAGE);
     }
 
+    @Test
+    void readRange() {
+        createFileWithMessage();
+
+        assertThat(storageService.read(fileWithMsg, ByteRange.of(1, 3))).hasContent("ell");
+        assertThat(storageService.read(fileWithMsg, ByteRange.from(3))).hasContent("lo");
+        assertThat(storageService.read(fileWithMsg, ByteRange.from(10))).hasContent("");
+    }
+
     @Test
     @SneakyThrows
     void write() {
@@ -146,6 +284,35 @@ class FileSystemStorageServiceTest extends BaseMockitoTest {
         assertThat(storageService.read(fileWithMsg)).hasContent(MESSAGE);
     }
 
+    @Test
+    @SneakyThrows
+    void transferBetweenFileChannels() {
+        createFileWithMessage();
+        AbsoluteLocation<PrivateResource> copy = BasePrivateResource.forAbsolutePrivate(
+                storageDir.toUri().resolve("copy/file")
+        );
+
+        try (ReadableByteChannel source = storageService.readChannel(fileWithMsg);
+             WritableByteChannel target = storageService.writeChannel(copy)) {
+            assertThat(source).isInstanceOf(FileChannel.class);
+            assertThat(StorageChannels.transfer(source, target)).isEqualTo(MESSAGE.length());
+        }
+
+        assertThat(storageService.read(copy)).hasContent(MESSAGE);
+    }
+
+    @Test
+    @SneakyThrows
+    void writeChannelReplacesContent() {
+        createFileWithMessage();
+
+        try (WritableByteChannel target = storageService.writeChannel(fileWithMsg)) {
+            StorageChannels.transfer(Channels.newChannel(new ByteArrayInputStream("hi".getBytes())), target);
+        }
+
+        assertThat(storageService.read(fileWithMsg)).hasContent("hi");
+    }
+
     @Test
     @SneakyThrows
     void removeRemovesOnlyFile() {
@@ -171,6 +338,62 @@ class FileSystemStorageServiceTest extends BaseMockitoTest {
         assertThat(Files.walk(storageDir)).containsOnly(storageDir);
     }
 
+    @Test
+    @SneakyThrows
+    void removeAllRemovesFilesAndDirectories() {
+        createFileWithMessage("in/some.txt", true);
+        createFileWithMessage("in/deeper/some.txt", true);
+        createFileWithMessage("other/some.txt", true);
+        createFileWithMessage("kept.txt", false);
+
+        storageService.removeAll(Stream.of("in", "other/some.txt").map(
+                it -> BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve(it)))
+        );
+
+        assertThat(Files.walk(storageDir)).containsOnly(
+                storageDir, storageDir.resolve("other"), storageDir.resolve("kept.txt")
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void copy() {
+        createFileWithMessage();
+        AbsoluteLocation<PrivateResource> target = new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(storageDir.toUri().resolve("copy/" + FILE))
+        );
+
+        storageService.copy(fileWithMsg, target);
+
+        assertThat(storageDir.resolve(FILE)).hasContent(MESSAGE);
+        assertThat(storageDir.resolve("copy/" + FILE)).hasContent(MESSAGE);
+    }
+
+    @Test
+    @SneakyThrows
+    void moveReplacesTarget() {
+        createFileWithMessage();
+        createFileWithMessage("moved/" + FILE, true);
+        Files.write(storageDir.resolve(FILE), "new".getBytes());
+        AbsoluteLocation<PrivateResource> target = new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(storageDir.toUri().resolve("moved/" + FILE))
+        );
+
+        storageService.move(fileWithMsg, target);
+
+        assertThat(storageDir.resolve(FILE)).doesNotExist();
+        assertThat(storageDir.resolve("moved/" + FILE)).hasContent("new");
+    }
+
+    @Test
+    void moveToItselfKeepsFile() {
+        createFileWithMessage();
+
+        storageService.move(fileWithMsg, fileWithMsg);
+
+        assertThat(storageDir.resolve(FILE)).hasContent(MESSAGE);
+    }
+
     @SneakyThrows
     private void createFileWithMessage() {
         createFileWithMessage(FILE, false);
@@ -0,0 +1,98 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ParallelFileWalkerTest {
+
+    private static final int FILES = 3_000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    private Path root;
+
+    @BeforeEach
+    @SneakyThrows
+    void prepare(@TempDir Path dir) {
+        root = dir;
+        for (int i = 0; i < FILES; i++) {
+            Path dirPath = root.resolve("dir" + i % 10);
+            Files.createDirectories(dirPath);
+            Files.write(dirPath.resolve("file" + i), new byte[] {1});
+        }
+    }
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void walkFindsAllFiles() {
+        try (Stream<ParallelFileWalker.FoundFile> files = walker(Duration.ofMinutes(1)).walk(root)) {
+            assertThat(files).hasSize(FILES);
+        }
+
+        assertThat(pool.awaitQuiescence(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void abandonedWalkReleasesPool() {
+        assertThat(walker(Duration.ofMinutes(5)).walk(root).findFirst()).isPresent();
+
+        boolean quiescent = false;
+        for (int attempt = 0; attempt < 50 && !quiescent; attempt++) {
+            System.gc();
+            quiescent = pool.awaitQuiescence(200, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(quiescent).isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    void stalledConsumerGetsError() {
+        Iterator<ParallelFileWalker.FoundFile> files = walker(Duration.ofMillis(200)).walk(root).iterator();
+        files.next();
+
+        assertThat(pool.awaitQuiescence(10, TimeUnit.SECONDS)).isTrue();
+        assertThatThrownBy(() -> files.forEachRemaining(it -> { }))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void stalledWalkDoesNotBlockPool() {
+        Stream<ParallelFileWalker.FoundFile> stalled = walker(Duration.ofMinutes(5)).walk(root);
+        stalled.iterator().next();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            try (Stream<ParallelFileWalker.FoundFile> files = walker(Duration.ofMinutes(5)).walk(root)) {
+                assertThat(files).hasSize(FILES);
+            }
+
+            assertThat(pool.submit(() -> true).get()).isTrue();
+        });
+
+        stalled.close();
+    }
+
+    private ParallelFileWalker walker(Duration stallTimeout) {
+        return new ParallelFileWalker(pool, Integer.MAX_VALUE, stallTimeout);
+    }
+}
@@ -0,0 +1,148 @@
+package de.adorsys.datasafe.storage.impl.fs;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedFileSystemStorageServiceTest extends BaseMockitoTest {
+
+    private static final String MESSAGE = "hello";
+
+    private ShardedFileSystemLayout layout = new ShardedFileSystemLayout();
+    private FileSystemStorageService plain;
+    private FileSystemStorageService sharded;
+    private Path storageDir;
+
+    @BeforeEach
+    void prepare(@TempDir Path dir) {
+        this.storageDir = dir;
+        this.plain = new FileSystemStorageService(new Uri(dir.toUri()));
+        this.sharded = new FileSystemStorageService(new Uri(dir.toUri()), layout);
+    }
+
+    @Test
+    void layoutRoundTrip() {
+        Path logical = storageDir.resolve("private/files/AbCd");
+        Path physical = layout.physical(logical);
+
+        assertThat(storageDir.relativize(physical).toString()).matches("private/files/~[0-9a-f]{2}/~[0-9a-f]{2}/AbCd");
+        assertThat(layout.logical(physical)).isEqualTo(logical);
+        assertThat(layout.logical(logical)).isEqualTo(logical);
+    }
+
+    @Test
+    void keepsLogicalLocations() {
+        write(sharded, "private/files/first");
+        write(sharded, "private/files/deeper/second");
+
+        assertThat(Files.exists(storageDir.resolve("private/files/first"))).isFalse();
+        assertThat(Files.exists(layout.physical(storageDir.resolve("private/files/first")))).isTrue();
+        assertThat(listed(sharded, "private/")).containsExactlyInAnyOrder(
+                "private/files/first", "private/files/deeper/second"
+        );
+        assertThat(listed(sharded, "private/files/first")).containsExactly("private/files/first");
+        assertThat(sharded.read(location("private/files/deeper/second"))).hasContent(MESSAGE);
+        assertThat(sharded.objectExists(location("private/files/first"))).isTrue();
+
+        sharded.remove(location("private/files/first"));
+
+        assertThat(sharded.objectExists(location("private/files/first"))).isFalse();
+        assertThat(listed(sharded, "private/")).containsExactly("private/files/deeper/second");
+    }
+
+    @Test
+    void listsShallowThroughShards() {
+        write(sharded, "private/files/first");
+        write(sharded, "private/files/deeper/second");
+        write(plain, "private/files/legacy");
+
+        assertThat(sharded.listShallow(location("private/files/")))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactlyInAnyOrder("private/files/first", "private/files/legacy", "private/files/deeper/");
+    }
+
+    @Test
+    void listsPagesInLogicalOrder() {
+        write(sharded, "private/files/b");
+        write(sharded, "private/files/a/first");
+        write(sharded, "private/files/c");
+        write(plain, "private/files/a/legacy");
+
+        assertThat(sharded.listPage(location("private/"), null, 2))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactly("private/files/a/first", "private/files/a/legacy");
+        assertThat(sharded.listPage(location("private/"), location("private/files/a/legacy").location(), 2))
+                .extracting(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .containsExactly("private/files/b", "private/files/c");
+    }
+
+    @Test
+    void movesNotMigratedFileIntoLayout() {
+        write(plain, "inbox/legacy");
+
+        sharded.move(location("inbox/legacy"), location("inbox/renamed"));
+
+        assertThat(Files.exists(storageDir.resolve("inbox/legacy"))).isFalse();
+        assertThat(Files.exists(layout.physical(storageDir.resolve("inbox/renamed")))).isTrue();
+        assertThat(listed(sharded, "inbox/")).containsExactly("inbox/renamed");
+    }
+
+    @Test
+    void readsAndReplacesNotMigratedFiles() {
+        write(plain, "inbox/legacy");
+
+        assertThat(listed(sharded, "inbox/")).containsExactly("inbox/legacy");
+        assertThat(sharded.read(location("inbox/legacy"))).hasContent(MESSAGE);
+
+        write(sharded, "inbox/legacy");
+
+        assertThat(Files.exists(storageDir.resolve("inbox/legacy"))).isFalse();
+        assertThat(listed(sharded, "inbox/")).containsExactly("inbox/legacy");
+    }
+
+    @Test
+    void migratesExistingTree() {
+        write(plain, "private/files/first");
+        write(plain, "private/files/deeper/second");
+        write(sharded, "private/files/third");
+
+        assertThat(new ShardedLayoutMigration(layout).migrate(storageDir)).isEqualTo(2);
+        assertThat(new ShardedLayoutMigration(layout).migrate(storageDir)).isEqualTo(0);
+
+        assertThat(Files.exists(storageDir.resolve("private/files/first"))).isFalse();
+        assertThat(listed(sharded, "private/")).containsExactlyInAnyOrder(
+                "private/files/first", "private/files/deeper/second", "private/files/third"
+        );
+    }
+
+    @SneakyThrows
+    private void write(FileSystemStorageService storage, String path) {
+        try (OutputStream os = storage.write(location(path))) {
+            os.write(MESSAGE.getBytes());
+        }
+    }
+
+    private AbsoluteLocation<PrivateResource> location(String path) {
+        return BasePrivateResource.forAbsolutePrivate(storageDir.toUri().resolve(path));
+    }
+
+    private List<String> listed(FileSystemStorageService storage, String path) {
+        return storage.list(location(path))
+                .map(it -> storageDir.toUri().relativize(it.location().asURI()).toString())
+                .collect(Collectors.toList());
+    }
+}
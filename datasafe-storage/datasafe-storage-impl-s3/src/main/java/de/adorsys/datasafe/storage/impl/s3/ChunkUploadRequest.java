@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.nio.ByteBuffer;
+
 @Getter
 @Builder
 @ToString
@@ -12,7 +14,7 @@ public class ChunkUploadRequest {
 
     private AmazonS3 amazonS3;
     @ToString.Exclude
-    private byte[] content;
+    private ByteBuffer content;
     private int contentSize;
     private String bucketName;
     private String objectName;
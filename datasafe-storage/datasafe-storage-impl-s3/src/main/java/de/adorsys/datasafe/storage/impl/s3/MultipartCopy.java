@@ -0,0 +1,134 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.PartETag;
+import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Copies object inside the bucket on S3 side. Objects larger than single CopyObject request allows are copied
+ * by byte ranges as parts of multipart upload, several parts are copied in parallel.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class MultipartCopy {
+
+    static final long MAX_SINGLE_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+
+    private static final long MIN_PART_SIZE = 512L * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+    private static final int MAX_PARTS_IN_FLIGHT = 4;
+
+    private final AmazonS3 s3;
+    private final String bucketName;
+    private final ExecutorService executorService;
+
+    /**
+     * @param sourceKey Object to copy
+     * @param targetKey Where to copy object to, replaced if exists
+     */
+    @SneakyThrows
+    void copy(String sourceKey, String targetKey) {
+        long size = s3.getObjectMetadata(bucketName, sourceKey).getContentLength();
+        if (size <= MAX_SINGLE_COPY_SIZE) {
+            s3.copyObject(bucketName, sourceKey, bucketName, targetKey);
+            return;
+        }
+
+        log.debug("Copy {} bytes using multipart upload to {}", size, Obfuscate.secure(targetKey));
+        String uploadId = s3.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(bucketName, targetKey)
+        ).getUploadId();
+
+        try {
+            List<PartETag> parts = copyParts(sourceKey, targetKey, uploadId, size);
+            s3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, targetKey, uploadId, parts));
+        } catch (Exception ex) {
+            s3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, targetKey, uploadId));
+            throw ex;
+        }
+    }
+
+    private List<PartETag> copyParts(String sourceKey, String targetKey, String uploadId, long size)
+            throws Exception {
+        long partSize = Math.max(MIN_PART_SIZE, (size + MAX_PARTS - 1) / MAX_PARTS);
+        Deque<Future<PartETag>> inFlight = new ArrayDeque<>();
+        List<PartETag> parts = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            for (long start = 0; start < size; start += partSize, partNumber++) {
+                if (inFlight.size() >= MAX_PARTS_IN_FLIGHT) {
+                    parts.add(await(inFlight.pollFirst()));
+                }
+
+                CopyPartRequest request = new CopyPartRequest()
+                        .withSourceBucketName(bucketName)
+                        .withSourceKey(sourceKey)
+                        .withDestinationBucketName(bucketName)
+                        .withDestinationKey(targetKey)
+                        .withUploadId(uploadId)
+                        .withPartNumber(partNumber)
+                        .withFirstByte(start)
+                        .withLastByte(Math.min(start + partSize, size) - 1);
+                inFlight.addLast(executorService.submit(() -> s3.copyPart(request).getPartETag()));
+            }
+
+            while (!inFlight.isEmpty()) {
+                parts.add(await(inFlight.pollFirst()));
+            }
+
+            return parts;
+        } catch (Exception ex) {
+            // parts copied after abort would be left on S3, so abort only when nothing is running
+            awaitInFlight(inFlight);
+            throw ex;
+        }
+    }
+
+    /**
+     * Waits until all in-flight parts are finished, ignoring their results. Waiting is not interruptible, as parts
+     * are bounded in size, interrupt status is restored afterwards.
+     */
+    private static void awaitInFlight(Deque<Future<PartETag>> inFlight) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (!inFlight.isEmpty()) {
+                try {
+                    inFlight.peekFirst().get();
+                    inFlight.pollFirst();
+                } catch (ExecutionException | CancellationException ex) {
+                    inFlight.pollFirst();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static PartETag await(Future<PartETag> part) throws Exception {
+        try {
+            return part.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Tuning parameters of multipart upload that is used by {@link S3StorageService#write}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class MultipartUploadConfig {
+
+    /**
+     * The minimum size for a multi part request (except the last part) is 5 MB.
+     */
+    public static final int MIN_PART_SIZE = 1024 * 1024 * 5;
+
+    /**
+     * Size of single uploaded part, files smaller than this are sent using simple upload.
+     */
+    @Builder.Default
+    private final int partSize = MIN_PART_SIZE;
+
+    /**
+     * How many parts of single stream can be queued or uploaded at the same time, when this limit is reached
+     * writing to the stream blocks until some part is uploaded.
+     */
+    @Builder.Default
+    private final int maxInFlightPartsPerStream = 4;
+
+    /**
+     * How many free part buffers are retained for reuse by subsequent uploads, retained buffers count against
+     * {@link UploadMemoryBudget} until some writer needs the budget.
+     */
+    @Builder.Default
+    private final int maxPooledBuffers = 16;
+
+    /**
+     * Node-wide limit of memory that can be occupied by buffered, in-flight and pooled parts of all upload streams,
+     * storage services with the same limit share single budget. Ignored if {@link UploadMemoryBudget} is provided
+     * explicitly.
+     */
+    @Builder.Default
+    private final long maxBufferedBytes = 64L * MIN_PART_SIZE;
+
+    /**
+     * How long writer waits for {@link UploadMemoryBudget} before upload fails, so that writers that hold
+     * budget of one stream while waiting for another can't block each other forever.
+     */
+    @Builder.Default
+    private final Duration memoryBudgetTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Use direct (off-heap) buffers for parts instead of heap ones.
+     */
+    @Builder.Default
+    private final boolean directBuffers = false;
+
+    /**
+     * @return Default configuration: 5 MB parts, at most 4 parts in-flight per stream, 320 MB buffered in total,
+     * heap buffers.
+     */
+    public static MultipartUploadConfig defaults() {
+        return MultipartUploadConfig.builder().build();
+    }
+
+    void validate() {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes");
+        }
+
+        if (maxInFlightPartsPerStream < 1) {
+            throw new IllegalArgumentException("At least one part should be allowed in-flight");
+        }
+
+        if (maxBufferedBytes < partSize) {
+            throw new IllegalArgumentException("Buffered bytes limit must fit at least one part");
+        }
+
+        if (memoryBudgetTimeout.isNegative()) {
+            throw new IllegalArgumentException("Memory budget timeout must not be negative");
+        }
+
+        if (maxPooledBuffers < 0) {
+            throw new IllegalArgumentException("Pooled buffer count must not be negative");
+        }
+    }
+}
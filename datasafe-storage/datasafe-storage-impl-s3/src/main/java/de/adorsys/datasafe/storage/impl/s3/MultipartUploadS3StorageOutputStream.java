@@ -25,48 +25,80 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.*;
 import com.amazonaws.util.BinaryUtils;
 import de.adorsys.datasafe.types.api.resource.ResourceLocation;
+import de.adorsys.datasafe.types.api.utils.Abortable;
 import de.adorsys.datasafe.types.api.utils.Obfuscate;
 import lombok.SneakyThrows;
 import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Buffers written bytes into part-sized buffers obtained from {@link PartBufferPool} and sends each full buffer
+ * as a part of multipart upload without copying it. Content that fits into single part is sent using simple upload.
+ * At most {@code maxInFlightParts} parts of this stream are queued or uploaded at the same time, and each part buffer
+ * is admitted by node-wide {@link UploadMemoryBudget} as a whole before it is allocated, so writer that waits
+ * for the budget holds no buffer. Writer blocks when either limit is reached, upload fails if budget is not
+ * available within configured timeout. Aborting the stream aborts multipart upload.
+ */
 @Slf4j
-public class MultipartUploadS3StorageOutputStream extends OutputStream {
+public class MultipartUploadS3StorageOutputStream extends OutputStream implements Abortable {
+
+    private final String bucketName;
 
-    private String bucketName;
+    private final String objectName;
 
-    private String objectName;
+    private final AmazonS3 amazonS3;
 
-    private AmazonS3 amazonS3;
+    private final PartBufferPool bufferPool;
 
-    // The minimum size for a multi part request is 5 MB, hence the buffer size of 5 MB
-    private static final int BUFFER_SIZE = 1024 * 1024 * 5;
+    private final Duration memoryBudgetTimeout;
+
+    private final Semaphore inFlightParts;
 
     private final CompletionService<UploadPartResult> completionService;
 
-    private ByteArrayOutputStream currentOutputStream = new ByteArrayOutputStream(BUFFER_SIZE);
+    private final List<PartETag> partETags = new ArrayList<>();
+
+    private ByteBuffer currentBuffer;
 
     private InitiateMultipartUploadResult multiPartUploadResult;
 
     private int partCounter = 1;
 
+    private int submittedParts;
+
+    // count of finished parts taken from completionService, including failed ones
+    private int collectedParts;
+
+    private boolean closed;
+
+    private boolean aborted;
+
     MultipartUploadS3StorageOutputStream(String bucketName, ResourceLocation resource, AmazonS3 amazonS3,
-                                                ExecutorService executorService) {
+                                         ExecutorService executorService, PartBufferPool bufferPool,
+                                         int maxInFlightParts, Duration memoryBudgetTimeout) {
         this.bucketName = bucketName;
         this.objectName = resource.location().getPath().replaceFirst("^/", "");
         this.amazonS3 = amazonS3;
+        this.bufferPool = bufferPool;
+        this.memoryBudgetTimeout = memoryBudgetTimeout;
+        this.inFlightParts = new Semaphore(maxInFlightParts);
         this.completionService = new ExecutorCompletionService<>(executorService);
 
         log.debug("Write to bucket: {} with name: {}", Obfuscate.secure(bucketName), Obfuscate.secure(objectName));
@@ -74,39 +106,98 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
 
     @Override
     @Synchronized
-    public void write(int b) {
-        currentOutputStream.write(b);
-
-        if (currentOutputStream.size() == BUFFER_SIZE) {
-            initiateMultiPartIfNeeded();
-            completionService.submit(new UploadChunkResultCallable(
-                    ChunkUploadRequest
-                            .builder()
-                            .amazonS3(amazonS3)
-                            .content(currentOutputStream.toByteArray())
-                            .contentSize(currentOutputStream.size())
-                            .bucketName(bucketName)
-                            .objectName(objectName)
-                            .uploadId(multiPartUploadResult.getUploadId())
-                            .chunkNumberCounter(partCounter++)
-                            .lastChunk(false)
-                            .build()
-            ));
-            currentOutputStream.reset();
+    public void write(int b) throws IOException {
+        ensureOpen();
+        ByteBuffer buffer = currentBuffer();
+        buffer.put((byte) b);
+
+        if (!buffer.hasRemaining()) {
+            sendCurrentPart(false);
+        }
+    }
+
+    @Override
+    @Synchronized
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureOpen();
+        while (len > 0) {
+            ByteBuffer buffer = currentBuffer();
+            int toWrite = Math.min(len, buffer.remaining());
+            buffer.put(bytes, off, toWrite);
+            off += toWrite;
+            len -= toWrite;
+
+            if (!buffer.hasRemaining()) {
+                sendCurrentPart(false);
+            }
         }
     }
 
     @Override
     @Synchronized
     public void close() throws IOException {
-        if (currentOutputStream == null) {
+        if (closed) {
             return;
         }
 
-        if (isMultiPartUpload()) {
-            finishMultiPartUpload();
-        } else {
-            finishSimpleUpload();
+        closed = true;
+        try {
+            if (aborted) {
+                return;
+            }
+
+            if (isMultiPartUpload()) {
+                finishMultiPartUpload();
+            } else {
+                finishSimpleUpload();
+            }
+        } finally {
+            // Release the memory
+            bufferPool.release(currentBuffer);
+            currentBuffer = null;
+        }
+    }
+
+    @Override
+    @Synchronized
+    public void abort() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            abortMultiPartUpload();
+        } finally {
+            bufferPool.release(currentBuffer);
+            currentBuffer = null;
+        }
+    }
+
+    private ByteBuffer currentBuffer() throws IOException {
+        if (null == currentBuffer) {
+            currentBuffer = bufferPool.acquire(memoryBudgetTimeout);
+        }
+
+        if (null == currentBuffer) {
+            abortMultiPartUpload();
+            throw new IOException("Timed out waiting for upload memory budget");
+        }
+
+        return currentBuffer;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+
+        if (aborted) {
+            throw new IOException("Multi part upload was aborted");
         }
     }
 
@@ -116,44 +207,34 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
 
     @SneakyThrows
     private void finishSimpleUpload() {
-        ObjectMetadata objectMetadata = new ObjectMetadata();
-        objectMetadata.setContentLength(currentOutputStream.size());
+        ByteBuffer content = null == currentBuffer ? ByteBuffer.allocate(0) : currentBuffer;
+        content.flip();
 
-        byte[] content = currentOutputStream.toByteArray();
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(content.remaining());
 
         MessageDigest messageDigest = MessageDigest.getInstance("MD5");
-        String md5Digest = BinaryUtils.toBase64(messageDigest.digest(content));
+        messageDigest.update(content.duplicate());
+        String md5Digest = BinaryUtils.toBase64(messageDigest.digest());
         objectMetadata.setContentMD5(md5Digest);
 
         amazonS3.putObject(
                 bucketName,
                 objectName,
-                new ByteArrayInputStream(content),
+                new ByteBufferInputStream(content),
                 objectMetadata);
 
-        // Release the memory
-        currentOutputStream = null;
-
         log.debug("Finished simple upload");
     }
 
     private void finishMultiPartUpload() throws IOException {
-        completionService.submit(
-                new UploadChunkResultCallable(ChunkUploadRequest.builder()
-                        .amazonS3(amazonS3)
-                        .content(currentOutputStream.toByteArray())
-                        .contentSize(currentOutputStream.size())
-                        .bucketName(bucketName)
-                        .objectName(objectName)
-                        .uploadId(multiPartUploadResult.getUploadId())
-                        .chunkNumberCounter(partCounter)
-                        .lastChunk(true)
-                        .build()
-                )
-        );
-
         try {
-            List<PartETag> partETags = getMultiPartsUploadResults();
+            if (null != currentBuffer && currentBuffer.position() > 0) {
+                sendCurrentPart(true);
+            }
+
+            collectUploadedParts(true);
+            partETags.sort(Comparator.comparingInt(PartETag::getPartNumber));
 
             log.debug("Send multipart request to S3");
             amazonS3.completeMultipartUpload(
@@ -166,17 +247,63 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
             );
 
             log.debug("Finished multi part upload");
-        } catch (ExecutionException e) {
+        } catch (IOException | RuntimeException e) {
             abortMultiPartUpload();
+            throw e;
+        }
+    }
 
-            log.error(e.getMessage(), e);
-            throw new IOException("Multi part upload failed ", e.getCause());
+    /**
+     * Hands over current buffer to the upload thread pool, buffer is returned to the pool once part is uploaded.
+     */
+    private void sendCurrentPart(boolean lastChunk) throws IOException {
+        initiateMultiPartIfNeeded();
+        collectUploadedParts(false);
+        acquireInFlightSlot();
+
+        ByteBuffer part = currentBuffer;
+        currentBuffer = null;
+        part.flip();
+
+        UploadChunkResultCallable upload = new UploadChunkResultCallable(
+                ChunkUploadRequest
+                        .builder()
+                        .amazonS3(amazonS3)
+                        .content(part)
+                        .contentSize(part.remaining())
+                        .bucketName(bucketName)
+                        .objectName(objectName)
+                        .uploadId(multiPartUploadResult.getUploadId())
+                        .chunkNumberCounter(partCounter++)
+                        .lastChunk(lastChunk)
+                        .build()
+        );
+
+        try {
+            completionService.submit(() -> {
+                try {
+                    return upload.call();
+                } finally {
+                    bufferPool.release(part);
+                    inFlightParts.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            bufferPool.release(part);
+            inFlightParts.release();
+            throw new IOException("Failed to schedule part upload", ex);
+        }
+
+        submittedParts++;
+    }
+
+    private void acquireInFlightSlot() throws IOException {
+        try {
+            inFlightParts.acquire();
         } catch (InterruptedException e) {
-            log.error(e.getMessage(), e);
-            abortMultiPartUpload();
             Thread.currentThread().interrupt();
-        } finally {
-            currentOutputStream = null;
+            abortMultiPartUpload();
+            throw new InterruptedIOException("Interrupted while waiting for part upload");
         }
     }
 
@@ -189,9 +316,18 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
         }
     }
 
+    /**
+     * Aborts multipart upload once all submitted parts are finished - parts that complete after abort request
+     * would be kept by S3.
+     */
     private void abortMultiPartUpload() {
-        log.debug("Abort multi part");
+        if (aborted) {
+            return;
+        }
 
+        log.debug("Abort multi part");
+        aborted = true;
+        awaitSubmittedParts();
         if (isMultiPartUpload()) {
             amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(
                     multiPartUploadResult.getBucketName(),
@@ -200,16 +336,53 @@ public class MultipartUploadS3StorageOutputStream extends OutputStream {
         }
     }
 
-    private List<PartETag> getMultiPartsUploadResults() throws ExecutionException, InterruptedException {
-        List<PartETag> result = new ArrayList<>(partCounter);
-        for (int i = 0; i < partCounter; i++) {
-            UploadPartResult partResult = completionService.take().get();
-            result.add(partResult.getPartETag());
-
-            log.debug("Get upload part #{} from {}", i, partCounter);
+    /**
+     * Waits until all submitted parts are finished, ignoring their results. Waiting is not interruptible, as parts
+     * are bounded in size, interrupt status is restored afterwards.
+     */
+    private void awaitSubmittedParts() {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (collectedParts < submittedParts) {
+                try {
+                    completionService.take();
+                    collectedParts++;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
-        return result;
     }
 
+    /**
+     * Collects results of already uploaded parts, so that failed upload is detected early.
+     * @param waitForAll Block until all submitted parts are uploaded
+     */
+    private void collectUploadedParts(boolean waitForAll) throws IOException {
+        try {
+            while (collectedParts < submittedParts) {
+                Future<UploadPartResult> result = waitForAll ? completionService.take() : completionService.poll();
+                if (null == result) {
+                    return;
+                }
+
+                collectedParts++;
+                partETags.add(result.get().getPartETag());
+                log.debug("Get upload part #{} from {}", partETags.size(), submittedParts);
+            }
+        } catch (ExecutionException e) {
+            log.error(e.getMessage(), e);
+            abortMultiPartUpload();
+            throw new IOException("Multi part upload failed ", e.getCause());
+        } catch (InterruptedException e) {
+            log.error(e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            abortMultiPartUpload();
+            throw new InterruptedIOException("Interrupted while waiting for part upload");
+        }
+    }
 }
-
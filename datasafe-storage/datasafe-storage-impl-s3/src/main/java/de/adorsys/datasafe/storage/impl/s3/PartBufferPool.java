@@ -0,0 +1,96 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Getter;
+
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of equally-sized part buffers shared by all multipart uploads of {@link S3StorageService}, so that
+ * each uploaded part does not allocate (and later garbage-collect) new part-sized array. Every buffer - in use or
+ * idle in the pool - is admitted by owning {@link UploadMemoryBudget}, buffer is allocated only after budget admits
+ * it. Obtain pool using {@link UploadMemoryBudget#bufferPool(int, int, boolean)}.
+ */
+public class PartBufferPool {
+
+    @Getter
+    private final int bufferSize;
+
+    private final boolean direct;
+    private final BlockingQueue<ByteBuffer> free;
+    private final UploadMemoryBudget budget;
+
+    /**
+     * @param bufferSize Capacity of each buffer
+     * @param maxPooled How many free buffers to retain, buffers released above this limit are dropped
+     * @param direct Allocate off-heap buffers
+     * @param budget Budget that admits buffers of this pool
+     */
+    PartBufferPool(int bufferSize, int maxPooled, boolean direct, UploadMemoryBudget budget) {
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+        this.budget = budget;
+    }
+
+    /**
+     * @param timeout Maximum time to wait for the budget if there is no free buffer
+     * @return Cleared buffer either from the pool or newly allocated one, {@code null} if budget did not admit
+     * new buffer within {@code timeout}
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    public ByteBuffer acquire(Duration timeout) throws InterruptedIOException {
+        ByteBuffer buffer = free.poll();
+        if (null != buffer) {
+            buffer.clear();
+            return buffer;
+        }
+
+        if (!budget.tryAcquire(bufferSize, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            return null;
+        }
+
+        return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Returns buffer to the pool, buffer must not be used by caller after that. Buffer that is not retained
+     * gives back its budget, buffers are not retained while some writer waits for the budget.
+     * @param buffer Buffer obtained from {@link PartBufferPool#acquire(Duration)}
+     */
+    public void release(ByteBuffer buffer) {
+        if (null == buffer || buffer.capacity() != bufferSize || buffer.isDirect() != direct) {
+            return;
+        }
+
+        buffer.clear();
+        if (!free.offer(buffer)) {
+            budget.release(bufferSize);
+            return;
+        }
+
+        if (budget.hasWaitingWriters()) {
+            releaseIdle();
+        }
+    }
+
+    /**
+     * @return Count of free buffers that are available for reuse.
+     */
+    public int pooled() {
+        return free.size();
+    }
+
+    /**
+     * Drops free buffers and gives back their budget.
+     */
+    void releaseIdle() {
+        while (null != free.poll()) {
+            budget.release(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Tuning parameters of listing that is used by {@link S3StorageService#list}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class PartitionedListingConfig {
+
+    /**
+     * Characters of encrypted path segments (base64url).
+     */
+    public static final String BASE64_URL_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    /**
+     * How many key range shards are listed at the same time, 1 means that listing is sequential.
+     */
+    @Builder.Default
+    private final int parallelism = 1;
+
+    /**
+     * How many times key range can be split by next character of the key.
+     */
+    @Builder.Default
+    private final int maxSplitDepth = 2;
+
+    /**
+     * Characters by which key range is split, keys with other characters are still listed, but less evenly.
+     */
+    @Builder.Default
+    private final String alphabet = BASE64_URL_ALPHABET;
+
+    /**
+     * Keys requested by single list request, S3 returns at most 1000.
+     */
+    @Builder.Default
+    private final int pageSize = 1000;
+
+    /**
+     * @return Sequential listing, same as {@link com.amazonaws.services.s3.iterable.S3Objects}.
+     */
+    public static PartitionedListingConfig defaults() {
+        return PartitionedListingConfig.builder().build();
+    }
+
+    /**
+     * @param parallelism How many shards are listed at the same time
+     * @return Parallel listing of base64url-encoded keys.
+     */
+    public static PartitionedListingConfig parallel(int parallelism) {
+        return PartitionedListingConfig.builder().parallelism(parallelism).build();
+    }
+
+    boolean isPartitioned() {
+        return parallelism > 1;
+    }
+
+    void validate() {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Listing parallelism must be positive");
+        }
+
+        if (maxSplitDepth < 0) {
+            throw new IllegalArgumentException("Split depth must not be negative");
+        }
+
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        if (null == alphabet || alphabet.isEmpty()) {
+            throw new IllegalArgumentException("Split alphabet must not be empty");
+        }
+    }
+}
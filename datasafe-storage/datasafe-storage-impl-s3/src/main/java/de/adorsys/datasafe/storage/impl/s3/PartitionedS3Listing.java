@@ -0,0 +1,240 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lists keys under prefix by splitting key range into shards that are listed in parallel. When keys under prefix
+ * do not fit into single page, range is split into one shard per leading character after the prefix, shards
+ * that do not fit into single page are split again by next character until maximum depth is reached.
+ * Encrypted path segments are base64url strings, so their keys spread evenly over shards. Shards are consumed in
+ * key order, so results come in the same order as with sequential listing, and only shards close to
+ * consumer position are listed ahead.
+ */
+class PartitionedS3Listing {
+
+    private final AmazonS3 s3;
+    private final String bucketName;
+    private final ExecutorService executorService;
+    private final PartitionedListingConfig config;
+    private final char[] alphabet;
+
+    PartitionedS3Listing(AmazonS3 s3, String bucketName, ExecutorService executorService,
+                         PartitionedListingConfig config) {
+        this.s3 = s3;
+        this.bucketName = bucketName;
+        this.executorService = executorService;
+        this.config = config;
+        // S3 orders keys by their UTF-8 bytes, which is same as char order for ASCII
+        this.alphabet = config.getAlphabet().toCharArray();
+        Arrays.sort(this.alphabet);
+    }
+
+    /**
+     * @param prefix Key prefix to list
+     * @return Lazy stream of objects sorted by key, closing it cancels requests in progress
+     */
+    Stream<S3ObjectSummary> list(String prefix) {
+        Listing listing = new Listing(prefix);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(listing, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ).onClose(listing::cancel);
+    }
+
+    /**
+     * Keys of the range {@code (after, upTo]}, {@code null} bounds are open.
+     */
+    @RequiredArgsConstructor
+    private static class Shard {
+
+        private final String after;
+        private final String upTo;
+
+        /**
+         * Shard is split into ranges that start with {@code splitBase + character}, {@code null} if it can't be
+         * split.
+         */
+        private final String splitBase;
+        private final int depth;
+        private final String continuationToken;
+
+        private Shard continueWith(String token) {
+            return new Shard(after, upTo, splitBase, depth, token);
+        }
+
+        private boolean contains(String key) {
+            return null == upTo || key.compareTo(upTo) <= 0;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ShardPage {
+
+        private final List<S3ObjectSummary> summaries;
+
+        /**
+         * Shards that replace listed shard if it was too large, or remaining pages of the listed shard.
+         */
+        private final List<Shard> following;
+    }
+
+    private static class Task {
+
+        private final Shard shard;
+        private Future<ShardPage> page;
+
+        private Task(Shard shard) {
+            this.shard = shard;
+        }
+    }
+
+    private class Listing implements Iterator<S3ObjectSummary> {
+
+        private final String prefix;
+
+        // shards in key order, first ones are listed in parallel
+        private final Deque<Task> tasks = new ArrayDeque<>();
+
+        private Iterator<S3ObjectSummary> current = Collections.emptyIterator();
+
+        private Listing(String prefix) {
+            this.prefix = prefix;
+            this.tasks.add(new Task(new Shard(null, null, prefix, 0, null)));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (tasks.isEmpty()) {
+                    return false;
+                }
+
+                submitTasks();
+                ShardPage page = await(tasks.pollFirst().page);
+                // split shards and remaining pages precede all other shards in key order
+                for (int i = page.following.size() - 1; i >= 0; i--) {
+                    tasks.addFirst(new Task(page.following.get(i)));
+                }
+
+                submitTasks();
+                current = page.summaries.iterator();
+            }
+
+            return true;
+        }
+
+        @Override
+        public S3ObjectSummary next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return current.next();
+        }
+
+        private void submitTasks() {
+            int submitted = 0;
+            for (Task task : tasks) {
+                if (submitted++ >= config.getParallelism()) {
+                    return;
+                }
+
+                if (null == task.page) {
+                    task.page = executorService.submit(() -> listShard(prefix, task.shard));
+                }
+            }
+        }
+
+        @SneakyThrows
+        private ShardPage await(Future<ShardPage> page) {
+            try {
+                return page.get();
+            } catch (ExecutionException ex) {
+                cancel();
+                throw ex.getCause();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw ex;
+            }
+        }
+
+        private void cancel() {
+            tasks.stream().filter(it -> null != it.page).forEach(it -> it.page.cancel(true));
+            tasks.clear();
+        }
+    }
+
+    private ShardPage listShard(String prefix, Shard shard) {
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withPrefix(prefix)
+                .withMaxKeys(config.getPageSize());
+
+        if (null != shard.continuationToken) {
+            request.setContinuationToken(shard.continuationToken);
+        } else if (null != shard.after) {
+            request.setStartAfter(shard.after);
+        }
+
+        ListObjectsV2Result result = s3.listObjectsV2(request);
+        List<S3ObjectSummary> summaries = result.getObjectSummaries();
+        int inShard = 0;
+        while (inShard < summaries.size() && shard.contains(summaries.get(inShard).getKey())) {
+            inShard++;
+        }
+
+        boolean hasMore = result.isTruncated() && inShard == summaries.size();
+        if (!hasMore) {
+            return new ShardPage(summaries.subList(0, inShard), Collections.emptyList());
+        }
+
+        if (null == shard.continuationToken && null != shard.splitBase && shard.depth < config.getMaxSplitDepth()) {
+            return new ShardPage(Collections.emptyList(), split(shard));
+        }
+
+        return new ShardPage(summaries, Collections.singletonList(
+                shard.continueWith(result.getNextContinuationToken()))
+        );
+    }
+
+    private List<Shard> split(Shard shard) {
+        List<Shard> shards = new ArrayList<>(alphabet.length + 1);
+        String after = shard.after;
+        String base = null;
+        for (char character : alphabet) {
+            String boundary = shard.splitBase + character;
+            if ((null != after && boundary.compareTo(after) <= 0) || !shard.contains(boundary)) {
+                continue;
+            }
+
+            shards.add(new Shard(after, boundary, base, shard.depth + 1, null));
+            after = boundary;
+            base = boundary;
+        }
+
+        shards.add(new Shard(after, shard.upTo, base, shard.depth + 1, null));
+        return shards;
+    }
+}
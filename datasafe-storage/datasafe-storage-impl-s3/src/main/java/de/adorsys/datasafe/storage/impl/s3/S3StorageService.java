@@ -2,18 +2,40 @@ package de.adorsys.datasafe.storage.impl.s3;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.iterable.S3Objects;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import de.adorsys.datasafe.storage.api.StorageService;
+import de.adorsys.datasafe.types.api.actions.ByteRange;
 import de.adorsys.datasafe.types.api.resource.*;
 import de.adorsys.datasafe.types.api.utils.Obfuscate;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -23,9 +45,18 @@ import java.util.stream.StreamSupport;
 @Slf4j
 public class S3StorageService implements StorageService {
 
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+    private static final int MAX_KEYS_PER_LIST = 1000;
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    private static final int MAX_DELETES_IN_FLIGHT = 4;
+
     private final AmazonS3 s3;
     private final String bucketName;
     private final ExecutorService executorService;
+    private final MultipartUploadConfig uploadConfig;
+    private final PartBufferPool partBufferPool;
+    private final MultipartCopy multipartCopy;
+    private final PartitionedS3Listing partitionedListing;
 
     /**
      * @param s3 Connection to S3
@@ -34,21 +65,75 @@ public class S3StorageService implements StorageService {
      */
     @Inject
     public S3StorageService(AmazonS3 s3, String bucketName, ExecutorService executorService) {
+        this(s3, bucketName, executorService, MultipartUploadConfig.defaults());
+    }
+
+    /**
+     * @param s3 Connection to S3
+     * @param bucketName Bucket to use
+     * @param executorService Multipart sending threadpool (file chunks are sent in parrallel)
+     * @param uploadConfig Part size and memory limits of multipart upload, memory budget is shared with other
+     *                     storage services that use same limit
+     */
+    public S3StorageService(AmazonS3 s3, String bucketName, ExecutorService executorService,
+                            MultipartUploadConfig uploadConfig) {
+        this(s3, bucketName, executorService, uploadConfig,
+                UploadMemoryBudget.shared(uploadConfig.getMaxBufferedBytes()));
+    }
+
+    /**
+     * @param s3 Connection to S3
+     * @param bucketName Bucket to use
+     * @param executorService Multipart sending threadpool (file chunks are sent in parrallel)
+     * @param uploadConfig Part size and memory limits of multipart upload
+     * @param uploadMemoryBudget Memory budget shared with other storage services of this node
+     */
+    public S3StorageService(AmazonS3 s3, String bucketName, ExecutorService executorService,
+                            MultipartUploadConfig uploadConfig, UploadMemoryBudget uploadMemoryBudget) {
+        this(s3, bucketName, executorService, uploadConfig, uploadMemoryBudget, PartitionedListingConfig.defaults());
+    }
+
+    /**
+     * @param s3 Connection to S3
+     * @param bucketName Bucket to use
+     * @param executorService Multipart sending threadpool (file chunks are sent in parrallel), also lists
+     *                        key range shards in parallel
+     * @param uploadConfig Part size and memory limits of multipart upload
+     * @param uploadMemoryBudget Memory budget shared with other storage services of this node
+     * @param listingConfig Whether listing is split into key range shards listed in parallel
+     */
+    public S3StorageService(AmazonS3 s3, String bucketName, ExecutorService executorService,
+                            MultipartUploadConfig uploadConfig, UploadMemoryBudget uploadMemoryBudget,
+                            PartitionedListingConfig listingConfig) {
+        uploadConfig.validate();
+        listingConfig.validate();
         this.s3 = s3;
         this.bucketName = bucketName;
         this.executorService = executorService;
+        this.uploadConfig = uploadConfig;
+        this.partBufferPool = uploadMemoryBudget.bufferPool(
+                uploadConfig.getPartSize(),
+                uploadConfig.getMaxPooledBuffers(),
+                uploadConfig.isDirectBuffers()
+        );
+        this.multipartCopy = new MultipartCopy(s3, bucketName, executorService);
+        this.partitionedListing = listingConfig.isPartitioned()
+                ? new PartitionedS3Listing(s3, bucketName, executorService, listingConfig)
+                : null;
     }
 
     /**
      * Lists all resources within bucket and returns absolute resource location for each entry without credentials.
+     * If {@link PartitionedListingConfig} allows, key range is split into shards that are listed in parallel.
      */
     @Override
     public Stream<AbsoluteLocation<ResolvedResource>> list(AbsoluteLocation location) {
         log.debug("List at {}", Obfuscate.secure(location));
         String prefix = location.location().getPath().replaceFirst("^/", "");
 
-        S3Objects s3ObjectSummaries = S3Objects.withPrefix(s3, bucketName, prefix);
-        Stream<S3ObjectSummary> objectStream = StreamSupport.stream(s3ObjectSummaries.spliterator(), false);
+        Stream<S3ObjectSummary> objectStream = null != partitionedListing
+                ? partitionedListing.list(prefix)
+                : StreamSupport.stream(S3Objects.withPrefix(s3, bucketName, prefix).spliterator(), false);
         return objectStream
                 .map(os -> new AbsoluteLocation<>(
                         new BaseResolvedResource(
@@ -58,6 +143,92 @@ public class S3StorageService implements StorageService {
                 );
     }
 
+    /**
+     * Lists single directory level using {@code /} delimiter, common prefixes are returned as subdirectories.
+     */
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallow(AbsoluteLocation location) {
+        log.debug("List directory at {}", Obfuscate.secure(location));
+        String path = location.location().getPath().replaceFirst("^/", "");
+        String prefix = path.isEmpty() || path.endsWith("/") ? path : path + "/";
+
+        return pages(() -> new ListObjectsV2Request().withPrefix(prefix).withDelimiter("/"))
+                .flatMap(page -> Stream.concat(
+                        page.getCommonPrefixes().stream()
+                                .map(it -> new AbsoluteLocation<ResolvedResource>(new BaseResolvedResource(
+                                        createResource(location, it, prefix.length()), null))
+                                ),
+                        page.getObjectSummaries().stream()
+                                .filter(it -> !it.getKey().equals(prefix))
+                                .map(it -> new AbsoluteLocation<ResolvedResource>(new BaseResolvedResource(
+                                        createResource(location, it.getKey(), prefix.length()),
+                                        it.getLastModified().toInstant()))
+                                )
+                ));
+    }
+
+    /**
+     * Lists objects in key order starting after given key, requests only as many objects as needed for the page.
+     */
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listPage(AbsoluteLocation location, Uri startAfter,
+                                                               int limit) {
+        log.debug("List page at {}", Obfuscate.secure(location));
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        String prefix = location.location().getPath().replaceFirst("^/", "");
+        String startAfterKey = null == startAfter ? null : startAfter.getPath().replaceFirst("^/", "");
+
+        return pages(() -> new ListObjectsV2Request()
+                .withPrefix(prefix)
+                .withStartAfter(startAfterKey)
+                .withMaxKeys(Math.min(limit, MAX_KEYS_PER_LIST))
+        )
+                .flatMap(page -> page.getObjectSummaries().stream())
+                .limit(limit)
+                .map(os -> new AbsoluteLocation<>(
+                        new BaseResolvedResource(
+                                createResource(location, os, prefix.length()),
+                                os.getLastModified().toInstant()
+                        ))
+                );
+    }
+
+    /**
+     * Lists directory level in key order using {@code /} delimiter starting after given key, requests only as
+     * many entries as needed for the page. Subdirectory that starts the page is listed again by S3 as common
+     * prefix of keys that follow it, so it is skipped.
+     */
+    @Override
+    public Stream<AbsoluteLocation<ResolvedResource>> listShallowPage(AbsoluteLocation location, Uri startAfter,
+                                                                      int limit) {
+        log.debug("List directory page at {}", Obfuscate.secure(location));
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        String path = location.location().getPath().replaceFirst("^/", "");
+        String prefix = path.isEmpty() || path.endsWith("/") ? path : path + "/";
+        String startAfterKey = null == startAfter ? null : startAfter.getPath().replaceFirst("^/", "");
+
+        return pages(() -> new ListObjectsV2Request()
+                .withPrefix(prefix)
+                .withDelimiter("/")
+                .withStartAfter(startAfterKey)
+                .withMaxKeys(Math.min(limit + 1, MAX_KEYS_PER_LIST))
+        )
+                .flatMap(this::keysInOrder)
+                .filter(it -> !it.getKey().equals(prefix))
+                .filter(it -> null == startAfterKey || it.getKey().compareTo(startAfterKey) > 0)
+                .limit(limit)
+                .map(it -> new AbsoluteLocation<ResolvedResource>(new BaseResolvedResource(
+                        createResource(location, it.getKey(), prefix.length()),
+                        null == it.getValue() ? null : it.getValue().toInstant()))
+                );
+    }
+
     @Override
     public InputStream read(AbsoluteLocation location) {
         String key = location.location().getPath().replaceFirst("^/", "");
@@ -67,10 +238,48 @@ public class S3StorageService implements StorageService {
         return fullObject.getObjectContent();
     }
 
+    /**
+     * Reads only requested part of the object using HTTP Range header.
+     */
+    @Override
+    public InputStream read(AbsoluteLocation location, ByteRange range) {
+        String key = location.location().getPath().replaceFirst("^/", "");
+        log.debug("Read range from {}", Obfuscate.secure(key));
+        if (range.isBounded() && 0 == range.getLength()) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        GetObjectRequest getObjectRequest = new GetObjectRequest(bucketName, key);
+        if (range.isBounded()) {
+            getObjectRequest.setRange(range.getOffset(), range.lastInclusive());
+        } else {
+            getObjectRequest.setRange(range.getOffset());
+        }
+
+        try {
+            return s3.getObject(getObjectRequest).getObjectContent();
+        } catch (AmazonS3Exception ex) {
+            // same as filesystem - range that starts past the end of the object is empty
+            if (RANGE_NOT_SATISFIABLE == ex.getStatusCode()) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            throw ex;
+        }
+    }
+
     @Override
     public OutputStream write(AbsoluteLocation location) {
         log.debug("Write data by path: {}", Obfuscate.secure(location.location()));
-        return new MultipartUploadS3StorageOutputStream(bucketName, location.getResource(), s3, executorService);
+        return new MultipartUploadS3StorageOutputStream(
+                bucketName,
+                location.getResource(),
+                s3,
+                executorService,
+                partBufferPool,
+                uploadConfig.getMaxInFlightPartsPerStream(),
+                uploadConfig.getMemoryBudgetTimeout()
+        );
     }
 
     @Override
@@ -81,6 +290,66 @@ public class S3StorageService implements StorageService {
         s3.deleteObject(bucketName, key);
     }
 
+    /**
+     * Removes objects using multi-object delete requests of up to 1000 keys, several requests are sent in parallel
+     * using multipart sending threadpool.
+     */
+    @Override
+    @SneakyThrows
+    public void removeAll(Stream<? extends AbsoluteLocation> locations) {
+        Deque<Future<?>> inFlight = new ArrayDeque<>();
+        List<KeyVersion> page = new ArrayList<>(MAX_KEYS_PER_DELETE);
+        try {
+            Iterator<? extends AbsoluteLocation> iterator = locations.iterator();
+            while (iterator.hasNext()) {
+                page.add(new KeyVersion(objectKey(iterator.next())));
+                if (page.size() == MAX_KEYS_PER_DELETE) {
+                    submitDelete(inFlight, page);
+                    page = new ArrayList<>(MAX_KEYS_PER_DELETE);
+                }
+            }
+
+            if (!page.isEmpty()) {
+                submitDelete(inFlight, page);
+            }
+
+            while (!inFlight.isEmpty()) {
+                awaitDelete(inFlight.pollFirst());
+            }
+        } finally {
+            inFlight.forEach(it -> it.cancel(true));
+        }
+    }
+
+    /**
+     * Copies object on S3 side, objects larger than 5GB are copied by parts in parallel using multipart sending
+     * threadpool.
+     */
+    @Override
+    public void copy(AbsoluteLocation source, AbsoluteLocation target) {
+        String sourceKey = objectKey(source);
+        String targetKey = objectKey(target);
+        if (sourceKey.equals(targetKey)) {
+            return;
+        }
+
+        log.debug("Copy {} to {}", Obfuscate.secure(sourceKey), Obfuscate.secure(targetKey));
+        multipartCopy.copy(sourceKey, targetKey);
+    }
+
+    /**
+     * S3 has no rename, so object is copied on S3 side and source is removed.
+     */
+    @Override
+    public void move(AbsoluteLocation source, AbsoluteLocation target) {
+        if (objectKey(source).equals(objectKey(target))) {
+            return;
+        }
+
+        copy(source, target);
+        remove(source);
+    }
+
     @Override
     public boolean objectExists(AbsoluteLocation location) {
         String path = location.location().getPath();
@@ -90,12 +359,88 @@ public class S3StorageService implements StorageService {
         return pathExists;
     }
 
+    private void submitDelete(Deque<Future<?>> inFlight, List<KeyVersion> keys) throws Exception {
+        if (inFlight.size() >= MAX_DELETES_IN_FLIGHT) {
+            awaitDelete(inFlight.pollFirst());
+        }
+
+        log.debug("Remove {} objects", keys.size());
+        DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName).withKeys(keys).withQuiet(true);
+        inFlight.addLast(executorService.submit(() -> s3.deleteObjects(request)));
+    }
+
+    private static void awaitDelete(Future<?> delete) throws Exception {
+        try {
+            delete.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+        }
+    }
+
+    private static String objectKey(AbsoluteLocation location) {
+        return location.location().getPath().replaceFirst("^/", "").replaceFirst("/$", "");
+    }
+
     private PrivateResource createResource(AbsoluteLocation root, S3ObjectSummary os, int prefixLen) {
-        String relUrl = os.getKey().substring(prefixLen).replaceFirst("^/", "");
+        return createResource(root, os.getKey(), prefixLen);
+    }
+
+    private PrivateResource createResource(AbsoluteLocation root, String key, int prefixLen) {
+        String relUrl = key.substring(prefixLen).replaceFirst("^/", "");
         if ("".equals(relUrl)) {
             return BasePrivateResource.forPrivate(root.location());
         }
 
         return BasePrivateResource.forPrivate(relUrl).resolveFrom(root);
     }
+
+    /**
+     * Merges common prefixes (with unknown modification time) and objects of the listing page in key order.
+     */
+    private Stream<Map.Entry<String, Date>> keysInOrder(ListObjectsV2Result page) {
+        Stream<Map.Entry<String, Date>> prefixes = page.getCommonPrefixes().stream()
+                .map(it -> new SimpleEntry<>(it, null));
+        Stream<Map.Entry<String, Date>> objects = page.getObjectSummaries().stream()
+                .map(it -> new SimpleEntry<>(it.getKey(), it.getLastModified()));
+
+        return Stream.concat(prefixes, objects).sorted(Map.Entry.comparingByKey());
+    }
+
+    private Stream<ListObjectsV2Result> pages(Supplier<ListObjectsV2Request> request) {
+        Iterator<ListObjectsV2Result> pages = new ObjectPages(request);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Lazily requests next page of listing.
+     */
+    private class ObjectPages implements Iterator<ListObjectsV2Result> {
+
+        private final Supplier<ListObjectsV2Request> request;
+        private ListObjectsV2Result last;
+
+        private ObjectPages(Supplier<ListObjectsV2Request> request) {
+            this.request = request;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return null == last || last.isTruncated();
+        }
+
+        @Override
+        public ListObjectsV2Result next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            ListObjectsV2Request nextPage = request.get().withBucketName(bucketName);
+            if (null != last) {
+                nextPage.setContinuationToken(last.getNextContinuationToken());
+            }
+
+            last = s3.listObjectsV2(nextPage);
+            return last;
+        }
+    }
 }
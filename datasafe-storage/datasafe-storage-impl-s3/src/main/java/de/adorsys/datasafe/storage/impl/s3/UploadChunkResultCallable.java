@@ -26,7 +26,7 @@ import com.amazonaws.services.s3.model.UploadPartRequest;
 import com.amazonaws.services.s3.model.UploadPartResult;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 import java.util.concurrent.Callable;
 
 @Slf4j
@@ -46,7 +46,7 @@ public class UploadChunkResultCallable implements Callable<UploadPartResult> {
 
     private final String chunkId;
 
-    private byte[] content;
+    private ByteBuffer content;
 
     UploadChunkResultCallable(ChunkUploadRequest request) {
         this.amazonS3 = request.getAmazonS3();
@@ -68,7 +68,7 @@ public class UploadChunkResultCallable implements Callable<UploadPartResult> {
             return amazonS3.uploadPart(new UploadPartRequest()
                     .withBucketName(bucketName).withKey(fileName)
                     .withUploadId(chunkId)
-                    .withInputStream(new ByteArrayInputStream(content))
+                    .withInputStream(new ByteBufferInputStream(content))
                     .withPartNumber(partNumber).withLastPart(last)
                     .withPartSize(contentLength)
             );
@@ -0,0 +1,226 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.Getter;
+import lombok.Value;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-wide limit of memory occupied by multipart upload part buffers - buffered, in-flight and idle ones.
+ * Part buffers are obtained from {@link PartBufferPool} owned by this budget, each buffer is admitted as a whole
+ * before it is allocated, writers that exceed the budget block in FIFO order until some part upload completes.
+ * Idle pooled buffers stay admitted and are given back when some writer would have to wait.
+ * {@link S3StorageService} instances created without explicit budget share {@link UploadMemoryBudget#shared(long)}
+ * one, so that memory of whole node is limited.
+ */
+public class UploadMemoryBudget {
+
+    private static final int UNIT = 1024;
+
+    private static final Map<Long, UploadMemoryBudget> SHARED = new ConcurrentHashMap<>();
+
+    @Getter
+    private final long budgetBytes;
+
+    private final int budgetUnits;
+    private final Semaphore units;
+
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong peakUsedBytes = new AtomicLong();
+    private final AtomicLong admissions = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    private final Map<PoolKey, PartBufferPool> pools = new ConcurrentHashMap<>();
+
+    // writers that are about to wait or are waiting, idle buffers are not retained while there are any
+    private final AtomicInteger waitingWriters = new AtomicInteger();
+
+    /**
+     * @param budgetBytes Maximum bytes that can be buffered or in-flight at the same time
+     */
+    public UploadMemoryBudget(long budgetBytes) {
+        if (budgetBytes < UNIT) {
+            throw new IllegalArgumentException("Upload memory budget must be at least " + UNIT + " bytes");
+        }
+
+        this.budgetUnits = (int) Math.min(Integer.MAX_VALUE, budgetBytes / UNIT);
+        this.budgetBytes = (long) budgetUnits * UNIT;
+        this.units = new Semaphore(budgetUnits, true);
+    }
+
+    /**
+     * @param budgetBytes Maximum bytes that can be buffered or in-flight at the same time
+     * @return Budget instance that is shared by all callers asking for the same limit.
+     */
+    public static UploadMemoryBudget shared(long budgetBytes) {
+        return SHARED.computeIfAbsent(budgetBytes, UploadMemoryBudget::new);
+    }
+
+    /**
+     * @param bufferSize Capacity of each buffer
+     * @param maxPooled How many free buffers to retain, used only when pool is created
+     * @param direct Allocate off-heap buffers
+     * @return Pool of part buffers that are admitted by this budget, same for same buffer size and kind.
+     */
+    PartBufferPool bufferPool(int bufferSize, int maxPooled, boolean direct) {
+        return pools.computeIfAbsent(
+                new PoolKey(bufferSize, direct),
+                key -> new PartBufferPool(bufferSize, maxPooled, direct, this)
+        );
+    }
+
+    /**
+     * Blocks until {@code bytes} can be admitted. Requests larger than the whole budget are capped to it, so that
+     * they proceed once nothing else is in-flight.
+     * @param bytes Amount of memory to reserve
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    public void acquire(int bytes) throws InterruptedIOException {
+        tryAcquire(bytes, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Same as {@link UploadMemoryBudget#acquire(int)}, but gives up waiting after {@code timeout}.
+     * @param bytes Amount of memory to reserve
+     * @param timeout Maximum time to wait for the budget
+     * @param unit Unit of {@code timeout}
+     * @return true if memory was reserved, false if timeout elapsed
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    public boolean tryAcquire(int bytes, long timeout, TimeUnit unit) throws InterruptedIOException {
+        int toAcquire = toUnits(bytes);
+        try {
+            // timed tryAcquire honors fairness, so it won't overtake writers that are already waiting
+            if (!units.tryAcquire(toAcquire, 0, TimeUnit.NANOSECONDS) && !waitFor(toAcquire, timeout, unit)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for upload memory budget");
+        }
+
+        admissions.incrementAndGet();
+        long used = usedBytes.addAndGet((long) toAcquire * UNIT);
+        peakUsedBytes.accumulateAndGet(used, Math::max);
+        return true;
+    }
+
+    /**
+     * Returns memory reserved by {@link UploadMemoryBudget#acquire(int)}.
+     * @param bytes Same amount that was acquired
+     */
+    public void release(int bytes) {
+        int toRelease = toUnits(bytes);
+        usedBytes.addAndGet(-(long) toRelease * UNIT);
+        units.release(toRelease);
+    }
+
+    /**
+     * @return Point-in-time snapshot of budget usage.
+     */
+    public Stats stats() {
+        return new Stats(
+                budgetBytes,
+                usedBytes.get(),
+                pooledBytes(),
+                peakUsedBytes.get(),
+                units.getQueueLength(),
+                admissions.get(),
+                waits.get(),
+                TimeUnit.NANOSECONDS.toMillis(waitNanos.get())
+        );
+    }
+
+    private long pooledBytes() {
+        return pools.values().stream()
+                .mapToLong(it -> (long) it.pooled() * toUnits(it.getBufferSize()) * UNIT)
+                .sum();
+    }
+
+    /**
+     * @return true if some writer waits for the budget, so idle buffers should not be retained
+     */
+    boolean hasWaitingWriters() {
+        return waitingWriters.get() > 0;
+    }
+
+    // buffers pooled after idle ones were released here are released by the pool, as it sees the waiting writer
+    private boolean waitFor(int toAcquire, long timeout, TimeUnit unit) throws InterruptedException {
+        waits.incrementAndGet();
+        waitingWriters.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            pools.values().forEach(PartBufferPool::releaseIdle);
+            return units.tryAcquire(toAcquire, timeout, unit);
+        } finally {
+            waitingWriters.decrementAndGet();
+            waitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private int toUnits(int bytes) {
+        int required = bytes / UNIT + (bytes % UNIT == 0 ? 0 : 1);
+        return Math.max(1, Math.min(required, budgetUnits));
+    }
+
+    /**
+     * Budget usage metrics.
+     */
+    @Value
+    public static class Stats {
+
+        /**
+         * Configured budget.
+         */
+        private final long budgetBytes;
+
+        /**
+         * Currently reserved by buffered, in-flight and idle pooled parts.
+         */
+        private final long usedBytes;
+
+        /**
+         * Part of {@code usedBytes} reserved by idle pooled buffers.
+         */
+        private final long pooledBytes;
+
+        /**
+         * Maximum reserved amount observed.
+         */
+        private final long peakUsedBytes;
+
+        /**
+         * Writers that are currently blocked waiting for the budget (estimate).
+         */
+        private final int waitingWriters;
+
+        /**
+         * Total count of admitted part buffers.
+         */
+        private final long admissions;
+
+        /**
+         * How many admissions had to wait for the budget.
+         */
+        private final long waits;
+
+        /**
+         * Total time writers spent waiting for the budget.
+         */
+        private final long totalWaitMillis;
+    }
+
+    @Value
+    private static class PoolKey {
+
+        private final int bufferSize;
+        private final boolean direct;
+    }
+}
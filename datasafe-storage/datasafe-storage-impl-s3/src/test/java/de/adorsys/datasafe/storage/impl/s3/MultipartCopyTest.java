@@ -0,0 +1,151 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.CopyPartResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MultipartCopyTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final long GB = 1024L * 1024 * 1024;
+
+    @Mock
+    private AmazonS3 s3;
+
+    private ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private MultipartCopy tested;
+
+    @BeforeEach
+    void init() {
+        tested = new MultipartCopy(s3, BUCKET, executor);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void smallObjectIsCopiedAtOnce() {
+        objectSize(GB);
+
+        tested.copy("source", "target");
+
+        verify(s3).copyObject(BUCKET, "source", BUCKET, "target");
+        verify(s3, never()).initiateMultipartUpload(any());
+    }
+
+    @Test
+    void largeObjectIsCopiedByParts() {
+        objectSize(6 * GB);
+        when(s3.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(upload());
+        when(s3.copyPart(any(CopyPartRequest.class))).thenAnswer(inv -> {
+            CopyPartRequest request = inv.getArgument(0);
+            CopyPartResult result = new CopyPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag" + request.getPartNumber());
+            return result;
+        });
+
+        tested.copy("source", "target");
+
+        ArgumentCaptor<CopyPartRequest> parts = ArgumentCaptor.forClass(CopyPartRequest.class);
+        verify(s3, times(12)).copyPart(parts.capture());
+        assertThat(parts.getAllValues()).extracting(CopyPartRequest::getLastByte).contains(6 * GB - 1);
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3).completeMultipartUpload(complete.capture());
+        assertThat(complete.getValue().getPartETags()).extracting(PartETag::getPartNumber)
+                .containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+        verify(s3, never()).copyObject(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void failedPartAbortsUpload() {
+        objectSize(6 * GB);
+        when(s3.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(upload());
+        when(s3.copyPart(any(CopyPartRequest.class))).thenThrow(new IllegalStateException("failed"));
+
+        assertThatThrownBy(() -> tested.copy("source", "target")).isInstanceOf(IllegalStateException.class);
+
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3, never()).completeMultipartUpload(any());
+    }
+
+    @Test
+    void failedPartAbortsUploadAfterInFlightPartsFinish() {
+        objectSize(6 * GB);
+        when(s3.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(upload());
+        AtomicInteger running = new AtomicInteger();
+        when(s3.copyPart(any(CopyPartRequest.class))).thenAnswer(inv -> {
+            CopyPartRequest request = inv.getArgument(0);
+            if (1 == request.getPartNumber()) {
+                throw new IllegalStateException("failed");
+            }
+
+            running.incrementAndGet();
+            Thread.sleep(300);
+            running.decrementAndGet();
+            return new CopyPartResult();
+        });
+        AtomicInteger runningOnAbort = new AtomicInteger(-1);
+        doAnswer(inv -> {
+            runningOnAbort.set(running.get());
+            return null;
+        }).when(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+
+        assertThatThrownBy(() -> tested.copy("source", "target")).isInstanceOf(IllegalStateException.class);
+
+        assertThat(runningOnAbort.get()).isZero();
+    }
+
+    @Test
+    void copyToItselfDoesNothing() {
+        S3StorageService storage = new S3StorageService(s3, BUCKET, executor);
+        AbsoluteLocation<PrivateResource> location = new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(new Uri("s3://" + BUCKET + "/source"))
+        );
+
+        storage.copy(location, location);
+
+        verifyZeroInteractions(s3);
+    }
+
+    private void objectSize(long size) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(size);
+        when(s3.getObjectMetadata(BUCKET, "source")).thenReturn(metadata);
+    }
+
+    private static InitiateMultipartUploadResult upload() {
+        InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+        result.setUploadId("upload");
+        return result;
+    }
+}
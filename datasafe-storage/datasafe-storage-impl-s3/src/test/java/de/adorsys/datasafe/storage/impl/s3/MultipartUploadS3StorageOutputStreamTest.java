@@ -0,0 +1,329 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.amazonaws.util.IOUtils;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MultipartUploadS3StorageOutputStreamTest extends BaseMockitoTest {
+
+    private static final int PART_SIZE = 16;
+    private static final String BUCKET = "bucket";
+    private static final String UPLOAD_ID = "upload";
+
+    private final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+
+    @Mock
+    private AmazonS3 amazonS3;
+
+    private ExecutorService executorService;
+    private PartBufferPool bufferPool;
+    private UploadMemoryBudget memoryBudget;
+
+    @BeforeEach
+    void init() {
+        executorService = Executors.newFixedThreadPool(4);
+        memoryBudget = new UploadMemoryBudget(1024 * 1024);
+        bufferPool = memoryBudget.bufferPool(PART_SIZE, 4, false);
+
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setBucketName(BUCKET);
+        initiated.setKey("file.txt");
+        initiated.setUploadId(UPLOAD_ID);
+        when(amazonS3.initiateMultipartUpload(any())).thenReturn(initiated);
+        when(amazonS3.uploadPart(any())).thenAnswer(inv -> {
+            UploadPartRequest request = inv.getArgument(0);
+            uploadedParts.put(request.getPartNumber(), IOUtils.toByteArray(request.getInputStream()));
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag-" + request.getPartNumber());
+            return result;
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void smallContentUsesSimpleUpload() {
+        byte[] content = randomBytes(PART_SIZE - 1);
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        when(amazonS3.putObject(eq(BUCKET), eq("file.txt"), any(InputStream.class), any(ObjectMetadata.class)))
+                .thenAnswer(inv -> {
+                    IOUtils.copy(inv.<InputStream>getArgument(2), sent);
+                    return new PutObjectResult();
+                });
+
+        try (OutputStream os = stream(2)) {
+            os.write(content);
+        }
+
+        assertThat(sent.toByteArray()).isEqualTo(content);
+        verify(amazonS3, never()).initiateMultipartUpload(any());
+    }
+
+    @Test
+    @SneakyThrows
+    void largeContentIsSentInOrderedParts() {
+        byte[] content = randomBytes(PART_SIZE * 5 + 3);
+
+        try (OutputStream os = stream(2)) {
+            os.write(content[0]);
+            os.write(content, 1, content.length - 1);
+        }
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(amazonS3).completeMultipartUpload(complete.capture());
+        assertThat(complete.getValue().getPartETags())
+                .extracting(PartETag::getPartNumber)
+                .containsExactly(1, 2, 3, 4, 5, 6);
+
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (int part = 1; part <= 6; part++) {
+            joined.write(uploadedParts.get(part));
+        }
+        assertThat(joined.toByteArray()).isEqualTo(content);
+        assertThat(bufferPool.pooled()).isPositive();
+        assertThat(bufferedBytes()).isZero();
+        // two parts in-flight and one being filled, others reuse pooled buffers
+        assertThat(memoryBudget.stats().getAdmissions()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @SneakyThrows
+    void writerBlocksWhenInFlightLimitIsReached() {
+        CountDownLatch proceed = new CountDownLatch(1);
+        AtomicInteger uploading = new AtomicInteger();
+        AtomicInteger maxUploading = new AtomicInteger();
+        doAnswer(inv -> {
+            maxUploading.accumulateAndGet(uploading.incrementAndGet(), Math::max);
+            proceed.await();
+            uploading.decrementAndGet();
+            return new UploadPartResult();
+        }).when(amazonS3).uploadPart(any());
+
+        OutputStream os = stream(1);
+        Thread writer = new Thread(() -> {
+            try {
+                os.write(randomBytes(PART_SIZE * 3));
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        writer.start();
+        writer.join(500);
+
+        assertThat(writer.isAlive()).isTrue();
+        proceed.countDown();
+        writer.join();
+        os.close();
+        assertThat(maxUploading.get()).isEqualTo(1);
+    }
+
+    @Test
+    void failedPartAbortsUpload() {
+        doThrow(new IllegalStateException("Failed")).when(amazonS3).uploadPart(any());
+
+        assertThatThrownBy(() -> {
+            try (OutputStream os = stream(2)) {
+                os.write(randomBytes(PART_SIZE * 2 + 1));
+            }
+        }).isInstanceOf(IOException.class);
+
+        verify(amazonS3).abortMultipartUpload(any());
+        verify(amazonS3, never()).completeMultipartUpload(any());
+        verify(amazonS3, never()).putObject(anyString(), anyString(), any(InputStream.class), any());
+    }
+
+    @Test
+    void failedPartAbortsUploadAfterInFlightPartsFinish() {
+        AtomicInteger running = new AtomicInteger();
+        doAnswer(inv -> {
+            UploadPartRequest request = inv.getArgument(0);
+            if (1 == request.getPartNumber()) {
+                throw new IllegalStateException("Failed");
+            }
+
+            running.incrementAndGet();
+            Thread.sleep(300);
+            running.decrementAndGet();
+            return new UploadPartResult();
+        }).when(amazonS3).uploadPart(any());
+        AtomicInteger runningOnAbort = new AtomicInteger(-1);
+        doAnswer(inv -> {
+            runningOnAbort.set(running.get());
+            return null;
+        }).when(amazonS3).abortMultipartUpload(any());
+
+        assertThatThrownBy(() -> {
+            try (OutputStream os = stream(2)) {
+                os.write(randomBytes(PART_SIZE * 2 + 1));
+            }
+        }).isInstanceOf(IOException.class);
+
+        assertThat(runningOnAbort.get()).isZero();
+        assertThat(bufferedBytes()).isZero();
+    }
+
+    @Test
+    @SneakyThrows
+    void abortDiscardsMultipartUpload() {
+        MultipartUploadS3StorageOutputStream os = stream(2);
+        os.write(randomBytes(PART_SIZE * 2 + 1));
+
+        os.abort();
+        os.close();
+
+        verify(amazonS3).abortMultipartUpload(any());
+        verify(amazonS3, never()).completeMultipartUpload(any());
+        assertThat(bufferedBytes()).isZero();
+        assertThatThrownBy(() -> os.write(1)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @SneakyThrows
+    void abortDiscardsSmallContent() {
+        MultipartUploadS3StorageOutputStream os = stream(2);
+        os.write(randomBytes(PART_SIZE - 1));
+
+        os.abort();
+        os.close();
+
+        verify(amazonS3, never()).putObject(anyString(), anyString(), any(InputStream.class), any());
+        verify(amazonS3, never()).abortMultipartUpload(any());
+        assertThat(bufferedBytes()).isZero();
+    }
+
+    @Test
+    @SneakyThrows
+    void smallContentReservesWholeBuffer() {
+        memoryBudget = new UploadMemoryBudget(MultipartUploadConfig.MIN_PART_SIZE);
+        bufferPool = memoryBudget.bufferPool(MultipartUploadConfig.MIN_PART_SIZE, 1, false);
+
+        try (OutputStream os = stream(2)) {
+            os.write(randomBytes(10));
+            assertThat(memoryBudget.stats().getUsedBytes()).isEqualTo(MultipartUploadConfig.MIN_PART_SIZE);
+        }
+
+        // idle buffer stays reserved by the pool
+        assertThat(memoryBudget.stats().getPooledBytes()).isEqualTo(MultipartUploadConfig.MIN_PART_SIZE);
+
+        assertThat(bufferedBytes()).isZero();
+    }
+
+    @Test
+    @SneakyThrows
+    void concurrentUploadsExceedingBudgetAllComplete() {
+        int partSize = 256 * 1024;
+        int uploads = 16;
+        memoryBudget = new UploadMemoryBudget(4L * partSize);
+        bufferPool = memoryBudget.bufferPool(partSize, uploads, false);
+        ExecutorService writers = Executors.newFixedThreadPool(uploads);
+
+        try {
+            List<Future<?>> written = new ArrayList<>();
+            for (int i = 0; i < uploads; i++) {
+                written.add(writers.submit(() -> {
+                    byte[] chunk = randomBytes(8 * 1024);
+                    try (OutputStream os = stream(2, Duration.ofSeconds(10))) {
+                        for (int sent = 0; sent < partSize * 5 / 2; sent += chunk.length) {
+                            os.write(chunk);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> upload : written) {
+                upload.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        verify(amazonS3, times(uploads)).completeMultipartUpload(any());
+        verify(amazonS3, never()).abortMultipartUpload(any());
+        assertThat(memoryBudget.stats().getPeakUsedBytes()).isLessThanOrEqualTo(memoryBudget.getBudgetBytes());
+        assertThat(bufferedBytes()).isZero();
+    }
+
+    @Test
+    @SneakyThrows
+    void uploadFailsIfMemoryBudgetIsNotAvailable() {
+        memoryBudget = new UploadMemoryBudget(1024);
+        bufferPool = memoryBudget.bufferPool(PART_SIZE, 4, false);
+        memoryBudget.acquire(1024);
+
+        assertThatThrownBy(() -> {
+            try (OutputStream os = stream(2, Duration.ofMillis(100))) {
+                os.write(randomBytes(PART_SIZE));
+            }
+        }).isInstanceOf(IOException.class);
+
+        verify(amazonS3, never()).putObject(anyString(), anyString(), any(InputStream.class), any());
+        verify(amazonS3, never()).completeMultipartUpload(any());
+    }
+
+    private MultipartUploadS3StorageOutputStream stream(int maxInFlight) {
+        return stream(maxInFlight, Duration.ofMinutes(1));
+    }
+
+    private MultipartUploadS3StorageOutputStream stream(int maxInFlight, Duration budgetTimeout) {
+        return new MultipartUploadS3StorageOutputStream(
+                BUCKET,
+                BasePrivateResource.forPrivate("s3://" + BUCKET + "/file.txt"),
+                amazonS3,
+                executorService,
+                bufferPool,
+                maxInFlight,
+                budgetTimeout
+        );
+    }
+
+    // reserved by buffers that are being filled or uploaded
+    private long bufferedBytes() {
+        UploadMemoryBudget.Stats stats = memoryBudget.stats();
+        return stats.getUsedBytes() - stats.getPooledBytes();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,157 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PartitionedS3ListingTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String PREFIX = "user/private/files/";
+
+    @Mock
+    private AmazonS3 s3;
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private NavigableSet<String> keys = new TreeSet<>();
+
+    @BeforeEach
+    void init() {
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(inv -> list(inv.getArgument(0)));
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void listsAllKeysInOrder() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            keys.add(PREFIX + segment(random) + "/" + segment(random));
+        }
+        // keys outside of split alphabet and outside of prefix
+        keys.add(PREFIX + ".hidden");
+        keys.add(PREFIX + "~tilde");
+        keys.add("user/private/other");
+        keys.add("user/public/file");
+
+        List<String> listed = listing(4, 2).list(PREFIX).map(S3ObjectSummary::getKey).collect(Collectors.toList());
+
+        assertThat(listed).containsExactlyElementsOf(keys.subSet(PREFIX, true, PREFIX + Character.MAX_VALUE, true));
+        ArgumentCaptor<ListObjectsV2Request> requests = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        verify(s3, atLeast(64)).listObjectsV2(requests.capture());
+        assertThat(requests.getAllValues()).extracting(ListObjectsV2Request::getStartAfter)
+                .contains(PREFIX + "A", PREFIX + "AA");
+    }
+
+    @Test
+    void smallListingUsesSingleRequest() {
+        keys.add(PREFIX + "first");
+        keys.add(PREFIX + "second");
+
+        assertThat(listing(4, 2).list(PREFIX).map(S3ObjectSummary::getKey))
+                .containsExactly(PREFIX + "first", PREFIX + "second");
+        verify(s3).listObjectsV2(any(ListObjectsV2Request.class));
+    }
+
+    @Test
+    void denseShardIsPagedWithoutSplit() {
+        for (int i = 0; i < 100; i++) {
+            keys.add(PREFIX + String.format("A%03d", i));
+        }
+
+        assertThat(listing(4, 0).list(PREFIX).map(S3ObjectSummary::getKey))
+                .containsExactlyElementsOf(keys);
+    }
+
+    @Test
+    void propagatesFailure() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            keys.add(PREFIX + segment(random));
+        }
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(inv -> {
+            if (calls.incrementAndGet() > 3) {
+                throw new IllegalStateException("failed");
+            }
+            return list(inv.getArgument(0));
+        }).when(s3).listObjectsV2(any(ListObjectsV2Request.class));
+
+        Stream<S3ObjectSummary> listed = listing(2, 2).list(PREFIX);
+
+        assertThatThrownBy(() -> listed.collect(Collectors.toList())).isInstanceOf(IllegalStateException.class);
+    }
+
+    private PartitionedS3Listing listing(int parallelism, int maxSplitDepth) {
+        return new PartitionedS3Listing(s3, BUCKET, executor, PartitionedListingConfig.builder()
+                .parallelism(parallelism)
+                .maxSplitDepth(maxSplitDepth)
+                .pageSize(10)
+                .build()
+        );
+    }
+
+    // continuation token is the last returned key
+    private ListObjectsV2Result list(ListObjectsV2Request request) {
+        String after = null != request.getContinuationToken() ? request.getContinuationToken()
+                : request.getStartAfter();
+        NavigableSet<String> tail = null == after ? keys : keys.tailSet(after, false);
+        List<String> matching = tail.stream()
+                .filter(it -> it.startsWith(request.getPrefix()))
+                .limit(request.getMaxKeys() + 1)
+                .collect(Collectors.toList());
+
+        ListObjectsV2Result result = new ListObjectsV2Result();
+        List<String> page = matching.size() > request.getMaxKeys()
+                ? matching.subList(0, request.getMaxKeys())
+                : matching;
+        page.forEach(key -> {
+            S3ObjectSummary summary = new S3ObjectSummary();
+            summary.setKey(key);
+            result.getObjectSummaries().add(summary);
+        });
+        result.setTruncated(matching.size() > request.getMaxKeys());
+        result.setNextContinuationToken(page.isEmpty() ? null : page.get(page.size() - 1));
+        return result;
+    }
+
+    private static String segment(Random random) {
+        List<Character> chars = new ArrayList<>();
+        for (char c : PartitionedListingConfig.BASE64_URL_ALPHABET.toCharArray()) {
+            chars.add(c);
+        }
+        Collections.shuffle(chars, random);
+        return chars.subList(0, 8).stream().map(String::valueOf).collect(Collectors.joining());
+    }
+}
@@ -0,0 +1,64 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3PagedListingTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+
+    @Mock
+    private AmazonS3 s3;
+
+    @Test
+    void requestsOnlyPageStartingAfterKey() {
+        ListObjectsV2Result page = new ListObjectsV2Result();
+        page.setTruncated(true);
+        page.setNextContinuationToken("next");
+        page.getObjectSummaries().add(summary("dir/b"));
+        page.getObjectSummaries().add(summary("dir/c/d"));
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(page);
+
+        S3StorageService storage = new S3StorageService(s3, BUCKET, mock(ExecutorService.class));
+
+        assertThat(storage.listPage(location("s3://" + BUCKET + "/dir"), new Uri("s3://" + BUCKET + "/dir/a"), 2))
+                .extracting(it -> it.location().toASCIIString())
+                .containsExactly("s3://" + BUCKET + "/dir/b", "s3://" + BUCKET + "/dir/c/d");
+
+        ArgumentCaptor<ListObjectsV2Request> request = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        verify(s3).listObjectsV2(request.capture());
+        assertThat(request.getValue().getPrefix()).isEqualTo("dir");
+        assertThat(request.getValue().getStartAfter()).isEqualTo("dir/a");
+        assertThat(request.getValue().getMaxKeys()).isEqualTo(2);
+    }
+
+    private static S3ObjectSummary summary(String key) {
+        S3ObjectSummary summary = new S3ObjectSummary();
+        summary.setBucketName(BUCKET);
+        summary.setKey(key);
+        summary.setLastModified(new Date());
+        return summary;
+    }
+
+    private static AbsoluteLocation location(String uri) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri(uri)));
+    }
+}
@@ -0,0 +1,102 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import de.adorsys.datasafe.types.api.shared.BaseMockitoTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3ShallowListingTest extends BaseMockitoTest {
+
+    private static final String BUCKET = "bucket";
+
+    @Mock
+    private AmazonS3 s3;
+
+    @Test
+    void listsSubdirectoriesAndFilesPageByPage() {
+        ListObjectsV2Result first = page(true, "next", "dir/sub/");
+        first.getObjectSummaries().add(summary("dir/"));
+        ListObjectsV2Result second = page(false, null, "dir/other/");
+        second.getObjectSummaries().add(summary("dir/file"));
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(first, second);
+
+        S3StorageService storage = new S3StorageService(s3, BUCKET, mock(ExecutorService.class));
+
+        assertThat(storage.listShallow(location("s3://" + BUCKET + "/dir")))
+                .extracting(it -> it.location().toASCIIString(), it -> null == it.getResource().getModifiedAt())
+                .containsExactly(
+                        tuple("s3://" + BUCKET + "/dir/sub/", true),
+                        tuple("s3://" + BUCKET + "/dir/other/", true),
+                        tuple("s3://" + BUCKET + "/dir/file", false)
+                );
+
+        ArgumentCaptor<ListObjectsV2Request> requests = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        verify(s3, times(2)).listObjectsV2(requests.capture());
+        assertThat(requests.getAllValues()).extracting(ListObjectsV2Request::getPrefix).containsOnly("dir/");
+        assertThat(requests.getAllValues()).extracting(ListObjectsV2Request::getDelimiter).containsOnly("/");
+        assertThat(requests.getAllValues()).extracting(ListObjectsV2Request::getContinuationToken)
+                .containsExactly(null, "next");
+    }
+
+    @Test
+    void listsPageOfDirectoryLevelStartingAfterKey() {
+        // subdirectory that starts the page comes back as common prefix of its keys
+        ListObjectsV2Result page = page(true, "next", "dir/b/");
+        page.getCommonPrefixes().add("dir/d/");
+        page.getObjectSummaries().add(summary("dir/c"));
+        when(s3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(page);
+
+        S3StorageService storage = new S3StorageService(s3, BUCKET, mock(ExecutorService.class));
+
+        Uri startAfter = new Uri("s3://" + BUCKET + "/dir/b/");
+        assertThat(storage.listShallowPage(location("s3://" + BUCKET + "/dir"), startAfter, 2))
+                .extracting(it -> it.location().toASCIIString())
+                .containsExactly("s3://" + BUCKET + "/dir/c", "s3://" + BUCKET + "/dir/d/");
+
+        ArgumentCaptor<ListObjectsV2Request> request = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        verify(s3).listObjectsV2(request.capture());
+        assertThat(request.getValue().getPrefix()).isEqualTo("dir/");
+        assertThat(request.getValue().getDelimiter()).isEqualTo("/");
+        assertThat(request.getValue().getStartAfter()).isEqualTo("dir/b/");
+        assertThat(request.getValue().getMaxKeys()).isEqualTo(3);
+    }
+
+    private static ListObjectsV2Result page(boolean truncated, String nextToken, String commonPrefix) {
+        ListObjectsV2Result result = new ListObjectsV2Result();
+        result.setBucketName(BUCKET);
+        result.setTruncated(truncated);
+        result.setNextContinuationToken(nextToken);
+        result.getCommonPrefixes().add(commonPrefix);
+        return result;
+    }
+
+    private static S3ObjectSummary summary(String key) {
+        S3ObjectSummary summary = new S3ObjectSummary();
+        summary.setBucketName(BUCKET);
+        summary.setKey(key);
+        summary.setLastModified(new Date());
+        return summary;
+    }
+
+    private static AbsoluteLocation location(String uri) {
+        return new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri(uri)));
+    }
+}
@@ -18,6 +18,7 @@ import java.io.OutputStream;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -119,6 +120,26 @@ class S3SystemStorageServiceTest extends BaseMockitoTest {
                 );
     }
 
+    @Test
+    void listShallow() {
+        s3.putObject(bucketName, "root.txt", "txt1");
+        s3.putObject(bucketName, "deeper/level1.txt", "txt2");
+        s3.putObject(bucketName, "deeper/more/level2.txt", "txt3");
+        s3.putObject(bucketName, "deeper/more/evenmore/level3.txt", "txt4");
+
+        List<AbsoluteLocation<ResolvedResource>> resources = storageService.listShallow(
+                new AbsoluteLocation<>(BasePrivateResource.forPrivate(new Uri("s3://" + bucketName + "/deeper")))
+        ).collect(Collectors.toList());
+
+        assertThat(resources)
+                .extracting(AbsoluteLocation::location)
+                .extracting(Uri::toASCIIString)
+                .containsExactlyInAnyOrder(
+                        "s3://" + bucketName + "/deeper/level1.txt",
+                        "s3://" + bucketName + "/deeper/more/"
+                );
+    }
+
     @Test
     void listOnNonExisting() {
         assertThat(storageService.list(root)).isEmpty();
@@ -150,6 +171,34 @@ class S3SystemStorageServiceTest extends BaseMockitoTest {
         assertThrows(AmazonS3Exception.class, () -> s3.getObject(bucketName, FILE));
     }
 
+    @Test
+    void removeAll() {
+        createFileWithMessage();
+        s3.putObject(bucketName, "other/" + FILE, MESSAGE);
+
+        storageService.removeAll(Stream.of(fileWithMsg, new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(new Uri("./other/" + FILE)).resolveFrom(root)))
+        );
+
+        assertThat(s3.listObjects(bucketName).getObjectSummaries()).isEmpty();
+    }
+
+    @Test
+    void copyAndMove() {
+        createFileWithMessage();
+        AbsoluteLocation<PrivateResource> copy = new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(new Uri("./copy/" + FILE)).resolveFrom(root));
+        AbsoluteLocation<PrivateResource> moved = new AbsoluteLocation<>(
+                BasePrivateResource.forPrivate(new Uri("./moved/" + FILE)).resolveFrom(root));
+
+        storageService.copy(fileWithMsg, copy);
+        storageService.move(fileWithMsg, moved);
+
+        assertThat(storageService.objectExists(fileWithMsg)).isFalse();
+        assertThat(storageService.read(copy)).hasContent(MESSAGE);
+        assertThat(storageService.read(moved)).hasContent(MESSAGE);
+    }
+
     @SneakyThrows
     private void createFileWithMessage() {
         s3.putObject(bucketName, FILE, MESSAGE);
@@ -0,0 +1,120 @@
+package de.adorsys.datasafe.storage.impl.s3;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadMemoryBudgetTest {
+
+    private static final int KB = 1024;
+
+    private final UploadMemoryBudget budget = new UploadMemoryBudget(4 * KB);
+
+    @Test
+    @SneakyThrows
+    void acquireBlocksUntilReleased() {
+        budget.acquire(3 * KB);
+
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(this::acquireTwoKb);
+        assertThatThrownBy(() -> waiting.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        budget.release(3 * KB);
+        waiting.get(10, TimeUnit.SECONDS);
+
+        UploadMemoryBudget.Stats stats = budget.stats();
+        assertThat(stats.getUsedBytes()).isEqualTo(2 * KB);
+        assertThat(stats.getPeakUsedBytes()).isEqualTo(3 * KB);
+        assertThat(stats.getAdmissions()).isEqualTo(2);
+        assertThat(stats.getWaits()).isEqualTo(1);
+        assertThat(stats.getTotalWaitMillis()).isPositive();
+    }
+
+    @Test
+    @SneakyThrows
+    void requestLargerThanBudgetIsCapped() {
+        budget.acquire(10 * KB);
+
+        assertThat(budget.stats().getUsedBytes()).isEqualTo(4 * KB);
+        budget.release(10 * KB);
+        assertThat(budget.stats().getUsedBytes()).isZero();
+    }
+
+    @Test
+    @SneakyThrows
+    void tryAcquireGivesUpAfterTimeout() {
+        budget.acquire(3 * KB);
+
+        assertThat(budget.tryAcquire(2 * KB, 50, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(budget.stats().getUsedBytes()).isEqualTo(3 * KB);
+        assertThat(budget.tryAcquire(KB, 50, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    void tooSmallBudgetIsRejected() {
+        assertThatThrownBy(() -> new UploadMemoryBudget(KB - 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sharedBudgetIsSameForSameLimit() {
+        assertThat(UploadMemoryBudget.shared(8 * KB)).isSameAs(UploadMemoryBudget.shared(8 * KB));
+        assertThat(UploadMemoryBudget.shared(8 * KB)).isNotSameAs(UploadMemoryBudget.shared(16 * KB));
+    }
+
+    @Test
+    @SneakyThrows
+    void bufferIsAllocatedOnlyWhenAdmitted() {
+        PartBufferPool pool = budget.bufferPool(2 * KB, 4, false);
+
+        assertThat(pool.acquire(Duration.ofMillis(50))).isNotNull();
+        assertThat(pool.acquire(Duration.ofMillis(50))).isNotNull();
+        assertThat(pool.acquire(Duration.ofMillis(50))).isNull();
+        assertThat(budget.stats().getUsedBytes()).isEqualTo(4 * KB);
+    }
+
+    @Test
+    @SneakyThrows
+    void idleBuffersAreCountedAndGivenToWaitingWriter() {
+        PartBufferPool small = budget.bufferPool(2 * KB, 4, false);
+        PartBufferPool large = budget.bufferPool(4 * KB, 4, false);
+        small.release(small.acquire(Duration.ofMillis(50)));
+
+        assertThat(budget.stats().getUsedBytes()).isEqualTo(2 * KB);
+        assertThat(budget.stats().getPooledBytes()).isEqualTo(2 * KB);
+        assertThat(large.acquire(Duration.ofMillis(50))).isNotNull();
+        assertThat(small.pooled()).isZero();
+    }
+
+    @Test
+    @SneakyThrows
+    void bufferIsNotPooledWhileWriterWaits() {
+        PartBufferPool pool = budget.bufferPool(4 * KB, 4, false);
+        ByteBuffer held = pool.acquire(Duration.ofMillis(50));
+
+        CompletableFuture<ByteBuffer> waiting = CompletableFuture.supplyAsync(() -> acquire(pool));
+        while (0 == budget.stats().getWaitingWriters()) {
+            Thread.sleep(10);
+        }
+        pool.release(held);
+
+        assertThat(waiting.get(10, TimeUnit.SECONDS)).isNotNull();
+        assertThat(pool.pooled()).isZero();
+    }
+
+    @SneakyThrows
+    private static ByteBuffer acquire(PartBufferPool pool) {
+        return pool.acquire(Duration.ofSeconds(10));
+    }
+
+    @SneakyThrows
+    private void acquireTwoKb() {
+        budget.acquire(2 * KB);
+    }
+}
@@ -0,0 +1,64 @@
+package de.adorsys.datasafe.types.api.actions;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Range of bytes to read, starting at {@code offset} and spanning {@code length} bytes or till the end of the
+ * resource if length is not specified.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ByteRange {
+
+    private final long offset;
+
+    /**
+     * Amount of bytes to read, null means till the end of the resource.
+     */
+    private final Long length;
+
+    /**
+     * @param offset First byte to read (inclusive)
+     * @return Range that spans from {@code offset} till the end of the resource.
+     */
+    public static ByteRange from(long offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+
+        return new ByteRange(offset, null);
+    }
+
+    /**
+     * @param offset First byte to read (inclusive)
+     * @param length Amount of bytes to read
+     * @return Range that spans {@code length} bytes starting from {@code offset}.
+     */
+    public static ByteRange of(long offset, long length) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Offset and length must not be negative");
+        }
+
+        return new ByteRange(offset, length);
+    }
+
+    /**
+     * @return If range ends before the end of the resource.
+     */
+    public boolean isBounded() {
+        return null != length;
+    }
+
+    /**
+     * @return Position of the last byte within the range (inclusive), only for bounded ranges.
+     */
+    public long lastInclusive() {
+        if (!isBounded()) {
+            throw new IllegalStateException("Range is not bounded");
+        }
+
+        return offset + length - 1;
+    }
+}
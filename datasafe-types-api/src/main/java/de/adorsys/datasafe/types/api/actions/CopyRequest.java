@@ -0,0 +1,45 @@
+package de.adorsys.datasafe.types.api.actions;
+
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.ResourceLocation;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Request to copy or move data from one location to another.
+ * @param <T> Resource owner
+ * @param <L> Resource location
+ */
+@Value
+@Builder(toBuilder = true)
+public class CopyRequest<T, L extends ResourceLocation> {
+
+    @NonNull
+    private final T owner;
+
+    @NonNull
+    private final L source;
+
+    @NonNull
+    private final L target;
+
+    public static <T> CopyRequest<T, PrivateResource> forPrivate(T owner, PrivateResource source,
+                                                                 PrivateResource target) {
+        return new CopyRequest<>(owner, source, target);
+    }
+
+    public static <T> CopyRequest<T, PrivateResource> forDefaultPrivate(T owner, String source, String target) {
+        return forDefaultPrivate(owner, new Uri(source), new Uri(target));
+    }
+
+    public static <T> CopyRequest<T, PrivateResource> forDefaultPrivate(T owner, Uri source, Uri target) {
+        return new CopyRequest<>(
+                owner,
+                BasePrivateResource.forPrivate(source),
+                BasePrivateResource.forPrivate(target)
+        );
+    }
+}
@@ -0,0 +1,52 @@
+package de.adorsys.datasafe.types.api.actions;
+
+import de.adorsys.datasafe.types.api.resource.ResourceLocation;
+import de.adorsys.datasafe.types.api.resource.Uri;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Creates and reads continuation tokens of paged listing. Token wraps physical (encrypted) path of the last listed
+ * resource, so listing can continue right after it even if resources were added or removed in between.
+ */
+public final class ListContinuation {
+
+    private ListContinuation() {
+    }
+
+    /**
+     * @param lastListed Last resource of the page as returned by listing
+     * @return Token to put into {@link ListRequest#getContinuationToken()} of the next page request
+     */
+    public static String after(ResourceLocation<?> lastListed) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                lastListed.location().getWrapped().getRawPath().getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    /**
+     * @param token Continuation token from the previous page
+     * @param listed Absolute location of the listed directory
+     * @return Absolute location after which listing continues
+     * @throws IllegalArgumentException If token is malformed or points outside of listed directory
+     */
+    public static Uri startAfter(String token, ResourceLocation<?> listed) {
+        String path;
+        try {
+            path = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Malformed continuation token", ex);
+        }
+
+        String directory = listed.location().getWrapped().getRawPath();
+        String directoryPrefix = directory.endsWith("/") ? directory : directory + "/";
+        boolean withinDirectory = path.equals(directory) || path.startsWith(directoryPrefix);
+        if (!withinDirectory || Arrays.asList(path.split("/")).contains("..")) {
+            throw new IllegalArgumentException("Continuation token does not belong to listed location");
+        }
+
+        return listed.location().resolve(path);
+    }
+}
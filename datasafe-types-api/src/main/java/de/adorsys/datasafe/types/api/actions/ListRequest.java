@@ -28,6 +28,46 @@ public class ListRequest<T, L extends ResourceLocation> {
     @NonNull
     private final L location;
 
+    /**
+     * If true, listing results may come in any order, which allows emitting them as soon as they are processed.
+     */
+    private final boolean unordered;
+
+    /**
+     * If true, decrypted path of listed private resource is computed only when it is accessed, so that
+     * callers that only count or filter resources by metadata don't pay for path decryption.
+     */
+    private final boolean lazy;
+
+    /**
+     * If true, only direct children of the location are listed - its files and its subdirectories, location of
+     * subdirectory ends with {@code /}. Otherwise, all files within location are listed recursively.
+     */
+    private final boolean shallow;
+
+    /**
+     * Maximum count of resources to list, 0 means no limit. Paged listing returns resources in storage order
+     * of their (encrypted) locations.
+     */
+    private final int pageSize;
+
+    /**
+     * Opaque token that points after the last resource of the previous page, obtained using
+     * {@link ListContinuation#after(ResourceLocation)}; null to list from the beginning.
+     */
+    private final String continuationToken;
+
+    public ListRequest(T owner, L location) {
+        this(owner, location, false, false, false, 0, null);
+    }
+
+    /**
+     * @return True if listing returns limited count of resources.
+     */
+    public boolean isPaged() {
+        return pageSize > 0;
+    }
+
     public static <T> ListRequest<T, PrivateResource> forDefaultPrivate(T owner, URI path) {
         return forDefaultPrivate(owner, new Uri(path));
     }
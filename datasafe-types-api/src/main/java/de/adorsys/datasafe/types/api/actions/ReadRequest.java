@@ -4,6 +4,7 @@ import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
 import de.adorsys.datasafe.types.api.resource.PrivateResource;
 import de.adorsys.datasafe.types.api.resource.ResourceLocation;
 import de.adorsys.datasafe.types.api.resource.Uri;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.Value;
@@ -16,6 +17,7 @@ import java.net.URI;
  * @param <L> Resource location
  */
 @Value
+@AllArgsConstructor
 @Builder(toBuilder = true)
 public class ReadRequest<T, L extends ResourceLocation> {
 
@@ -25,6 +27,15 @@ public class ReadRequest<T, L extends ResourceLocation> {
     @NonNull
     private final L location;
 
+    /**
+     * Optional range of (decrypted) document bytes to read, whole document is read if it is null.
+     */
+    private final ByteRange range;
+
+    public ReadRequest(T owner, L location) {
+        this(owner, location, null);
+    }
+
     public static <T> ReadRequest<T, PrivateResource> forPrivate(T owner, PrivateResource path) {
         return new ReadRequest<>(owner, path);
     }
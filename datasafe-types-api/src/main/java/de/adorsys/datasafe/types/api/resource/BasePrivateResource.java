@@ -1,18 +1,17 @@
 package de.adorsys.datasafe.types.api.resource;
 
 import de.adorsys.datasafe.types.api.utils.Obfuscate;
-import lombok.RequiredArgsConstructor;
 
 import java.net.URI;
+import java.util.function.Supplier;
 
 /**
  * Basic class that represents some private resource path. This private resource path has 3 components:
  * 1. container - some unencrypted path that identifies root location (example: s3 bucket URI)
  * 2. encryptedPath - encrypted path of absolute resource location, so that container + encryptedPath is absolute
  * resource location
- * 3. decryptedPath - decrypted representation of encryptedPath component.
+ * 3. decryptedPath - decrypted representation of encryptedPath component, can be computed lazily on first access.
  */
-@RequiredArgsConstructor
 public class BasePrivateResource implements PrivateResource {
 
     private static final Uri URI_ROOT = new Uri("./");
@@ -20,19 +19,25 @@ public class BasePrivateResource implements PrivateResource {
 
     private final Uri container;
     private final Uri encryptedPath;
-    private final Uri decryptedPath;
+    private final LazyUri decryptedPath;
 
     private BasePrivateResource() {
-        this.container = URI_ROOT;
-        this.decryptedPath = EMPTY_URI;
-        this.encryptedPath = EMPTY_URI;
+        this(URI_ROOT, EMPTY_URI, EMPTY_URI);
     }
 
     // TODO: Hide it
     public BasePrivateResource(Uri containerUri) {
-        this.container = containerUri;
-        this.decryptedPath = EMPTY_URI;
-        this.encryptedPath = EMPTY_URI;
+        this(containerUri, EMPTY_URI, EMPTY_URI);
+    }
+
+    public BasePrivateResource(Uri container, Uri encryptedPath, Uri decryptedPath) {
+        this(container, encryptedPath, new LazyUri(decryptedPath));
+    }
+
+    private BasePrivateResource(Uri container, Uri encryptedPath, LazyUri decryptedPath) {
+        this.container = container;
+        this.encryptedPath = encryptedPath;
+        this.decryptedPath = decryptedPath;
     }
 
     public static PrivateResource forPrivate(String path) {
@@ -66,20 +71,26 @@ public class BasePrivateResource implements PrivateResource {
 
     @Override
     public Uri decryptedPath() {
-        return decryptedPath;
+        return decryptedPath.get();
     }
 
     @Override
     public PrivateResource resolve(Uri encryptedPath, Uri decryptedPath) {
-        if (encryptedPath.isAbsolute()) {
-            throw new IllegalArgumentException("Encrypted path must be relative");
-        }
-
-        if (decryptedPath.isAbsolute()) {
-            throw new IllegalArgumentException("Decrypted path must be relative");
-        }
+        validateEncrypted(encryptedPath);
+        validateDecrypted(decryptedPath);
+        return new BasePrivateResource(
+                resolveContainer(container, encryptedPath), encryptedPath, new LazyUri(decryptedPath)
+        );
+    }
 
-        return new BasePrivateResource(resolveContainer(container, encryptedPath), encryptedPath, decryptedPath);
+    @Override
+    public PrivateResource resolve(Uri encryptedPath, Supplier<Uri> decryptedPath) {
+        validateEncrypted(encryptedPath);
+        return new BasePrivateResource(
+                resolveContainer(container, encryptedPath),
+                encryptedPath,
+                new LazyUri(() -> validateDecrypted(decryptedPath.get()))
+        );
     }
 
     @Override
@@ -111,12 +122,32 @@ public class BasePrivateResource implements PrivateResource {
         return "BasePrivateResource{" +
                 "container=" + Obfuscate.secure(container) +
                 ", encryptedPath=" + Obfuscate.secure(encryptedPath) +
-                ", decryptedPath=" + Obfuscate.secure(decryptedPath) +
+                ", decryptedPath=" + (decryptedPath.isComputed() ? Obfuscate.secure(decryptedPath.get()) : "<lazy>") +
                 '}';
     }
 
+    private static void validateEncrypted(Uri encryptedPath) {
+        if (encryptedPath.isAbsolute()) {
+            throw new IllegalArgumentException("Encrypted path must be relative");
+        }
+    }
+
+    private static Uri validateDecrypted(Uri decryptedPath) {
+        if (decryptedPath.isAbsolute()) {
+            throw new IllegalArgumentException("Decrypted path must be relative");
+        }
+
+        return decryptedPath;
+    }
+
     private static Uri resolveContainer(Uri root, Uri encryptedPath) {
         String pathStr = encryptedPath.toASCIIString();
+        String rootStr = root.toASCIIString();
+
+        // root is the location of resource itself, its path segments may repeat inside container
+        if (!pathStr.isEmpty() && rootStr.endsWith("/" + pathStr)) {
+            return new Uri(rootStr.substring(0, rootStr.length() - pathStr.length()));
+        }
 
         if (pathStr.contains("/")) {
             pathStr = pathStr.split("/", 2)[0];
@@ -126,7 +157,6 @@ public class BasePrivateResource implements PrivateResource {
             return root;
         }
 
-        String rootStr = root.toASCIIString();
         int pos = rootStr.indexOf(pathStr);
 
         if (pos <= 0) {
@@ -135,4 +165,43 @@ public class BasePrivateResource implements PrivateResource {
 
         return new Uri(rootStr.substring(0, pos));
     }
+
+    /**
+     * Decrypted path that is computed once on first access, so that resources that are only counted or filtered
+     * by metadata never get decrypted.
+     */
+    private static class LazyUri implements Supplier<Uri> {
+
+        private volatile Supplier<Uri> compute;
+        private volatile boolean computed;
+        private Uri value;
+
+        private LazyUri(Uri value) {
+            this.value = value;
+            this.computed = true;
+        }
+
+        private LazyUri(Supplier<Uri> compute) {
+            this.compute = compute;
+        }
+
+        @Override
+        public Uri get() {
+            if (!computed) {
+                synchronized (this) {
+                    if (!computed) {
+                        value = compute.get();
+                        computed = true;
+                        compute = null;
+                    }
+                }
+            }
+
+            return value;
+        }
+
+        private boolean isComputed() {
+            return computed;
+        }
+    }
 }
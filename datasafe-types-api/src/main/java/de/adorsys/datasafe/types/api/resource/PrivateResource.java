@@ -1,5 +1,7 @@
 package de.adorsys.datasafe.types.api.resource;
 
+import java.util.function.Supplier;
+
 /**
  * The interface that represents some private resource location relative to some container (resource root).
  * Private resource has an encrypted physical path so that no one can know its path and name when looking
@@ -29,4 +31,12 @@ public interface PrivateResource extends ResourceLocation<PrivateResource> {
      * When calling "s3://bucket/".resolve(file/root, aaa/bbb) result will be located at s3://bucket/aaa/bbb
      */
     PrivateResource resolve(Uri encryptedPath, Uri decryptedPath);
+
+    /**
+     * Same as {@link PrivateResource#resolve(Uri, Uri)}, but decrypted path is computed on first access to it.
+     * @param encryptedPath encrypted URI value, should be used to construct absolute URI.
+     * @param decryptedPath computes decrypted URI value, called at most once
+     * @return new private resource that points to resource identified by encryptedPath
+     */
+    PrivateResource resolve(Uri encryptedPath, Supplier<Uri> decryptedPath);
 }
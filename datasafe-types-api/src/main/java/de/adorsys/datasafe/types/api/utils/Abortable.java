@@ -0,0 +1,60 @@
+package de.adorsys.datasafe.types.api.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that can discard everything written to it instead of committing it on close - i.e. storage
+ * streams that should not leave incomplete resource when its producer fails. Streams that wrap other streams
+ * should pass abort to them.
+ */
+public interface Abortable {
+
+    /**
+     * Discards written data and releases stream resources, subsequent close does nothing.
+     */
+    void abort() throws IOException;
+
+    /**
+     * Aborts stream if it supports that, otherwise closes it to release its resources.
+     */
+    static void abortOrClose(OutputStream stream) throws IOException {
+        if (stream instanceof Abortable) {
+            ((Abortable) stream).abort();
+            return;
+        }
+
+        stream.close();
+    }
+
+    /**
+     * Writes content to the stream and closes it, if writing fails stream is aborted, so that incomplete
+     * content is not committed.
+     * @param stream Stream to write to, it is closed or aborted when this method returns
+     * @param writer Writes content
+     */
+    static void writeAndClose(OutputStream stream, Writer writer) throws IOException {
+        try {
+            writer.write(stream);
+        } catch (IOException | RuntimeException | Error ex) {
+            try {
+                abortOrClose(stream);
+            } catch (IOException | RuntimeException abortEx) {
+                ex.addSuppressed(abortEx);
+            }
+
+            throw ex;
+        }
+
+        stream.close();
+    }
+
+    /**
+     * Writes content to the stream.
+     */
+    @FunctionalInterface
+    interface Writer {
+
+        void write(OutputStream stream) throws IOException;
+    }
+}
@@ -0,0 +1,162 @@
+package de.adorsys.datasafe.types.api.utils;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Maps elements of the (lazy) stream in batches on the executor. While batches are mapped, caller thread keeps
+ * reading the source, so that e.g. fetching next page of storage listing overlaps with processing of the previous
+ * one. Source is read only when resulting stream is consumed and no more than
+ * {@code batchSize * maxBatchesInFlight} elements are read ahead. Reading ahead stops as soon as next batch is
+ * mapped, so that it is emitted without waiting for all batches in flight to be read from source.
+ */
+@Builder
+public class ParallelBatchMapper {
+
+    @NonNull
+    private final ExecutorService executor;
+
+    /**
+     * Elements mapped by single task.
+     */
+    private final int batchSize;
+
+    /**
+     * Maximum count of batches that are read from source but not yet consumed.
+     */
+    private final int maxBatchesInFlight;
+
+    /**
+     * If true, batches are emitted in completion order instead of source order.
+     */
+    private final boolean unordered;
+
+    /**
+     * @param source Stream to map, closed when resulting stream is closed
+     * @param mapper Thread-safe mapping function
+     * @return Lazily mapped stream, closing it cancels batches in progress.
+     */
+    public <T, R> Stream<R> map(Stream<T> source, Function<T, R> mapper) {
+        if (batchSize < 1 || maxBatchesInFlight < 1) {
+            throw new IllegalArgumentException("Batch size and batches in flight must be positive");
+        }
+
+        BatchIterator<T, R> iterator = new BatchIterator<>(source.iterator(), mapper);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, unordered ? 0 : Spliterator.ORDERED),
+                false
+        ).onClose(() -> {
+            iterator.cancel();
+            source.close();
+        });
+    }
+
+    private class BatchIterator<T, R> implements Iterator<R> {
+
+        private final Iterator<T> source;
+        private final Function<T, R> mapper;
+        private final Deque<Future<List<R>>> inFlight = new ArrayDeque<>();
+        private final CompletionService<List<R>> completed = new ExecutorCompletionService<>(executor);
+
+        private Iterator<R> current = Collections.emptyIterator();
+
+        private BatchIterator(Iterator<T> source, Function<T, R> mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                submitBatches();
+                if (inFlight.isEmpty()) {
+                    return false;
+                }
+
+                current = nextBatch().iterator();
+            }
+
+            return true;
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return current.next();
+        }
+
+        // at least one batch replaces the consumed one, more are read ahead only while next batch is not ready
+        private void submitBatches() {
+            boolean submitted = false;
+            while (inFlight.size() < maxBatchesInFlight && !(submitted && nextBatchReady()) && source.hasNext()) {
+                submitted = true;
+                List<T> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && source.hasNext()) {
+                    batch.add(source.next());
+                }
+
+                // only unordered mode consumes completion queue
+                inFlight.addLast(unordered
+                        ? completed.submit(() -> mapBatch(batch))
+                        : executor.submit(() -> mapBatch(batch))
+                );
+            }
+        }
+
+        private boolean nextBatchReady() {
+            return unordered ? inFlight.stream().anyMatch(Future::isDone) : inFlight.getFirst().isDone();
+        }
+
+        private List<R> mapBatch(List<T> batch) {
+            List<R> result = new ArrayList<>(batch.size());
+            for (T element : batch) {
+                result.add(mapper.apply(element));
+            }
+
+            return result;
+        }
+
+        @SneakyThrows
+        private List<R> nextBatch() {
+            try {
+                Future<List<R>> next = unordered ? completed.take() : inFlight.getFirst();
+                inFlight.remove(next);
+                return next.get();
+            } catch (ExecutionException ex) {
+                cancel();
+                throw ex.getCause();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw ex;
+            }
+        }
+
+        private void cancel() {
+            inFlight.forEach(it -> it.cancel(true));
+            inFlight.clear();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package de.adorsys.datasafe.types.api.utils;
+
+import de.adorsys.datasafe.types.api.actions.ByteRange;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Exposes only bytes of {@link ByteRange} from the stream that starts at the beginning of the resource.
+ * Skipping to the range offset happens lazily on first access.
+ */
+public class RangeInputStream extends FilterInputStream {
+
+    private long toSkip;
+    private long remaining;
+
+    /**
+     * @param in Stream of whole resource
+     * @param range Range to expose
+     */
+    public RangeInputStream(InputStream in, ByteRange range) {
+        super(in);
+        this.toSkip = range.getOffset();
+        this.remaining = range.isBounded() ? range.getLength() : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int read() throws IOException {
+        skipToOffset();
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        int result = in.read();
+        if (result != -1) {
+            remaining--;
+        }
+
+        return result;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        skipToOffset();
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        int read = in.read(bytes, off, (int) Math.min(len, remaining));
+        if (read > 0) {
+            remaining -= read;
+        }
+
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        skipToOffset();
+        long skipped = in.skip(Math.min(n, remaining));
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (toSkip > 0) {
+            return 0;
+        }
+
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        // not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("Mark/reset is not supported");
+    }
+
+    private void skipToOffset() throws IOException {
+        while (toSkip > 0) {
+            long skipped = in.skip(toSkip);
+            if (skipped > 0) {
+                toSkip -= skipped;
+                continue;
+            }
+
+            // skip may return 0 before EOF, read to tell EOF apart
+            if (in.read() == -1) {
+                toSkip = 0;
+                remaining = 0;
+                return;
+            }
+
+            toSkip--;
+        }
+    }
+}
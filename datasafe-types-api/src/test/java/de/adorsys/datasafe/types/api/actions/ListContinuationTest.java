@@ -0,0 +1,59 @@
+package de.adorsys.datasafe.types.api.actions;
+
+import de.adorsys.datasafe.types.api.resource.AbsoluteLocation;
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ListContinuationTest {
+
+    private AbsoluteLocation<PrivateResource> directory = location("s3://bucket/users/john/private/files/");
+
+    @Test
+    void startsAfterLastListed() {
+        String token = ListContinuation.after(location("s3://bucket/users/john/private/files/a%20b/c"));
+
+        assertThat(ListContinuation.startAfter(token, directory).toASCIIString())
+                .isEqualTo("s3://bucket/users/john/private/files/a%20b/c");
+    }
+
+    @Test
+    void acceptsDirectoryWithoutTrailingSlash() {
+        String token = ListContinuation.after(location("file:/root/files/a"));
+
+        assertThat(ListContinuation.startAfter(token, location("file:/root/files")).toASCIIString())
+                .isEqualTo("file:/root/files/a");
+    }
+
+    @Test
+    void rejectsTokenOutsideOfDirectory() {
+        Stream.of(
+                "/users/john/private/other",
+                "/users/john/private/files/../../keystore",
+                "/users/john/private/filesX/a"
+        ).forEach(path -> {
+            String token = Base64.getUrlEncoder().encodeToString(path.getBytes(StandardCharsets.UTF_8));
+
+            assertThatThrownBy(() -> ListContinuation.startAfter(token, directory))
+                    .isInstanceOf(IllegalArgumentException.class);
+        });
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        assertThatThrownBy(() -> ListContinuation.startAfter("not base64!", directory))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AbsoluteLocation<PrivateResource> location(String uri) {
+        return BasePrivateResource.forAbsolutePrivate(URI.create(uri));
+    }
+}
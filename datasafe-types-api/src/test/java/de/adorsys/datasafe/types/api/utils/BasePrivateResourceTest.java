@@ -0,0 +1,51 @@
+package de.adorsys.datasafe.types.api.utils;
+
+import de.adorsys.datasafe.types.api.resource.BasePrivateResource;
+import de.adorsys.datasafe.types.api.resource.PrivateResource;
+import de.adorsys.datasafe.types.api.resource.Uri;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BasePrivateResourceTest {
+
+    private final PrivateResource root = BasePrivateResource.forAbsolutePrivate(new Uri("s3://bucket/")).getResource();
+
+    @Test
+    void decryptsLazilyOnce() {
+        AtomicInteger decryptions = new AtomicInteger();
+        PrivateResource resource = root.resolve(new Uri("encrypted"), () -> {
+            decryptions.incrementAndGet();
+            return new Uri("decrypted");
+        });
+
+        assertThat(resource.location().toASCIIString()).isEqualTo("s3://bucket/encrypted");
+        assertThat(resource.toString()).contains("decryptedPath=<lazy>");
+        assertThat(decryptions).hasValue(0);
+
+        assertThat(resource.decryptedPath().toASCIIString()).isEqualTo("decrypted");
+        PrivateResource other = BasePrivateResource.forAbsolutePrivate(new Uri("s3://other/")).getResource();
+        assertThat(resource.resolveFrom(other).decryptedPath().toASCIIString()).isEqualTo("decrypted");
+        assertThat(decryptions).hasValue(1);
+    }
+
+    @Test
+    void validatesLazyDecryptedPathOnAccess() {
+        PrivateResource resource = root.resolve(new Uri("encrypted"), () -> new Uri("s3://absolute"));
+
+        assertThatThrownBy(resource::decryptedPath).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void keepsLocationWhenPathRepeatsContainerSegment() {
+        PrivateResource file = BasePrivateResource.forAbsolutePrivate(new Uri("s3://bucket/users/inbox/inbox/file"))
+                .getResource();
+
+        PrivateResource resolved = file.resolve(new Uri("inbox/file"), new Uri("inbox/file"));
+
+        assertThat(resolved.location().toASCIIString()).isEqualTo("s3://bucket/users/inbox/inbox/file");
+    }
+}
@@ -0,0 +1,118 @@
+package de.adorsys.datasafe.types.api.utils;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelBatchMapperTest {
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void keepsSourceOrder() {
+        List<Integer> result = mapper(false).map(IntStream.range(0, 1000).boxed(), it -> it * 2)
+                .collect(Collectors.toList());
+
+        assertThat(result).containsExactlyElementsOf(
+                IntStream.range(0, 1000).map(it -> it * 2).boxed().collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    void unorderedReturnsAllElements() {
+        List<Integer> result = mapper(true).map(IntStream.range(0, 1000).boxed(), it -> it * 2)
+                .collect(Collectors.toList());
+
+        assertThat(result).containsExactlyInAnyOrderElementsOf(
+                IntStream.range(0, 1000).map(it -> it * 2).boxed().collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    void readsAheadLimitedAmount() {
+        AtomicInteger read = new AtomicInteger();
+        Stream<Integer> source = IntStream.range(0, 1000).boxed().peek(it -> read.incrementAndGet());
+
+        assertThat(mapper(false).map(source, it -> it).findFirst()).contains(0);
+        // at most 3 batches of 10
+        assertThat(read.get()).isBetween(10, 30);
+    }
+
+    @Test
+    void emitsBatchWithoutFillingAllSlots() {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        AtomicInteger read = new AtomicInteger();
+        Stream<Integer> source = IntStream.range(0, 1000).boxed().peek(it -> {
+            read.incrementAndGet();
+            if (it == 10) {
+                // tasks run in submission order, so first batch is mapped once this one completes
+                await(singleThread.submit(() -> {}));
+            }
+        });
+
+        try {
+            assertThat(mapper(singleThread, false).map(source, it -> it).findFirst()).contains(0);
+            // first batch is mapped by the time second is read, so third is not read
+            assertThat(read.get()).isLessThanOrEqualTo(20);
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    @Test
+    void propagatesMapperException() {
+        Stream<Integer> result = mapper(false).map(IntStream.range(0, 100).boxed(), it -> {
+            if (it == 55) {
+                throw new IllegalStateException("Failed");
+            }
+            return it;
+        });
+
+        assertThatThrownBy(() -> result.collect(Collectors.toList())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void closesSource() {
+        AtomicBoolean closed = new AtomicBoolean();
+
+        mapper(false).map(Stream.of(1, 2, 3).onClose(() -> closed.set(true)), it -> it).close();
+
+        assertThat(closed).isTrue();
+    }
+
+    private ParallelBatchMapper mapper(boolean unordered) {
+        return mapper(executor, unordered);
+    }
+
+    private ParallelBatchMapper mapper(ExecutorService executor, boolean unordered) {
+        return ParallelBatchMapper.builder()
+                .executor(executor)
+                .batchSize(10)
+                .maxBatchesInFlight(3)
+                .unordered(unordered)
+                .build();
+    }
+
+    @SneakyThrows
+    private static void await(Future<?> future) {
+        future.get();
+    }
+}
@@ -0,0 +1,58 @@
+package de.adorsys.datasafe.types.api.utils;
+
+import de.adorsys.datasafe.types.api.actions.ByteRange;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangeInputStreamTest {
+
+    private static final byte[] DATA = "0123456789".getBytes();
+
+    @Test
+    void readsBoundedRange() {
+        assertThat(readAll(new RangeInputStream(new ByteArrayInputStream(DATA), ByteRange.of(2, 3))))
+                .isEqualTo("234");
+    }
+
+    @Test
+    void readsTillEnd() {
+        assertThat(readAll(new RangeInputStream(new ByteArrayInputStream(DATA), ByteRange.from(7))))
+                .isEqualTo("789");
+    }
+
+    @Test
+    void truncatesRangePastEnd() {
+        assertThat(readAll(new RangeInputStream(new ByteArrayInputStream(DATA), ByteRange.of(8, 100))))
+                .isEqualTo("89");
+        assertThat(readAll(new RangeInputStream(new ByteArrayInputStream(DATA), ByteRange.from(100))))
+                .isEmpty();
+    }
+
+    @Test
+    @SneakyThrows
+    void singleByteReadsHonorRange() {
+        InputStream is = new RangeInputStream(new ByteArrayInputStream(DATA), ByteRange.of(1, 2));
+
+        assertThat(is.read()).isEqualTo('1');
+        assertThat(is.read()).isEqualTo('2');
+        assertThat(is.read()).isEqualTo(-1);
+    }
+
+    @SneakyThrows
+    private static String readAll(InputStream is) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            os.write(buffer, 0, read);
+        }
+
+        return new String(os.toByteArray());
+    }
+}